@@ -0,0 +1,93 @@
+package xela.chris.barbearia.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import xela.chris.barbearia.FacadeMediator.AgendamentoMediator;
+import xela.chris.barbearia.Gerenciadores.GerenciadorFuncionario;
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.GerenciarCadeira;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.GerenciarServico;
+import xela.chris.barbearia.Tests.GeradorDadosSinteticos;
+import xela.chris.barbearia.log.Log;
+import xela.chris.barbearia.log.NivelLog;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AgendamentoMediator#agendarPorIds(int, int, int, String)} sobre
+ * uma base com 10 mil e 100 mil agendamentos.
+ *
+ * <p>
+ * {@code agendarHorarioLivre} agenda em horários consecutivos a partir de
+ * 30 dias depois do fim da base (validação, reserva e gravação no journal);
+ * a base cresce ao longo da medição, como no uso real.
+ * {@code agendarHorarioOcupado} repete um horário já reservado e mede o
+ * caminho da recusa.
+ * Durante a medição o log só registra avisos (como em um servidor), então
+ * as mensagens do mediador não são montadas nem escritas.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgendamentoBenchmark {
+
+    @Param({"10000", "100000"})
+    public int agendamentos;
+
+    private AgendamentoMediator mediator;
+    private GerenciarAgendamento gerenciarAgendamento;
+    private int primeiroMinutoLivre;
+    private int proximoHorario;
+    private String horarioOcupado;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        new GeradorDadosSinteticos(42).gravarBase(1_000, agendamentos, 0);
+        gerenciarAgendamento = new GerenciarAgendamento();
+        mediator = new AgendamentoMediator(new GerenciarCliente(), new GerenciadorFuncionario(),
+                new GerenciarServico(), gerenciarAgendamento, new GerenciarCadeira());
+
+        String inicio = LocalDate.now().plusDays(30).format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        primeiroMinutoLivre = DataHora.paraMinutos(inicio + " 00:00");
+
+        Log.setNivel(NivelLog.AVISO);
+        horarioOcupado = DataHora.formatar(primeiroMinutoLivre - 24 * 60 + GeradorDadosSinteticos.ABERTURA);
+        mediator.agendarPorIds(1, 1, 1, horarioOcupado);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        Log.setNivel(NivelLog.INFO);
+        gerenciarAgendamento.salvarTodos();
+    }
+
+    @Benchmark
+    public boolean agendarHorarioLivre() {
+        String dataHora = DataHora.formatar(primeiroMinutoLivre + GeradorDadosSinteticos.minutoDoHorario(proximoHorario++));
+        return mediator.agendarPorIds(1, 1, 1, dataHora);
+    }
+
+    @Benchmark
+    public boolean agendarHorarioOcupado() {
+        return mediator.agendarPorIds(2, 1, 1, horarioOcupado);
+    }
+}
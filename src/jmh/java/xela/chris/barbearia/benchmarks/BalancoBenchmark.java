@@ -0,0 +1,74 @@
+package xela.chris.barbearia.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xela.chris.barbearia.Gerenciadores.GerenciadorBalanco;
+import xela.chris.barbearia.Tests.GeradorDadosSinteticos;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GerenciadorBalanco#calcularTotalServicos(String)} sobre uma base
+ * com 10 mil e 100 mil agendamentos terminando hoje: período inteiro, mês
+ * corrente (carregado), mês mais antigo (partição fechada) e um dia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalancoBenchmark {
+
+    @Param({"10000", "100000"})
+    public int agendamentos;
+
+    private GerenciadorBalanco balanco;
+    private String mesCorrente;
+    private String mesFechado;
+    private String dia;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        new GeradorDadosSinteticos(42).gravarBase(1_000, agendamentos, agendamentos / 5);
+        balanco = new GerenciadorBalanco();
+
+        LocalDate hoje = LocalDate.now();
+        mesCorrente = hoje.format(DateTimeFormatter.ofPattern("MM/yyyy"));
+        mesFechado = hoje.minusDays(GeradorDadosSinteticos.diasDaBase(agendamentos) - 1)
+                .format(DateTimeFormatter.ofPattern("MM/yyyy"));
+        dia = hoje.minusDays(1).format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+    }
+
+    @Benchmark
+    public double totalGeral() {
+        return balanco.calcularTotalServicos("");
+    }
+
+    @Benchmark
+    public double mesCorrente() {
+        return balanco.calcularTotalServicos(mesCorrente);
+    }
+
+    @Benchmark
+    public double mesFechado() {
+        return balanco.calcularTotalServicos(mesFechado);
+    }
+
+    @Benchmark
+    public double dia() {
+        return balanco.calcularTotalServicos(dia);
+    }
+}
@@ -0,0 +1,77 @@
+package xela.chris.barbearia.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xela.chris.barbearia.Comparators.ClienteCpfComparators;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.Tests.GeradorDadosSinteticos;
+import xela.chris.barbearia.models.Cliente;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas de cliente do {@link GerenciarCliente}: por ID
+ * ({@code buscarCliente}) e pelo comparador de CPF ({@code findCliente}),
+ * que ordena uma cópia da lista a cada chamada.
+ *
+ * <p>Os clientes procurados vêm de uma sequência sorteada com semente fixa.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClienteBenchmark {
+
+    /** Tamanho da sequência de clientes procurados (potência de 2). */
+    private static final int PROCURAS = 1024;
+
+    @Param({"1000", "100000"})
+    public int clientes;
+
+    private GerenciarCliente gerenciarCliente;
+    private final int[] ids = new int[PROCURAS];
+    private final Cliente[] exemplos = new Cliente[PROCURAS];
+    private final ClienteCpfComparators comparadorCpf = new ClienteCpfComparators();
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        GeradorDadosSinteticos.prepararPasta();
+        List<Cliente> lista = new GeradorDadosSinteticos(42).gerarClientes(clientes);
+        new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId).salvarTodos(lista);
+        gerenciarCliente = new GerenciarCliente();
+
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < PROCURAS; i++) {
+            Cliente cliente = lista.get(aleatorio.nextInt(lista.size()));
+            ids[i] = cliente.getId();
+            exemplos[i] = new Cliente();
+            exemplos[i].setCpf(cliente.getCpf());
+        }
+    }
+
+    @Benchmark
+    public Cliente buscarCliente() {
+        return gerenciarCliente.buscarCliente(ids[proxima++ & (PROCURAS - 1)]);
+    }
+
+    @Benchmark
+    public Cliente findClientePorCpf() {
+        return gerenciarCliente.findCliente(exemplos[proxima++ & (PROCURAS - 1)], comparadorCpf);
+    }
+}
@@ -0,0 +1,83 @@
+package xela.chris.barbearia.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import xela.chris.barbearia.Gerenciadores.FormatoArquivo;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.Tests.GeradorDadosSinteticos;
+import xela.chris.barbearia.models.Cliente;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura e gravação completas de um {@link RepositorioJson} de clientes
+ * com 1 mil, 100 mil e 1 milhão de registros, nos formatos JSON e binário.
+ *
+ * <p>
+ * {@code buscarTodos} é medido sem cache (leitura e conversão do arquivo)
+ * e com cache (conferência do arquivo e cópia da lista). Em
+ * {@code salvarTodos} um registro muda a cada chamada, senão a gravação
+ * seria evitada por não haver alterações.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositorioJsonBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int registros;
+
+    @Param({"json", "binario"})
+    public String formato;
+
+    private RepositorioJson<Cliente> repoSemCache;
+    private RepositorioJson<Cliente> repoComCache;
+    private List<Cliente> clientes;
+    private int gravacao;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        GeradorDadosSinteticos.prepararPasta();
+        clientes = new GeradorDadosSinteticos(42).gerarClientes(registros);
+
+        repoSemCache = new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId);
+        repoSemCache.setFormato(formato.equals("binario") ? FormatoArquivo.BINARIO : FormatoArquivo.JSON_FORMATADO);
+        repoSemCache.salvarTodos(clientes);
+        repoSemCache.setCacheAtivo(false);
+
+        repoComCache = new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId);
+        repoComCache.buscarTodos();
+    }
+
+    @Benchmark
+    public List<Cliente> buscarTodosSemCache() {
+        return repoSemCache.buscarTodos();
+    }
+
+    @Benchmark
+    public List<Cliente> buscarTodosComCache() {
+        return repoComCache.buscarTodos();
+    }
+
+    @Benchmark
+    public long salvarTodos() {
+        clientes.get(0).setTelefone(String.format("319%08d", ++gravacao));
+        repoSemCache.salvarTodos(clientes);
+        return repoSemCache.getGravacoes();
+    }
+}
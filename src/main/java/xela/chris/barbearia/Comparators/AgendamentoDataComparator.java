@@ -1,17 +1,18 @@
 package xela.chris.barbearia.Comparators;
 
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
 import java.util.Comparator;
 
 /**
- * Compara dois objetos {@link Agendamento} com base em suas strings de data e hora
- * ({@code dataHora}) para fins de ordenação.
+ * Compara dois objetos {@link Agendamento} com base em sua data e hora
+ * ({@code dataHora}) para fins de ordenação cronológica.
  *
  * A comparação trata casos nulos, colocando-os antes dos objetos não nulos.
- * A comparação principal é feita lexicograficamente (alfabeticamente)
- * nas strings {@code dataHora}, convertidas para minúsculas para ignorar
- * a diferença entre maiúsculas e minúsculas. Se uma string for um prefixo
- * da outra, a string mais curta é considerada "menor".
+ * A comparação principal usa a chave numérica já calculada em cada
+ * agendamento ({@link Agendamento#getMinutoDataHora()}), de modo que a
+ * ordem respeita ano, mês, dia e hora. Datas inválidas ficam antes das
+ * válidas e são desempatadas pelo texto.
  */
 public class AgendamentoDataComparator implements Comparator<Agendamento> {
 
@@ -23,14 +24,9 @@ public class AgendamentoDataComparator implements Comparator<Agendamento> {
      * Se ambos os agendamentos forem nulos, eles são considerados iguais (retorna 0).
      * Se {@code a1} for nulo, ele é considerado "menor" que {@code a2} (retorna -1).
      * Se {@code a2} for nulo, {@code a1} é considerado "maior" (retorna 1).
-     * Se ambos não forem nulos, suas strings {@code dataHora} são comparadas
-     * lexicograficamente, caractere por caractere, após conversão para minúsculas.
-     * Se as strings diferirem, o resultado da subtração dos primeiros caracteres
-     * diferentes é retornado.
-     * Se uma string for um prefixo da outra (ex: "abc" e "abcd"), a diferença
-     * em seus comprimentos é retornada (a mais curta vem primeiro).
-     *
-     *
+     * Se ambos não forem nulos, seus minutos desde 01/01/1970 são comparados
+     * como inteiros. Se ambos tiverem data inválida, as strings {@code dataHora}
+     * são comparadas como texto.
      *
      * @param a1 o primeiro objeto Agendamento a ser comparado.
      * @param a2 o segundo objeto Agendamento a ser comparado.
@@ -50,20 +46,10 @@ public class AgendamentoDataComparator implements Comparator<Agendamento> {
             return 1;
         }
 
-        String data1 = a1.getDataHora().toLowerCase();
-        String data2 = a2.getDataHora().toLowerCase();
-
-        int len = Math.min(data1.length(), data2.length());
-
-        for (int i = 0; i < len; i++) {
-            char ch1 = data1.charAt(i);
-            char ch2 = data2.charAt(i);
-
-            if (ch1 != ch2) {
-                return ch1 - ch2;
-            }
+        int comparacao = Integer.compare(a1.getMinutoDataHora(), a2.getMinutoDataHora());
+        if (comparacao != 0 || a1.getMinutoDataHora() != DataHora.SEM_DATA) {
+            return comparacao;
         }
-
-        return data1.length() - data2.length();
+        return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(a1.getDataHora(), a2.getDataHora());
     }
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
 import xela.chris.barbearia.Gerenciadores.GerenciarServico;
 import xela.chris.barbearia.Gerenciadores.GerenciarCadeira;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.HorarioDisponivel;
+
+import java.util.List;
 
 /**
  * Fornece uma interface simplificada (Facade) para as operações complexas
@@ -52,6 +55,28 @@ public class AgendamentoFacade {
         this.mediator = new AgendamentoMediator(gc, gf, gs, ga, gca);
     }
 
+    /**
+     * Construtor para injeção de dependência.
+     * Usa gerenciadores já carregados, permitindo que vários componentes
+     * (ex: balcões de atendimento simulados em {@code SimuladorCarga})
+     * compartilhem as mesmas instâncias.
+     *
+     * @param gc  Gerenciador de Clientes.
+     * @param gf  Gerenciador de Funcionários.
+     * @param gs  Gerenciador de Serviços.
+     * @param ga  Gerenciador de Agendamentos.
+     * @param gca Gerenciador de Cadeiras.
+     */
+    public AgendamentoFacade(GerenciarCliente gc, GerenciadorFuncionario gf, GerenciarServico gs,
+                             GerenciarAgendamento ga, GerenciarCadeira gca) {
+        this.gc = gc;
+        this.gf = gf;
+        this.gs = gs;
+        this.ga = ga;
+        this.gca = gca;
+        this.mediator = new AgendamentoMediator(gc, gf, gs, ga, gca);
+    }
+
 
     /**
      * Tenta criar um novo agendamento com base nos IDs fornecidos.
@@ -67,6 +92,36 @@ public class AgendamentoFacade {
         return mediator.agendarPorIds(idCliente, idFuncionario, idServico, dataHora);
     }
 
+    /**
+     * Retorna as primeiras combinações livres de cadeira, funcionário e
+     * horário para um serviço, dentro de uma janela de tempo.
+     * Delega a lógica para {@link AgendamentoMediator#buscarHorariosDisponiveis(int, int, String, String, int)}.
+     *
+     * @param idServico     O ID do serviço desejado.
+     * @param idFuncionario O ID do funcionário desejado, ou {@code 0} para qualquer funcionário.
+     * @param inicio        Início da janela ("dd/MM/yyyy HH:mm").
+     * @param fim           Fim da janela ("dd/MM/yyyy HH:mm").
+     * @param quantidade    Número máximo de combinações.
+     * @return As combinações livres, da mais cedo para a mais tarde.
+     */
+    public List<HorarioDisponivel> buscarProximosHorarios(int idServico, int idFuncionario, String inicio, String fim, int quantidade) {
+        return mediator.buscarHorariosDisponiveis(idServico, idFuncionario, inicio, fim, quantidade);
+    }
+
+    /**
+     * Retorna as primeiras combinações livres para um serviço com qualquer
+     * funcionário.
+     *
+     * @param idServico  O ID do serviço desejado.
+     * @param inicio     Início da janela ("dd/MM/yyyy HH:mm").
+     * @param fim        Fim da janela ("dd/MM/yyyy HH:mm").
+     * @param quantidade Número máximo de combinações.
+     * @return As combinações livres, da mais cedo para a mais tarde.
+     */
+    public List<HorarioDisponivel> buscarProximosHorarios(int idServico, String inicio, String fim, int quantidade) {
+        return buscarProximosHorarios(idServico, 0, inicio, fim, quantidade);
+    }
+
     /**
      * Solicita a persistência (salvamento) de todos os agendamentos.
      * Delega a lógica para {@link AgendamentoMediator#salvarTodosAgendamentos()}.
@@ -9,10 +9,18 @@ import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Funcionario;
 import xela.chris.barbearia.Gerenciadores.GerenciarCadeira;
 import xela.chris.barbearia.enums.TipoCadeira;
+import xela.chris.barbearia.metricas.Contador;
+import xela.chris.barbearia.metricas.EventoAgendamento;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
 import xela.chris.barbearia.models.Cadeira;
 import xela.chris.barbearia.models.Servico;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.HorarioDisponivel;
+import xela.chris.barbearia.log.Log;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,6 +35,10 @@ import java.util.List;
  * verificando a disponibilidade de todos os recursos necessários.
  */
 public class AgendamentoMediator {
+    private static final Log LOG = Log.de(AgendamentoMediator.class);
+    private static final Temporizador TEMPO_AGENDAR = Metricas.padrao().temporizador("agendamentos.agendar");
+    private static final Contador RECUSADOS = Metricas.padrao().contador("agendamentos.agendarRecusados");
+
     private final GerenciarCliente gc;
     private final GerenciadorFuncionario gf;
     private final GerenciarServico gs;
@@ -80,10 +92,12 @@ public class AgendamentoMediator {
      *
      * Este método centraliza a lógica de validação:
      * 1. Busca as entidades (Cliente, Funcionario, Servico) por ID.
-     * 2. Verifica a disponibilidade do funcionário no horário.
+     * 2. Verifica se o funcionário está livre durante toda a duração do serviço.
      * 3. Determina o tipo de cadeira necessária para o serviço.
      * 4. Busca cadeiras disponíveis desse tipo e verifica sua disponibilidade no horário.
-     * 5. Se tudo estiver disponível, cria o {@link Agendamento} e o registra.
+     * 5. Se tudo estiver disponível, cria o {@link Agendamento} e o registra com
+     * {@link GerenciarAgendamento#reservar(Agendamento, int)}, que confirma a
+     * disponibilidade de novo caso outro terminal tenha agendado no meio tempo.
      *
      * @param idC O ID do Cliente.
      * @param idF O ID do Funcionário.
@@ -94,25 +108,56 @@ public class AgendamentoMediator {
      * (dados não encontrados, funcionário ou cadeira indisponível).
      */
     public boolean agendarPorIds(int idC, int idF, int idS, String dataHora) {
+        long inicio = TEMPO_AGENDAR.iniciar();
+        EventoAgendamento evento = new EventoAgendamento();
+        evento.begin();
+        try {
+            boolean agendado = tentarAgendar(idC, idF, idS, dataHora, evento);
+            if (!agendado) {
+                RECUSADOS.incrementar();
+            }
+            return agendado;
+        } finally {
+            TEMPO_AGENDAR.registrarDesde(inicio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.clienteId = idC;
+                evento.funcionarioId = idF;
+                evento.servicoId = idS;
+                evento.dataHora = dataHora;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Validações e reserva de {@link #agendarPorIds(int, int, int, String)}.
+     * Anota no evento do JFR o resultado e as cadeiras verificadas.
+     */
+    private boolean tentarAgendar(int idC, int idF, int idS, String dataHora, EventoAgendamento evento) {
         Cliente cliente = gc.buscarCliente(idC);
         Funcionario funcionario = gf.buscarFuncionario(idF);
         Servico servico = gs.buscarPorId(idS);
 
         if (cliente == null) {
-            System.out.println("Cliente não encontrado (id=" + idC + ")");
+            LOG.info(() -> "Cliente não encontrado (id=" + idC + ")");
+            evento.resultado = "CLIENTE_NAO_ENCONTRADO";
             return false;
         }
         if (funcionario == null) {
-            System.out.println("Funcionário não encontrado (id=" + idF + ")");
+            LOG.info(() -> "Funcionário não encontrado (id=" + idF + ")");
+            evento.resultado = "FUNCIONARIO_NAO_ENCONTRADO";
             return false;
         }
         if (servico == null) {
-            System.out.println("Serviço não encontrado (id=" + idS + ")");
+            LOG.info(() -> "Serviço não encontrado (id=" + idS + ")");
+            evento.resultado = "SERVICO_NAO_ENCONTRADO";
             return false;
         }
 
-        if (!ga.verificarHorarioAgendamento(dataHora, funcionario)) {
-            System.out.println("Funcionário ocupado neste horário: " + dataHora);
+        if (!ga.verificarHorarioAgendamento(dataHora, servico.getDuracaoMinutos(), funcionario)) {
+            LOG.info(() -> "Funcionário ocupado neste horário: " + dataHora);
+            evento.resultado = "FUNCIONARIO_OCUPADO";
             return false;
         }
 
@@ -122,25 +167,81 @@ public class AgendamentoMediator {
         int idCadeiraSelecionada = -1;
 
         for (Cadeira cadeira : cadeirasDisponiveis) {
-            if (ga.verificarDisponibilidadeCadeira(dataHora, cadeira.getId())) {
+            evento.cadeirasVerificadas++;
+            if (ga.verificarDisponibilidadeCadeira(dataHora, servico.getDuracaoMinutos(), cadeira.getId())) {
                 idCadeiraSelecionada = cadeira.getId();
-                System.out.println( cadeira.getNome() + " disponível para agendamento.");
+                LOG.debug(() -> cadeira.getNome() + " disponível para agendamento.");
                 break;
             }
         }
 
         if (idCadeiraSelecionada == -1) {
-            System.out.println("Nenhuma cadeira do tipo " + tipoCadeiraNecessaria + " disponível neste horário.");
+            LOG.info(() -> "Nenhuma cadeira do tipo " + tipoCadeiraNecessaria + " disponível neste horário.");
+            evento.resultado = "SEM_CADEIRA";
             return false;
         }
 
         Agendamento ag = new Agendamento(dataHora, cliente, funcionario, List.of(servico), StatusAtendimentoCliente.AGENDADO, idCadeiraSelecionada);
 
-        ga.criarAgendamento(ag);
-        System.out.println("Agendamento criado pelo Mediator: " + cliente.getNome() + " - " + dataHora);
+        // Outro terminal pode ter ocupado o horário depois das verificações acima.
+        if (!ga.reservar(ag, servico.getDuracaoMinutos())) {
+            LOG.info(() -> "Horário ocupado por outro agendamento enquanto este era criado: " + dataHora);
+            evento.resultado = "HORARIO_OCUPADO_NA_RESERVA";
+            return false;
+        }
+        LOG.info(() -> "Agendamento criado pelo Mediator: " + cliente.getNome() + " - " + dataHora);
+        evento.resultado = "AGENDADO";
         return true;
     }
 
+    /**
+     * Busca os próximos horários livres para um serviço, combinando
+     * funcionários e cadeiras do tipo exigido pelo serviço.
+     *
+     * Usado quando o horário desejado não está disponível: em vez de tentar
+     * outros horários um a um, a recepção recebe as primeiras combinações
+     * livres dentro da janela informada. A validação usa o índice de
+     * horários do {@link GerenciarAgendamento}.
+     *
+     * @param idS        O ID do Serviço.
+     * @param idF        O ID do Funcionário desejado, ou {@code 0} para qualquer funcionário.
+     * @param inicio     Início da janela de busca ("dd/MM/yyyy HH:mm").
+     * @param fim        Fim da janela de busca ("dd/MM/yyyy HH:mm").
+     * @param quantidade Número máximo de combinações retornadas.
+     * @return As combinações livres em ordem cronológica (lista vazia se os
+     * dados forem inválidos ou não houver horário livre).
+     */
+    public List<HorarioDisponivel> buscarHorariosDisponiveis(int idS, int idF, String inicio, String fim, int quantidade) {
+        Servico servico = gs.buscarPorId(idS);
+        if (servico == null) {
+            LOG.info(() -> "Serviço não encontrado (id=" + idS + ")");
+            return new ArrayList<>();
+        }
+
+        List<Funcionario> funcionarios;
+        if (idF > 0) {
+            Funcionario funcionario = gf.buscarFuncionario(idF);
+            if (funcionario == null) {
+                LOG.info(() -> "Funcionário não encontrado (id=" + idF + ")");
+                return new ArrayList<>();
+            }
+            funcionarios = List.of(funcionario);
+        } else {
+            funcionarios = gf.listarFuncionarios();
+        }
+
+        int minutoInicio = DataHora.paraMinutos(inicio);
+        int minutoFim = DataHora.paraMinutos(fim);
+        if (minutoInicio == DataHora.SEM_DATA || minutoFim == DataHora.SEM_DATA) {
+            LOG.info("Janela de busca inválida. Use o formato dd/MM/yyyy HH:mm.");
+            return new ArrayList<>();
+        }
+
+        List<Cadeira> cadeiras = gca.buscarPorTipo(determinarTipoCadeira(List.of(servico)));
+        return ga.buscarHorariosLivres(minutoInicio, minutoFim, servico.getDuracaoMinutos(),
+                funcionarios, cadeiras, quantidade);
+    }
+
     /**
      * Registra um objeto {@link Agendamento} já existente (criado manualmente).
      *
@@ -158,16 +259,16 @@ public class AgendamentoMediator {
      */
     public boolean registrarAgendamento(Agendamento ag) {
         if (ag == null) {
-            System.out.println("Agendamento nulo");
+            LOG.info("Agendamento nulo");
             return false;
         }
         // valida campos mínimos
         if (ag.getCliente() == null || ag.getFuncionario() == null || ag.getServicos() == null) {
-            System.out.println("Agendamento inválido (cliente/funcionario/servicos faltando)");
+            LOG.info("Agendamento inválido (cliente/funcionario/servicos faltando)");
             return false;
         }
-        if (!ga.verificarHorarioAgendamento(ag.getDataHora(), ag.getFuncionario())) {
-            System.out.println("Funcionário ocupado neste horário: " + ag.getDataHora());
+        if (!ga.verificarHorarioAgendamento(ag.getDataHora(), ag.getDuracaoMinutos(), ag.getFuncionario())) {
+            LOG.info(() -> "Funcionário ocupado neste horário: " + ag.getDataHora());
             return false;
         }
 
@@ -178,26 +279,26 @@ public class AgendamentoMediator {
             int idCadeiraSelecionada = -1;
 
             for (Cadeira cadeira : cadeirasDisponiveis) {
-                if (ga.verificarDisponibilidadeCadeira(ag.getDataHora(), cadeira.getId())) {
+                if (ga.verificarDisponibilidadeCadeira(ag.getDataHora(), ag.getDuracaoMinutos(), cadeira.getId())) {
                     idCadeiraSelecionada = cadeira.getId();
                     ag.setIdCadeira(idCadeiraSelecionada);
-                    System.out.println(cadeira.getNome() + " selecionada para agendamento manual.");
+                    LOG.info(() -> cadeira.getNome() + " selecionada para agendamento manual.");
                     break;
                 }
             }
 
             if (idCadeiraSelecionada == -1) {
-                System.out.println("Nenhuma cadeira do tipo " + tipoCadeiraNecessaria + " disponível neste horário para agendamento manual.");
+                LOG.info(() -> "Nenhuma cadeira do tipo " + tipoCadeiraNecessaria + " disponível neste horário para agendamento manual.");
                 return false;
             }
         } else {
             // Se a cadeira foi definida, apenas verifica a disponibilidade
-            if (!ga.verificarDisponibilidadeCadeira(ag.getDataHora(), ag.getIdCadeira())) {
-                System.out.println("Cadeira " + ag.getIdCadeira() + " ocupada neste horário para agendamento manual.");
+            if (!ga.verificarDisponibilidadeCadeira(ag.getDataHora(), ag.getDuracaoMinutos(), ag.getIdCadeira())) {
+                LOG.info(() -> "Cadeira " + ag.getIdCadeira() + " ocupada neste horário para agendamento manual.");
                 return false;
             }
         }
-        System.out.println("Agendamento registrado via registrarAgendamento: " + ag.getCliente().getNome());
+        LOG.info(() -> "Agendamento registrado via registrarAgendamento: " + ag.getCliente().getNome());
         return true;
     }
 
@@ -246,9 +347,9 @@ public class AgendamentoMediator {
     public boolean excluirAgendamento(int idAgendamento) {
         boolean removido = ga.removerPorId(idAgendamento);
         if (removido) {
-            System.out.println("Agendamento removido com sucesso!");
+            LOG.info("Agendamento removido com sucesso!");
         } else {
-            System.out.println("Agendamento não encontrado!");
+            LOG.info("Agendamento não encontrado!");
         }
         return removido;
     }
@@ -264,10 +365,10 @@ public class AgendamentoMediator {
     public Agendamento buscarAgendamento(int idAgendamento) {
         Agendamento achou = ga.buscarPorId(idAgendamento);
         if (achou != null){
-            System.out.println("Agendamento buscado com sucesso!");
+            LOG.info("Agendamento buscado com sucesso!");
             return achou;
         } else {
-            System.out.println("Agendamento nao encontrado!");
+            LOG.info("Agendamento nao encontrado!");
         }
         return achou;
     }
@@ -279,7 +380,7 @@ public class AgendamentoMediator {
      */
     public void salvarTodosAgendamentos(){
         ga.salvarTodos();
-        System.out.println("Agendamentos salvos com sucesso!");
+        LOG.info("Agendamentos salvos com sucesso!");
     }
 
     /**
@@ -123,7 +123,7 @@ public class FilaDeEspera {
     public String toString() {
         return "FilaDeEspera{" +
                 "\ncliente=" + (cliente != null ? cliente : "null") +
-                ",\n servico=" + servicoDesejado.getId() +
+                ",\n servico=" + (servicoDesejado != null ? servicoDesejado.getId() : "null") +
                 ",\n horario=" + horarioData +
                 ",\n status=" + status +
                 '}';
@@ -1,86 +1,158 @@
 package xela.chris.barbearia.FilaDeEspera;
 
-import xela.chris.barbearia.Gerenciadores.RepositorioJson;
-import xela.chris.barbearia.models.Cliente;
+import xela.chris.barbearia.Gerenciadores.RepositorioFila;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gerencia a fila de espera da barbearia, implementando a persistência
- * dos dados em JSON e a lógica básica de manipulação da fila (FIFO).
+ * dos dados e a lógica básica de manipulação da fila (FIFO).
  *
  * Esta classe é responsável por:
  *
- * - Carregar a fila de espera salva em "filaDeEspera.json" ao ser instanciada.
- * - Salvar o estado atual da fila de espera no arquivo JSON.
+ * - Carregar a fila de espera salva ao ser instanciada.
+ * - Salvar o estado atual da fila de espera.
  * - Adicionar novos clientes (entradas {@link FilaDeEspera}) à fila.
  * - Remover clientes da fila seguindo a lógica FIFO (First-In, First-Out).
+ *
+ * A fila fica em memória em um {@link ArrayDeque} e é persistida por um
+ * {@link RepositorioFila}: cada entrada é acrescentada ao log
+ * ({@code filaDeEspera.json.log}) e cada chamada apenas avança a cabeça do
+ * log, então entrar e sair da fila custam O(1) em memória e em disco.
+ *
+ * Entradas e chamadas usam a trava de escrita, de modo que a fila em memória
+ * e o log mudam juntos e dois terminais nunca chamam o mesmo cliente.
+ * Elas também seguram a trava do arquivo: se outra instância da Barbearia
+ * mexeu na fila, a fila em memória é recarregada antes da operação.
  */
 public class GerenciaFilaDeEspera {
-    private RepositorioJson<FilaDeEspera> repo = new RepositorioJson<>(FilaDeEspera.class, "filaDeEspera.json");
-    private List<FilaDeEspera> listaDeEspera = new ArrayList<>();
+    private static final Log LOG = Log.de(GerenciaFilaDeEspera.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("filaDeEspera.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("filaDeEspera.salvar");
+
+    private RepositorioFila<FilaDeEspera> repo = new RepositorioFila<>(FilaDeEspera.class, "filaDeEspera.json");
+    private ArrayDeque<FilaDeEspera> filaDeEspera = new ArrayDeque<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
 
     /**
      * Construtor do Gerenciador da Fila de Espera.
-     * Inicializa a lista de espera interna e chama o método {@link #carregar()}
-     * para popular a lista com dados persistidos do arquivo JSON.
+     * Inicializa a fila interna e chama o método {@link #carregar()}
+     * para popular a fila com dados persistidos.
      */
     public GerenciaFilaDeEspera(){
-        this.listaDeEspera = new ArrayList<FilaDeEspera>();
+        Metricas.padrao().medidor("filaDeEspera.registros", this, g -> g.filaDeEspera.size());
         this.carregar();
     }
 
     /**
-     * Carrega a lista de espera a partir do arquivo "filaDeEspera.json".
-     * Utiliza o {@link RepositorioJson} para buscar todos os registros
-     * e substitui a lista em memória pela lista carregada.
+     * Carrega a fila de espera a partir do log, substituindo a fila em memória
+     * pelas entradas ainda não chamadas. Na primeira execução, o log é criado
+     * a partir de "filaDeEspera.json".
      */
     public void carregar() {
-        listaDeEspera = repo.buscarTodos();
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            filaDeEspera = repo.carregarFila();
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
+        }
     }
 
     /**
-     * Salva o estado atual da {@code listaDeEspera} (em memória) no arquivo
-     * "filaDeEspera.json", utilizando o {@link RepositorioJson}.
+     * Salva o estado atual da fila (em memória), regravando o log apenas
+     * com as entradas pendentes e atualizando "filaDeEspera.json".
      */
     public void salvarFilaDeEspera(){
-        repo.salvarTodos(listaDeEspera);
+        long inicio = TEMPO_SALVAR.iniciar();
+        trava.readLock().lock();
+        try {
+            repo.salvarTodos(new ArrayList<>(filaDeEspera));
+        } finally {
+            trava.readLock().unlock();
+            TEMPO_SALVAR.registrarDesde(inicio);
+        }
     }
 
     /**
-     * Adiciona uma nova entrada {@link FilaDeEspera} ao final da fila.
+     * Adiciona uma nova entrada {@link FilaDeEspera} ao final da fila
+     * e a registra no log.
      *
      * @param fila O objeto {@link FilaDeEspera} (representando o cliente
      * e seu serviço) a ser adicionado.
      */
     public void adicionarClienteNaFila(FilaDeEspera fila){
-        listaDeEspera.add(fila);
+        trava.writeLock().lock();
+        try {
+            repo.executarComTrava(() -> {
+                sincronizar();
+                filaDeEspera.addLast(fila);
+                repo.registrarEntrada(fila);
+                return null;
+            });
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
 
     /**
-     * Remove e retorna o primeiro item da fila de espera (FIFO - First-In, First-Out).
+     * Remove e retorna o primeiro item da fila de espera (FIFO - First-In, First-Out),
+     * avançando a cabeça do log.
      *
      * @return O objeto {@link FilaDeEspera} que estava no início da fila.
      * Retorna {@code null} se a fila estiver vazia.
      */
     public FilaDeEspera buscarComFIFONaLista(){
-        if (listaDeEspera.isEmpty()) {
-            System.out.println("A fila está vazia!");
-            return null;
+        FilaDeEspera proximo;
+        trava.writeLock().lock();
+        try {
+            proximo = repo.executarComTrava(() -> {
+                sincronizar();
+                FilaDeEspera primeiro = filaDeEspera.pollFirst();
+                if (primeiro != null) {
+                    repo.registrarSaida();
+                }
+                return primeiro;
+            });
+        } finally {
+            trava.writeLock().unlock();
         }
+        if (proximo == null) {
+            LOG.info("A fila está vazia!");
+        }
+        return proximo;
+    }
 
-        return listaDeEspera.remove(0);
+    /**
+     * Recarrega a fila em memória se outro terminal alterou o log.
+     * Chamado com a trava de escrita e a trava do arquivo.
+     */
+    private void sincronizar() {
+        if (repo.desatualizado()) {
+            filaDeEspera = repo.carregarFila();
+        }
     }
 
     /**
-     * Retorna a lista completa de espera atual.
+     * Retorna uma cópia da fila de espera atual, na ordem de chamada.
      *
      * @return Uma {@link List} contendo todas as entradas {@link FilaDeEspera}.
      */
     public List<FilaDeEspera> getFilaDeEspera() {
-        return listaDeEspera;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(filaDeEspera);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
-}
\ No newline at end of file
+}
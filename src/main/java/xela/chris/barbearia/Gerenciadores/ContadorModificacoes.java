@@ -0,0 +1,114 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de alterações da lista em memória de um gerenciador.
+ *
+ * <p>
+ * Os gerenciadores registram aqui cada alteração feita pelos seus métodos
+ * e marcam a lista como salva depois de carregá-la ou gravá-la. Assim, um
+ * {@code salvarTodos...} chamado sem nenhuma alteração desde então (ex: ao
+ * sair de um menu) não faz nada. Alterações que já vão direto para o disco
+ * (ex: uma linha de journal) são contadas sem deixar a lista pendente.
+ * </p>
+ *
+ * <p>
+ * Objetos alterados por fora do gerenciador (com os setters do modelo) não
+ * são percebidos: essas alterações devem passar por um método do
+ * gerenciador. Os totais podem ser consultados para monitoramento.
+ * </p>
+ */
+public class ContadorModificacoes {
+
+    private final AtomicLong modificacoes = new AtomicLong();
+    private final AtomicLong naoSalvas = new AtomicLong();
+    private final AtomicLong salvamentos = new AtomicLong();
+    private final AtomicLong salvamentosEvitados = new AtomicLong();
+
+    /**
+     * Registra uma alteração feita apenas na lista em memória.
+     */
+    public void registrar() {
+        modificacoes.incrementAndGet();
+        naoSalvas.incrementAndGet();
+    }
+
+    /**
+     * Registra uma alteração que já foi gravada no arquivo.
+     */
+    public void registrarGravada() {
+        modificacoes.incrementAndGet();
+    }
+
+    /**
+     * Marca a lista como diferente do arquivo sem contar uma alteração
+     * (ex: para regravar os registros no formato atual).
+     */
+    public void marcarPendente() {
+        naoSalvas.incrementAndGet();
+    }
+
+    /**
+     * Indica se a lista precisa ser gravada, contando o salvamento feito ou evitado.
+     *
+     * @return {@code true} se houver alterações não salvas.
+     */
+    public boolean deveSalvar() {
+        if (naoSalvas.get() == 0) {
+            salvamentosEvitados.incrementAndGet();
+            return false;
+        }
+        salvamentos.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Marca a lista em memória como igual à do arquivo (após carregar ou salvar).
+     */
+    public void marcarSalvo() {
+        naoSalvas.set(0);
+    }
+
+    /**
+     * Retorna o total de alterações registradas.
+     *
+     * @return Total de alterações.
+     */
+    public long getModificacoes() {
+        return modificacoes.get();
+    }
+
+    /**
+     * Retorna quantas alterações ainda não foram salvas.
+     *
+     * @return Alterações pendentes.
+     */
+    public long getNaoSalvas() {
+        return naoSalvas.get();
+    }
+
+    /**
+     * Retorna quantos salvamentos foram feitos por haver alterações.
+     *
+     * @return Total de salvamentos.
+     */
+    public long getSalvamentos() {
+        return salvamentos.get();
+    }
+
+    /**
+     * Retorna quantos salvamentos foram ignorados por não haver alterações.
+     *
+     * @return Total de salvamentos evitados.
+     */
+    public long getSalvamentosEvitados() {
+        return salvamentosEvitados.get();
+    }
+
+    @Override
+    public String toString() {
+        return "modificações=" + getModificacoes() + ", não salvas=" + getNaoSalvas()
+                + ", salvamentos=" + getSalvamentos() + ", evitados=" + getSalvamentosEvitados();
+    }
+}
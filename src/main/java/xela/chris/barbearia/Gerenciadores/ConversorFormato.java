@@ -0,0 +1,169 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.models.Cadeira;
+import xela.chris.barbearia.models.Cliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.NotaFiscal;
+import xela.chris.barbearia.models.OrdemDeServico;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.models.RegistroPonto;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.VinculoVendaNota;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Converte arquivos de dados entre os formatos de {@link FormatoArquivo}.
+ *
+ * <p>
+ * Uso: {@code ConversorFormato <json|json-compacto|binario> [arquivo...]}.
+ * Sem arquivos, converte os maiores ({@code agendamentos} e {@code vendas},
+ * com todas as partições mensais, e {@code notasFiscais.json}); sem
+ * argumentos, converte esses três para o formato binário. Para cada arquivo
+ * (ou conjunto de partições) o programa:
+ * </p>
+ * <ol>
+ *     <li>mede o tamanho e o tempo de leitura atuais;</li>
+ *     <li>regrava o conteúdo no formato pedido, com a trava exclusiva do
+ *     arquivo (o journal, se houver, é compactado junto);</li>
+ *     <li>mede o resultado.</li>
+ * </ol>
+ *
+ * <p>
+ * Os registros passam pelos modelos, como nas gravações dos gerenciadores
+ * (arquivos ainda no formato antigo, com objetos embutidos, saem também
+ * com as referências por ID). O nome do arquivo não muda, pois o formato
+ * é reconhecido pelo conteúdo.
+ * Os gerenciadores gravam no formato configurado neles, então um arquivo
+ * convertido para outro formato volta ao formato do gerenciador na próxima
+ * gravação completa.
+ * </p>
+ */
+public class ConversorFormato {
+
+    private static final String[] PADRAO = {"agendamentos", "vendas", "notasFiscais.json"};
+
+    /** Repositórios particionados por mês, como os gerenciadores os criam. */
+    private static final Map<String, Supplier<RepositorioParticionado<?>>> PARTICIONADOS = new LinkedHashMap<>();
+
+    /** Repositórios dos arquivos conhecidos, como os gerenciadores os criam. */
+    private static final Map<String, Supplier<RepositorioJson<?>>> REPOSITORIOS = new LinkedHashMap<>();
+
+    static {
+        PARTICIONADOS.put("agendamentos", GerenciarAgendamento::criarRepositorio);
+        PARTICIONADOS.put("vendas", GerenciarVenda::criarRepositorio);
+        REPOSITORIOS.put("notasFiscais.json",
+                () -> new RepositorioJsonJournal<>(NotaFiscal.class, "notasFiscais.json", NotaFiscal::getId));
+        REPOSITORIOS.put("indiceVendasNotas.json", () -> new RepositorioJsonJournal<>(VinculoVendaNota.class,
+                "indiceVendasNotas.json", VinculoVendaNota::getVendaId));
+        REPOSITORIOS.put("produtos.json",
+                () -> new RepositorioJsonJournal<>(Produto.class, "produtos.json", Produto::getId));
+        REPOSITORIOS.put("clientes.json", () -> new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId));
+        REPOSITORIOS.put("funcionarios.json",
+                () -> new RepositorioJson<>(Funcionario.class, "funcionarios.json", Funcionario::getId));
+        REPOSITORIOS.put("servicos.json", () -> new RepositorioJson<>(Servico.class, "servicos.json", Servico::getId));
+        REPOSITORIOS.put("cadeiras.json", () -> new RepositorioJson<>(Cadeira.class, "cadeiras.json", Cadeira::getId));
+        REPOSITORIOS.put("pontos.json", () -> new RepositorioJson<>(RegistroPonto.class, "pontos.json"));
+        REPOSITORIOS.put("ordensDeServico.json",
+                () -> new RepositorioJson<>(OrdemDeServico.class, "ordensDeServico.json", OrdemDeServico::getId));
+    }
+
+    /** Leituras usadas em cada medição; o menor tempo é considerado. */
+    private static final int RODADAS = 5;
+
+    public static void main(String[] args) {
+        FormatoArquivo formato;
+        try {
+            formato = FormatoArquivo.porNome(args.length > 0 ? args[0] : FormatoArquivo.BINARIO.getNome());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        List<String> arquivos = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : Arrays.asList(PADRAO);
+
+        System.out.println("=== CONVERSÃO PARA O FORMATO " + formato.getNome().toUpperCase() + " ===");
+        System.out.printf("%-24s %12s %12s %14s %14s%n", "Arquivo", "Antes (B)", "Depois (B)", "Leitura antes", "Leitura depois");
+        for (String nome : arquivos) {
+            Supplier<RepositorioParticionado<?>> criarParticionado = PARTICIONADOS.get(nome);
+            if (criarParticionado != null) {
+                converterParticoes(nome, criarParticionado.get(), formato);
+                continue;
+            }
+            Supplier<RepositorioJson<?>> criar = REPOSITORIOS.get(nome);
+            if (criar == null) {
+                System.out.println(nome + ": arquivo desconhecido; use um destes: " + PARTICIONADOS.keySet()
+                        + " " + REPOSITORIOS.keySet());
+                continue;
+            }
+            RepositorioJson<?> repo = criar.get();
+            File arquivo = new File(repo.getCaminhoArquivo());
+            if (!arquivo.exists()) {
+                System.out.println(nome + ": arquivo não encontrado.");
+                continue;
+            }
+            long tamanhoAntes = arquivo.length();
+            double leituraAntes = medirLeitura(repo);
+
+            repo.setFormato(formato);
+            repo.regravar();
+
+            System.out.printf("%-24s %12d %12d %11.2f ms %11.2f ms%n",
+                    nome, tamanhoAntes, arquivo.length(), leituraAntes, medirLeitura(repo));
+        }
+    }
+
+    /**
+     * Converte todas as partições mensais de um repositório, medindo o
+     * conjunto como se fosse um único arquivo.
+     */
+    private static void converterParticoes(String nome, RepositorioParticionado<?> repo, FormatoArquivo formato) {
+        if (repo.listarParticoes().isEmpty()) {
+            System.out.println(nome + ": nenhuma partição encontrada.");
+            return;
+        }
+        long tamanhoAntes = repo.getTamanhoArquivos();
+        double leituraAntes = medirLeitura(repo);
+
+        repo.setFormato(formato);
+        repo.regravar();
+
+        System.out.printf("%-24s %12d %12d %11.2f ms %11.2f ms%n", nome + " (" + repo.listarParticoes().size() + " meses)",
+                tamanhoAntes, repo.getTamanhoArquivos(), leituraAntes, medirLeitura(repo));
+    }
+
+    /**
+     * Mede o menor tempo de leitura completa de todas as partições (sem cache).
+     */
+    private static double medirLeitura(RepositorioParticionado<?> repo) {
+        repo.setCacheAtivo(false);
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < RODADAS; i++) {
+            long inicio = System.nanoTime();
+            repo.buscarTodos();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        repo.setCacheAtivo(true);
+        return melhor / 1_000_000.0;
+    }
+
+    /**
+     * Mede o menor tempo de leitura completa do arquivo (sem cache) em
+     * algumas rodadas, para reduzir a influência do aquecimento da JVM.
+     */
+    private static double medirLeitura(RepositorioJson<?> repo) {
+        repo.setCacheAtivo(false);
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < RODADAS; i++) {
+            long inicio = System.nanoTime();
+            repo.buscarTodos();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        repo.setCacheAtivo(true);
+        return melhor / 1_000_000.0;
+    }
+}
@@ -0,0 +1,29 @@
+package xela.chris.barbearia.Gerenciadores;
+
+/**
+ * Nível de durabilidade das gravações completas de um {@link RepositorioJson}.
+ *
+ * <p>
+ * Em todos os níveis o arquivo novo é escrito em um arquivo temporário e só
+ * então colocado no lugar do atual com uma troca atômica, guardando a versão
+ * anterior ({@code <nomeArquivo>.anterior}). Uma queda do programa no meio da
+ * gravação deixa sempre o arquivo antigo ou o novo, inteiros. Os níveis
+ * diferem em quanto esperam o sistema operacional levar os dados ao disco,
+ * o que só importa em quedas de energia ou do sistema; o custo de cada nível
+ * pode ser medido com {@code Tests.TestDurabilidade}.
+ * </p>
+ */
+public enum Durabilidade {
+
+    /** Sem {@code fsync}: a troca é atômica, mas pode não ter chegado ao disco. */
+    SEM_SINCRONIZAR,
+
+    /** Força o arquivo temporário para o disco antes da troca. */
+    ARQUIVO,
+
+    /**
+     * Força o arquivo temporário e, depois da troca, a pasta, tornando a
+     * própria troca durável. Também força cada linha anexada a um journal.
+     */
+    COMPLETA
+}
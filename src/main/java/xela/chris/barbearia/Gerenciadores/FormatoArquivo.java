@@ -0,0 +1,131 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Formato em que um {@link RepositorioJson} grava a lista de registros.
+ *
+ * <p>
+ * O formato é escolhido por repositório com
+ * {@link RepositorioJson#setFormato(FormatoArquivo)} e vale para as
+ * próximas gravações completas. Na leitura, o formato é reconhecido pelo
+ * começo do arquivo, então um arquivo gravado em outro formato continua
+ * sendo lido e é convertido na próxima gravação (ou na hora, com o
+ * {@link ConversorFormato}). Os formatos disponíveis são:
+ * </p>
+ * <ul>
+ *     <li>{@link #JSON_FORMATADO}: JSON com indentação, fácil de ler e
+ *     editar à mão (padrão);</li>
+ *     <li>{@link #JSON_COMPACTO}: o mesmo JSON sem espaços e quebras de linha;</li>
+ *     <li>{@link #BINARIO}: registros binários prefixados pelo tamanho, para
+ *     os arquivos grandes (ver {@link FormatoBinario}).</li>
+ * </ul>
+ *
+ * <p>
+ * Os registros passam pelo {@link ObjectMapper} do repositório nos dois
+ * sentidos, então anotações e conversões do Jackson valem para todos os
+ * formatos. O rodapé de conferência ({@link GravacaoSegura}) é acrescentado
+ * depois do conteúdo e nunca chega ao formato.
+ * </p>
+ */
+public interface FormatoArquivo {
+
+    /** JSON com indentação (pretty-print). */
+    FormatoArquivo JSON_FORMATADO = new FormatoJson("json", true);
+
+    /** JSON sem espaços. */
+    FormatoArquivo JSON_COMPACTO = new FormatoJson("json-compacto", false);
+
+    /** Registros binários prefixados pelo tamanho. */
+    FormatoArquivo BINARIO = new FormatoBinario();
+
+    /**
+     * Recebe cada registro lido em {@link #percorrer(ObjectMapper, InputStream, LeitorRegistro)}.
+     */
+    @FunctionalInterface
+    interface LeitorRegistro {
+
+        /**
+         * Lê um registro. O parser está no primeiro token do registro (ex:
+         * {@code START_OBJECT}) e deve ser deixado no último.
+         *
+         * @param registro Parser posicionado no registro.
+         * @throws IOException se o registro não puder ser lido.
+         */
+        void ler(JsonParser registro) throws IOException;
+    }
+
+    /**
+     * Retorna o nome do formato, usado pelo {@link ConversorFormato}.
+     *
+     * @return Nome do formato.
+     */
+    String getNome();
+
+    /**
+     * Codifica a lista completa de registros.
+     *
+     * @param mapper    Mapper do repositório.
+     * @param registros Registros a serem gravados.
+     * @return Conteúdo do arquivo, sem o rodapé.
+     * @throws IOException se algum registro não puder ser convertido.
+     */
+    byte[] codificar(ObjectMapper mapper, List<?> registros) throws IOException;
+
+    /**
+     * Converte o conteúdo inteiro de um arquivo.
+     *
+     * @param mapper   Mapper do repositório.
+     * @param conteudo Conteúdo lido do arquivo.
+     * @param tamanho  Quantidade de bytes a considerar (antes do rodapé).
+     * @param tipo     Classe dos registros.
+     * @param <T>      Tipo dos registros.
+     * @return Registros do arquivo, na ordem gravada.
+     * @throws IOException se o conteúdo não puder ser convertido.
+     */
+    <T> List<T> lerLista(ObjectMapper mapper, byte[] conteudo, int tamanho, Class<T> tipo) throws IOException;
+
+    /**
+     * Lê os registros um a um, sem montar a lista.
+     *
+     * @param mapper  Mapper do repositório.
+     * @param entrada Conteúdo do arquivo, desde o começo.
+     * @param leitor  Ação executada para cada registro.
+     * @throws IOException se o conteúdo não puder ser lido.
+     */
+    void percorrer(ObjectMapper mapper, InputStream entrada, LeitorRegistro leitor) throws IOException;
+
+    /**
+     * Reconhece o formato de um arquivo pelos primeiros bytes.
+     *
+     * @param inicio  Primeiros bytes do arquivo.
+     * @param tamanho Quantidade de bytes válidos em {@code inicio}.
+     * @return {@link #BINARIO} se o arquivo tiver a assinatura binária; caso
+     * contrário, {@link #JSON_FORMATADO} (que também lê o JSON compacto).
+     */
+    static FormatoArquivo detectar(byte[] inicio, int tamanho) {
+        return FormatoBinario.reconhece(inicio, tamanho) ? BINARIO : JSON_FORMATADO;
+    }
+
+    /**
+     * Procura um formato pelo nome.
+     *
+     * @param nome Nome do formato (ex: {@code "binario"}).
+     * @return O formato com esse nome.
+     * @throws IllegalArgumentException se não houver formato com esse nome.
+     */
+    static FormatoArquivo porNome(String nome) {
+        for (FormatoArquivo formato : new FormatoArquivo[]{JSON_FORMATADO, JSON_COMPACTO, BINARIO}) {
+            if (formato.getNome().equalsIgnoreCase(nome)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato desconhecido: " + nome
+                + " (use json, json-compacto ou binario).");
+    }
+}
@@ -0,0 +1,390 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binário com um registro por bloco, prefixado pelo tamanho.
+ *
+ * <p>
+ * O arquivo começa com a assinatura {@code BRB1}, seguida da tabela com os
+ * nomes de campo usados no arquivo (cada nome aparece uma única vez) e da
+ * quantidade de registros. Cada registro vem depois como
+ * {@code <tamanho><tokens>}: os mesmos tokens que o Jackson produziria em
+ * JSON (início e fim de objeto ou lista, campo, texto, número...), cada um
+ * com uma marca de um byte. Campos são gravados pelo índice na tabela,
+ * inteiros em varint (zigzag) e decimais nos 8 bytes do {@code double}.
+ * Tamanhos e índices também usam varint.
+ * </p>
+ *
+ * <p>
+ * Em relação ao JSON, o arquivo fica menor (sem os nomes de campo repetidos
+ * em cada registro nem espaços) e a leitura não precisa reconhecer texto,
+ * números e aspas caractere a caractere. Cada registro é entregue ao
+ * Jackson como um {@link TokenBuffer}, então a conversão para o modelo é a
+ * mesma do JSON.
+ * </p>
+ */
+final class FormatoBinario implements FormatoArquivo {
+
+    private static final byte[] ASSINATURA = {'B', 'R', 'B', '1'};
+
+    /** Bytes lidos do começo do arquivo para reconhecer o formato. */
+    static final int TAMANHO_ASSINATURA = ASSINATURA.length;
+
+    private static final int OBJETO = 1;
+    private static final int FIM_OBJETO = 2;
+    private static final int LISTA = 3;
+    private static final int FIM_LISTA = 4;
+    private static final int CAMPO = 5;
+    private static final int TEXTO = 6;
+    private static final int INTEIRO = 7;
+    private static final int DECIMAL = 8;
+    private static final int VERDADEIRO = 9;
+    private static final int FALSO = 10;
+    private static final int NULO = 11;
+    private static final int INTEIRO_GRANDE = 12;
+    private static final int DECIMAL_GRANDE = 13;
+
+    /**
+     * Indica se o conteúdo começa com a assinatura do formato binário.
+     *
+     * @param inicio  Primeiros bytes do arquivo.
+     * @param tamanho Quantidade de bytes válidos.
+     * @return {@code true} se for um arquivo binário.
+     */
+    static boolean reconhece(byte[] inicio, int tamanho) {
+        if (tamanho < ASSINATURA.length) {
+            return false;
+        }
+        for (int i = 0; i < ASSINATURA.length; i++) {
+            if (inicio[i] != ASSINATURA[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getNome() {
+        return "binario";
+    }
+
+    @Override
+    public byte[] codificar(ObjectMapper mapper, List<?> registros) throws IOException {
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> nomes = new ArrayList<>();
+        Saida corpo = new Saida(registros.size() * 64);
+        Saida registro = new Saida(256);
+
+        // A lista inteira é convertida de uma vez e separada em registros
+        // pelos tokens de primeiro nível
+        TokenBuffer tokens = new TokenBuffer(mapper, false);
+        mapper.writeValue(tokens, registros);
+        try (JsonParser parser = tokens.asParser(mapper)) {
+            parser.nextToken(); // START_ARRAY
+            JsonToken token;
+            int profundidade = 0;
+            while ((token = parser.nextToken()) != null && (profundidade > 0 || token != JsonToken.END_ARRAY)) {
+                codificarToken(parser, token, registro, indices, nomes);
+                if (token.isStructStart()) {
+                    profundidade++;
+                } else if (token.isStructEnd()) {
+                    profundidade--;
+                }
+                if (profundidade == 0) {
+                    corpo.varint(registro.size());
+                    registro.writeTo(corpo);
+                    registro.reset();
+                }
+            }
+        }
+
+        Saida arquivo = new Saida(corpo.size() + nomes.size() * 16 + 16);
+        arquivo.writeBytes(ASSINATURA);
+        arquivo.varint(nomes.size());
+        for (String nome : nomes) {
+            arquivo.texto(nome);
+        }
+        arquivo.varint(registros.size());
+        corpo.writeTo(arquivo);
+        return arquivo.toByteArray();
+    }
+
+    private static void codificarToken(JsonParser parser, JsonToken token, Saida saida,
+                                       Map<String, Integer> indices, List<String> nomes) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                saida.write(OBJETO);
+                break;
+            case END_OBJECT:
+                saida.write(FIM_OBJETO);
+                break;
+            case START_ARRAY:
+                saida.write(LISTA);
+                break;
+            case END_ARRAY:
+                saida.write(FIM_LISTA);
+                break;
+            case FIELD_NAME:
+                Integer indice = indices.get(parser.currentName());
+                if (indice == null) {
+                    indice = nomes.size();
+                    indices.put(parser.currentName(), indice);
+                    nomes.add(parser.currentName());
+                }
+                saida.write(CAMPO);
+                saida.varint(indice);
+                break;
+            case VALUE_STRING:
+                saida.write(TEXTO);
+                saida.texto(parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                    saida.write(INTEIRO_GRANDE);
+                    saida.texto(parser.getBigIntegerValue().toString());
+                } else {
+                    saida.write(INTEIRO);
+                    long valor = parser.getLongValue();
+                    saida.varint((valor << 1) ^ (valor >> 63));
+                }
+                break;
+            case VALUE_NUMBER_FLOAT:
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_DECIMAL) {
+                    saida.write(DECIMAL_GRANDE);
+                    saida.texto(parser.getDecimalValue().toString());
+                } else {
+                    saida.write(DECIMAL);
+                    long bits = Double.doubleToLongBits(parser.getDoubleValue());
+                    for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+                        saida.write((int) (bits >>> deslocamento));
+                    }
+                }
+                break;
+            case VALUE_TRUE:
+                saida.write(VERDADEIRO);
+                break;
+            case VALUE_FALSE:
+                saida.write(FALSO);
+                break;
+            case VALUE_NULL:
+                saida.write(NULO);
+                break;
+            default:
+                throw new IOException("Valor não suportado no formato binário: " + token);
+        }
+    }
+
+    /**
+     * Reconstrói os tokens de todos os registros como uma única lista, que
+     * o Jackson converte de uma vez.
+     */
+    @Override
+    public <T> List<T> lerLista(ObjectMapper mapper, byte[] conteudo, int tamanho, Class<T> tipo) throws IOException {
+        InputStream in = new ByteArrayInputStream(conteudo, 0, tamanho);
+        String[] nomes = lerCabecalho(in);
+        int quantidade = lerTamanho(in);
+        TokenBuffer tokens = new TokenBuffer(mapper, false);
+        tokens.writeStartArray();
+        for (int i = 0; i < quantidade; i++) {
+            decodificar(tokens, lerBloco(in), nomes);
+        }
+        tokens.writeEndArray();
+        try (JsonParser parser = tokens.asParser(mapper)) {
+            return mapper.readValue(parser, mapper.getTypeFactory().constructCollectionType(List.class, tipo));
+        }
+    }
+
+    /**
+     * Lê os registros em fluxo: apenas o registro atual fica em memória.
+     */
+    @Override
+    public void percorrer(ObjectMapper mapper, InputStream entrada, LeitorRegistro leitor) throws IOException {
+        InputStream in = entrada instanceof BufferedInputStream || entrada instanceof ByteArrayInputStream
+                ? entrada : new BufferedInputStream(entrada, 64 * 1024);
+        String[] nomes = lerCabecalho(in);
+        int quantidade = lerTamanho(in);
+        for (int i = 0; i < quantidade; i++) {
+            TokenBuffer tokens = new TokenBuffer(mapper, false);
+            decodificar(tokens, lerBloco(in), nomes);
+            try (JsonParser parser = tokens.asParser(mapper)) {
+                parser.nextToken();
+                leitor.ler(parser);
+            }
+        }
+    }
+
+    /** Confere a assinatura e lê a tabela de nomes de campo. */
+    private static String[] lerCabecalho(InputStream in) throws IOException {
+        byte[] assinatura = in.readNBytes(ASSINATURA.length);
+        if (!reconhece(assinatura, assinatura.length)) {
+            throw new IOException("Arquivo sem a assinatura do formato binário.");
+        }
+        String[] nomes = new String[lerTamanho(in)];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = new String(lerBloco(in), StandardCharsets.UTF_8);
+        }
+        return nomes;
+    }
+
+    /** Reconstrói os tokens de um registro no buffer. */
+    private static void decodificar(TokenBuffer tokens, byte[] registro, String[] nomes) throws IOException {
+        int[] posicao = {0};
+        while (posicao[0] < registro.length) {
+            int marca = registro[posicao[0]++];
+            switch (marca) {
+                case OBJETO:
+                    tokens.writeStartObject();
+                    break;
+                case FIM_OBJETO:
+                    tokens.writeEndObject();
+                    break;
+                case LISTA:
+                    tokens.writeStartArray();
+                    break;
+                case FIM_LISTA:
+                    tokens.writeEndArray();
+                    break;
+                case CAMPO:
+                    tokens.writeFieldName(nomes[(int) lerVarint(registro, posicao)]);
+                    break;
+                case TEXTO:
+                    tokens.writeString(lerTexto(registro, posicao));
+                    break;
+                case INTEIRO:
+                    long zigzag = lerVarint(registro, posicao);
+                    long valor = (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (valor == (int) valor) {
+                        tokens.writeNumber((int) valor);
+                    } else {
+                        tokens.writeNumber(valor);
+                    }
+                    break;
+                case DECIMAL:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | (registro[posicao[0]++] & 0xFF);
+                    }
+                    tokens.writeNumber(Double.longBitsToDouble(bits));
+                    break;
+                case VERDADEIRO:
+                    tokens.writeBoolean(true);
+                    break;
+                case FALSO:
+                    tokens.writeBoolean(false);
+                    break;
+                case NULO:
+                    tokens.writeNull();
+                    break;
+                case INTEIRO_GRANDE:
+                    tokens.writeNumber(new BigInteger(lerTexto(registro, posicao)));
+                    break;
+                case DECIMAL_GRANDE:
+                    tokens.writeNumber(new BigDecimal(lerTexto(registro, posicao)));
+                    break;
+                default:
+                    throw new IOException("Marca inválida no formato binário: " + marca);
+            }
+        }
+    }
+
+    private static long lerVarint(byte[] dados, int[] posicao) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            if (posicao[0] >= dados.length) {
+                throw new EOFException("Registro binário incompleto.");
+            }
+            byte b = dados[posicao[0]++];
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Número inválido no formato binário.");
+    }
+
+    private static String lerTexto(byte[] dados, int[] posicao) throws IOException {
+        int tamanho = (int) lerVarint(dados, posicao);
+        if (tamanho < 0 || posicao[0] + tamanho > dados.length) {
+            throw new EOFException("Registro binário incompleto.");
+        }
+        String texto = new String(dados, posicao[0], tamanho, StandardCharsets.UTF_8);
+        posicao[0] += tamanho;
+        return texto;
+    }
+
+    private static int lerTamanho(InputStream in) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 35; deslocamento += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Arquivo binário incompleto.");
+            }
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b < 0x80) {
+                if (valor > Integer.MAX_VALUE) {
+                    break;
+                }
+                return (int) valor;
+            }
+        }
+        throw new IOException("Tamanho inválido no formato binário.");
+    }
+
+    private static byte[] lerBloco(InputStream in) throws IOException {
+        int tamanho = lerTamanho(in);
+        byte[] bloco = in.readNBytes(tamanho);
+        if (bloco.length < tamanho) {
+            throw new EOFException("Arquivo binário incompleto.");
+        }
+        return bloco;
+    }
+
+    @Override
+    public String toString() {
+        return getNome();
+    }
+
+    /** Buffer de gravação com varint e texto prefixado pelo tamanho. */
+    private static final class Saida extends ByteArrayOutputStream {
+
+        Saida(int capacidade) {
+            super(capacidade);
+        }
+
+        void varint(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                write((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            write((int) valor);
+        }
+
+        void texto(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeTo(Saida destino) {
+            destino.write(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Formato JSON: um array com um objeto por registro, com ou sem indentação.
+ * A leitura é a mesma nos dois casos.
+ */
+final class FormatoJson implements FormatoArquivo {
+
+    private final String nome;
+    private final boolean formatado;
+
+    FormatoJson(String nome, boolean formatado) {
+        this.nome = nome;
+        this.formatado = formatado;
+    }
+
+    @Override
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public byte[] codificar(ObjectMapper mapper, List<?> registros) throws IOException {
+        return (formatado ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer()).writeValueAsBytes(registros);
+    }
+
+    @Override
+    public <T> List<T> lerLista(ObjectMapper mapper, byte[] conteudo, int tamanho, Class<T> tipo) throws IOException {
+        CollectionType listType = mapper.getTypeFactory().constructCollectionType(List.class, tipo);
+        return mapper.readValue(conteudo, 0, tamanho, listType);
+    }
+
+    /**
+     * Percorre o array em fluxo. O que vem depois do array (ex: o rodapé de
+     * conferência) não é lido.
+     */
+    @Override
+    public void percorrer(ObjectMapper mapper, InputStream entrada, LeitorRegistro leitor) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                leitor.ler(parser);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
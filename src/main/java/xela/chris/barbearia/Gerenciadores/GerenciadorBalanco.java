@@ -1,8 +1,10 @@
 package xela.chris.barbearia.Gerenciadores;
 
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
 import xela.chris.barbearia.models.Servico;
-import xela.chris.barbearia.models.Venda;
-import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.Dinheiro;
 
 import java.util.List;
 
@@ -15,9 +17,22 @@ import java.util.List;
  *
  * Permite filtrar os totais por um período específico (dia ou mês),
  * utilizando um filtro de string simples (ex: "11/2025").
+ *
+ * Filtros de dia, mês, ano ou vazio (tudo) são respondidos pelos resumos
+ * diários ({@link IndiceBalanco}) que os gerenciadores mantêm junto com as
+ * listas em memória, somando apenas os dias do período. Os demais filtros
+ * (um minuto ou um trecho de texto qualquer) continuam percorrendo os
+ * arquivos JSON.
+ *
+ * Todas as somas são feitas em centavos ({@link Dinheiro}); os métodos que
+ * retornam {@code double} apenas convertem o total exato para reais.
  */
 public class GerenciadorBalanco {
 
+    private static final Temporizador TEMPO_RESUMIR = Metricas.padrao().temporizador("balanco.resumir");
+    private static final Temporizador TEMPO_SERVICOS = Metricas.padrao().temporizador("balanco.totalServicos");
+    private static final Temporizador TEMPO_PRODUTOS = Metricas.padrao().temporizador("balanco.totalProdutos");
+
     private final GerenciarAgendamento gerenciarAgendamento;
     private final GerenciarVenda gerenciarVenda;
 
@@ -44,62 +59,109 @@ public class GerenciadorBalanco {
         this.gerenciarVenda = gv;
     }
 
+    /**
+     * Retorna o resumo do período (totais, quantidades e faturamento por
+     * funcionário e por serviço) a partir dos resumos diários.
+     *
+     * @param filtroData O filtro de data (ex: "15/11/2025", "11/2025", "2025" ou vazio).
+     * @return O resumo do período, ou {@code null} se o filtro não for um
+     * dia, mês, ano ou vazio.
+     */
+    public ResumoBalanco resumir(String filtroData) {
+        long inicio = TEMPO_RESUMIR.iniciar();
+        try {
+            DataHora.Periodo periodo = DataHora.periodo(filtroData);
+            ResumoBalanco servicos = gerenciarAgendamento.resumirBalanco(periodo);
+            ResumoBalanco produtos = gerenciarVenda.resumirBalanco(periodo);
+            if (servicos == null || produtos == null) {
+                return null;
+            }
+            servicos.somar(produtos);
+            return servicos;
+        } finally {
+            TEMPO_RESUMIR.registrarDesde(inicio);
+        }
+    }
+
     /**
      * Calcula o valor total de SERVIÇOS prestados em um período.
      *
-     * Este método recarrega os dados de agendamentos (chamando {@code carregar()})
-     * e, em seguida, itera sobre eles. A filtragem é feita verificando se a
-     * string {@code dataHora} do agendamento {@code contains} (contém) a
-     * string de filtro fornecida.
+     * Para filtros de dia, mês, ano ou vazio, o total vem dos resumos
+     * diários do {@link GerenciarAgendamento}. Nos demais casos, os
+     * agendamentos são lidos em fluxo direto do arquivo JSON (via
+     * {@link GerenciarAgendamento#percorrerPorData(String, java.util.function.Consumer)}),
+     * sem recarregar nem ordenar a lista em memória. O filtro é convertido
+     * em um período (dia, mês ou ano) e a {@code dataHora} de cada
+     * agendamento é comparada como número.
      *
      * @param filtroData O filtro de data (ex: "15/11/2025" ou "11/2025").
      * @return O valor total (double) dos serviços que correspondem ao filtro.
      */
     public double calcularTotalServicos(String filtroData) {
-        // Garante que os dados mais recentes sejam lidos dos arquivos JSON
-        gerenciarAgendamento.carregar();
-        List<Agendamento> agendamentos = gerenciarAgendamento.listarAgendamentosOrdenadosPorData();
-
-        double totalServicos = 0.0;
-
-        for (Agendamento ag : agendamentos) {
-
-            if (ag.getDataHora() != null && ag.getDataHora().contains(filtroData)) {
+        return Dinheiro.paraReais(calcularTotalServicosCentavos(filtroData));
+    }
 
-                if (ag.getServicos() != null) {
-                    for (Servico s : ag.getServicos()) {
-                        totalServicos += s.getPreco();
-                    }
-                }
+    /**
+     * Calcula o valor total de SERVIÇOS prestados em um período, em centavos.
+     * Ver {@link #calcularTotalServicos(String)}.
+     *
+     * @param filtroData O filtro de data (ex: "15/11/2025" ou "11/2025").
+     * @return O valor total exato dos serviços, em centavos.
+     */
+    public long calcularTotalServicosCentavos(String filtroData) {
+        long inicio = TEMPO_SERVICOS.iniciar();
+        try {
+            ResumoBalanco resumo = gerenciarAgendamento.resumirBalanco(DataHora.periodo(filtroData));
+            if (resumo != null) {
+                return resumo.getTotalServicosCentavos();
             }
+            long[] totalServicos = {0};
+
+            gerenciarAgendamento.percorrerPorData(filtroData, ag -> totalServicos[0] += ag.getTotalServicosCentavos());
+            return totalServicos[0];
+        } finally {
+            TEMPO_SERVICOS.registrarDesde(inicio);
         }
-        return totalServicos;
     }
 
     /**
      * Calcula o valor total de PRODUTOS vendidos em um período.
      *
-     * Este método recarrega os dados de vendas (chamando {@code carregar()})
-     * e, em seguida, itera sobre elas. A filtragem é feita verificando se a
-     * string {@code dataVenda} da venda {@code contains} (contém) a
-     * string de filtro fornecida.
+     * Para filtros de dia, mês, ano ou vazio, o total vem dos resumos
+     * diários do {@link GerenciarVenda}. Nos demais casos, as vendas são
+     * lidas em fluxo direto do arquivo JSON (via
+     * {@link GerenciarVenda#percorrerPorData(String, java.util.function.Consumer)});
+     * apenas as vendas cuja {@code dataVenda} pertence ao período do filtro
+     * são convertidas e somadas.
      *
      * @param filtroData O filtro de data (ex: "15/11/2025" ou "11/2025").
      * @return O valor total (double) dos produtos vendidos que correspondem ao filtro.
      */
     public double calcularTotalProdutos(String filtroData) {
-        gerenciarVenda.carregar();
-        List<Venda> vendas = gerenciarVenda.listar();
-
-        double totalProdutos = 0.0;
-
-        for (Venda v : vendas) {
+        return Dinheiro.paraReais(calcularTotalProdutosCentavos(filtroData));
+    }
 
-            if (v.getDataVenda() != null && v.getDataVenda().contains(filtroData)) {
-                totalProdutos += v.getValorTotal();
+    /**
+     * Calcula o valor total de PRODUTOS vendidos em um período, em centavos.
+     * Ver {@link #calcularTotalProdutos(String)}.
+     *
+     * @param filtroData O filtro de data (ex: "15/11/2025" ou "11/2025").
+     * @return O valor total exato dos produtos, em centavos.
+     */
+    public long calcularTotalProdutosCentavos(String filtroData) {
+        long inicio = TEMPO_PRODUTOS.iniciar();
+        try {
+            ResumoBalanco resumo = gerenciarVenda.resumirBalanco(DataHora.periodo(filtroData));
+            if (resumo != null) {
+                return resumo.getTotalProdutosCentavos();
             }
+            long[] totalProdutos = {0};
+
+            gerenciarVenda.percorrerPorData(filtroData, v -> totalProdutos[0] += v.getValorTotalCentavos());
+            return totalProdutos[0];
+        } finally {
+            TEMPO_PRODUTOS.registrarDesde(inicio);
         }
-        return totalProdutos;
     }
 
     /**
@@ -108,24 +170,59 @@ public class GerenciadorBalanco {
      *
      * Utiliza {@link #calcularTotalServicos(String)} e
      * {@link #calcularTotalProdutos(String)} para obter os valores
-     * e, em seguida, exibe um relatório formatado.
+     * e, em seguida, exibe um relatório formatado. Quando o filtro é
+     * respondido pelos resumos diários, o relatório também mostra as
+     * quantidades e o faturamento por funcionário e por serviço.
      *
      * @param filtroData O filtro de data a ser aplicado (ex: "15/11/2025" para dia
      * ou "11/2025" para o mês).
      */
     public void gerarBalanco(String filtroData) {
-        double totalServicos = calcularTotalServicos(filtroData);
-        double totalProdutos = calcularTotalProdutos(filtroData);
-        double totalGeral = totalServicos + totalProdutos;
+        ResumoBalanco resumo = resumir(filtroData);
+        long totalServicos = resumo != null ? resumo.getTotalServicosCentavos() : calcularTotalServicosCentavos(filtroData);
+        long totalProdutos = resumo != null ? resumo.getTotalProdutosCentavos() : calcularTotalProdutosCentavos(filtroData);
+        long totalGeral = totalServicos + totalProdutos;
 
         // Imprime o relatório formatado
         System.out.println("=========================================");
         System.out.println("      BALANÇO FINANCEIRO - " + filtroData);
         System.out.println("=========================================");
-        System.out.printf("Total em Serviços:   R$ %.2f%n", totalServicos);
-        System.out.printf("Total em Produtos:   R$ %.2f%n", totalProdutos);
+        System.out.println("Total em Serviços:   R$ " + Dinheiro.formatar(totalServicos));
+        System.out.println("Total em Produtos:   R$ " + Dinheiro.formatar(totalProdutos));
         System.out.println("-----------------------------------------");
-        System.out.printf("TOTAL GERAL:         R$ %.2f%n", totalGeral);
+        System.out.println("TOTAL GERAL:         R$ " + Dinheiro.formatar(totalGeral));
+        System.out.println("=========================================");
+
+        if (resumo != null) {
+            imprimirDetalhes(resumo);
+        }
+    }
+
+    /**
+     * Imprime as quantidades e o faturamento por funcionário e por serviço
+     * de um resumo.
+     */
+    private void imprimirDetalhes(ResumoBalanco resumo) {
+        System.out.println("Agendamentos: " + resumo.getQuantidadeAgendamentos()
+                + " | Vendas: " + resumo.getQuantidadeVendas());
+        int[] idsFuncionarios = resumo.getIdsFuncionarios();
+        if (idsFuncionarios.length > 0) {
+            System.out.println("Serviços por funcionário:");
+            for (int id : idsFuncionarios) {
+                System.out.println("  Funcionário ID " + id + ": " + resumo.getAgendamentosPorFuncionario(id)
+                        + " agendamento(s) - R$ " + Dinheiro.formatar(resumo.getTotalPorFuncionarioCentavos(id)));
+            }
+        }
+        int[] idsServicos = resumo.getIdsServicos();
+        if (idsServicos.length > 0) {
+            System.out.println("Faturamento por serviço:");
+            for (int id : idsServicos) {
+                List<Servico> encontrados = gerenciarAgendamento.resolverServicos(List.of(id));
+                String nome = encontrados.isEmpty() ? "Serviço ID " + id : encontrados.get(0).getNome();
+                System.out.println("  " + nome + ": " + resumo.getQuantidadePorServico(id)
+                        + "x - R$ " + Dinheiro.formatar(resumo.getTotalPorServicoCentavos(id)));
+            }
+        }
         System.out.println("=========================================");
     }
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gerencia o ciclo de vida (CRUD) dos objetos {@link Funcionario}.
@@ -20,15 +23,28 @@ import java.util.List;
  * Nota: A persistência não é automática. Métodos como `adicionarFuncionario`
  * modificam apenas a lista em memória. É necessário chamar
  * {@link #salvarTodosFuncionarios()} para persistir as alterações no arquivo.
+ *
+ * A lista em memória é protegida por uma trava de leitura/escrita, o que
+ * permite buscas simultâneas de vários terminais (ex: login e agendamento).
  */
 public class GerenciadorFuncionario {
 
+    private static final Log LOG = Log.de(GerenciadorFuncionario.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("funcionarios.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("funcionarios.salvar");
+
     /** Lista em memória de funcionários, carregada do JSON. */
-    private List<Funcionario> funcionarios = new ArrayList<>();
+    private ListaIndexada<Funcionario> funcionarios = new ListaIndexada<>(Funcionario::getId);
 
     /** Repositório para persistência em JSON ("funcionarios.json"). */
     private final RepositorioJson<Funcionario> repo =
-            new RepositorioJson<>(Funcionario.class, "funcionarios.json");
+            new RepositorioJson<>(Funcionario.class, "funcionarios.json", Funcionario::getId);
+
+    /** Protege {@code funcionarios}. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Alterações em {@code funcionarios} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor padrão.
@@ -36,6 +52,8 @@ public class GerenciadorFuncionario {
      * para popular a lista de funcionários a partir do arquivo JSON.
      */
     public GerenciadorFuncionario() {
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("funcionarios.registros", this, g -> g.funcionarios.size());
         this.carregar();
     }
 
@@ -48,43 +66,62 @@ public class GerenciadorFuncionario {
      * para evitar IDs duplicados em novos cadastros.
      */
     public void carregar() {
-        funcionarios = repo.buscarTodos();
-        if (!funcionarios.isEmpty()) {
-            int maiorId = funcionarios.stream()
-                    .mapToInt(Funcionario::getId)
-                    .max()
-                    .orElse(0);
-            Funcionario.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            funcionarios = new ListaIndexada<>(Funcionario::getId, repo.buscarTodos());
+            alteracoes.marcarSalvo();
+            if (!funcionarios.isEmpty()) {
+                int maiorId = funcionarios.stream()
+                        .mapToInt(Funcionario::getId)
+                        .max()
+                        .orElse(0);
+                Funcionario.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
     /**
      * Adiciona um novo funcionário à lista em memória.
      *
-     * Esta operação é sincronizada e afeta apenas a lista em memória.
+     * Esta operação usa a trava de escrita e afeta apenas a lista em memória.
      * Para salvar o novo funcionário no arquivo JSON,
      * chame {@link #salvarTodosFuncionarios()} posteriormente.
      *
      * @param funcionario O objeto {@link Funcionario} a ser adicionado.
      */
-    public synchronized void adicionarFuncionario(Funcionario funcionario) {
-        funcionarios.add(funcionario);
+    public void adicionarFuncionario(Funcionario funcionario) {
+        trava.writeLock().lock();
+        try {
+            funcionarios.add(funcionario);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
      * Retorna a lista de funcionários atualmente mantida em memória.
      *
-     * @return Uma {@link List} de {@link Funcionario}.
+     * @return Uma cópia da lista de {@link Funcionario}.
      */
     public List<Funcionario> listarFuncionarios() {
-        return funcionarios;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(funcionarios);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
      * Remove um funcionário com base no ID informado.
      *
      * Atenção: Esta implementação carrega uma nova lista do repositório
-     * (usando {@code repo.listar()}), remove o item dessa lista local
+     * (usando {@code repo.percorrer}), remove o item dessa lista local
      * e, em seguida, descarta a lista.
      *
      * Esta operação NÃO afeta a lista em memória ({@code this.funcionarios})
@@ -93,7 +130,8 @@ public class GerenciadorFuncionario {
      * @param id O identificador do funcionário a ser removido.
      */
     public void removerFuncionario(int id) {
-        List<Funcionario> funcionarios = repo.listar();
+        List<Funcionario> funcionarios = new ArrayList<>();
+        repo.percorrer(funcionarios::add);
         funcionarios.removeIf(f -> f.getId() == id);
     }
 
@@ -105,15 +143,37 @@ public class GerenciadorFuncionario {
      * se nenhum funcionário com esse ID existir na lista em memória.
      */
     public Funcionario buscarFuncionario(int id) {
-        Iterator<Funcionario> iterator = funcionarios.iterator();
-        while (iterator.hasNext()) {
-            Funcionario funcionario = iterator.next();
-            if (funcionario.getId() == id) {
-                return funcionario;
-            }
+        Funcionario funcionario = buscarEmMemoria(id);
+        if (funcionario == null) {
+            LOG.info("Funcionario nao encontrado!");
+        }
+        return funcionario;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar referências gravadas por ID (ex: o
+     * {@code funcionarioId} de um agendamento). Procura na lista em memória e, se não
+     * encontrar, no arquivo JSON, cobrindo registros cadastrados por outra
+     * instância do gerenciador. A lista em memória não é alterada.
+     *
+     * @param id O identificador do funcionário.
+     * @return O {@link Funcionario} encontrado, ou {@code null} se não existir.
+     */
+    public Funcionario buscarReferencia(int id) {
+        Funcionario emMemoria = buscarEmMemoria(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        return repo.buscarPorId(id);
+    }
+
+    private Funcionario buscarEmMemoria(int id) {
+        trava.readLock().lock();
+        try {
+            return funcionarios.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
         }
-        System.out.println("Funcionario nao encontrado!");
-        return null;
     }
 
     /**
@@ -147,38 +207,43 @@ public class GerenciadorFuncionario {
                                         String novoTelefone, String novoCargo,
                                         String novoUsuario, String novaSenha) {
 
-        List<Funcionario> funcionarios = repo.listar(); // Esta linha parece não ter efeito
         Funcionario funcionario = buscarFuncionario(id); // Busca na lista de memória
 
         if (funcionario == null) {
-            System.out.println("Funcionario com o id{" + id + "} nao foi encontrado!");
+            LOG.info(() -> "Funcionario com o id{" + id + "} nao foi encontrado!");
             return false;
         }
 
-        String nomeAtual = funcionario.getNome();
-        String cpfAtual = funcionario.getCpf();
-        String telefoneAtual = funcionario.getTelefone();
-        String cargoAtual = funcionario.getCargo();
-        String usuarioAtual = funcionario.getUsuario();
-        String senhaAtual = funcionario.getSenha();
-
-        funcionario.setNome(novoNome != null ? novoNome : nomeAtual);
-        funcionario.setCpf(novoCpf != null ? novoCpf : cpfAtual);
-        funcionario.setTelefone(novoTelefone != null ? novoTelefone : telefoneAtual);
-
-        if (novoCargo != null) {
-            funcionario.setCargo(novoCargo);
-            funcionario.definirPermissoesPorCargo(novoCargo);
-        } else {
-            funcionario.setCargo(cargoAtual);
-            funcionario.definirPermissoesPorCargo(cargoAtual);
-        }
+        trava.writeLock().lock();
+        try {
+            String nomeAtual = funcionario.getNome();
+            String cpfAtual = funcionario.getCpf();
+            String telefoneAtual = funcionario.getTelefone();
+            String cargoAtual = funcionario.getCargo();
+            String usuarioAtual = funcionario.getUsuario();
+            String senhaAtual = funcionario.getSenha();
 
-        funcionario.setUsuario(novoUsuario != null ? novoUsuario : usuarioAtual);
-        funcionario.setSenha(novaSenha != null ? novaSenha : senhaAtual);
+            funcionario.setNome(novoNome != null ? novoNome : nomeAtual);
+            funcionario.setCpf(novoCpf != null ? novoCpf : cpfAtual);
+            funcionario.setTelefone(novoTelefone != null ? novoTelefone : telefoneAtual);
+
+            if (novoCargo != null) {
+                funcionario.setCargo(novoCargo);
+                funcionario.definirPermissoesPorCargo(novoCargo);
+            } else {
+                funcionario.setCargo(cargoAtual);
+                funcionario.definirPermissoesPorCargo(cargoAtual);
+            }
+
+            funcionario.setUsuario(novoUsuario != null ? novoUsuario : usuarioAtual);
+            funcionario.setSenha(novaSenha != null ? novaSenha : senhaAtual);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
 
 
-        System.out.println("Sucesso em atualizar!");
+        LOG.info("Sucesso em atualizar!");
         return true;
     }
 
@@ -186,21 +251,36 @@ public class GerenciadorFuncionario {
      * Retorna uma lista de funcionários lida diretamente do arquivo JSON.
      *
      * Este método ignora a lista mantida em memória ({@code this.funcionarios})
-     * e realiza uma nova leitura do repositório (via {@code repo.buscarTodos()}).
+     * e realiza uma nova leitura do repositório (via {@code repo.percorrer}),
+     * sem mudar a versão que o repositório usa como base das gravações.
      *
      * @return Uma nova lista de funcionários lida do arquivo.
      */
     public List<Funcionario> listar() {
-        return repo.buscarTodos();
+        List<Funcionario> lidos = new ArrayList<>();
+        repo.percorrer(lidos::add);
+        return lidos;
     }
 
     /**
      * Salva a lista de funcionários atualmente em memória
      * ({@code this.funcionarios}) no arquivo JSON,
      * sobrescrevendo o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodosFuncionarios(){
-        repo.salvarTodos(funcionarios);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(funcionarios);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -211,5 +291,15 @@ public class GerenciadorFuncionario {
      */
     public void limpar() {
         repo.salvarTodos(new ArrayList<>());
+        alteracoes.registrar(); // a lista em memória continua cheia e agora difere do arquivo
+    }
+
+    /**
+     * Retorna o contador de alterações da lista de funcionários, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
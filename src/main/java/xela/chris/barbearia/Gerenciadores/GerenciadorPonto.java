@@ -2,11 +2,15 @@ package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.models.Funcionario;
 import xela.chris.barbearia.models.RegistroPonto;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Classe responsável por gerenciar os registros de ponto (entrada e saída)
@@ -16,9 +20,16 @@ import java.util.List;
  * ("pontos.json") e mantém uma lista em memória. Ele fornece a lógica
  * principal para "bater o ponto", que registra a entrada ou a saída
  * com base no estado atual do funcionário no dia corrente.
+ *
+ * Todas as operações que recarregam ou alteram {@code pontos} usam a
+ * trava de escrita; a gravação da lista usa a trava de leitura.
  */
 public class GerenciadorPonto {
 
+    private static final Log LOG = Log.de(GerenciadorPonto.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("pontos.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("pontos.salvar");
+
     /** Lista de registros de ponto mantidos em memória. */
     private List<RegistroPonto> pontos = new ArrayList<>();
 
@@ -26,12 +37,20 @@ public class GerenciadorPonto {
     private final RepositorioJson<RegistroPonto> repo =
             new RepositorioJson<>(RegistroPonto.class, "pontos.json");
 
+    /** Protege {@code pontos}. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Alterações em {@code pontos} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
+
     /**
      * Construtor padrão.
      * Inicializa o gerenciador e chama imediatamente o método {@link #carregar()}
      * para popular a lista de pontos a partir do arquivo JSON.
      */
     public GerenciadorPonto() {
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("pontos.registros", this, g -> g.pontos.size());
         this.carregar();
     }
 
@@ -42,16 +61,24 @@ public class GerenciadorPonto {
      * {@code pontos} como uma nova ArrayList vazia.
      */
     public void carregar() {
-        pontos = repo.buscarTodos();
-        if (pontos == null) {
-            pontos = new ArrayList<>();
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            pontos = repo.buscarTodos();
+            if (pontos == null) {
+                pontos = new ArrayList<>();
+            }
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
     /**
      * Registra o ponto (entrada ou saída) de um funcionário para a data atual.
      *
-     * Este método é sincronizado e segue a seguinte lógica:
+     * Este método usa a trava de escrita e segue a seguinte lógica:
      * 1. Busca no repositório (`repo.listar()`) se já existe um registro
      * para o funcionário na data atual (`LocalDate.now()`).
      * 2. Se não existir registro: Cria um novo {@link RegistroPonto},
@@ -66,44 +93,52 @@ public class GerenciadorPonto {
      *
      * @param funcionario O funcionário que está registrando o ponto.
      */
-    public synchronized void baterPonto(Funcionario funcionario) {
-        String dataAtual = LocalDate.now().toString();
-        List<RegistroPonto> registros = repo.listar();
-
-        RegistroPonto pontoHoje = null;
-
-        for (RegistroPonto p : registros) {
-            if (p.getIdFuncionario() != null
-                    && p.getIdFuncionario().getId() == funcionario.getId()
-                    && dataAtual.equals(p.getData())) {
-                pontoHoje = p;
-                break;
+    public void baterPonto(Funcionario funcionario) {
+        trava.writeLock().lock();
+        try {
+            String dataAtual = LocalDate.now().toString();
+            List<RegistroPonto> registros = repo.listar();
+            alteracoes.marcarSalvo(); // a lista em memória passa a ser a do arquivo
+
+            RegistroPonto pontoHoje = null;
+
+            for (RegistroPonto p : registros) {
+                if (p.getIdFuncionario() != null
+                        && p.getIdFuncionario().getId() == funcionario.getId()
+                        && dataAtual.equals(p.getData())) {
+                    pontoHoje = p;
+                    break;
+                }
             }
-        }
 
-        if (pontoHoje == null) {
-            RegistroPonto novoRegistro = new RegistroPonto();
-            novoRegistro.setIdFuncionario(funcionario);
-            novoRegistro.setData(dataAtual);
-            novoRegistro.setHoraEntrada(LocalTime.now().withNano(0).toString());
+            if (pontoHoje == null) {
+                RegistroPonto novoRegistro = new RegistroPonto();
+                novoRegistro.setIdFuncionario(funcionario);
+                novoRegistro.setData(dataAtual);
+                novoRegistro.setHoraEntrada(LocalTime.now().withNano(0).toString());
 
-            registros.add(novoRegistro);
+                registros.add(novoRegistro);
+                alteracoes.registrar();
 
-            System.out.println("Ponto registrado com sucesso! " +
-                    funcionario.getNome() + " no horário: " + novoRegistro.getHoraEntrada());
-        }
-        else if (pontoHoje.getHoraSaida() == null) {
-            pontoHoje.setHoraSaida(LocalTime.now().withNano(0).toString());
+                LOG.info("Ponto registrado com sucesso! " +
+                        funcionario.getNome() + " no horário: " + novoRegistro.getHoraEntrada());
+            }
+            else if (pontoHoje.getHoraSaida() == null) {
+                pontoHoje.setHoraSaida(LocalTime.now().withNano(0).toString());
+                alteracoes.registrar();
 
-            System.out.println("Registro de saída salvo com sucesso! " +
-                    funcionario.getNome() + " no horário: " + pontoHoje.getHoraSaida());
-        }
-        else {
-            System.out.println("O funcionário " + funcionario.getNome() +
-                    " já registrou entrada e saída hoje.");
-        }
+                LOG.info("Registro de saída salvo com sucesso! " +
+                        funcionario.getNome() + " no horário: " + pontoHoje.getHoraSaida());
+            }
+            else {
+                LOG.info("O funcionário " + funcionario.getNome() +
+                        " já registrou entrada e saída hoje.");
+            }
 
-        pontos = registros;
+            pontos = registros;
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -120,18 +155,25 @@ public class GerenciadorPonto {
      */
     public RegistroPonto buscarPorData(Funcionario funcionario, String data) {
         // Recarrega do arquivo antes de buscar
-        pontos = repo.buscarTodos();
-        if (pontos == null) {
-            System.out.println("Nenhum ponto foi encontrado no arquivo!");
+        List<RegistroPonto> registros = repo.buscarTodos();
+        trava.writeLock().lock();
+        try {
+            pontos = registros;
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        if (registros == null) {
+            LOG.info("Nenhum ponto foi encontrado no arquivo!");
             return null;
         }
 
-        for (RegistroPonto r : pontos) {
+        for (RegistroPonto r : registros) {
             if (r.getIdFuncionario() != null &&
                     r.getIdFuncionario().getId() == funcionario.getId() &&
                     data.equals(r.getData())) {
 
-                System.out.println("Ponto encontrado: " +
+                LOG.info(() -> "Ponto encontrado: " +
                         funcionario.getNome() +
                         " em " + data +
                         " - Entrada: " + r.getHoraEntrada() +
@@ -141,7 +183,7 @@ public class GerenciadorPonto {
             }
         }
 
-        System.out.println("Nenhum ponto encontrado para " +
+        LOG.info(() -> "Nenhum ponto encontrado para " +
                 funcionario.getNome() + " em " + data);
 
         return null;
@@ -152,9 +194,21 @@ public class GerenciadorPonto {
      * ({@code this.pontos}) no arquivo JSON.
      *
      * Esta ação sobrescreve o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarPonto(){
-        repo.salvarTodos(pontos);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(pontos);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -165,7 +219,22 @@ public class GerenciadorPonto {
      * efetivamente limpando todos os dados persistidos.
      */
     public void limpar() {
-        pontos = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            pontos = new ArrayList<>();
+            repo.salvarTodos(new ArrayList<>());
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações dos registros de ponto, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
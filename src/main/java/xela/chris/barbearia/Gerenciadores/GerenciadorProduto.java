@@ -1,9 +1,13 @@
 package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gerencia o ciclo de vida (CRUD) dos produtos da barbearia.
@@ -17,15 +21,29 @@ import java.util.List;
  * A persistência não é automática na maioria dos métodos;
  * {@link #salvarTodosProdutos()} deve ser chamado para gravar as alterações,
  * exceto em operações críticas como {@link #atualizarEstoque(int, int)}.
+ *
+ * O acesso à lista é controlado por uma trava de leitura/escrita: buscas de
+ * vários terminais rodam juntas, enquanto a baixa de estoque confere e
+ * subtrai a quantidade de forma exclusiva, sem vender a mesma unidade duas vezes.
  */
 public class GerenciadorProduto {
 
+    private static final Log LOG = Log.de(GerenciadorProduto.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("produtos.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("produtos.salvar");
+
     /** Lista de produtos mantidos em memória, carregada do JSON. */
-    private List<Produto> produtos = new ArrayList<>();
+    private ListaIndexada<Produto> produtos = new ListaIndexada<>(Produto::getId);
 
     /** Repositório para persistência dos produtos no arquivo "produtos.json". */
-    private RepositorioJson<Produto> repo =
-            new RepositorioJson<>(Produto.class, "produtos.json");
+    private RepositorioJsonJournal<Produto> repo =
+            new RepositorioJsonJournal<>(Produto.class, "produtos.json", Produto::getId);
+
+    /** Protege {@code produtos} e as quantidades em estoque. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Alterações em {@code produtos} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor padrão.
@@ -33,6 +51,9 @@ public class GerenciadorProduto {
      * para popular a lista de produtos a partir do arquivo JSON.
      */
     public GerenciadorProduto() {
+        repo.setDurabilidade(Durabilidade.COMPLETA); // cada baixa de estoque vai para o disco
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao()); // a baixa vai pelo journal; só a lista inteira espera
+        Metricas.padrao().medidor("produtos.registros", this, g -> g.produtos.size());
         this.carregar();
     }
 
@@ -45,13 +66,21 @@ public class GerenciadorProduto {
      * em novos cadastros.
      */
     public void carregar() {
-        produtos = repo.buscarTodos();
-        if (!produtos.isEmpty()) {
-            int maiorId = produtos.stream()
-                    .mapToInt(Produto::getId)
-                    .max()
-                    .orElse(0);
-            Produto.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            produtos = new ListaIndexada<>(Produto::getId, repo.buscarTodos());
+            alteracoes.marcarSalvo();
+            if (!produtos.isEmpty()) {
+                int maiorId = produtos.stream()
+                        .mapToInt(Produto::getId)
+                        .max()
+                        .orElse(0);
+                Produto.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
@@ -64,7 +93,13 @@ public class GerenciadorProduto {
      * @param produto O objeto {@link Produto} a ser adicionado.
      */
     public void adicionar(Produto produto) {
-        this.produtos.add(produto);
+        trava.writeLock().lock();
+        try {
+            this.produtos.add(produto);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -84,9 +119,18 @@ public class GerenciadorProduto {
         // A lógica de comparação (String.equals(int)) é inerentemente problemática
         // e provavelmente falhará, pois o Java autobox a int para Integer,
         // e um String nunca é igual a um Integer.
-        boolean removido = this.produtos.removeIf(p -> id.equals(p.getId()));
+        boolean removido;
+        trava.writeLock().lock();
+        try {
+            removido = this.produtos.removeIf(p -> id.equals(p.getId()));
+            if (removido) {
+                alteracoes.registrar();
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
         if (removido) {
-            System.out.println("Removido com sucesso!");
+            LOG.info("Removido com sucesso!");
         }
         return removido;
     }
@@ -98,22 +142,50 @@ public class GerenciadorProduto {
      * @return O objeto {@link Produto} encontrado, ou {@code null} se não existir.
      */
     public Produto buscarPorId(int id) {
-        for (Produto p : produtos) {
-            if (p.getId() == id) {
-                return p;
-            }
+        trava.readLock().lock();
+        try {
+            return produtos.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
         }
-        return null;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar referências gravadas por ID (ex: o
+     * {@code produtoId} de um venda). Procura na lista em memória e, se não
+     * encontrar, no arquivo JSON, cobrindo registros cadastrados por outra
+     * instância do gerenciador. A lista em memória não é alterada.
+     *
+     * @param id O identificador do produto.
+     * @return O {@link Produto} encontrado, ou {@code null} se não existir.
+     */
+    public Produto buscarReferencia(int id) {
+        Produto emMemoria = buscarPorId(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        return repo.buscarPorId(id);
     }
 
     /**
      * Atualiza o estoque de um produto após uma venda (dando baixa).
      *
      * Este método busca o produto pelo ID. Se o produto existir e tiver
-     * estoque suficiente, a quantidade é subtraída.
+     * estoque suficiente, a quantidade é subtraída. A conferência e a baixa
+     * acontecem sob a trava de escrita, então duas vendas simultâneas não
+     * deixam o estoque negativo.
      *
-     * Esta operação *salva automaticamente* a lista inteira de produtos
-     * no arquivo JSON (via {@code repo.salvarTodos}) após a atualização bem-sucedida.
+     * A conferência parte da quantidade gravada no arquivo, e não da lista
+     * em memória, com a trava exclusiva do arquivo (via
+     * {@link RepositorioJson#alterar(int, java.util.function.UnaryOperator)}):
+     * assim, outra instância da Barbearia vendendo o mesmo produto também
+     * não faz o estoque ficar negativo. A quantidade gravada é copiada para
+     * o produto em memória.
+     *
+     * Esta operação *salva automaticamente* o produto alterado, registrando
+     * a nova versão no journal de produtos (sem reescrever o arquivo inteiro).
+     * Um produto que ainda só existe em memória tem a baixa registrada a
+     * partir da quantidade em memória.
      *
      * @param produtoId O ID do produto vendido.
      * @param quantidadeVendida A quantidade a ser removida do estoque.
@@ -122,31 +194,111 @@ public class GerenciadorProduto {
      * encontrado ou o estoque seja insuficiente.
      */
     public boolean atualizarEstoque(int produtoId, int quantidadeVendida) {
-        Produto p = buscarPorId(produtoId);
-        if (p != null && p.getQuantidade() >= quantidadeVendida) {
-            p.setQuantidade(p.getQuantidade() - quantidadeVendida);
-            repo.salvarTodos(produtos); // Persistência imediata
+        trava.writeLock().lock();
+        try {
+            Produto p = produtos.buscarPorId(produtoId);
+            if (p == null) {
+                return false;
+            }
+            return repo.executarComTrava(() -> {
+                if (repo.buscarPorId(produtoId) == null) {
+                    if (p.getQuantidade() < quantidadeVendida) {
+                        return false;
+                    }
+                    p.setQuantidade(p.getQuantidade() - quantidadeVendida);
+                    repo.registrarAtualizacao(p); // Persistência imediata
+                    alteracoes.registrarGravada();
+                    return true;
+                }
+                Produto gravado = repo.alterar(produtoId, atual -> {
+                    if (atual.getQuantidade() < quantidadeVendida) {
+                        return null;
+                    }
+                    atual.setQuantidade(atual.getQuantidade() - quantidadeVendida);
+                    return atual;
+                });
+                Produto noArquivo = gravado != null ? gravado : repo.buscarPorId(produtoId);
+                p.setQuantidade(noArquivo.getQuantidade());
+                if (gravado != null) {
+                    alteracoes.registrarGravada();
+                }
+                return gravado != null;
+            });
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Define a quantidade total em estoque de um produto (ex: após uma
+     * contagem ou reposição).
+     *
+     * Assim como {@link #atualizarEstoque(int, int)}, a nova quantidade é
+     * registrada no journal de produtos com a trava exclusiva do arquivo e
+     * copiada para o produto em memória, sem reescrever o arquivo inteiro.
+     *
+     * @param produtoId  O ID do produto.
+     * @param quantidade A nova quantidade total em estoque.
+     * @return {@code true} se o produto foi encontrado e atualizado.
+     */
+    public boolean definirEstoque(int produtoId, int quantidade) {
+        trava.writeLock().lock();
+        try {
+            Produto p = produtos.buscarPorId(produtoId);
+            if (p == null) {
+                return false;
+            }
+            repo.executarComTrava(() -> {
+                Produto gravado = repo.alterar(produtoId, atual -> {
+                    atual.setQuantidade(quantidade);
+                    return atual;
+                });
+                p.setQuantidade(quantidade);
+                if (gravado == null) {
+                    repo.registrarAtualizacao(p); // produto que ainda só existe em memória
+                }
+                return null;
+            });
+            alteracoes.registrarGravada();
             return true;
+        } finally {
+            trava.writeLock().unlock();
         }
-        return false;
     }
 
     /**
      * Retorna a lista completa de produtos mantida em memória.
      *
-     * @return Uma {@link List} de {@link Produto}.
+     * @return Uma cópia da lista de {@link Produto}.
      */
     public List<Produto> listar() {
-        return produtos;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(produtos);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
      * Salva a lista de produtos atualmente em memória no arquivo JSON.
      *
      * Esta ação sobrescreve o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodosProdutos(){
-        repo.salvarTodos(produtos);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(produtos);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -157,7 +309,22 @@ public class GerenciadorProduto {
      * efetivamente limpando todos os dados persistidos.
      */
     public void limpar() {
-        produtos = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            produtos = new ListaIndexada<>(Produto::getId);
+            repo.salvarTodos(new ArrayList<>());
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações da lista de produtos, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
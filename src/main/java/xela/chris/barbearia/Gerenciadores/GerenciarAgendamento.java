@@ -2,18 +2,26 @@ package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.Comparators.AgendamentoDataComparator;
 import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.Servico;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.HorarioDisponivel;
+import xela.chris.barbearia.models.Cadeira;
 import xela.chris.barbearia.enums.StatusAtendimentoCliente;
 import xela.chris.barbearia.models.NotaFiscal;
 import xela.chris.barbearia.models.Venda;
 import xela.chris.barbearia.Gerenciadores.GerenciarNotaFiscal;
 import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
 import xela.chris.barbearia.servicos.ServicoOrdemServico;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -27,34 +35,176 @@ import java.util.stream.Collectors;
  * - Listar e limpar todos os agendamentos;
  * - Persistir os dados em arquivo JSON.
  *
- * Ela mantém os agendamentos em memória e utiliza o {@code RepositorioJson}
- * para salvar e carregar automaticamente os dados no arquivo {@code agendamentos.json}.
+ * Os agendamentos ficam em um arquivo por mês ({@code agendamentos-2026-10.json},
+ * ver {@link RepositorioParticionado}). Ao iniciar, apenas o mês corrente e os
+ * seguintes são carregados para a memória; um mês anterior é aberto quando
+ * recebe um agendamento ou quando um agendamento dele é procurado pelo ID.
+ * Consultas de período e balanços de meses não carregados leem só as
+ * partições desses meses, sem trazê-las para a lista.
+ * Criações, remoções e finalizações são registradas individualmente no journal
+ * da partição do mês; {@link #salvarTodos()} grava um snapshot completo dos meses
+ * carregados, no formato binário ({@link FormatoArquivo#BINARIO}) por serem os
+ * maiores arquivos de dados.
+ *
+ * As validações de horário e de cadeira consultam um {@link IndiceHorarios},
+ * atualizado a cada criação, remoção e alteração, em vez de percorrer a lista.
+ *
+ * Lista e índices ficam sob uma trava de leitura/escrita, para que vários
+ * terminais consultem horários e balanços em paralelo. Para agendar a partir
+ * de mais de um terminal, use {@link #reservar(Agendamento, int)}, que
+ * confirma a disponibilidade e registra o agendamento sob a mesma trava.
  */
 public class GerenciarAgendamento {
 
-    private List<Agendamento> agendamentos = new ArrayList<>();
-    private RepositorioJson<Agendamento> repo = new RepositorioJson<>(Agendamento.class, "agendamentos.json");
+    private static final Log LOG = Log.de(GerenciarAgendamento.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("agendamentos.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("agendamentos.salvar");
+    private static final Temporizador TEMPO_FINALIZAR = Metricas.padrao().temporizador("agendamentos.finalizar");
+
+    private ListaIndexada<Agendamento> agendamentos = new ListaIndexada<>(Agendamento::getId);
+    private final RepositorioParticionado<Agendamento> repo = criarRepositorio();
+
+    /** Ocupação de cadeiras e funcionários por horário, mantida junto com a lista. */
+    private final IndiceHorarios indiceHorarios = new IndiceHorarios();
+
+    /** Faturamento de serviços resumido por dia, mantido junto com a lista. */
+    private final IndiceBalanco indiceBalanco = new IndiceBalanco();
+
+    /** Protege {@code agendamentos} e os índices mantidos junto com a lista. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /**
+     * Alterações em {@code agendamentos}; as que vão para o journal já
+     * contam como gravadas.
+     */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
+
+    /** Intervalo entre os horários oferecidos pela busca de horários livres. */
+    public static final int INTERVALO_HORARIOS_MINUTOS = 30;
+    /** Hora de abertura da barbearia, usada pela busca de horários livres. */
+    public static final int HORA_ABERTURA = 8;
+    /** Hora de fechamento; o atendimento precisa terminar até este horário. */
+    public static final int HORA_FECHAMENTO = 20;
+
+    /** Gerenciadores donos das entidades referenciadas por ID no JSON. */
+    private final GerenciarCliente gerenciarCliente;
+    private final GerenciadorFuncionario gerenciadorFuncionario;
+    private final GerenciarServico gerenciarServico;
 
     /**
      * Construtor que automaticamente carrega os agendamentos gravados no JSON.
+     * Cria gerenciadores próprios de clientes, funcionários e serviços para
+     * resolver as referências gravadas por ID.
      */
     public GerenciarAgendamento() {
+        this(new GerenciarCliente(), new GerenciadorFuncionario(), new GerenciarServico());
+    }
+
+    /**
+     * Construtor para injeção de dependência, usando os gerenciadores
+     * informados para resolver cliente, funcionário e serviços dos
+     * agendamentos carregados.
+     *
+     * @param gerenciarCliente       Gerenciador de clientes.
+     * @param gerenciadorFuncionario Gerenciador de funcionários.
+     * @param gerenciarServico       Gerenciador de serviços.
+     */
+    public GerenciarAgendamento(GerenciarCliente gerenciarCliente, GerenciadorFuncionario gerenciadorFuncionario,
+                                GerenciarServico gerenciarServico) {
+        this.gerenciarCliente = gerenciarCliente;
+        this.gerenciadorFuncionario = gerenciadorFuncionario;
+        this.gerenciarServico = gerenciarServico;
+        Metricas.padrao().medidor("agendamentos.registros", this, g -> g.agendamentos.size());
         this.carregar();
     }
 
     /**
-     * Carrega todos os agendamentos a partir do arquivo JSON.
-     * Se a lista não estiver vazia, atualiza o contador de IDs da classe {@link Agendamento}
-     * para evitar duplicação de identificadores ao reiniciar o sistema.
+     * Cria o repositório particionado por mês dos agendamentos, com a
+     * configuração usada pelo gerenciador (journal com gravação adiada e
+     * formato binário).
+     *
+     * @return Repositório dos arquivos {@code agendamentos-<mês>.json}.
+     */
+    public static RepositorioParticionado<Agendamento> criarRepositorio() {
+        RepositorioParticionado<Agendamento> repositorio = new RepositorioParticionado<>(Agendamento.class,
+                "agendamentos", Agendamento::getId, agendamento -> DataHora.diaDoMinuto(agendamento.getMinutoDataHora()));
+        repositorio.setGravacaoAdiada(GravacaoAdiada.padrao());
+        repositorio.setFormato(FormatoArquivo.BINARIO); // os maiores arquivos de dados
+        return repositorio;
+    }
+
+    /**
+     * Carrega os agendamentos dos meses abertos (o corrente, os seguintes e
+     * os abertos depois) e liga cliente, funcionário e serviços a partir dos
+     * IDs gravados.
+     * Atualiza o contador de IDs da classe {@link Agendamento} com o maior ID
+     * já gravado, inclusive nos meses não carregados, para evitar duplicação
+     * de identificadores ao reiniciar o sistema.
      */
     public void carregar() {
-        agendamentos = repo.buscarTodos();
-        if (!agendamentos.isEmpty()) {
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            agendamentos = new ListaIndexada<>(Agendamento::getId, repo.buscarAbertos());
+            alteracoes.marcarSalvo();
+            indiceHorarios.limpar();
+            indiceBalanco.limpar();
+            for (Agendamento agendamento : agendamentos) {
+                resolverReferencias(agendamento);
+                indiceHorarios.adicionar(agendamento);
+                indiceBalanco.adicionar(agendamento);
+            }
             int maiorId = agendamentos.stream()
                     .mapToInt(Agendamento::getId)
                     .max()
                     .orElse(0);
-            Agendamento.atualizarContador(maiorId);
+            maiorId = Math.max(maiorId, repo.getMaiorId());
+            if (maiorId > 0) {
+                Agendamento.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Traz para a memória os agendamentos de um mês ainda não carregado.
+     * Deve ser chamado com a trava de escrita.
+     *
+     * @param mes Chave do mês (ver {@link RepositorioParticionado#mesDoDia(int)}).
+     */
+    private void abrirMesSemTrava(int mes) {
+        for (Agendamento agendamento : repo.abrirMes(mes)) {
+            if (agendamentos.buscarPorId(agendamento.getId()) != null) {
+                continue;
+            }
+            resolverReferencias(agendamento);
+            agendamentos.add(agendamento);
+            indiceHorarios.adicionar(agendamento);
+            indiceBalanco.adicionar(agendamento);
+        }
+    }
+
+    /**
+     * Carrega os meses do período que ainda não estão na memória, para que
+     * as validações de horário considerem os agendamentos deles.
+     */
+    private void abrirPeriodo(int inicio, int fim) {
+        if (inicio == DataHora.SEM_DATA || fim <= inicio) {
+            return;
+        }
+        List<Integer> fechados = repo.mesesFechados(new DataHora.Periodo(inicio, fim));
+        if (fechados.isEmpty()) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            for (int mes : fechados) {
+                abrirMesSemTrava(mes);
+            }
+        } finally {
+            trava.writeLock().unlock();
         }
     }
 
@@ -65,7 +215,90 @@ public class GerenciarAgendamento {
      * @param agendamento Agendamento a ser registrado.
      */
     public void criarAgendamento(Agendamento agendamento) {
+        trava.writeLock().lock();
+        try {
+            criarSemTrava(agendamento);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra o agendamento somente se o funcionário e a cadeira ainda
+     * estiverem livres durante todo o atendimento. A verificação e o registro
+     * acontecem sob a trava da lista e sob a trava da partição do mês, que
+     * vale entre processos: se outro terminal gravou o mês desde a última
+     * leitura, os agendamentos do mês são relidos antes da verificação.
+     * Assim, dois terminais que validaram o mesmo horário ao mesmo tempo não
+     * conseguem ambos agendá-lo.
+     *
+     * @param agendamento    Agendamento a ser registrado.
+     * @param duracaoMinutos Duração do atendimento.
+     * @return {@code true} se o agendamento foi registrado; {@code false} se
+     * o horário foi ocupado nesse meio tempo.
+     */
+    public boolean reservar(Agendamento agendamento, int duracaoMinutos) {
+        int inicio = agendamento.getMinutoDataHora();
+        int mes = repo.mesDe(agendamento);
+        trava.writeLock().lock();
+        try {
+            abrirMesSemTrava(mes);
+            return repo.executarComTravaDoMes(mes, () -> {
+                if (repo.mesDesatualizado(mes)) {
+                    recarregarMesSemTrava(mes);
+                    if (agendamentos.contemId(agendamento.getId())) {
+                        // outro terminal usou o mesmo ID neste mês
+                        agendamento.setId(Agendamento.proximoId());
+                    }
+                }
+                if (inicio != DataHora.SEM_DATA
+                        && (indiceHorarios.funcionarioOcupado(agendamento.getFuncionarioId(), inicio, inicio + duracaoMinutos)
+                        || indiceHorarios.cadeiraOcupada(agendamento.getIdCadeira(), inicio, inicio + duracaoMinutos))) {
+                    return false;
+                }
+                criarSemTrava(agendamento);
+                return true;
+            });
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Troca os agendamentos do mês em memória pelos da partição, gravada por
+     * outro terminal depois da última leitura, e avança o contador de IDs
+     * além dos que ele usou. Deve ser chamado com a trava de escrita.
+     *
+     * @param mes Chave do mês.
+     */
+    private void recarregarMesSemTrava(int mes) {
+        List<Agendamento> doArquivo = repo.recarregarMes(mes);
+        agendamentos.removeIf(agendamento -> {
+            if (repo.mesDe(agendamento) != mes) {
+                return false;
+            }
+            indiceHorarios.remover(agendamento);
+            indiceBalanco.remover(agendamento);
+            return true;
+        });
+        int maiorId = 0;
+        for (Agendamento agendamento : doArquivo) {
+            resolverReferencias(agendamento);
+            agendamentos.add(agendamento);
+            indiceHorarios.adicionar(agendamento);
+            indiceBalanco.adicionar(agendamento);
+            maiorId = Math.max(maiorId, agendamento.getId());
+        }
+        Agendamento.avancarContador(maiorId);
+    }
+
+    private void criarSemTrava(Agendamento agendamento) {
+        abrirMesSemTrava(repo.mesDe(agendamento));
         this.agendamentos.add(agendamento);
+        indiceHorarios.adicionar(agendamento);
+        indiceBalanco.adicionar(agendamento);
+        repo.registrarInsercao(agendamento);
+        alteracoes.registrarGravada();
     }
 
     /**
@@ -76,69 +309,293 @@ public class GerenciarAgendamento {
      * @return {@code true} se foi removido; {@code false} caso não exista.
      */
     public boolean removerPorId(int id) {
-        boolean removido = this.agendamentos.removeIf(agendamento -> agendamento.getId() == id);
+        boolean removido;
+        trava.writeLock().lock();
+        try {
+            removido = this.agendamentos.removeIf(agendamento -> {
+                if (agendamento.getId() != id) {
+                    return false;
+                }
+                indiceHorarios.remover(agendamento);
+                indiceBalanco.remover(agendamento);
+                return true;
+            });
+            if (removido) {
+                repo.registrarRemocao(id);
+                alteracoes.registrarGravada();
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
         if (removido) {
-            System.out.println("Removido com sucesso!");
+            LOG.info("Removido com sucesso!");
         }
         return removido;
     }
 
     /**
-     * Busca um agendamento pelo seu ID.
+     * Busca um agendamento pelo seu ID. Se ele for de um mês ainda não
+     * carregado, o mês inteiro é trazido para a memória, para que o
+     * agendamento possa ser alterado e salvo como os demais.
      *
      * @param id Identificador do agendamento desejado.
      * @return O agendamento encontrado ou {@code null} se não existir.
      */
     public Agendamento buscarPorId(int id) {
-        Iterator<Agendamento> iterator = agendamentos.iterator();
-        while (iterator.hasNext()) {
-            Agendamento agendamento = iterator.next();
-            if (agendamento.getId() == id) {
-                return agendamento;
+        Agendamento agendamento = buscarEmMemoria(id);
+        if (agendamento == null) {
+            Agendamento arquivado = repo.buscarPorId(id);
+            if (arquivado != null) {
+                trava.writeLock().lock();
+                try {
+                    abrirMesSemTrava(repo.mesDe(arquivado));
+                    agendamento = agendamentos.buscarPorId(id);
+                } finally {
+                    trava.writeLock().unlock();
+                }
+            }
+        }
+        if (agendamento == null) {
+            LOG.info("Agendamento nao encontrado!");
+        }
+        return agendamento;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar o {@code agendamentoId} de uma nota
+     * fiscal. Procura na lista em memória e, se não encontrar, nas partições
+     * dos meses não carregados, sem alterar a lista em memória.
+     *
+     * @param id Identificador do agendamento.
+     * @return O agendamento encontrado (com referências resolvidas) ou {@code null}.
+     */
+    public Agendamento buscarReferencia(int id) {
+        Agendamento emMemoria = buscarEmMemoria(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        Agendamento agendamento = repo.buscarPorId(id);
+        if (agendamento != null) {
+            resolverReferencias(agendamento);
+        }
+        return agendamento;
+    }
+
+    private Agendamento buscarEmMemoria(int id) {
+        trava.readLock().lock();
+        try {
+            return agendamentos.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liga cliente, funcionário e serviços de um agendamento a partir dos
+     * IDs gravados no JSON, usando os gerenciadores donos dessas entidades.
+     *
+     * @param agendamento Agendamento lido do arquivo.
+     */
+    public void resolverReferencias(Agendamento agendamento) {
+        List<Servico> servicos = resolverServicos(agendamento.getServicoIds());
+        if (servicos.size() < agendamento.getServicoIds().size() && agendamento.getServicos() != null) {
+            servicos = null; // mantém os serviços embutidos (formato antigo) se algum ID sumiu
+        }
+        agendamento.resolverReferencias(
+                gerenciarCliente.buscarReferencia(agendamento.getClienteId()),
+                gerenciadorFuncionario.buscarReferencia(agendamento.getFuncionarioId()),
+                servicos);
+    }
+
+    /**
+     * Converte uma lista de IDs de serviço nos objetos {@link Servico}
+     * correspondentes. IDs não encontrados são ignorados.
+     *
+     * @param ids IDs dos serviços.
+     * @return Lista com os serviços encontrados.
+     */
+    public List<Servico> resolverServicos(List<Integer> ids) {
+        List<Servico> servicos = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Servico servico = gerenciarServico.buscarReferencia(id);
+            if (servico != null) {
+                servicos.add(servico);
             }
         }
-        System.out.println("Agendamento nao encontrado!");
-        return null;
+        return servicos;
     }
 
     /**
-     * Verifica se uma cadeira está disponível em um determinado horário.
-     * Essa validação impede que duas pessoas agendem o mesmo horário na mesma cadeira.
+     * Verifica se uma cadeira está disponível em um determinado horário,
+     * considerando um atendimento com a duração padrão de um serviço.
      *
      * @param horario   Horário desejado.
      * @param idCadeira Número da cadeira.
      * @return {@code true} se estiver disponível; {@code false} caso já esteja ocupada.
+     * @see #verificarDisponibilidadeCadeira(String, int, int)
      */
     public boolean verificarDisponibilidadeCadeira(String horario, int idCadeira) {
-        for (Agendamento agendamento : agendamentos) {
-            if (agendamento.getDataHora().equals(horario) && agendamento.getIdCadeira() == idCadeira) {
-                return false;
-            }
+        return verificarDisponibilidadeCadeira(horario, Servico.DURACAO_PADRAO_MINUTOS, idCadeira);
+    }
+
+    /**
+     * Verifica se uma cadeira está livre durante todo o atendimento, ou seja,
+     * se nenhum agendamento dela se sobrepõe ao intervalo
+     * [horario, horario + duracaoMinutos).
+     * Essa validação impede que duas pessoas usem a mesma cadeira ao mesmo tempo.
+     * Horários que não estão no formato "dd/MM/yyyy HH:mm" não podem ser
+     * comparados e são considerados livres.
+     *
+     * @param horario        Horário desejado.
+     * @param duracaoMinutos Duração do atendimento.
+     * @param idCadeira      Número da cadeira.
+     * @return {@code true} se estiver disponível; {@code false} caso já esteja ocupada.
+     */
+    public boolean verificarDisponibilidadeCadeira(String horario, int duracaoMinutos, int idCadeira) {
+        int inicio = DataHora.paraMinutos(horario);
+        if (inicio == DataHora.SEM_DATA) {
+            return true;
+        }
+        abrirPeriodo(inicio, inicio + duracaoMinutos);
+        trava.readLock().lock();
+        try {
+            return !indiceHorarios.cadeiraOcupada(idCadeira, inicio, inicio + duracaoMinutos);
+        } finally {
+            trava.readLock().unlock();
         }
-        return true;
     }
 
     /**
-     * Verifica se o funcionário já possui um agendamento registrado no mesmo horário,
-     * evitando que ele atenda mais de um cliente ao mesmo tempo.
+     * Verifica se o funcionário está livre em um horário, considerando um
+     * atendimento com a duração padrão de um serviço.
      *
      * @param horario     Horário desejado.
      * @param funcionario Funcionário responsável pelo atendimento.
      * @return {@code true} se o horário estiver livre; {@code false} se já houver outro agendamento.
+     * @see #verificarHorarioAgendamento(String, int, Funcionario)
      */
     public boolean verificarHorarioAgendamento(String horario, Funcionario funcionario) {
-        Iterator<Agendamento> iterator = agendamentos.iterator();
-        while (iterator.hasNext()) {
-            Agendamento agendamento = iterator.next();
-            if (agendamento.getFuncionario().equals(funcionario) && agendamento.getDataHora().equals(horario)) {
-                System.out.println("Já existe um horario para este funcionario e também neste horario!");
-                return false;
-            }
+        return verificarHorarioAgendamento(horario, Servico.DURACAO_PADRAO_MINUTOS, funcionario);
+    }
+
+    /**
+     * Verifica se o funcionário já possui um agendamento que se sobrepõe ao
+     * intervalo [horario, horario + duracaoMinutos), evitando que ele atenda
+     * mais de um cliente ao mesmo tempo. O funcionário é comparado pelo ID.
+     * Horários que não estão no formato "dd/MM/yyyy HH:mm" não podem ser
+     * comparados e são considerados livres.
+     *
+     * @param horario        Horário desejado.
+     * @param duracaoMinutos Duração do atendimento.
+     * @param funcionario    Funcionário responsável pelo atendimento.
+     * @return {@code true} se o horário estiver livre; {@code false} se já houver outro agendamento.
+     */
+    public boolean verificarHorarioAgendamento(String horario, int duracaoMinutos, Funcionario funcionario) {
+        int inicio = DataHora.paraMinutos(horario);
+        abrirPeriodo(inicio, inicio + duracaoMinutos);
+        boolean ocupado;
+        trava.readLock().lock();
+        try {
+            ocupado = inicio != DataHora.SEM_DATA
+                    && indiceHorarios.funcionarioOcupado(funcionario.getId(), inicio, inicio + duracaoMinutos);
+        } finally {
+            trava.readLock().unlock();
         }
-        System.out.println("Horario e funcionario Disponivel! Pode realizar o agendamento.");
+        if (ocupado) {
+            LOG.debug("Já existe um horario para este funcionario e também neste horario!");
+            return false;
+        }
+        LOG.debug("Horario e funcionario Disponivel! Pode realizar o agendamento.");
         return true;
     }
 
+    /**
+     * Procura, em ordem cronológica, as primeiras combinações livres de
+     * funcionário e cadeira para um atendimento dentro de uma janela de tempo.
+     *
+     * <p>
+     * Os horários candidatos avançam de {@link #INTERVALO_HORARIOS_MINUTOS}
+     * em {@link #INTERVALO_HORARIOS_MINUTOS} minutos, dentro do horário de
+     * funcionamento ({@link #HORA_ABERTURA} às {@link #HORA_FECHAMENTO}).
+     * Cada candidato é validado no índice de horários, sem percorrer a
+     * lista de agendamentos, então o custo não depende de quantos
+     * agendamentos antigos existam. Em um mesmo horário, as combinações
+     * seguem a ordem das listas de funcionários e de cadeiras.
+     * </p>
+     *
+     * @param inicio         Início da janela, em minutos desde 01/01/1970.
+     * @param fim            Fim da janela (exclusivo); o atendimento precisa terminar até ele.
+     * @param duracaoMinutos Duração do atendimento.
+     * @param funcionarios   Funcionários aceitos.
+     * @param cadeiras       Cadeiras aceitas (já filtradas pelo tipo necessário).
+     * @param quantidade     Número máximo de combinações retornadas.
+     * @return Lista com até {@code quantidade} combinações livres.
+     */
+    public List<HorarioDisponivel> buscarHorariosLivres(int inicio, int fim, int duracaoMinutos,
+                                                        List<Funcionario> funcionarios, List<Cadeira> cadeiras,
+                                                        int quantidade) {
+        List<HorarioDisponivel> livres = new ArrayList<>();
+        int abertura = HORA_ABERTURA * 60;
+        int fechamento = HORA_FECHAMENTO * 60;
+        if (duracaoMinutos <= 0 || duracaoMinutos > fechamento - abertura) {
+            return livres;
+        }
+
+        abrirPeriodo(inicio, fim);
+        trava.readLock().lock();
+        try {
+            buscarHorariosLivres(inicio, fim, duracaoMinutos, funcionarios, cadeiras, quantidade, livres);
+        } finally {
+            trava.readLock().unlock();
+        }
+        return livres;
+    }
+
+    private void buscarHorariosLivres(int inicio, int fim, int duracaoMinutos, List<Funcionario> funcionarios,
+                                      List<Cadeira> cadeiras, int quantidade, List<HorarioDisponivel> livres) {
+        List<Cadeira> cadeirasLivres = new ArrayList<>(cadeiras.size());
+        int abertura = HORA_ABERTURA * 60;
+        int fechamento = HORA_FECHAMENTO * 60;
+        long candidato = Math.floorDiv(inicio + INTERVALO_HORARIOS_MINUTOS - 1, INTERVALO_HORARIOS_MINUTOS)
+                * (long) INTERVALO_HORARIOS_MINUTOS;
+        while (candidato + duracaoMinutos <= fim && livres.size() < quantidade) {
+            long dia = Math.floorDiv(candidato, DataHora.MINUTOS_POR_DIA);
+            long minutoDoDia = candidato - dia * DataHora.MINUTOS_POR_DIA;
+            if (minutoDoDia < abertura) {
+                candidato = dia * DataHora.MINUTOS_POR_DIA + abertura;
+                continue;
+            }
+            if (minutoDoDia + duracaoMinutos > fechamento) {
+                candidato = (dia + 1) * DataHora.MINUTOS_POR_DIA + abertura;
+                continue;
+            }
+
+            // As cadeiras livres são calculadas uma vez por horário; se nenhuma
+            // estiver livre, os funcionários nem chegam a ser consultados.
+            int horario = (int) candidato;
+            cadeirasLivres.clear();
+            for (Cadeira cadeira : cadeiras) {
+                if (!indiceHorarios.cadeiraOcupada(cadeira.getId(), horario, horario + duracaoMinutos)) {
+                    cadeirasLivres.add(cadeira);
+                }
+            }
+            if (!cadeirasLivres.isEmpty()) {
+                for (Funcionario funcionario : funcionarios) {
+                    if (indiceHorarios.funcionarioOcupado(funcionario.getId(), horario, horario + duracaoMinutos)) {
+                        continue;
+                    }
+                    for (Cadeira cadeira : cadeirasLivres) {
+                        if (livres.size() == quantidade) {
+                            return;
+                        }
+                        livres.add(new HorarioDisponivel(cadeira, funcionario, horario));
+                    }
+                }
+            }
+            candidato += INTERVALO_HORARIOS_MINUTOS;
+        }
+    }
+
     /**
      * Ordena a lista de agendamentos em memória por data e hora,
      * utilizando o comparador {@link AgendamentoDataComparator}.
@@ -148,7 +605,13 @@ public class GerenciarAgendamento {
      * a ordenação.</p>
      */
     public void ordenarPorData(){
-        Collections.sort(agendamentos, new AgendamentoDataComparator());
+        trava.writeLock().lock();
+        try {
+            Collections.sort(agendamentos, new AgendamentoDataComparator());
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -158,30 +621,178 @@ public class GerenciarAgendamento {
      * @return Uma lista vazia.
      */
     public List<Agendamento> listarAgendamentos() {
-        System.out.println("Agedamentos carregados: " + agendamentos.size());
-        for (Agendamento a : agendamentos) {
+        List<Agendamento> copia = copiar();
+        System.out.println("Agedamentos carregados: " + copia.size());
+        for (Agendamento a : copia) {
             System.out.println(a);
         }
         return List.of();
     }
 
     public List<Agendamento> listarAgendamentosOrdenadosPorData(){
-        ordenarPorData();
-        return new ArrayList<>(agendamentos); // Só retorna a lista ordenada
+        trava.writeLock().lock();
+        try {
+            ordenarPorData();
+            return new ArrayList<>(agendamentos); // Só retorna a lista ordenada
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private List<Agendamento> copiar() {
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(agendamentos);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
+    /**
+     * Retorna os agendamentos dentro do período, em ordem cronológica,
+     * comparando a chave numérica de cada agendamento. Os meses carregados
+     * vêm da memória; os demais meses do período são lidos das suas
+     * partições, sem entrar na lista em memória.
+     *
+     * @param periodo Período desejado (ver {@link DataHora#periodo(String)}).
+     * @return Nova lista com os agendamentos do período.
+     */
+    public List<Agendamento> buscarPorPeriodo(DataHora.Periodo periodo) {
+        List<Agendamento> encontrados = new ArrayList<>();
+        trava.readLock().lock();
+        try {
+            for (Agendamento agendamento : agendamentos) {
+                if (periodo.contem(agendamento.getMinutoDataHora())) {
+                    encontrados.add(agendamento);
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        for (int mes : repo.mesesFechados(periodo)) {
+            for (Agendamento agendamento : repo.buscarMes(mes)) {
+                if (periodo.contem(agendamento.getMinutoDataHora())) {
+                    resolverReferencias(agendamento);
+                    encontrados.add(agendamento);
+                }
+            }
+        }
+        encontrados.sort(new AgendamentoDataComparator());
+        return encontrados;
+    }
 
+    /**
+     * Retorna o faturamento de serviços do período a partir dos resumos
+     * diários, sem percorrer os agendamentos carregados. Cada mês do período
+     * que não está em memória é lido da sua partição e resumido à parte.
+     *
+     * @param periodo Período desejado (ver {@link DataHora#periodo(String)}).
+     * @return Resumo do período, ou {@code null} se o período não for formado
+     * por dias inteiros.
+     */
+    public ResumoBalanco resumirBalanco(DataHora.Periodo periodo) {
+        ResumoBalanco resumo;
+        trava.readLock().lock();
+        try {
+            resumo = indiceBalanco.resumir(periodo);
+        } finally {
+            trava.readLock().unlock();
+        }
+        if (resumo == null) {
+            return null;
+        }
+        for (int mes : repo.mesesFechados(periodo)) {
+            IndiceBalanco doMes = repo.resumirMes(mes, this::indexarBalanco);
+            resumo.somar(doMes.resumir(periodo));
+        }
+        return resumo;
+    }
+
+    /**
+     * Monta o índice de balanço de um mês não carregado, guardado pelo
+     * repositório até a partição mudar.
+     */
+    private IndiceBalanco indexarBalanco(List<Agendamento> doMes) {
+        IndiceBalanco indice = new IndiceBalanco();
+        for (Agendamento agendamento : doMes) {
+            resolverReferencias(agendamento);
+            indice.adicionar(agendamento);
+        }
+        return indice;
+    }
+
+    /**
+     * Percorre, direto dos arquivos (snapshot + journal), os agendamentos cuja
+     * {@code dataHora} pertence ao período do filtro, sem carregar a lista inteira.
+     * Só as partições dos meses do período são lidas, e agendamentos de
+     * outras datas não chegam a ser convertidos em objetos.
+     * Filtros que não são uma data (ver {@link DataHora#periodo(String)}) são
+     * tratados como trecho de texto.
+     *
+     * @param filtroData Trecho da data (ex: "15/11/2025" ou "11/2025").
+     * @param consumidor Ação executada para cada agendamento encontrado.
+     */
+    public void percorrerPorData(String filtroData, Consumer<Agendamento> consumidor) {
+        repo.percorrer(DataHora.periodo(filtroData), "dataHora", DataHora.filtroDeTexto(filtroData), agendamento -> {
+            resolverReferencias(agendamento);
+            consumidor.accept(agendamento);
+        });
+    }
+
+    /**
+     * Grava um snapshot completo da lista em memória nas partições dos meses
+     * carregados, compactando os journals de alterações.
+     * Não faz nada se a lista não teve alterações fora do journal desde a
+     * última leitura ou gravação (ver {@link ContadorModificacoes}).
+     */
     public void salvarTodos(){
-        repo.salvarTodos(agendamentos);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(agendamentos);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Persiste a alteração de um único agendamento (ex: mudança de status)
+     * registrando-a no journal, sem reescrever o arquivo inteiro.
+     *
+     * @param agendamento Agendamento alterado, já presente na lista em memória.
+     */
+    public void salvarAlteracao(Agendamento agendamento) {
+        trava.writeLock().lock();
+        try {
+            abrirMesSemTrava(repo.mesDe(agendamento));
+            indiceHorarios.atualizar(agendamento);
+            indiceBalanco.atualizar(agendamento);
+            repo.registrarAtualizacao(agendamento);
+            alteracoes.registrarGravada();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
-     * Remove todos os agendamentos tanto da memória quanto do arquivo JSON,
-     * deixando a lista completamente zerada.
+     * Remove todos os agendamentos tanto da memória quanto das partições de
+     * todos os meses, deixando a lista completamente zerada.
      */
     public void limparAgendamentos() {
-        agendamentos = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            agendamentos = new ListaIndexada<>(Agendamento::getId);
+            indiceHorarios.limpar();
+            indiceBalanco.limpar();
+            repo.limpar();
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -209,60 +820,82 @@ public class GerenciarAgendamento {
      * @return {@code true} se o agendamento foi finalizado, nota fiscal e OS geradas, {@code false} caso contrário
      */
     public boolean finalizarAgendamento(int idAgendamento, GerenciarNotaFiscal gerenciarNotaFiscal, GerenciarVenda gerenciarVenda, ServicoOrdemServico servicoOrdemServico) {
-        Agendamento ag = buscarPorId(idAgendamento);
-        if (ag == null) {
-            System.out.println("Agendamento não encontrado para finalizar!");
-            return false;
-        }
-
-        if (ag.getStatusCliente() == StatusAtendimentoCliente.ATENDIDO) {
-            System.out.println("Este agendamento já foi finalizado!");
-            return false;
-        }
+        long inicio = TEMPO_FINALIZAR.iniciar();
+        try {
+            Agendamento encontrado = buscarPorId(idAgendamento);
+            if (encontrado == null) {
+                LOG.info("Agendamento não encontrado para finalizar!");
+                return false;
+            }
 
-        ag.setStatusCliente(StatusAtendimentoCliente.ATENDIDO);
-        repo.salvarTodos(agendamentos);
+            // Conferir e marcar o status sob a trava da lista e sob a trava da
+            // partição do mês, que vale entre processos, impede que dois
+            // terminais finalizem (e faturem) o mesmo agendamento. Se outro
+            // terminal gravou o mês desde a última leitura, o mês é relido antes.
+            int mes = repo.mesDe(encontrado);
+            Agendamento ag;
+            trava.writeLock().lock();
+            try {
+                ag = repo.executarComTravaDoMes(mes, () -> {
+                    if (repo.mesDesatualizado(mes)) {
+                        recarregarMesSemTrava(mes);
+                    }
+                    Agendamento atual = agendamentos.buscarPorId(idAgendamento);
+                    if (atual == null || atual.getStatusCliente() == StatusAtendimentoCliente.ATENDIDO) {
+                        return null;
+                    }
+                    atual.setStatusCliente(StatusAtendimentoCliente.ATENDIDO);
+                    salvarAlteracao(atual);
+                    return atual;
+                });
+            } finally {
+                trava.writeLock().unlock();
+            }
+            if (ag == null) {
+                LOG.info("Este agendamento já foi finalizado!");
+                return false;
+            }
 
-        List<Venda> vendasCliente = new ArrayList<>();
-        if (gerenciarNotaFiscal != null && gerenciarVenda != null && ag.getCliente() != null) {
+            List<Venda> vendasCliente = new ArrayList<>();
+            if (gerenciarNotaFiscal != null && gerenciarVenda != null && ag.getCliente() != null) {
 
-            gerenciarVenda.carregar();
-            gerenciarNotaFiscal.carregar();
-            List<Venda> todasVendas = gerenciarVenda.listar();
-            List<NotaFiscal> todasNotas = gerenciarNotaFiscal.listar();
+                gerenciarVenda.carregar();
+                gerenciarNotaFiscal.carregar();
+                vendasCliente = gerenciarNotaFiscal.filtrarNaoFaturadas(gerenciarVenda.buscarPorCliente(ag.getClienteId()));
 
-            for (Venda venda : todasVendas) {
-                if (venda.getCliente() != null && venda.getCliente().getId() == ag.getCliente().getId()) {
-                    boolean jaVinculada = todasNotas.stream()
-                            .anyMatch(nota -> nota.getVendasProdutos() != null &&
-                                    nota.getVendasProdutos().stream().anyMatch(v -> v.getId() == venda.getId()));
-                    if (!jaVinculada) {
-                        vendasCliente.add(venda);
-                    }
+                NotaFiscal nota = gerenciarNotaFiscal.gerarNotaFiscal(ag, vendasCliente);
+                if (nota != null) {
+                    LOG.info("Agendamento finalizado e Nota Fiscal gerada automaticamente!");
+                    LOG.info("ID da Nota Fiscal: " + nota.getId());
                 }
             }
 
-            NotaFiscal nota = gerenciarNotaFiscal.gerarNotaFiscal(ag, vendasCliente);
-            if (nota != null) {
-                System.out.println("Agendamento finalizado e Nota Fiscal gerada automaticamente!");
-                System.out.println("ID da Nota Fiscal: " + nota.getId());
-            }
-        }
 
+            if (servicoOrdemServico != null && ag.getCliente() != null) {
 
-        if (servicoOrdemServico != null && ag.getCliente() != null) {
+                int diaAgendamento = Math.floorDiv(ag.getMinutoDataHora(), DataHora.MINUTOS_POR_DIA);
+                List<Venda> vendasNoDia = gerenciarVenda.listar().stream()
+                        .filter(venda -> venda.getClienteId() == ag.getClienteId())
+                        .filter(venda -> venda.getDiaVenda() != DataHora.SEM_DATA && venda.getDiaVenda() == diaAgendamento)
+                        .collect(Collectors.toList());
 
-            String agendamentoDate = ag.getDataHora().split(" ")[0];
-            List<Venda> vendasNoDia = gerenciarVenda.listar().stream()
-                    .filter(venda -> venda.getCliente() != null && venda.getCliente().getId() == ag.getCliente().getId())
-                    .filter(venda -> venda.getDataVenda() != null && venda.getDataVenda().equals(agendamentoDate))
-                    .collect(Collectors.toList());
+                servicoOrdemServico.criarEsalvarOS(ag, vendasNoDia);
+            } else {
+                LOG.info("Nao foi possivel gerar e salvar a Ordem de Servico, faltando cliente ou ServicoOrdemServico.");
+            }
 
-            servicoOrdemServico.criarEsalvarOS(ag, vendasNoDia);
-        } else {
-            System.out.println("Nao foi possivel gerar e salvar a Ordem de Servico, faltando cliente ou ServicoOrdemServico.");
+            return true;
+        } finally {
+            TEMPO_FINALIZAR.registrarDesde(inicio);
         }
+    }
 
-        return true;
+    /**
+     * Retorna o contador de alterações da lista de agendamentos, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
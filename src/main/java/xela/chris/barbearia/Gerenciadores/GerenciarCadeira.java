@@ -2,9 +2,12 @@ package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.enums.TipoCadeira;
 import xela.chris.barbearia.models.Cadeira;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -21,11 +24,19 @@ import java.util.stream.Collectors;
  * - Sincronização do contador de IDs estático da classe {@link Cadeira}.
  * - Métodos de busca para encontrar cadeiras por ID ou por tipo.
  * - Listagem geral de todas as cadeiras.
+ *
+ * As consultas usam a trava de leitura e podem ser feitas por vários
+ * terminais ao mesmo tempo; a lista devolvida é sempre uma cópia.
  */
 public class GerenciarCadeira {
 
-    private List<Cadeira> cadeiras = new ArrayList<>();
-    private RepositorioJson<Cadeira> repo = new RepositorioJson<>(Cadeira.class, "cadeiras.json");
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("cadeiras.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("cadeiras.salvar");
+
+    private ListaIndexada<Cadeira> cadeiras = new ListaIndexada<>(Cadeira::getId);
+    private RepositorioJson<Cadeira> repo = new RepositorioJson<>(Cadeira.class, "cadeiras.json", Cadeira::getId);
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor padrão.
@@ -37,6 +48,8 @@ public class GerenciarCadeira {
      * chamado para persistir essas cadeiras padrão.
      */
     public GerenciarCadeira() {
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("cadeiras.registros", this, g -> g.cadeiras.size());
         carregar();
         if (cadeiras.isEmpty()) {
             inicializarCadeiras();
@@ -57,6 +70,7 @@ public class GerenciarCadeira {
         cadeiras.add(new Cadeira("Cadeira Lavagem 1", TipoCadeira.LAVAR_SECAR));
         cadeiras.add(new Cadeira("Cadeira Serviço 1", TipoCadeira.SERVICO_CORRIQUEIRO));
         cadeiras.add(new Cadeira("Cadeira Serviço 2", TipoCadeira.SERVICO_CORRIQUEIRO));
+        alteracoes.registrar();
     }
 
     /**
@@ -69,31 +83,56 @@ public class GerenciarCadeira {
      * duplicados em novos cadastros.
      */
     public void carregar() {
-        cadeiras = repo.buscarTodos();
-        if (!cadeiras.isEmpty()) {
-            int maiorId = cadeiras.stream()
-                    .mapToInt(Cadeira::getId)
-                    .max()
-                    .orElse(0);
-            Cadeira.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            cadeiras = new ListaIndexada<>(Cadeira::getId, repo.buscarTodos());
+            alteracoes.marcarSalvo();
+            if (!cadeiras.isEmpty()) {
+                int maiorId = cadeiras.stream()
+                        .mapToInt(Cadeira::getId)
+                        .max()
+                        .orElse(0);
+                Cadeira.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
     /**
      * Salva a lista de cadeiras atualmente em memória ({@code this.cadeiras})
      * no arquivo JSON, sobrescrevendo o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvar() {
-        repo.salvarTodos(cadeiras);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(cadeiras);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
      * Retorna a lista de cadeiras atualmente mantida em memória.
      *
-     * @return Uma {@link List} de {@link Cadeira}.
+     * @return Uma cópia da lista de {@link Cadeira}.
      */
     public List<Cadeira> listarCadeiras() {
-        return cadeiras;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(cadeiras);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -104,10 +143,12 @@ public class GerenciarCadeira {
      * se nenhuma cadeira com esse ID existir na lista.
      */
     public Cadeira buscarPorId(int id) {
-        return cadeiras.stream()
-                .filter(c -> c.getId() == id)
-                .findFirst()
-                .orElse(null);
+        trava.readLock().lock();
+        try {
+            return cadeiras.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -120,8 +161,22 @@ public class GerenciarCadeira {
      * Pode retornar uma lista vazia se nenhum resultado for encontrado.
      */
     public List<Cadeira> buscarPorTipo(TipoCadeira tipo) {
-        return cadeiras.stream()
-                .filter(c -> c.getTipo() == tipo)
-                .collect(Collectors.toList());
+        trava.readLock().lock();
+        try {
+            return cadeiras.stream()
+                    .filter(c -> c.getTipo() == tipo)
+                    .collect(Collectors.toList());
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações da lista de cadeiras, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
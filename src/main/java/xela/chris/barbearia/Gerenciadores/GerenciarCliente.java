@@ -5,12 +5,16 @@ import xela.chris.barbearia.models.Cliente;
 
 import xela.chris.barbearia.Comparators.ClienteCpfComparators;
 import xela.chris.barbearia.Comparators.ClienteNomeComparators;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Responsável por gerenciar o ciclo de vida (CRUD) dos clientes da barbearia.
@@ -31,11 +35,24 @@ import java.util.List;
  * modifica apenas a lista em memória. É necessário chamar
  * {@link #salvarTodosClientes()} para persistir as alterações no arquivo.
  * A exceção é o método {@link #limpar()}, que persiste imediatamente.
+ *
+ * A lista fica sob uma trava de leitura/escrita; as buscas e ordenações
+ * trabalham em cópias, então leituras de vários terminais não se bloqueiam.
  */
 public class GerenciarCliente {
 
-    private List<Cliente> clientes = new ArrayList<>();
-    private RepositorioJson<Cliente> repo = new RepositorioJson<>(Cliente.class, "clientes.json");
+    private static final Log LOG = Log.de(GerenciarCliente.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("clientes.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("clientes.salvar");
+
+    private ListaIndexada<Cliente> clientes = new ListaIndexada<>(Cliente::getId);
+    private RepositorioJson<Cliente> repo = new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId);
+
+    /** Protege {@code clientes}. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Alterações em {@code clientes} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor padrão.
@@ -43,6 +60,8 @@ public class GerenciarCliente {
      * a lista de clientes a partir do arquivo JSON.
      */
     public GerenciarCliente() {
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("clientes.registros", this, g -> g.clientes.size());
         this.carregar();
     }
 
@@ -56,13 +75,21 @@ public class GerenciarCliente {
      * duplicados em novos cadastros.
      */
     public void carregar() {
-        clientes = repo.buscarTodos();
-        if (!clientes.isEmpty()) {
-            int maiorId = clientes.stream()
-                    .mapToInt(Cliente::getId)
-                    .max()
-                    .orElse(0);
-            Cliente.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            clientes = new ListaIndexada<>(Cliente::getId, repo.buscarTodos());
+            alteracoes.marcarSalvo();
+            if (!clientes.isEmpty()) {
+                int maiorId = clientes.stream()
+                        .mapToInt(Cliente::getId)
+                        .max()
+                        .orElse(0);
+                Cliente.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
@@ -74,15 +101,37 @@ public class GerenciarCliente {
      * existir na lista em memória.
      */
     public Cliente buscarCliente(int id) {
-        Iterator<Cliente> iterator = clientes.iterator();
-        while (iterator.hasNext()) {
-            Cliente cliente = iterator.next();
-            if (cliente.getId() == id) {
-                return cliente;
-            }
+        Cliente cliente = buscarEmMemoria(id);
+        if (cliente == null) {
+            LOG.info("Cliente não encontrado!");
+        }
+        return cliente;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar referências gravadas por ID (ex: o
+     * {@code clienteId} de um agendamento ou venda). Procura na lista em memória e, se não
+     * encontrar, no arquivo JSON, cobrindo registros cadastrados por outra
+     * instância do gerenciador. A lista em memória não é alterada.
+     *
+     * @param id O identificador do cliente.
+     * @return O {@link Cliente} encontrado, ou {@code null} se não existir.
+     */
+    public Cliente buscarReferencia(int id) {
+        Cliente emMemoria = buscarEmMemoria(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        return repo.buscarPorId(id);
+    }
+
+    private Cliente buscarEmMemoria(int id) {
+        trava.readLock().lock();
+        try {
+            return clientes.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
         }
-        System.out.println("Cliente não encontrado!");
-        return null;
     }
 
     /**
@@ -94,7 +143,13 @@ public class GerenciarCliente {
      * @param cliente O objeto {@link Cliente} a ser adicionado.
      */
     public void adicionar(Cliente cliente) {
-        clientes.add(cliente);
+        trava.writeLock().lock();
+        try {
+            clientes.add(cliente);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -108,9 +163,18 @@ public class GerenciarCliente {
      * lista em memória, {@code false} caso contrário.
      */
     public boolean removerPorId(int id) {
-        boolean removido = clientes.removeIf(c -> id == c.getId());
+        boolean removido;
+        trava.writeLock().lock();
+        try {
+            removido = clientes.removeIf(c -> id == c.getId());
+            if (removido) {
+                alteracoes.registrar();
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
         if (removido) {
-            System.out.println("Cliente removido!");
+            LOG.info("Cliente removido!");
         }
         return removido;
     }
@@ -137,22 +201,27 @@ public class GerenciarCliente {
         Cliente cliente = buscarCliente(id);
 
         if (cliente == null) {
-            System.out.println("Cliente com ID {" + id + "} não foi encontrado!");
+            LOG.info(() -> "Cliente com ID {" + id + "} não foi encontrado!");
             return false;
         }
 
-        String nomeAtual = cliente.getNome();
-        String cpfAtual = cliente.getCpf();
-        String telefoneAtual = cliente.getTelefone();
-
-        cliente.setNome(novoNome != null ? novoNome : nomeAtual);
-        cliente.setCpf(novoCpf != null ? novoCpf : cpfAtual);
-        cliente.setTelefone(novoTelefone != null ? novoTelefone : telefoneAtual);
+        trava.writeLock().lock();
+        try {
+            String nomeAtual = cliente.getNome();
+            String cpfAtual = cliente.getCpf();
+            String telefoneAtual = cliente.getTelefone();
 
+            cliente.setNome(novoNome != null ? novoNome : nomeAtual);
+            cliente.setCpf(novoCpf != null ? novoCpf : cpfAtual);
+            cliente.setTelefone(novoTelefone != null ? novoTelefone : telefoneAtual);
 
-        if (status != null) cliente.setStatusAtendimentoCliente(status);
+            if (status != null) cliente.setStatusAtendimentoCliente(status);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
 
-        System.out.println("Sucesso em atualizar!");
+        LOG.info("Sucesso em atualizar!");
         return true;
     }
 
@@ -166,8 +235,9 @@ public class GerenciarCliente {
      * @return Uma {@link List} vazia.
      */
     public List<Cliente> listar() {
-        System.out.println("Clientes carregados: " + clientes.size());
-        for (Cliente c : clientes) {
+        List<Cliente> copia = getClientes();
+        System.out.println("Clientes carregados: " + copia.size());
+        for (Cliente c : copia) {
             System.out.println(c);
         }
         return List.of();
@@ -177,9 +247,21 @@ public class GerenciarCliente {
     /**
      * Salva a lista de clientes atualmente em memória ({@code this.clientes})
      * no arquivo JSON, sobrescrevendo o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodosClientes(){
-        repo.salvarTodos(clientes);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(clientes);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -191,8 +273,14 @@ public class GerenciarCliente {
      * dados persistidos.
      */
     public void limpar() {
-        clientes = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            clientes = new ListaIndexada<>(Cliente::getId);
+            repo.salvarTodos(new ArrayList<>());
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -210,7 +298,7 @@ public class GerenciarCliente {
      * for encontrado.
      */
     public Cliente findCliente(Cliente clienteProcurado, Comparator<Cliente> comparator) {
-        List<Cliente> listaOrdenada = new ArrayList<>(clientes);
+        List<Cliente> listaOrdenada = getClientes();
         listaOrdenada.sort(comparator);
 
         Iterator<Cliente> iterator = listaOrdenada.iterator();
@@ -236,7 +324,7 @@ public class GerenciarCliente {
      * índice da busca for negativo.
      */
     public Cliente buscarClientePorNomeComBinarySearch(Cliente clienteProcurado) {
-        List<Cliente> listaOrdenada = new ArrayList<>(clientes);
+        List<Cliente> listaOrdenada = getClientes();
         Collections.sort(listaOrdenada, new ClienteNomeComparators());
 
         int indice = Collections.binarySearch(listaOrdenada, clienteProcurado, new ClienteNomeComparators());
@@ -252,6 +340,20 @@ public class GerenciarCliente {
      * @return Uma nova {@link ArrayList} contendo todos os clientes.
      */
     public List<Cliente> getClientes() {
-        return new ArrayList<>(clientes);
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(clientes);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações da lista de clientes, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,18 @@
 package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.models.NotaFiscal;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.VinculoVendaNota;
 import xela.chris.barbearia.negocio.Agendamento;
 import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.metricas.EventoNotaFiscal;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gerencia o ciclo de vida e a persistência das Notas Fiscais ({@link NotaFiscal}).
@@ -16,34 +23,125 @@ import java.util.List;
  *
  * A maioria das operações de modificação (como adicionar, gerar nota e limpar)
  * persiste as alterações imediatamente no arquivo JSON.
+ *
+ * Também mantém um índice reverso venda → nota ("indiceVendasNotas.json"),
+ * atualizado a cada nota gerada, para responder se uma venda já foi faturada
+ * sem percorrer todas as notas e seus itens.
+ *
+ * Notas e índice são protegidos por uma trava de leitura/escrita: consultas
+ * ao índice rodam em paralelo e a emissão de uma nota é exclusiva, de modo
+ * que dois terminais não faturam a mesma venda.
  */
 public class GerenciarNotaFiscal {
 
+    private static final Log LOG = Log.de(GerenciarNotaFiscal.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("notasFiscais.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("notasFiscais.salvar");
+
     /** Lista de notas fiscais mantida em memória, carregada do JSON. */
-    private List<NotaFiscal> notas = new ArrayList<>();
-    /** Repositório para persistência em JSON ("notasFiscais.json"). */
-    private final RepositorioJson<NotaFiscal> repo = new RepositorioJson<>(NotaFiscal.class, "notasFiscais.json");
+    private ListaIndexada<NotaFiscal> notas = new ListaIndexada<>(NotaFiscal::getId);
+    /** Repositório para persistência em JSON ("notasFiscais.json"), com journal de inserções. */
+    private final RepositorioJsonJournal<NotaFiscal> repo =
+            new RepositorioJsonJournal<>(NotaFiscal.class, "notasFiscais.json", NotaFiscal::getId);
+
+    /** Índice reverso: ID da venda → vínculo com a nota que a contém. */
+    private final MapaInt<VinculoVendaNota> notaPorVenda = new MapaInt<>();
+    /** Repositório do índice reverso ("indiceVendasNotas.json"), com journal de inserções. */
+    private final RepositorioJsonJournal<VinculoVendaNota> repoIndice =
+            new RepositorioJsonJournal<>(VinculoVendaNota.class, "indiceVendasNotas.json", VinculoVendaNota::getVendaId);
+
+    /** Protege {@code notas} e {@code notaPorVenda}. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /**
+     * Alterações em {@code notas} e no índice; as notas geradas vão para o
+     * journal e já contam como gravadas.
+     */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
+
+    /** Gerenciadores donos das entidades referenciadas por ID no JSON. */
+    private final GerenciarAgendamento gerenciarAgendamento;
+    private final GerenciarVenda gerenciarVenda;
 
     /**
      * Construtor padrão.
      * Inicializa o gerenciador e chama imediatamente {@link #carregar()}
-     * para popular a lista de notas a partir do arquivo JSON.
+     * para popular a lista de notas a partir do arquivo JSON. Cria
+     * gerenciadores próprios de agendamentos e vendas para resolver as
+     * referências gravadas por ID.
      */
     public GerenciarNotaFiscal() {
+        this(new GerenciarAgendamento(), new GerenciarVenda());
+    }
+
+    /**
+     * Construtor para injeção de dependência, usando os gerenciadores
+     * informados para resolver agendamento, serviços e vendas das notas.
+     *
+     * @param gerenciarAgendamento Gerenciador de agendamentos.
+     * @param gerenciarVenda       Gerenciador de vendas.
+     */
+    public GerenciarNotaFiscal(GerenciarAgendamento gerenciarAgendamento, GerenciarVenda gerenciarVenda) {
+        this.gerenciarAgendamento = gerenciarAgendamento;
+        this.gerenciarVenda = gerenciarVenda;
+        repo.setDurabilidade(Durabilidade.COMPLETA);
+        repoIndice.setDurabilidade(Durabilidade.COMPLETA);
+        repo.setFormato(FormatoArquivo.BINARIO);
+        Metricas.padrao().medidor("notasFiscais.registros", this, g -> g.notas.size());
         carregar();
     }
 
     /**
      * Carrega (ou recarrega) todas as notas fiscais do arquivo JSON
-     * para a lista em memória ({@code this.notas}).
+     * para a lista em memória ({@code this.notas}), ligando agendamento,
+     * serviços e vendas a partir dos IDs gravados.
      *
      * Se a lista carregada não estiver vazia, este método encontra o
      * ID mais alto e atualiza o contador estático na classe {@link NotaFiscal}
      * (via {@link NotaFiscal#atualizarContador(int)}) para evitar IDs
      * duplicados em novos cadastros.
+     *
+     * O índice venda → nota também é lido do arquivo. Vínculos para notas
+     * que não existem mais são descartados e vendas de notas que ainda não
+     * constam no índice (dados gravados antes dele existir) são acrescentadas;
+     * nesses casos o índice é regravado uma única vez.
      */
     public void carregar() {
-        notas = repo.buscarTodos();
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            carregarSemTrava();
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
+        }
+    }
+
+    private void carregarSemTrava() {
+        notas = new ListaIndexada<>(NotaFiscal::getId, repo.buscarTodos());
+        alteracoes.marcarSalvo();
+        notaPorVenda.limpar();
+        boolean indiceDesatualizado = false;
+        for (VinculoVendaNota vinculo : repoIndice.buscarTodos()) {
+            if (notas.contemId(vinculo.getNotaId())) {
+                notaPorVenda.put(vinculo.getVendaId(), vinculo);
+            } else {
+                indiceDesatualizado = true;
+            }
+        }
+
+        for (NotaFiscal nota : notas) {
+            resolverReferencias(nota);
+            for (int idVenda : nota.getVendaIds()) {
+                if (!notaPorVenda.contem(idVenda)) {
+                    notaPorVenda.put(idVenda, new VinculoVendaNota(idVenda, nota.getId()));
+                    indiceDesatualizado = true;
+                }
+            }
+        }
+        if (indiceDesatualizado) {
+            repoIndice.salvarTodos(notaPorVenda.valores());
+        }
         if (!notas.isEmpty()) {
             int maiorId = notas.stream()
                     .mapToInt(NotaFiscal::getId)
@@ -60,13 +158,67 @@ public class GerenciarNotaFiscal {
      * @param nota A {@link NotaFiscal} a ser adicionada e salva.
      */
     public void adicionar(NotaFiscal nota) {
-        notas.add(nota);
+        trava.writeLock().lock();
+        try {
+            notas.add(nota);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
 
 
+    /**
+     * Grava a lista de notas em memória e o índice venda → nota,
+     * sobrescrevendo os arquivos.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
+     */
     public void salvar() {
-        repo.salvarTodos(notas);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(notas);
+                repoIndice.salvarTodos(notaPorVenda.valores());
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liga agendamento, serviços e vendas de uma nota a partir dos IDs
+     * gravados no JSON. Se algum ID não for encontrado, os objetos já
+     * presentes na nota (formato antigo) são mantidos.
+     *
+     * @param nota Nota lida do arquivo.
+     */
+    public void resolverReferencias(NotaFiscal nota) {
+        Agendamento agendamento = nota.getAgendamentoId() > 0
+                ? gerenciarAgendamento.buscarReferencia(nota.getAgendamentoId())
+                : null;
+
+        List<Servico> servicos = gerenciarAgendamento.resolverServicos(nota.getServicoIds());
+        if (servicos.size() < nota.getServicoIds().size() && !nota.getServicos().isEmpty()) {
+            servicos = null;
+        }
+
+        List<Venda> vendas = new ArrayList<>(nota.getVendaIds().size());
+        for (int id : nota.getVendaIds()) {
+            Venda venda = gerenciarVenda.buscarReferencia(id);
+            if (venda != null) {
+                vendas.add(venda);
+            }
+        }
+        if (vendas.size() < nota.getVendaIds().size() && !nota.getVendasProdutos().isEmpty()) {
+            vendas = null;
+        }
+
+        nota.resolverReferencias(agendamento, servicos, vendas);
     }
 
     /**
@@ -102,8 +254,19 @@ public class GerenciarNotaFiscal {
      * (MODIFICADO) Agora permite que o agendamento seja nulo, desde que
      * a lista de vendas não esteja vazia.
      *
-     * A nota fiscal criada é imediatamente salva no arquivo JSON
-     * através do método {@link #adicionar(NotaFiscal)}.
+     * A nota fiscal criada é adicionada à lista em memória e
+     * imediatamente registrada no journal de notas fiscais.
+     *
+     * Vendas que já constam em outra nota (ex: faturadas por outro terminal
+     * depois de consultadas) são deixadas de fora, para que nenhuma venda
+     * seja faturada duas vezes.
+     *
+     * A nota é gerada com a trava exclusiva do arquivo de notas, válida entre
+     * processos. Se outro terminal gerou notas desde a última leitura, elas
+     * são incorporadas antes, então o ID da nova nota e a conferência das
+     * vendas já faturadas consideram as notas dele; como o journal é
+     * reaplicado por ID, dois terminais com o mesmo ID sobrescreveriam a
+     * nota um do outro.
      *
      * @param agendamento O agendamento (serviços) a ser incluído na nota (pode ser nulo).
      * @param vendasProdutos A lista de vendas de produtos a ser incluída.
@@ -111,24 +274,155 @@ public class GerenciarNotaFiscal {
      * se tanto o agendamento quanto as vendas forem nulos/vazios.
      */
     public NotaFiscal gerarNotaFiscal(Agendamento agendamento, List<Venda> vendasProdutos) {
-        if (agendamento == null && (vendasProdutos == null || vendasProdutos.isEmpty())) {
-            System.out.println("Erro: Nota fiscal nao pode ser gerada sem agendamento ou sem produtos.");
+        EventoNotaFiscal evento = new EventoNotaFiscal();
+        evento.begin();
+        NotaFiscal gerada = null;
+        trava.writeLock().lock();
+        try {
+            gerada = repo.executarComTrava(() -> gerarSemTrava(agendamento, vendasProdutos));
+            return gerada;
+        } finally {
+            trava.writeLock().unlock();
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.agendamentoId = agendamento != null ? agendamento.getId() : 0;
+                evento.vendasRecebidas = vendasProdutos != null ? vendasProdutos.size() : 0;
+                if (gerada != null) {
+                    evento.notaId = gerada.getId();
+                    evento.vendasFaturadas = gerada.getVendaIds().size();
+                    evento.valorTotalCentavos = gerada.getValorTotalCentavos();
+                }
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Gera e registra a nota. Deve ser chamado com a trava de escrita e com
+     * a trava exclusiva do arquivo de notas.
+     */
+    private NotaFiscal gerarSemTrava(Agendamento agendamento, List<Venda> vendasProdutos) {
+        if (repo.desatualizado() || repoIndice.desatualizado()) {
+            incorporarGravadasPorOutros();
+        }
+        List<Venda> aFaturar = vendasProdutos != null ? filtrarNaoFaturadas(vendasProdutos) : null;
+        if (agendamento == null && (aFaturar == null || aFaturar.isEmpty())) {
+            LOG.info("Erro: Nota fiscal nao pode ser gerada sem agendamento ou sem produtos.");
             return null;
         }
 
-        NotaFiscal nota = new NotaFiscal(agendamento, vendasProdutos);
-        adicionar(nota);
-        salvar();
+        NotaFiscal nota = new NotaFiscal(agendamento, aFaturar);
+        notas.add(nota);
+        repo.registrarInsercao(nota);
+        alteracoes.registrarGravada();
+        for (int idVenda : nota.getVendaIds()) {
+            VinculoVendaNota vinculo = new VinculoVendaNota(idVenda, nota.getId());
+            notaPorVenda.put(idVenda, vinculo);
+            repoIndice.registrarInsercao(vinculo);
+        }
         return nota;
     }
 
+    /**
+     * Acrescenta à memória as notas e os vínculos gravados por outro
+     * terminal depois da última leitura, sem descartar as alterações ainda
+     * não salvas deste, e avança o contador de IDs além das notas dele.
+     * Deve ser chamado com a trava de escrita e com a trava do arquivo de notas.
+     */
+    private void incorporarGravadasPorOutros() {
+        int maiorId = 0;
+        for (NotaFiscal nota : repo.buscarTodos()) {
+            maiorId = Math.max(maiorId, nota.getId());
+            if (!notas.contemId(nota.getId())) {
+                resolverReferencias(nota);
+                notas.add(nota);
+            }
+        }
+        for (VinculoVendaNota vinculo : repoIndice.buscarTodos()) {
+            if (!notaPorVenda.contem(vinculo.getVendaId())) {
+                notaPorVenda.put(vinculo.getVendaId(), vinculo);
+            }
+        }
+        NotaFiscal.avancarContador(maiorId);
+    }
+
+    /**
+     * Retorna o ID da nota fiscal em que a venda foi faturada.
+     *
+     * @param idVenda ID da venda.
+     * @return ID da nota, ou {@code 0} se a venda ainda não foi faturada.
+     */
+    public int buscarIdNotaDaVenda(int idVenda) {
+        trava.readLock().lock();
+        try {
+            VinculoVendaNota vinculo = notaPorVenda.get(idVenda);
+            return vinculo != null ? vinculo.getNotaId() : 0;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indica se a venda já consta em alguma nota fiscal.
+     *
+     * @param idVenda ID da venda.
+     * @return {@code true} se a venda já foi faturada.
+     */
+    public boolean vendaFaturada(int idVenda) {
+        trava.readLock().lock();
+        try {
+            return notaPorVenda.contem(idVenda);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtra as vendas que ainda não constam em nenhuma nota fiscal,
+     * mantendo a ordem recebida. Cada venda custa uma consulta ao índice.
+     *
+     * @param vendas Vendas candidatas (ex: as vendas de um cliente).
+     * @return Lista (nova) com as vendas ainda não faturadas.
+     */
+    public List<Venda> filtrarNaoFaturadas(List<Venda> vendas) {
+        List<Venda> naoFaturadas = new ArrayList<>();
+        trava.readLock().lock();
+        try {
+            for (Venda venda : vendas) {
+                if (!notaPorVenda.contem(venda.getId())) {
+                    naoFaturadas.add(venda);
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return naoFaturadas;
+    }
+
+    /**
+     * Retorna as vendas do cliente que ainda não foram faturadas, usando o
+     * índice de vendas por cliente do {@link GerenciarVenda} e o índice
+     * venda → nota; o custo é proporcional às vendas do cliente.
+     *
+     * @param idCliente ID do cliente.
+     * @return Lista com as vendas do cliente ainda não faturadas.
+     */
+    public List<Venda> buscarVendasNaoFaturadas(int idCliente) {
+        return filtrarNaoFaturadas(gerenciarVenda.buscarPorCliente(idCliente));
+    }
+
     /**
      * Retorna a lista de notas fiscais atualmente mantida em memória.
      *
-     * @return Uma {@link List} de {@link NotaFiscal}.
+     * @return Uma cópia da lista de {@link NotaFiscal}.
      */
     public List<NotaFiscal> listar() {
-        return notas;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(notas);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -140,6 +434,22 @@ public class GerenciarNotaFiscal {
      * dados persistidos.
      */
     public void limpar() {
-        notas = new ArrayList<>();
+        trava.writeLock().lock();
+        try {
+            notas = new ListaIndexada<>(NotaFiscal::getId);
+            notaPorVenda.limpar();
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações das notas fiscais, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
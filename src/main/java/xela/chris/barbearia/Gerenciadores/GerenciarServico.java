@@ -2,9 +2,12 @@ package xela.chris.barbearia.Gerenciadores;
 
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gerencia o ciclo de vida (CRUD) dos serviços oferecidos pela barbearia.
@@ -19,13 +22,24 @@ import java.util.List;
  * exigindo uma chamada posterior a {@link #salvarTodosServicos()}.
  * A exceção é o método {@link #atualizar(int, String, double, String)},
  * que persiste suas alterações imediatamente.
+ *
+ * Consultas de vários terminais compartilham uma trava de leitura; cadastro,
+ * remoção e atualização usam a trava de escrita.
  */
 public class GerenciarServico {
 
+    private static final Log LOG = Log.de(GerenciarServico.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("servicos.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("servicos.salvar");
+
     /** Lista de serviços mantida em memória, carregada do JSON. */
-    private List<Servico> servicos = new ArrayList<>();
+    private ListaIndexada<Servico> servicos = new ListaIndexada<>(Servico::getId);
     /** Repositório para persistência em JSON ("servicos.json"). */
-    private final RepositorioJson<Servico> repo = new RepositorioJson<>(Servico.class, "servicos.json");
+    private final RepositorioJson<Servico> repo = new RepositorioJson<>(Servico.class, "servicos.json", Servico::getId);
+    /** Protege {@code servicos}. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    /** Alterações em {@code servicos} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor padrão.
@@ -33,6 +47,8 @@ public class GerenciarServico {
      * a lista de serviços a partir do arquivo JSON.
      */
     public GerenciarServico() {
+        repo.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("servicos.registros", this, g -> g.servicos.size());
         this.carregar();
     }
 
@@ -46,13 +62,21 @@ public class GerenciarServico {
      * duplicados em novos cadastros.
      */
     public void carregar() {
-        servicos = repo.buscarTodos();
-        if (!servicos.isEmpty()) {
-            int maiorId = servicos.stream()
-                    .mapToInt(Servico::getId)
-                    .max()
-                    .orElse(0);
-            Servico.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            servicos = new ListaIndexada<>(Servico::getId, repo.buscarTodos());
+            alteracoes.marcarSalvo();
+            if (!servicos.isEmpty()) {
+                int maiorId = servicos.stream()
+                        .mapToInt(Servico::getId)
+                        .max()
+                        .orElse(0);
+                Servico.atualizarContador(maiorId);
+            }
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
@@ -65,7 +89,13 @@ public class GerenciarServico {
      * @param servico O objeto {@link Servico} a ser adicionado.
      */
     public void adicionar(Servico servico) {
-        servicos.add(servico);
+        trava.writeLock().lock();
+        try {
+            servicos.add(servico);
+            alteracoes.registrar();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -79,9 +109,18 @@ public class GerenciarServico {
      * lista em memória, {@code false} caso contrário.
      */
     public boolean removerPorId(int id) {
-        boolean removido = servicos.removeIf(s -> s.getId() == id);
+        boolean removido;
+        trava.writeLock().lock();
+        try {
+            removido = servicos.removeIf(s -> s.getId() == id);
+            if (removido) {
+                alteracoes.registrar();
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
         if (removido) {
-            System.out.println("Removido com sucesso!");
+            LOG.info("Removido com sucesso!");
         }
         return removido;
     }
@@ -94,15 +133,37 @@ public class GerenciarServico {
      * existir na lista em memória.
      */
     public Servico buscarPorId(int id) {
-        Iterator<Servico> iterator = servicos.iterator();
-        while(iterator.hasNext()){
-            Servico servico = iterator.next();
-            if(servico.getId() == id){
-                return servico;
-            }
+        Servico servico = buscarEmMemoria(id);
+        if (servico == null) {
+            LOG.info("Servico nao encontrado!");
+        }
+        return servico;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar referências gravadas por ID (ex: o
+     * {@code servicoIds} de um agendamento). Procura na lista em memória e, se não
+     * encontrar, no arquivo JSON, cobrindo registros cadastrados por outra
+     * instância do gerenciador. A lista em memória não é alterada.
+     *
+     * @param id O identificador do serviço.
+     * @return O {@link Servico} encontrado, ou {@code null} se não existir.
+     */
+    public Servico buscarReferencia(int id) {
+        Servico emMemoria = buscarEmMemoria(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        return repo.buscarPorId(id);
+    }
+
+    private Servico buscarEmMemoria(int id) {
+        trava.readLock().lock();
+        try {
+            return servicos.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
         }
-        System.out.println("Servico nao encontrado!");
-        return null;
     }
 
     /**
@@ -121,39 +182,61 @@ public class GerenciarServico {
      */
     public boolean atualizar(int id, String novoNome, double novoPreco, String novaDescricao) {
         Servico s = buscarPorId(id);
-        if (s != null) {
+        if (s == null) {
+            return false;
+        }
+        trava.writeLock().lock();
+        try {
             s.setNome(novoNome);
             s.setPreco(novoPreco);
             s.setDescricao(novaDescricao);
+            alteracoes.registrar();
             repo.salvarTodos(servicos);
+            alteracoes.marcarSalvo();
             return true;
+        } finally {
+            trava.writeLock().unlock();
         }
-        return false;
     }
 
     /**
      * Imprime todos os serviços da lista em memória no console.
      *
-     * Nota: Este método retorna uma lista vazia imutável (via {@code List.of()}),
-     * independentemente dos serviços em memória. Sua principal função
-     * é a exibição no console.
-     *
-     * @return Uma {@link List} vazia.
+     * @return Uma cópia da lista de serviços exibida.
      */
     public List<Servico> listar() {
-        System.out.println("Serviços carregados: " + servicos.size());
-        for (Servico s : servicos) {
+        List<Servico> copia;
+        trava.readLock().lock();
+        try {
+            copia = new ArrayList<>(servicos);
+        } finally {
+            trava.readLock().unlock();
+        }
+        System.out.println("Serviços carregados: " + copia.size());
+        for (Servico s : copia) {
             System.out.println(s);
         }
-        return this.servicos;
+        return copia;
     }
 
     /**
      * Salva a lista de serviços atualmente em memória ({@code this.servicos})
      * no arquivo JSON, sobrescrevendo o conteúdo anterior do arquivo.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodosServicos(){
-        repo.salvarTodos(servicos);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(servicos);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
@@ -165,7 +248,22 @@ public class GerenciarServico {
      * dados persistidos.
      */
     public void limpar() {
-        servicos = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            servicos = new ListaIndexada<>(Servico::getId);
+            repo.salvarTodos(new ArrayList<>());
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o contador de alterações da lista de serviços, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
     }
-}
\ No newline at end of file
+}
@@ -3,20 +3,29 @@ package xela.chris.barbearia.Gerenciadores;
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Produto;
 import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.Dinheiro;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Classe responsável pelo gerenciamento das Vendas ({@link Venda}) realizadas.
  *
  * Esta classe centraliza as operações de CRUD para vendas de produtos,
  * mantendo uma lista em memória para acesso rápido e coordenando a
- * persistência com um {@link RepositorioJson} (no arquivo "vendas.json").
+ * persistência com um {@link RepositorioParticionado} (um arquivo por mês,
+ * ex: "vendas-2026-10.json").
  *
  * Funções principais:
- * - Carregar vendas do JSON na inicialização.
+ * - Carregar as vendas do mês corrente e dos seguintes na inicialização
+ *   (os meses anteriores só são lidos por consultas de período, balanços e
+ *   buscas por ID).
  * - Sincronizar o contador de ID estático da classe {@link Venda}.
  * - Adicionar, remover e buscar vendas (na lista em memória).
  * - Salvar a lista em memória para o arquivo JSON (operação manual).
@@ -26,48 +35,144 @@ import java.util.List;
  * a lista em memória. É necessário chamar {@link #salvarTodasVendas()}
  * para persistir as alterações no arquivo. A exceção é o método
  * {@link #limpar()}, que persiste imediatamente.
+ *
+ * Concorrência: a lista e os índices são protegidos por uma trava de
+ * leitura/escrita. Vários terminais podem consultar e emitir relatórios ao
+ * mesmo tempo; apenas as alterações são exclusivas. {@link #listar()}
+ * devolve uma cópia, que pode ser percorrida sem segurar a trava.
  */
 public class GerenciarVenda {
 
+    private static final Log LOG = Log.de(GerenciarVenda.class);
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("vendas.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("vendas.salvar");
+
     /**
      * Lista de vendas mantida em memória, carregada do JSON.
      */
-    private List<Venda> vendas = new ArrayList<>();
+    private ListaIndexada<Venda> vendas = new ListaIndexada<>(Venda::getId);
+
+    /** Vendas de cada cliente (ID do cliente → vendas), mantidas junto com {@code vendas}. */
+    private final MapaInt<List<Venda>> vendasPorCliente = new MapaInt<>();
+
+    /** Faturamento de produtos resumido por dia, mantido junto com {@code vendas}. */
+    private final IndiceBalanco indiceBalanco = new IndiceBalanco();
 
     /**
-     * Repositório JSON para persistência das vendas ("vendas.json").
+     * Repositório das vendas, particionado por mês ("vendas-<mês>.json").
      */
-    private final RepositorioJson<Venda> repo = new RepositorioJson<>(Venda.class, "vendas.json");
+    private final RepositorioParticionado<Venda> repo = criarRepositorio();
+
+    /** Protege {@code vendas} e os índices mantidos junto com ela. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Alterações em {@code vendas} desde a última leitura ou gravação. */
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
+
+    /** Gerenciadores donos das entidades referenciadas por ID no JSON. */
+    private final GerenciadorProduto gerenciadorProduto;
+    private final GerenciarCliente gerenciarCliente;
 
     /**
      * Construtor padrão.
      * Inicializa o gerenciador e chama {@link #carregar()} para popular
-     * a lista de vendas a partir do arquivo JSON.
+     * a lista de vendas a partir do arquivo JSON. Cria gerenciadores próprios
+     * de produtos e clientes para resolver as referências gravadas por ID.
      */
     public GerenciarVenda() {
+        this(new GerenciadorProduto(), new GerenciarCliente());
+    }
+
+    /**
+     * Construtor para injeção de dependência, usando os gerenciadores
+     * informados para resolver produto e cliente das vendas carregadas.
+     *
+     * @param gerenciadorProduto Gerenciador de produtos.
+     * @param gerenciarCliente   Gerenciador de clientes.
+     */
+    public GerenciarVenda(GerenciadorProduto gerenciadorProduto, GerenciarCliente gerenciarCliente) {
+        this.gerenciadorProduto = gerenciadorProduto;
+        this.gerenciarCliente = gerenciarCliente;
+        Metricas.padrao().medidor("vendas.registros", this, g -> g.vendas.size());
         this.carregar();
     }
 
     /**
-     * Carrega (ou recarrega) todas as vendas do arquivo JSON para a lista
-     * em memória ({@code this.vendas}).
+     * Cria o repositório particionado por mês das vendas, com a
+     * configuração usada pelo gerenciador (durabilidade completa e formato
+     * binário).
+     *
+     * @return Repositório dos arquivos {@code vendas-<mês>.json}.
+     */
+    public static RepositorioParticionado<Venda> criarRepositorio() {
+        RepositorioParticionado<Venda> repositorio =
+                new RepositorioParticionado<>(Venda.class, "vendas", Venda::getId, Venda::getDiaVenda);
+        repositorio.setDurabilidade(Durabilidade.COMPLETA); // vendas não podem sumir numa queda de energia
+        repositorio.setFormato(FormatoArquivo.BINARIO);
+        return repositorio;
+    }
+
+    /**
+     * Carrega (ou recarrega) as vendas dos meses abertos (o corrente, os
+     * seguintes e os abertos depois) para a lista em memória
+     * ({@code this.vendas}), ligando produto e cliente a partir dos IDs
+     * gravados.
      *
-     * Se a lista carregada não estiver vazia, este método encontra o
-     * ID mais alto e atualiza o contador estático na classe {@link Venda}
-     * (via {@link Venda#atualizarContador(int)}) para evitar IDs
-     * duplicados em novos cadastros.
+     * Em seguida, atualiza o contador estático na classe {@link Venda}
+     * (via {@link Venda#atualizarContador(int)}) com o maior ID já gravado,
+     * inclusive nos meses não carregados, para evitar IDs duplicados em
+     * novos cadastros.
      */
     public void carregar() {
-        vendas = repo.buscarTodos();
-        if (!vendas.isEmpty()) {
-            int maiorId = vendas.stream()
-                    .mapToInt(Venda::getId)
-                    .max()
-                    .orElse(0);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        trava.writeLock().lock();
+        try {
+            carregarSemTrava();
+        } finally {
+            trava.writeLock().unlock();
+            TEMPO_CARREGAR.registrarDesde(inicio);
+        }
+    }
+
+    private void carregarSemTrava() {
+        vendas = new ListaIndexada<>(Venda::getId, repo.buscarAbertos());
+        alteracoes.marcarSalvo();
+        vendasPorCliente.limpar();
+        indiceBalanco.limpar();
+        for (Venda venda : vendas) {
+            resolverReferencias(venda);
+            indexarPorCliente(venda);
+            indiceBalanco.adicionar(venda);
+        }
+        int maiorId = vendas.stream()
+                .mapToInt(Venda::getId)
+                .max()
+                .orElse(0);
+        maiorId = Math.max(maiorId, repo.getMaiorId());
+        if (maiorId > 0) {
             Venda.atualizarContador(maiorId);
         }
     }
 
+    /**
+     * Traz para a memória as vendas de um mês ainda não carregado, que
+     * passa a fazer parte das gravações. Deve ser chamado com a trava de
+     * escrita.
+     *
+     * @param mes Chave do mês (ver {@link RepositorioParticionado#mesDoDia(int)}).
+     */
+    private void abrirMesSemTrava(int mes) {
+        for (Venda venda : repo.abrirMes(mes)) {
+            if (vendas.buscarPorId(venda.getId()) != null) {
+                continue;
+            }
+            resolverReferencias(venda);
+            vendas.add(venda);
+            indexarPorCliente(venda);
+            indiceBalanco.adicionar(venda);
+        }
+    }
+
     /**
      * Adiciona uma nova venda à lista em memória.
      *
@@ -77,7 +182,55 @@ public class GerenciarVenda {
      * @param venda O objeto {@link Venda} a ser adicionado.
      */
     public void adicionar(Venda venda) {
+        trava.writeLock().lock();
+        try {
+            adicionarSemTrava(venda);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra uma venda nova e a grava imediatamente no journal da
+     * partição do seu mês, sem reler nem regravar a lista inteira.
+     *
+     * O registro acontece sob a trava da partição do mês, e o ID é
+     * confirmado com a trava do manifesto, ambas válidas entre processos:
+     * se outro terminal reservou IDs desde a última leitura, a venda recebe
+     * um ID além dos dele ({@link RepositorioParticionado#reservarId}). Como
+     * o journal é reaplicado por ID, duas vendas com o mesmo ID fariam uma
+     * sumir do arquivo.
+     *
+     * @param venda O objeto {@link Venda} a ser registrado e persistido.
+     */
+    public void registrar(Venda venda) {
+        int mes = repo.mesDe(venda);
+        trava.writeLock().lock();
+        try {
+            abrirMesSemTrava(mes);
+            repo.executarComTravaDoMes(mes, () -> {
+                venda.setId(repo.reservarId(mes, venda.getId(), maior -> {
+                    Venda.avancarContador(maior);
+                    return Venda.proximoId();
+                }));
+                vendas.add(venda);
+                indexarPorCliente(venda);
+                indiceBalanco.adicionar(venda);
+                repo.registrarInsercao(venda);
+                alteracoes.registrarGravada();
+                return null;
+            });
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void adicionarSemTrava(Venda venda) {
+        abrirMesSemTrava(repo.mesDe(venda));
         vendas.add(venda);
+        indexarPorCliente(venda);
+        indiceBalanco.adicionar(venda);
+        alteracoes.registrar();
     }
 
     /**
@@ -91,53 +244,162 @@ public class GerenciarVenda {
      * lista em memória, {@code false} caso contrário.
      */
     public boolean removerPorId(int id) {
-        boolean removido = vendas.removeIf(v -> v.getId() == id);
+        boolean removido;
+        trava.writeLock().lock();
+        try {
+            removido = vendas.removeIf(v -> {
+                if (v.getId() != id) {
+                    return false;
+                }
+                List<Venda> doCliente = vendasPorCliente.get(v.getClienteId());
+                if (doCliente != null) {
+                    doCliente.remove(v);
+                }
+                indiceBalanco.remover(v);
+                return true;
+            });
+            if (removido) {
+                alteracoes.registrar();
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
         if (removido) {
-            System.out.println("Venda removida com sucesso!");
+            LOG.info("Venda removida com sucesso!");
         }
         return removido;
     }
 
     /**
-     * Busca uma venda na lista em memória pelo seu ID.
+     * Retorna as vendas de um cliente, na ordem em que foram registradas,
+     * sem percorrer a lista completa de vendas.
+     *
+     * @param idCliente O identificador do cliente.
+     * @return Lista (nova) com as vendas do cliente; vazia se não houver.
+     */
+    public List<Venda> buscarPorCliente(int idCliente) {
+        trava.readLock().lock();
+        try {
+            List<Venda> doCliente = vendasPorCliente.get(idCliente);
+            return doCliente != null ? new ArrayList<>(doCliente) : new ArrayList<>();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private void indexarPorCliente(Venda venda) {
+        List<Venda> doCliente = vendasPorCliente.get(venda.getClienteId());
+        if (doCliente == null) {
+            doCliente = new ArrayList<>();
+            vendasPorCliente.put(venda.getClienteId(), doCliente);
+        }
+        doCliente.add(venda);
+    }
+
+    /**
+     * Busca uma venda pelo seu ID. Se ela for de um mês ainda não
+     * carregado, o mês inteiro é trazido para a lista em memória.
      *
      * @param id O identificador da venda.
      * @return O objeto {@link Venda} encontrado, ou {@code null} se não
-     * existir na lista em memória.
+     * existir.
      */
     public Venda buscarVenda(int id) {
-        Iterator<Venda> iterator = vendas.iterator();
-        while (iterator.hasNext()) {
-            Venda venda = iterator.next();
-            if (venda.getId() == id) {
-                return venda;
+        Venda venda = buscarEmMemoria(id);
+        if (venda == null) {
+            Venda arquivada = repo.buscarPorId(id);
+            if (arquivada != null) {
+                trava.writeLock().lock();
+                try {
+                    abrirMesSemTrava(repo.mesDe(arquivada));
+                    venda = vendas.buscarPorId(id);
+                } finally {
+                    trava.writeLock().unlock();
+                }
             }
         }
-        System.out.println("Venda não encontrado!");
-        return null;
+        if (venda == null) {
+            LOG.info("Venda não encontrado!");
+        }
+        return venda;
+    }
+
+    /**
+     * Busca silenciosa usada para ligar os {@code vendaIds} de uma nota
+     * fiscal. Procura na lista em memória e, se não encontrar, nas partições
+     * dos meses não carregados, sem alterar a lista em memória.
+     *
+     * @param id O identificador da venda.
+     * @return A venda encontrada (com referências resolvidas) ou {@code null}.
+     */
+    public Venda buscarReferencia(int id) {
+        Venda emMemoria = buscarEmMemoria(id);
+        if (emMemoria != null) {
+            return emMemoria;
+        }
+        Venda venda = repo.buscarPorId(id);
+        if (venda != null) {
+            resolverReferencias(venda);
+        }
+        return venda;
+    }
+
+    private Venda buscarEmMemoria(int id) {
+        trava.readLock().lock();
+        try {
+            return vendas.buscarPorId(id);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liga produto e cliente de uma venda a partir dos IDs gravados no JSON,
+     * usando os gerenciadores donos dessas entidades.
+     *
+     * @param venda Venda lida do arquivo.
+     */
+    public void resolverReferencias(Venda venda) {
+        venda.resolverReferencias(
+                gerenciadorProduto.buscarReferencia(venda.getProdutoId()),
+                gerenciarCliente.buscarReferencia(venda.getClienteId()));
     }
 
     /**
      * Retorna a lista de todas as vendas atualmente registradas
      * (mantidas em memória).
      *
-     * @return Uma {@link List} de {@link Venda}.
+     * @return Uma cópia da lista de {@link Venda}, que não muda se outro
+     * terminal alterar as vendas depois.
      */
     public List<Venda> listar() {
-        return vendas;
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(vendas);
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
      * Remove todas as vendas do sistema (memória e persistência).
      *
      * Este método limpa a lista em memória ({@code this.vendas}) e,
-     * em seguida, salva uma lista vazia no arquivo JSON
-     * (via {@code repo.salvarTodos}), efetivamente limpando todos os
+     * em seguida, esvazia as partições de todos os meses
+     * (via {@code repo.limpar}), efetivamente limpando todos os
      * dados persistidos.
      */
     public void limpar() {
-        vendas = new ArrayList<>();
-        repo.salvarTodos(new ArrayList<>());
+        trava.writeLock().lock();
+        try {
+            vendas = new ListaIndexada<>(Venda::getId);
+            vendasPorCliente.limpar();
+            indiceBalanco.limpar();
+            repo.limpar();
+            alteracoes.marcarSalvo();
+        } finally {
+            trava.writeLock().unlock();
+        }
     }
 
     /**
@@ -147,33 +409,128 @@ public class GerenciarVenda {
      * @return A soma (double) dos valores totais de cada venda.
      */
     public double calcularTotalVendas() {
-        return vendas.stream().mapToDouble(Venda::getValorTotal).sum();
+        return Dinheiro.paraReais(calcularTotalVendasCentavos());
+    }
+
+    /**
+     * Calcula o valor total arrecadado, em centavos, de todas as vendas
+     * atualmente carregadas na lista em memória.
+     *
+     * @return A soma exata dos valores totais, em centavos.
+     */
+    public long calcularTotalVendasCentavos() {
+        trava.readLock().lock();
+        try {
+            long total = 0;
+            for (Venda venda : vendas) {
+                total += venda.getValorTotalCentavos();
+            }
+            return total;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o faturamento de produtos do período a partir dos resumos
+     * diários, sem percorrer as vendas carregadas. Cada mês do período que
+     * não está em memória é lido da sua partição e resumido à parte.
+     *
+     * @param periodo Período desejado (ver {@link DataHora#periodo(String)}).
+     * @return Resumo do período, ou {@code null} se o período não for formado
+     * por dias inteiros.
+     */
+    public ResumoBalanco resumirBalanco(DataHora.Periodo periodo) {
+        ResumoBalanco resumo;
+        trava.readLock().lock();
+        try {
+            resumo = indiceBalanco.resumir(periodo);
+        } finally {
+            trava.readLock().unlock();
+        }
+        if (resumo == null) {
+            return null;
+        }
+        for (int mes : repo.mesesFechados(periodo)) {
+            IndiceBalanco doMes = repo.resumirMes(mes, this::indexarBalanco);
+            resumo.somar(doMes.resumir(periodo));
+        }
+        return resumo;
+    }
+
+    /**
+     * Monta o índice de balanço de um mês não carregado, guardado pelo
+     * repositório até a partição mudar.
+     */
+    private IndiceBalanco indexarBalanco(List<Venda> doMes) {
+        IndiceBalanco indice = new IndiceBalanco();
+        for (Venda venda : doMes) {
+            indice.adicionar(venda);
+        }
+        return indice;
+    }
+
+    /**
+     * Percorre, direto dos arquivos, as vendas cuja {@code dataVenda}
+     * pertence ao período do filtro, sem carregar a lista inteira.
+     * Só as partições dos meses do período são lidas, e vendas de outras
+     * datas não chegam a ser convertidas em objetos.
+     * Filtros que não são uma data são tratados como trecho de texto.
+     *
+     * @param filtroData Trecho da data (ex: "15/11/2025" ou "11/2025").
+     * @param consumidor Ação executada para cada venda encontrada.
+     */
+    public void percorrerPorData(String filtroData, Consumer<Venda> consumidor) {
+        repo.percorrer(DataHora.periodo(filtroData), "dataVenda", DataHora.filtroDeTexto(filtroData), venda -> {
+            resolverReferencias(venda);
+            consumidor.accept(venda);
+        });
     }
 
     /**
      * Salva a lista de vendas atualmente em memória ({@code this.vendas})
-     * no arquivo JSON, sobrescrevendo o conteúdo anterior do arquivo.
+     * nas partições dos meses carregados, sobrescrevendo o conteúdo
+     * anterior delas.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodasVendas(){
-        repo.salvarTodos(vendas);
+        trava.readLock().lock();
+        try {
+            if (alteracoes.deveSalvar()) {
+                long inicio = TEMPO_SALVAR.iniciar();
+                repo.salvarTodos(vendas);
+                alteracoes.marcarSalvo();
+                TEMPO_SALVAR.registrarDesde(inicio);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
     }
 
     /**
-     * Busca uma venda na lista em memória pelo ID e retorna uma
-     * mensagem (String) indicando o resultado.
+     * Busca uma venda pelo ID (na lista em memória e, se não encontrar, nas
+     * partições dos meses não carregados) e retorna uma mensagem (String)
+     * indicando o resultado.
      *
      * @param id O ID da venda a ser buscada.
      * @return Uma String "Venda(s) encontrada(s): ..." com os dados da
      * venda, ou "Venda(s) não encontrada!" caso contrário.
      */
     public String buscarVendaPorId(int id) {
-        for (Venda p : vendas) {
-            if (p.getId() == id) {
-                return "Venda(s) encontrada(s): " + p.toString();
-            }
+        Venda p = buscarReferencia(id);
+        if (p != null) {
+            return "Venda(s) encontrada(s): " + p.toString();
         }
         return "Venda(s) não encontrada!";
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Retorna o contador de alterações da lista de vendas, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
+    }
+}
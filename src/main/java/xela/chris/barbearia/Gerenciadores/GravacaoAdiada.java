@@ -0,0 +1,242 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.log.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor de gravações adiadas (write-behind) dos repositórios JSON.
+ *
+ * <p>
+ * Uma mesma ação do usuário costuma salvar o mesmo arquivo várias vezes
+ * (ex: uma venda grava as vendas e os produtos, e o menu salva de novo em
+ * seguida). Os repositórios ligados a um executor
+ * ({@link RepositorioJson#setGravacaoAdiada(GravacaoAdiada)}) apenas guardam
+ * a última lista salva e avisam o executor, que grava cada arquivo sujo uma
+ * única vez em uma thread de segundo plano:
+ * </p>
+ * <ul>
+ *     <li>quando o arquivo passa {@code intervalo} ms sem ser salvo de novo;</li>
+ *     <li>ou, se continuar sendo salvo, no máximo {@code atrasoMaximo} ms
+ *     depois de ficar sujo.</li>
+ * </ul>
+ *
+ * <p>
+ * {@link #flush()} grava na hora tudo o que estiver pendente e só volta
+ * quando os arquivos estiverem gravados; ele também é chamado ao encerrar a
+ * JVM. Leituras e outras gravações de um arquivo gravam a pendente dele
+ * antes, então o adiamento só é visível para outros processos.
+ * </p>
+ *
+ * <p>
+ * {@link #flush()} não deve ser chamado com a trava de leitura de um
+ * repositório (ex: dentro de um {@code percorrer}).
+ * </p>
+ */
+public class GravacaoAdiada {
+
+    private static final Log LOG = Log.de(GravacaoAdiada.class);
+
+    /** Espera padrão (ms) por novos {@code salvarTodos} antes de gravar. */
+    public static final long INTERVALO_PADRAO = 200;
+
+    /** Tempo máximo padrão (ms) que um arquivo salvo fica sem ser gravado. */
+    public static final long ATRASO_MAXIMO_PADRAO = 1000;
+
+    private static final GravacaoAdiada PADRAO = new GravacaoAdiada(INTERVALO_PADRAO, ATRASO_MAXIMO_PADRAO);
+
+    private final ScheduledExecutorService executor;
+
+    /** Repositórios sujos → {momento em que ficou sujo, último salvarTodos} (ms). */
+    private final Map<RepositorioJson<?>, long[]> sujos = new LinkedHashMap<>();
+
+    private long intervalo;
+    private long atrasoMaximo;
+    private ScheduledFuture<?> proximaVerificacao;
+
+    /** Chamadas de {@code salvarTodos} recebidas e gravações de fato feitas. */
+    private long pedidos;
+    private long gravacoes;
+
+    /**
+     * Cria um executor com uma thread própria de gravação.
+     *
+     * @param intervalo    Espera (ms) por novos {@code salvarTodos} antes de gravar.
+     * @param atrasoMaximo Tempo máximo (ms) entre o primeiro {@code salvarTodos}
+     *                     pendente e a gravação.
+     */
+    public GravacaoAdiada(long intervalo, long atrasoMaximo) {
+        this.intervalo = intervalo;
+        this.atrasoMaximo = atrasoMaximo;
+        this.executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "gravacao-adiada");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "gravacao-adiada-final"));
+    }
+
+    /**
+     * Retorna o executor compartilhado pelos gerenciadores.
+     *
+     * @return O executor padrão.
+     */
+    public static GravacaoAdiada padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * Registra que o repositório tem uma lista pendente.
+     *
+     * @param repositorio Repositório que acabou de receber um {@code salvarTodos}.
+     */
+    synchronized void agendar(RepositorioJson<?> repositorio) {
+        long agora = System.currentTimeMillis();
+        long[] momentos = sujos.get(repositorio);
+        if (momentos == null) {
+            sujos.put(repositorio, new long[]{agora, agora});
+        } else {
+            momentos[1] = agora;
+        }
+        pedidos++;
+        if (proximaVerificacao == null) {
+            proximaVerificacao = executor.schedule(this::verificar, intervalo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Grava na hora todas as listas pendentes. Quando retorna, tudo o que foi
+     * salvo antes da chamada está no disco (inclusive o que a thread de
+     * gravação já estava gravando).
+     */
+    public void flush() {
+        List<RepositorioJson<?>> pendentes;
+        synchronized (this) {
+            pendentes = new ArrayList<>(sujos.keySet());
+        }
+        for (RepositorioJson<?> repositorio : pendentes) {
+            gravar(repositorio);
+        }
+    }
+
+    /**
+     * Define a espera por novos {@code salvarTodos} antes de gravar.
+     *
+     * @param intervalo Espera em milissegundos.
+     */
+    public synchronized void setIntervalo(long intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    /**
+     * Retorna a espera por novos {@code salvarTodos} antes de gravar.
+     *
+     * @return Espera em milissegundos.
+     */
+    public synchronized long getIntervalo() {
+        return intervalo;
+    }
+
+    /**
+     * Define por quanto tempo, no máximo, uma lista salva fica sem ser gravada.
+     *
+     * @param atrasoMaximo Atraso máximo em milissegundos.
+     */
+    public synchronized void setAtrasoMaximo(long atrasoMaximo) {
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    /**
+     * Retorna por quanto tempo, no máximo, uma lista salva fica sem ser gravada.
+     *
+     * @return Atraso máximo em milissegundos.
+     */
+    public synchronized long getAtrasoMaximo() {
+        return atrasoMaximo;
+    }
+
+    /**
+     * Retorna quantas chamadas de {@code salvarTodos} o executor recebeu.
+     *
+     * @return Total de pedidos de gravação.
+     */
+    public synchronized long getPedidos() {
+        return pedidos;
+    }
+
+    /**
+     * Retorna quantas gravações completas foram de fato feitas; a diferença
+     * para {@link #getPedidos()} são as gravações economizadas.
+     *
+     * @return Total de gravações.
+     */
+    public synchronized long getGravacoes() {
+        return gravacoes;
+    }
+
+    /** Grava os repositórios cujo prazo venceu e agenda a próxima verificação. */
+    private void verificar() {
+        List<RepositorioJson<?>> vencidos = new ArrayList<>();
+        synchronized (this) {
+            proximaVerificacao = null;
+            long agora = System.currentTimeMillis();
+            for (Map.Entry<RepositorioJson<?>, long[]> sujo : sujos.entrySet()) {
+                if (prazo(sujo.getValue()) <= agora) {
+                    vencidos.add(sujo.getKey());
+                }
+            }
+        }
+        for (RepositorioJson<?> repositorio : vencidos) {
+            try {
+                gravar(repositorio);
+            } catch (RuntimeException e) {
+                LOG.erro("Falha na gravação adiada de " + repositorio.arquivo.getName() + ": " + e);
+            }
+        }
+        synchronized (this) {
+            if (sujos.isEmpty() || proximaVerificacao != null) {
+                return;
+            }
+            long agora = System.currentTimeMillis();
+            long proximoPrazo = Long.MAX_VALUE;
+            for (long[] momentos : sujos.values()) {
+                proximoPrazo = Math.min(proximoPrazo, prazo(momentos));
+            }
+            proximaVerificacao = executor.schedule(this::verificar,
+                    Math.max(1, proximoPrazo - agora), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Grava a lista pendente do repositório e o retira dos sujos, a não ser
+     * que ele tenha recebido outro {@code salvarTodos} enquanto gravava.
+     */
+    private void gravar(RepositorioJson<?> repositorio) {
+        boolean gravou = repositorio.gravarPendente();
+        synchronized (this) {
+            if (gravou) {
+                gravacoes++;
+            }
+            long[] momentos = sujos.get(repositorio);
+            if (momentos == null) {
+                return;
+            }
+            if (repositorio.temPendente()) {
+                momentos[0] = momentos[1];
+            } else {
+                sujos.remove(repositorio);
+            }
+        }
+    }
+
+    private long prazo(long[] momentos) {
+        return Math.min(momentos[1] + intervalo, momentos[0] + atrasoMaximo);
+    }
+}
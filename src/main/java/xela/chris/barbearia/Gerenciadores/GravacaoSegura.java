@@ -0,0 +1,242 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.log.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Gravação à prova de quedas e conferência dos arquivos JSON.
+ *
+ * <p>
+ * Todo arquivo gravado termina com um rodapé de uma linha,
+ * {@code // crc32 <soma> <tamanho>}, com o CRC32 e o tamanho em bytes do
+ * JSON que vem antes dele. O rodapé é um comentário depois do fim do
+ * array, que o Jackson não chega a ler (no formato binário, vem depois do
+ * último registro, e a leitura para antes dele). Arquivos antigos, sem rodapé,
+ * continuam sendo aceitos (sem conferência).
+ * </p>
+ *
+ * <p>
+ * A gravação escreve o conteúdo em {@code <nomeArquivo>.tmp}, força os
+ * dados para o disco conforme a {@link Durabilidade}, cria
+ * {@code <nomeArquivo>.anterior} como link para o arquivo atual (ou cópia,
+ * se o sistema de arquivos não tiver links) e troca o temporário pelo atual
+ * com um move atômico. O arquivo atual nunca deixa de existir: uma queda em
+ * qualquer ponto deixa o conteúdo antigo ou o novo.
+ * </p>
+ */
+final class GravacaoSegura {
+
+    private static final Log LOG = Log.de(GravacaoSegura.class);
+
+    private static final byte[] PREFIXO_SOMA = "\n// crc32 ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Maior tamanho possível do rodapé: prefixo, 8 dígitos, espaço, tamanho e quebra de linha. */
+    private static final int TAMANHO_MAXIMO_RODAPE = 48;
+
+    private GravacaoSegura() {
+    }
+
+    /**
+     * Acrescenta o rodapé com a soma de verificação ao conteúdo.
+     *
+     * @param conteudo JSON a ser gravado.
+     * @return Conteúdo seguido do rodapé.
+     */
+    static byte[] comSoma(byte[] conteudo) {
+        byte[] rodape = String.format("// crc32 %08x %d\n", calcularSoma(conteudo, conteudo.length), conteudo.length)
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] completo = new byte[conteudo.length + 1 + rodape.length];
+        System.arraycopy(conteudo, 0, completo, 0, conteudo.length);
+        completo[conteudo.length] = '\n';
+        System.arraycopy(rodape, 0, completo, conteudo.length + 1, rodape.length);
+        return completo;
+    }
+
+    /**
+     * Retorna onde termina o JSON, antes do rodapé.
+     *
+     * @param conteudo Conteúdo lido do arquivo.
+     * @return Posição do rodapé, ou o tamanho do conteúdo se não houver rodapé.
+     */
+    static int fimDoConteudo(byte[] conteudo) {
+        int inicio = Math.max(0, conteudo.length - TAMANHO_MAXIMO_RODAPE);
+        for (int i = conteudo.length - PREFIXO_SOMA.length; i >= inicio; i--) {
+            if (comecaCom(conteudo, i, PREFIXO_SOMA)) {
+                return i;
+            }
+        }
+        return conteudo.length;
+    }
+
+    /**
+     * Confere o rodapé do conteúdo.
+     *
+     * @param conteudo Conteúdo lido do arquivo.
+     * @return {@code true} se não houver rodapé ou se a soma e o tamanho conferirem.
+     */
+    static boolean confere(byte[] conteudo) {
+        int fim = fimDoConteudo(conteudo);
+        if (fim == conteudo.length) {
+            return true;
+        }
+        long[] rodape = lerRodape(new String(conteudo, fim + PREFIXO_SOMA.length,
+                conteudo.length - fim - PREFIXO_SOMA.length, StandardCharsets.US_ASCII));
+        return rodape != null && rodape[1] == fim && rodape[0] == calcularSoma(conteudo, fim);
+    }
+
+    /**
+     * Confere o rodapé de um arquivo sem carregá-lo inteiro em memória.
+     *
+     * @param arquivo Arquivo a ser conferido.
+     * @return {@code true} se o arquivo existir e não tiver rodapé, ou se a
+     * soma e o tamanho conferirem.
+     */
+    static boolean confere(File arquivo) {
+        if (!arquivo.exists()) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo, "r")) {
+            long tamanho = raf.length();
+            int lidos = (int) Math.min(tamanho, TAMANHO_MAXIMO_RODAPE);
+            byte[] ultimos = new byte[lidos];
+            raf.seek(tamanho - lidos);
+            raf.readFully(ultimos);
+            int fimNoFinal = fimDoConteudo(ultimos);
+            if (fimNoFinal == ultimos.length) {
+                return true;
+            }
+            long fim = tamanho - lidos + fimNoFinal;
+            long[] rodape = lerRodape(new String(ultimos, fimNoFinal + PREFIXO_SOMA.length,
+                    ultimos.length - fimNoFinal - PREFIXO_SOMA.length, StandardCharsets.US_ASCII));
+            if (rodape == null || rodape[1] != fim) {
+                return false;
+            }
+
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[64 * 1024];
+            long restante = fim;
+            try (InputStream in = Files.newInputStream(arquivo.toPath())) {
+                while (restante > 0) {
+                    int n = in.read(buffer, 0, (int) Math.min(buffer.length, restante));
+                    if (n < 0) {
+                        return false;
+                    }
+                    crc.update(buffer, 0, n);
+                    restante -= n;
+                }
+            }
+            return crc.getValue() == rodape[0];
+        } catch (IOException e) {
+            LOG.erro("Falha ao conferir " + arquivo.getName() + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Grava o conteúdo no arquivo de destino de forma atômica, guardando a
+     * versão atual como geração anterior.
+     *
+     * @param destino      Arquivo a ser substituído.
+     * @param conteudo     Conteúdo completo, já com o rodapé.
+     * @param durabilidade Quanto esperar a chegada dos dados ao disco.
+     * @param atualIntegro {@code false} se o arquivo atual estiver corrompido:
+     *                     ele é copiado para {@code <nomeArquivo>.corrompido}
+     *                     em vez de substituir a geração anterior.
+     * @throws IOException se o arquivo temporário não puder ser gravado ou trocado.
+     */
+    static void gravar(File destino, byte[] conteudo, Durabilidade durabilidade, boolean atualIntegro)
+            throws IOException {
+        File pasta = destino.getAbsoluteFile().getParentFile();
+        File temporario = new File(pasta, destino.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporario)) {
+            out.write(conteudo);
+            if (durabilidade != Durabilidade.SEM_SINCRONIZAR) {
+                out.getFD().sync();
+            }
+        }
+
+        if (destino.exists()) {
+            if (atualIntegro) {
+                guardarAnterior(destino);
+            } else {
+                File corrompido = new File(pasta, destino.getName() + ".corrompido");
+                Files.copy(destino.toPath(), corrompido.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                LOG.aviso("Arquivo " + destino.getName() + " corrompido guardado em " + corrompido.getName());
+            }
+        }
+
+        Files.move(temporario.toPath(), destino.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (durabilidade == Durabilidade.COMPLETA) {
+            forcarPasta(pasta);
+        }
+    }
+
+    /**
+     * Retorna o arquivo da geração anterior.
+     *
+     * @param arquivo Arquivo atual.
+     * @return O arquivo {@code <nomeArquivo>.anterior}.
+     */
+    static File anterior(File arquivo) {
+        return new File(arquivo.getParentFile(), arquivo.getName() + ".anterior");
+    }
+
+    private static void guardarAnterior(File destino) throws IOException {
+        File anterior = anterior(destino);
+        Files.deleteIfExists(anterior.toPath());
+        try {
+            Files.createLink(anterior.toPath(), destino.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(destino.toPath(), anterior.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Força a entrada da pasta para o disco (não suportado em todos os sistemas). */
+    private static void forcarPasta(File pasta) {
+        try (FileChannel canal = FileChannel.open(pasta.toPath(), StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sistemas como o Windows não abrem pastas; a troca continua atômica.
+        }
+    }
+
+    private static long calcularSoma(byte[] conteudo, int tamanho) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo, 0, tamanho);
+        return crc.getValue();
+    }
+
+    /** Lê "soma tamanho" do rodapé; {@code null} se estiver incompleto. */
+    private static long[] lerRodape(String texto) {
+        String[] partes = texto.trim().split(" ");
+        if (partes.length != 2) {
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(partes[0], 16), Long.parseLong(partes[1])};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean comecaCom(byte[] conteudo, int inicio, byte[] prefixo) {
+        for (int i = 0; i < prefixo.length; i++) {
+            if (conteudo[inicio + i] != prefixo[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumos diários do balanço, mantidos pelo {@link GerenciarAgendamento}
+ * (serviços) e pelo {@link GerenciarVenda} (produtos).
+ *
+ * <p>
+ * Cada agendamento ou venda soma a sua contribuição no {@link ResumoBalanco}
+ * do seu dia, quando é indexado. A contribuição fica registrada, então
+ * remover ou alterar o registro desfaz exatamente o que foi somado, mesmo
+ * que a data, o funcionário ou os serviços tenham mudado. Uma consulta de
+ * dia, mês ou ano soma apenas os resumos dos dias do período, sem percorrer
+ * os registros.
+ * </p>
+ *
+ * <p>
+ * Registros com data gravada mas inválida ficam em um resumo à parte, que
+ * só entra no balanço completo (filtro vazio), como no filtro por texto.
+ * Registros sem data não entram em nenhum balanço.
+ * </p>
+ */
+public class IndiceBalanco {
+
+    /** Dia (desde 01/01/1970) → resumo do dia. */
+    private final TreeMap<Integer, ResumoBalanco> dias = new TreeMap<>();
+
+    /** Resumo dos registros cuja data não pôde ser interpretada. */
+    private ResumoBalanco semData = new ResumoBalanco();
+
+    /** Contribuição somada para cada registro indexado. */
+    private final Map<Object, Contribuicao> registrados = new IdentityHashMap<>();
+
+    /**
+     * Valores somados por um registro no momento em que foi indexado.
+     * Para vendas, {@code idsServicos} e {@code precos} ficam nulos.
+     */
+    private record Contribuicao(int dia, long valor, int idFuncionario, int[] idsServicos, long[] precos) {
+    }
+
+    /**
+     * Indexa um agendamento, somando os preços dos seus serviços no dia do
+     * agendamento. Agendamentos sem data ou já indexados são ignorados.
+     *
+     * @param agendamento Agendamento a ser indexado.
+     */
+    public void adicionar(Agendamento agendamento) {
+        if (agendamento == null || agendamento.getDataHora() == null || registrados.containsKey(agendamento)) {
+            return;
+        }
+        List<Integer> ids = agendamento.getServicoIds();
+        int quantidade = ids.size();
+        int[] idsServicos = new int[quantidade];
+        long[] precos = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            idsServicos[i] = ids.get(i);
+            precos[i] = agendamento.getPrecoServicoCentavos(i);
+        }
+        int minuto = agendamento.getMinutoDataHora();
+        int dia = minuto == DataHora.SEM_DATA ? DataHora.SEM_DATA : Math.floorDiv(minuto, DataHora.MINUTOS_POR_DIA);
+
+        Contribuicao contribuicao = new Contribuicao(dia, 0, agendamento.getFuncionarioId(), idsServicos, precos);
+        registrados.put(agendamento, contribuicao);
+        aplicar(contribuicao, 1);
+    }
+
+    /**
+     * Indexa uma venda, somando o seu valor total no dia da venda. Vendas
+     * sem data ou já indexadas são ignoradas.
+     *
+     * @param venda Venda a ser indexada.
+     */
+    public void adicionar(Venda venda) {
+        if (venda == null || venda.getDataVenda() == null || registrados.containsKey(venda)) {
+            return;
+        }
+        Contribuicao contribuicao = new Contribuicao(venda.getDiaVenda(), venda.getValorTotalCentavos(), 0, null, null);
+        registrados.put(venda, contribuicao);
+        aplicar(contribuicao, 1);
+    }
+
+    /**
+     * Desfaz a contribuição registrada para o agendamento ou venda, se houver.
+     *
+     * @param registro Agendamento ou venda a ser retirado do índice.
+     */
+    public void remover(Object registro) {
+        Contribuicao contribuicao = registrados.remove(registro);
+        if (contribuicao != null) {
+            aplicar(contribuicao, -1);
+        }
+    }
+
+    /**
+     * Reindexa um agendamento já indexado, refletindo alterações de data,
+     * funcionário ou serviços. Agendamentos fora do índice são ignorados.
+     *
+     * @param agendamento Agendamento alterado.
+     */
+    public void atualizar(Agendamento agendamento) {
+        if (registrados.containsKey(agendamento)) {
+            remover(agendamento);
+            adicionar(agendamento);
+        }
+    }
+
+    /**
+     * Remove todos os resumos do índice.
+     */
+    public void limpar() {
+        dias.clear();
+        registrados.clear();
+        semData = new ResumoBalanco();
+    }
+
+    /**
+     * Soma os resumos diários do período. Um período sem limites (filtro
+     * vazio) inclui também os registros com data inválida.
+     *
+     * @param periodo Período obtido com {@link DataHora#periodo(String)}.
+     * @return Resumo do período, ou {@code null} se o período não for formado
+     * por dias inteiros (ex: filtro de um minuto) ou for {@code null}.
+     */
+    public ResumoBalanco resumir(DataHora.Periodo periodo) {
+        if (periodo == null) {
+            return null;
+        }
+        ResumoBalanco resumo = new ResumoBalanco();
+        if (periodo.inicio() == Integer.MIN_VALUE && periodo.fim() == Integer.MAX_VALUE) {
+            for (ResumoBalanco doDia : dias.values()) {
+                resumo.somar(doDia);
+            }
+            resumo.somar(semData);
+            return resumo;
+        }
+        if (periodo.inicio() % DataHora.MINUTOS_POR_DIA != 0 || periodo.fim() % DataHora.MINUTOS_POR_DIA != 0) {
+            return null;
+        }
+        int primeiroDia = periodo.inicio() / DataHora.MINUTOS_POR_DIA;
+        int diaFinal = periodo.fim() / DataHora.MINUTOS_POR_DIA;
+        for (ResumoBalanco doDia : dias.subMap(primeiroDia, diaFinal).values()) {
+            resumo.somar(doDia);
+        }
+        return resumo;
+    }
+
+    /**
+     * Retorna a quantidade de registros indexados.
+     *
+     * @return Número de agendamentos e vendas no índice.
+     */
+    public int tamanho() {
+        return registrados.size();
+    }
+
+    private void aplicar(Contribuicao contribuicao, int sinal) {
+        ResumoBalanco resumo;
+        if (contribuicao.dia() == DataHora.SEM_DATA) {
+            resumo = semData;
+        } else {
+            resumo = dias.computeIfAbsent(contribuicao.dia(), dia -> new ResumoBalanco());
+        }
+
+        if (contribuicao.idsServicos() != null) {
+            resumo.somarAgendamento(contribuicao.idFuncionario(), contribuicao.idsServicos(), contribuicao.precos(), sinal);
+        } else {
+            resumo.somarVenda(contribuicao.valor(), sinal);
+        }
+
+        if (resumo != semData && resumo.vazio()) {
+            dias.remove(contribuicao.dia());
+        }
+    }
+}
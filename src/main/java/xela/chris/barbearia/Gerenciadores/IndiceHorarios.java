@@ -0,0 +1,207 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice de ocupação de horários usado pelo {@link GerenciarAgendamento}.
+ *
+ * <p>
+ * Cada agendamento ocupa o intervalo [início, início + duração) em minutos
+ * (ver {@link Agendamento#getMinutoDataHora()} e
+ * {@link Agendamento#getDuracaoMinutos()}). O índice mantém, para cada
+ * cadeira e para cada funcionário, uma agenda ordenada pelo início dos
+ * intervalos. Verificar se um novo intervalo se sobrepõe a algum existente
+ * custa O(log n) para localizar os candidatos, independentemente de quantos
+ * agendamentos antigos estejam armazenados.
+ * </p>
+ *
+ * <p>
+ * Os dados antigos podem ter vários agendamentos sobrepostos para a mesma
+ * cadeira; por isso cada início guarda todos os términos registrados, e
+ * remover um agendamento não libera o horário dos outros. Cada agendamento
+ * indexado tem a sua ocupação registrada, de modo que
+ * {@link #atualizar(Agendamento)} consegue desfazer a entrada antiga mesmo
+ * que o horário, a cadeira, o funcionário ou os serviços tenham mudado.
+ * Agendamentos com data inválida não são indexados.
+ * </p>
+ */
+public class IndiceHorarios {
+
+    private final MapaInt<Agenda> cadeiras = new MapaInt<>();
+    private final MapaInt<Agenda> funcionarios = new MapaInt<>();
+
+    /** Ocupação registrada para cada agendamento indexado. */
+    private final Map<Agendamento, Ocupacao> registrados = new IdentityHashMap<>();
+
+    /**
+     * Recursos e intervalo ocupados por um agendamento no momento em que foi indexado.
+     */
+    private record Ocupacao(int idCadeira, int idFuncionario, int inicio, int fim) {
+    }
+
+    /**
+     * Intervalos de um único recurso (cadeira ou funcionário), ordenados
+     * pelo minuto de início.
+     */
+    private static final class Agenda {
+
+        /** Minuto de início → términos dos intervalos que começam nele. */
+        private final TreeMap<Integer, List<Integer>> intervalos = new TreeMap<>();
+
+        /** Maior duração já registrada; limita quantos inícios anteriores precisam ser olhados. */
+        private int maiorDuracao;
+
+        void adicionar(int inicio, int fim) {
+            intervalos.computeIfAbsent(inicio, chave -> new ArrayList<>(1)).add(fim);
+            maiorDuracao = Math.max(maiorDuracao, fim - inicio);
+        }
+
+        void remover(int inicio, int fim) {
+            List<Integer> fins = intervalos.get(inicio);
+            if (fins == null) {
+                return;
+            }
+            fins.remove(Integer.valueOf(fim));
+            if (fins.isEmpty()) {
+                intervalos.remove(inicio);
+            }
+        }
+
+        /**
+         * Um intervalo [a, b) se sobrepõe a [inicio, fim) quando
+         * {@code a < fim && b > inicio}. Como {@code b <= a + maiorDuracao},
+         * só os inícios em (inicio - maiorDuracao, fim) podem se sobrepor.
+         */
+        boolean sobrepoe(int inicio, int fim) {
+            for (List<Integer> fins : intervalos.subMap(inicio - maiorDuracao, false, fim, false).values()) {
+                for (int termino : fins) {
+                    if (termino > inicio) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean vazia() {
+            return intervalos.isEmpty();
+        }
+    }
+
+    /**
+     * Indexa um agendamento. Agendamentos sem data válida são ignorados.
+     *
+     * @param agendamento Agendamento a ser indexado.
+     */
+    public void adicionar(Agendamento agendamento) {
+        if (agendamento == null || agendamento.getMinutoDataHora() == DataHora.SEM_DATA
+                || registrados.containsKey(agendamento)) {
+            return;
+        }
+        int inicio = agendamento.getMinutoDataHora();
+        Ocupacao ocupacao = new Ocupacao(agendamento.getIdCadeira(), agendamento.getFuncionarioId(),
+                inicio, inicio + agendamento.getDuracaoMinutos());
+        registrados.put(agendamento, ocupacao);
+        agendaDe(cadeiras, ocupacao.idCadeira()).adicionar(ocupacao.inicio(), ocupacao.fim());
+        agendaDe(funcionarios, ocupacao.idFuncionario()).adicionar(ocupacao.inicio(), ocupacao.fim());
+    }
+
+    /**
+     * Remove a ocupação registrada para o agendamento, se houver.
+     *
+     * @param agendamento Agendamento a ser retirado do índice.
+     */
+    public void remover(Agendamento agendamento) {
+        Ocupacao ocupacao = registrados.remove(agendamento);
+        if (ocupacao == null) {
+            return;
+        }
+        retirar(cadeiras, ocupacao.idCadeira(), ocupacao);
+        retirar(funcionarios, ocupacao.idFuncionario(), ocupacao);
+    }
+
+    /**
+     * Reindexa um agendamento já indexado, refletindo alterações de
+     * horário, cadeira, funcionário ou serviços. Agendamentos que não estão
+     * no índice são ignorados.
+     *
+     * @param agendamento Agendamento alterado.
+     */
+    public void atualizar(Agendamento agendamento) {
+        if (registrados.containsKey(agendamento)) {
+            remover(agendamento);
+            adicionar(agendamento);
+        }
+    }
+
+    /**
+     * Remove todas as entradas do índice.
+     */
+    public void limpar() {
+        cadeiras.limpar();
+        funcionarios.limpar();
+        registrados.clear();
+    }
+
+    /**
+     * Indica se a cadeira possui algum agendamento que se sobrepõe ao intervalo.
+     *
+     * @param idCadeira ID da cadeira.
+     * @param inicio    Minuto inicial (desde 01/01/1970).
+     * @param fim       Minuto final, exclusivo.
+     * @return {@code true} se houver sobreposição.
+     */
+    public boolean cadeiraOcupada(int idCadeira, int inicio, int fim) {
+        Agenda agenda = cadeiras.get(idCadeira);
+        return agenda != null && agenda.sobrepoe(inicio, fim);
+    }
+
+    /**
+     * Indica se o funcionário possui algum agendamento que se sobrepõe ao intervalo.
+     *
+     * @param idFuncionario ID do funcionário.
+     * @param inicio        Minuto inicial (desde 01/01/1970).
+     * @param fim           Minuto final, exclusivo.
+     * @return {@code true} se houver sobreposição.
+     */
+    public boolean funcionarioOcupado(int idFuncionario, int inicio, int fim) {
+        Agenda agenda = funcionarios.get(idFuncionario);
+        return agenda != null && agenda.sobrepoe(inicio, fim);
+    }
+
+    /**
+     * Retorna a quantidade de agendamentos indexados.
+     *
+     * @return Número de agendamentos no índice.
+     */
+    public int tamanho() {
+        return registrados.size();
+    }
+
+    private static Agenda agendaDe(MapaInt<Agenda> indice, int id) {
+        Agenda agenda = indice.get(id);
+        if (agenda == null) {
+            agenda = new Agenda();
+            indice.put(id, agenda);
+        }
+        return agenda;
+    }
+
+    private static void retirar(MapaInt<Agenda> indice, int id, Ocupacao ocupacao) {
+        Agenda agenda = indice.get(id);
+        if (agenda == null) {
+            return;
+        }
+        agenda.remover(ocupacao.inicio(), ocupacao.fim());
+        if (agenda.vazia()) {
+            indice.remove(id);
+        }
+    }
+}
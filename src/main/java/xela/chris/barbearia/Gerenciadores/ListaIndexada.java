@@ -0,0 +1,192 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Lista em memória usada pelos gerenciadores, com índice por ID.
+ *
+ * <p>
+ * Continua sendo uma {@link java.util.List} comum (ordem de inserção,
+ * iteração, ordenação, gravação pelo {@link RepositorioJson}), mas mantém
+ * um {@link MapaInt} de ID para registro atualizado a cada inserção e
+ * remoção. Assim, {@link #buscarPorId(int)} custa O(1) em vez de percorrer
+ * toda a lista.
+ * </p>
+ *
+ * <p>
+ * Se houver IDs repetidos (dados antigos), a busca retorna o primeiro
+ * registro inserido com aquele ID, como faria a varredura linear. Caso o
+ * ID de um registro seja alterado depois de inserido, chame
+ * {@link #reindexar()}.
+ * </p>
+ *
+ * @param <T> Tipo dos registros.
+ */
+public class ListaIndexada<T> extends AbstractList<T> implements RandomAccess {
+
+    private final ToIntFunction<? super T> extratorId;
+    private final ArrayList<T> elementos;
+    private final MapaInt<T> indice;
+
+    /** Quantidade de registros cujo ID já estava no índice ao serem inseridos. */
+    private int duplicados;
+
+    /**
+     * Cria uma lista vazia.
+     *
+     * @param extratorId Função que obtém o ID de um registro (ex: {@code Cliente::getId}).
+     */
+    public ListaIndexada(ToIntFunction<? super T> extratorId) {
+        this.extratorId = Objects.requireNonNull(extratorId);
+        this.elementos = new ArrayList<>();
+        this.indice = new MapaInt<>();
+    }
+
+    /**
+     * Cria uma lista com os registros informados (ex: o resultado de
+     * {@code repo.buscarTodos()}), já indexados.
+     *
+     * @param extratorId Função que obtém o ID de um registro.
+     * @param registros  Registros iniciais, na ordem desejada.
+     */
+    public ListaIndexada(ToIntFunction<? super T> extratorId, Collection<? extends T> registros) {
+        this.extratorId = Objects.requireNonNull(extratorId);
+        this.elementos = new ArrayList<>(registros);
+        this.indice = new MapaInt<>(elementos.size());
+        for (T registro : elementos) {
+            indexar(registro);
+        }
+    }
+
+    /**
+     * Busca um registro pelo ID em tempo constante.
+     *
+     * @param id ID procurado.
+     * @return O primeiro registro com esse ID, ou {@code null} se não existir.
+     */
+    public T buscarPorId(int id) {
+        return indice.get(id);
+    }
+
+    /**
+     * Indica se existe algum registro com o ID informado.
+     *
+     * @param id ID procurado.
+     * @return {@code true} se o ID estiver na lista.
+     */
+    public boolean contemId(int id) {
+        return indice.contem(id);
+    }
+
+    /**
+     * Reconstrói o índice a partir da lista. Necessário apenas se o ID de
+     * algum registro for alterado depois de inserido.
+     */
+    public void reindexar() {
+        indice.limpar();
+        duplicados = 0;
+        for (T registro : elementos) {
+            indexar(registro);
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return elementos.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elementos.size();
+    }
+
+    @Override
+    public T set(int index, T registro) {
+        T anterior = elementos.set(index, registro);
+        if (anterior != registro) {
+            desindexar(anterior);
+            indexar(registro);
+        }
+        return anterior;
+    }
+
+    @Override
+    public void add(int index, T registro) {
+        elementos.add(index, registro);
+        indexar(registro);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removido = elementos.remove(index);
+        desindexar(removido);
+        modCount++;
+        return removido;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filtro) {
+        boolean removeu = elementos.removeIf(filtro);
+        if (removeu) {
+            reindexar();
+            modCount++;
+        }
+        return removeu;
+    }
+
+    @Override
+    public void clear() {
+        elementos.clear();
+        indice.limpar();
+        duplicados = 0;
+        modCount++;
+    }
+
+    /**
+     * Ordena a lista sem tocar no índice, já que os registros continuam os mesmos.
+     */
+    @Override
+    public void sort(Comparator<? super T> comparador) {
+        elementos.sort(comparador);
+        modCount++;
+    }
+
+    private void indexar(T registro) {
+        int id = extratorId.applyAsInt(registro);
+        if (indice.contem(id)) {
+            duplicados++;
+        } else {
+            indice.put(id, registro);
+        }
+    }
+
+    private void desindexar(T registro) {
+        int id = extratorId.applyAsInt(registro);
+        if (indice.get(id) != registro) {
+            if (duplicados > 0) {
+                duplicados--;
+            }
+            return;
+        }
+        indice.remove(id);
+        if (duplicados == 0) {
+            return;
+        }
+        // Promove o próximo registro com o mesmo ID, se existir.
+        for (T outro : elementos) {
+            if (extratorId.applyAsInt(outro) == id) {
+                indice.put(id, outro);
+                duplicados--;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Mapa de chaves {@code int} primitivas, sem boxing, que preserva a ordem
+ * de inserção.
+ *
+ * <p>
+ * As entradas ficam em dois vetores paralelos ({@code chaves} e
+ * {@code valores}) na ordem em que foram inseridas; uma tabela de
+ * endereçamento aberto guarda apenas a posição de cada entrada nesses
+ * vetores. Busca, inserção e remoção custam O(1) em média, e percorrer os
+ * valores segue a ordem de inserção, como em um {@code LinkedHashMap}.
+ * </p>
+ *
+ * <p>
+ * Remoções deixam lacunas que são descartadas na próxima reconstrução da
+ * tabela. Valores {@code null} não são aceitos.
+ * </p>
+ *
+ * @param <V> Tipo dos valores armazenados.
+ */
+public class MapaInt<V> {
+
+    private static final int LIVRE = -1;
+    private static final int REMOVIDO = -2;
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /** Posição da entrada em {@code chaves}/{@code valores}, ou LIVRE/REMOVIDO. */
+    private int[] tabela;
+    private int[] chaves;
+    private Object[] valores;
+
+    /** Próxima posição livre nos vetores de entradas (inclui lacunas de remoções). */
+    private int proximo;
+    private int tamanho;
+
+    /**
+     * Cria um mapa vazio com a capacidade inicial padrão.
+     */
+    public MapaInt() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Cria um mapa vazio preparado para receber a quantidade informada de
+     * entradas sem precisar crescer.
+     *
+     * @param capacidade Número esperado de entradas.
+     */
+    public MapaInt(int capacidade) {
+        alocar(Math.max(CAPACIDADE_INICIAL, capacidade));
+    }
+
+    /**
+     * Retorna o valor associado à chave.
+     *
+     * @param chave Chave procurada.
+     * @return O valor, ou {@code null} se a chave não existir.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int chave) {
+        int posicao = localizar(chave);
+        return posicao < 0 ? null : (V) valores[posicao];
+    }
+
+    /**
+     * Indica se a chave existe no mapa.
+     *
+     * @param chave Chave procurada.
+     * @return {@code true} se existir um valor para a chave.
+     */
+    public boolean contem(int chave) {
+        return localizar(chave) >= 0;
+    }
+
+    /**
+     * Associa o valor à chave. Se a chave já existir, o valor é substituído
+     * e a posição original na ordem de inserção é mantida.
+     *
+     * @param chave Chave.
+     * @param valor Valor (não pode ser {@code null}).
+     * @return O valor anterior, ou {@code null} se a chave era nova.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int chave, V valor) {
+        Objects.requireNonNull(valor);
+        int posicao = localizar(chave);
+        if (posicao >= 0) {
+            V anterior = (V) valores[posicao];
+            valores[posicao] = valor;
+            return anterior;
+        }
+
+        if (proximo == chaves.length) {
+            reconstruir(Math.max(CAPACIDADE_INICIAL, tamanho * 2));
+        }
+        int mascara = tabela.length - 1;
+        int slot = espalhar(chave) & mascara;
+        while (tabela[slot] >= 0) {
+            slot = (slot + 1) & mascara;
+        }
+        chaves[proximo] = chave;
+        valores[proximo] = valor;
+        tabela[slot] = proximo++;
+        tamanho++;
+        return null;
+    }
+
+    /**
+     * Remove a chave do mapa.
+     *
+     * @param chave Chave a ser removida.
+     * @return O valor removido, ou {@code null} se a chave não existia.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int chave) {
+        int mascara = tabela.length - 1;
+        int slot = espalhar(chave) & mascara;
+        while (tabela[slot] != LIVRE) {
+            int posicao = tabela[slot];
+            if (posicao >= 0 && chaves[posicao] == chave) {
+                V anterior = (V) valores[posicao];
+                valores[posicao] = null;
+                tabela[slot] = REMOVIDO;
+                tamanho--;
+                return anterior;
+            }
+            slot = (slot + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Remove todas as entradas.
+     */
+    public void limpar() {
+        Arrays.fill(tabela, LIVRE);
+        Arrays.fill(valores, 0, proximo, null);
+        proximo = 0;
+        tamanho = 0;
+    }
+
+    /**
+     * Retorna a quantidade de entradas.
+     *
+     * @return Número de chaves no mapa.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna os valores na ordem de inserção das chaves.
+     *
+     * @return Nova lista com os valores.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valores() {
+        List<V> lista = new ArrayList<>(tamanho);
+        for (int i = 0; i < proximo; i++) {
+            if (valores[i] != null) {
+                lista.add((V) valores[i]);
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Retorna as chaves na ordem de inserção.
+     *
+     * @return Vetor novo com as chaves.
+     */
+    public int[] chaves() {
+        int[] resultado = new int[tamanho];
+        int j = 0;
+        for (int i = 0; i < proximo; i++) {
+            if (valores[i] != null) {
+                resultado[j++] = chaves[i];
+            }
+        }
+        return resultado;
+    }
+
+    private int localizar(int chave) {
+        int mascara = tabela.length - 1;
+        int slot = espalhar(chave) & mascara;
+        while (tabela[slot] != LIVRE) {
+            int posicao = tabela[slot];
+            if (posicao >= 0 && chaves[posicao] == chave) {
+                return posicao;
+            }
+            slot = (slot + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Compacta as entradas (descartando lacunas) e recria a tabela com
+     * espaço para {@code capacidade} entradas.
+     */
+    private void reconstruir(int capacidade) {
+        int[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        int ocupadas = proximo;
+
+        alocar(capacidade);
+        int mascara = tabela.length - 1;
+        for (int i = 0; i < ocupadas; i++) {
+            if (valoresAntigos[i] == null) {
+                continue;
+            }
+            int slot = espalhar(chavesAntigas[i]) & mascara;
+            while (tabela[slot] != LIVRE) {
+                slot = (slot + 1) & mascara;
+            }
+            chaves[proximo] = chavesAntigas[i];
+            valores[proximo] = valoresAntigos[i];
+            tabela[slot] = proximo++;
+        }
+    }
+
+    /** Aloca vetores vazios; a tabela fica com ocupação máxima de 75%. */
+    private void alocar(int capacidade) {
+        int tamanhoTabela = Integer.highestOneBit(capacidade * 4 / 3) << 1;
+        tabela = new int[tamanhoTabela];
+        Arrays.fill(tabela, LIVRE);
+        chaves = new int[capacidade];
+        valores = new Object[capacidade];
+        proximo = 0;
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
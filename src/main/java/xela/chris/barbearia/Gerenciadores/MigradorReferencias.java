@@ -0,0 +1,226 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.models.NotaFiscal;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.Agendamento;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migração única dos arquivos de agendamentos, vendas e notas fiscais para o
+ * formato com referências por ID.
+ *
+ * <p>
+ * No formato antigo, cada agendamento embutia o cliente, o funcionário
+ * (inclusive senha e permissões) e os serviços completos, e cada nota fiscal
+ * embutia o agendamento e as vendas inteiras. O programa:
+ * </p>
+ * <ol>
+ *     <li>mede o tamanho e o tempo de leitura dos arquivos atuais;</li>
+ *     <li>guarda uma cópia de cada arquivo com a extensão {@code .legado};</li>
+ *     <li>carrega tudo pelos gerenciadores (que ainda entendem o formato
+ *     antigo) e grava novamente, agora só com os IDs;</li>
+ *     <li>grava o preço de cada serviço nos agendamentos que ainda não o
+ *     têm (migrados antes de o preço ser guardado), a partir dos serviços
+ *     embutidos no formato antigo;</li>
+ *     <li>mede o resultado e informa referências que não foram encontradas
+ *     nos gerenciadores donos (ex: clientes já excluídos).</li>
+ * </ol>
+ *
+ * <p>
+ * Rodar o programa mais de uma vez é seguro: arquivos já migrados são apenas
+ * regravados e a cópia {@code .legado} existente não é substituída.
+ * </p>
+ *
+ * <p>
+ * Agendamentos e vendas passaram a ser divididos em partições mensais
+ * ({@link RepositorioParticionado}) na primeira abertura dos gerenciadores;
+ * para eles, a medição "depois" soma todas as partições.
+ * </p>
+ */
+public class MigradorReferencias {
+
+    private static final String[] ARQUIVOS = {"agendamentos.json", "vendas.json", "notasFiscais.json"};
+    private static final Class<?>[] TIPOS = {Agendamento.class, Venda.class, NotaFiscal.class};
+
+    /** Leituras usadas em cada medição; o menor tempo é considerado. */
+    private static final int RODADAS = 5;
+
+    public static void main(String[] args) throws IOException {
+        long[] tamanhoAntes = new long[ARQUIVOS.length];
+        double[] leituraAntes = new double[ARQUIVOS.length];
+        for (int i = 0; i < ARQUIVOS.length; i++) {
+            File arquivo = new File(new RepositorioJson<>(TIPOS[i], ARQUIVOS[i]).getCaminhoArquivo());
+            tamanhoAntes[i] = arquivo.length();
+            leituraAntes[i] = medirLeitura(TIPOS[i], ARQUIVOS[i]);
+            guardarCopia(arquivo);
+        }
+
+        GerenciarCliente gc = new GerenciarCliente();
+        GerenciadorFuncionario gf = new GerenciadorFuncionario();
+        GerenciarServico gs = new GerenciarServico();
+        GerenciadorProduto gp = new GerenciadorProduto();
+        GerenciarAgendamento ga = new GerenciarAgendamento(gc, gf, gs);
+        GerenciarVenda gv = new GerenciarVenda(gp, gc);
+        GerenciarNotaFiscal gnf = new GerenciarNotaFiscal(ga, gv);
+        // os gerenciadores só carregam os meses recentes; a conferência percorre todas as partições
+        RepositorioParticionado<Agendamento> particoesAgendamentos = GerenciarAgendamento.criarRepositorio();
+        RepositorioParticionado<Venda> particoesVendas = GerenciarVenda.criarRepositorio();
+        int[] precosCompletados = completarPrecos(particoesAgendamentos, ga);
+        ga.carregar();
+
+        int agendamentosSemCliente = 0;
+        int agendamentosSemFuncionario = 0;
+        int servicosNaoEncontrados = 0;
+        for (Agendamento ag : particoesAgendamentos.buscarTodos()) {
+            if (ag.getClienteId() > 0 && gc.buscarReferencia(ag.getClienteId()) == null) {
+                agendamentosSemCliente++;
+            }
+            if (ag.getFuncionarioId() > 0 && gf.buscarReferencia(ag.getFuncionarioId()) == null) {
+                agendamentosSemFuncionario++;
+            }
+            servicosNaoEncontrados += ag.getServicoIds().size() - ga.resolverServicos(ag.getServicoIds()).size();
+        }
+        int vendasSemReferencia = 0;
+        for (Venda v : particoesVendas.buscarTodos()) {
+            if (gp.buscarReferencia(v.getProdutoId()) == null
+                    || (v.getClienteId() > 0 && gc.buscarReferencia(v.getClienteId()) == null)) {
+                vendasSemReferencia++;
+            }
+        }
+        int notasSemReferencia = 0;
+        for (NotaFiscal nota : gnf.listar()) {
+            boolean faltaAgendamento = nota.getAgendamentoId() > 0
+                    && ga.buscarReferencia(nota.getAgendamentoId()) == null;
+            boolean faltaVenda = nota.getVendaIds().stream().anyMatch(id -> gv.buscarReferencia(id) == null);
+            if (faltaAgendamento || faltaVenda) {
+                notasSemReferencia++;
+            }
+        }
+
+        // Nada mudou nas listas, mas os arquivos precisam ser regravados no formato novo
+        ga.getAlteracoes().marcarPendente();
+        gv.getAlteracoes().marcarPendente();
+        gnf.getAlteracoes().marcarPendente();
+        ga.salvarTodos();
+        gv.salvarTodasVendas();
+        gnf.salvar();
+        GravacaoAdiada.padrao().flush(); // os tamanhos abaixo precisam dos arquivos gravados
+
+        System.out.println("=== MIGRAÇÃO PARA REFERÊNCIAS POR ID ===");
+        System.out.printf("%-20s %12s %12s %14s %14s%n", "Arquivo", "Antes (B)", "Depois (B)", "Leitura antes", "Leitura depois");
+        RepositorioParticionado<?>[] particionados = {particoesAgendamentos, particoesVendas, null};
+        for (int i = 0; i < ARQUIVOS.length; i++) {
+            long tamanhoDepois;
+            double leituraDepois;
+            if (particionados[i] != null) {
+                tamanhoDepois = particionados[i].getTamanhoArquivos();
+                leituraDepois = medirLeitura(particionados[i]);
+            } else {
+                tamanhoDepois = new File(new RepositorioJson<>(TIPOS[i], ARQUIVOS[i]).getCaminhoArquivo()).length();
+                leituraDepois = medirLeitura(TIPOS[i], ARQUIVOS[i]);
+            }
+            System.out.printf("%-20s %12d %12d %11.2f ms %11.2f ms%n",
+                    ARQUIVOS[i], tamanhoAntes[i], tamanhoDepois, leituraAntes[i], leituraDepois);
+        }
+
+        System.out.println("\nReferências não encontradas (o ID foi mantido no arquivo):");
+        System.out.println(" Agendamentos com cliente inexistente: " + agendamentosSemCliente);
+        System.out.println(" Agendamentos com funcionário inexistente: " + agendamentosSemFuncionario);
+        System.out.println(" Serviços inexistentes em agendamentos: " + servicosNaoEncontrados);
+        System.out.println(" Vendas com produto ou cliente inexistente: " + vendasSemReferencia);
+        System.out.println(" Notas com agendamento ou venda inexistente: " + notasSemReferencia);
+        System.out.println("\nAgendamentos que receberam o preço dos serviços: " + precosCompletados[0]
+                + " (" + precosCompletados[1] + " com o preço atual, sem cópia no formato antigo)");
+        System.out.println("\nCópias do formato antigo gravadas com a extensão .legado");
+    }
+
+    /**
+     * Mede o menor tempo de leitura completa do arquivo (sem cache) em
+     * algumas rodadas, para reduzir a influência do aquecimento da JVM.
+     */
+    private static <T> double medirLeitura(Class<T> tipo, String nomeArquivo) {
+        RepositorioJson<T> repo = new RepositorioJson<>(tipo, nomeArquivo);
+        repo.setCacheAtivo(false);
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < RODADAS; i++) {
+            long inicio = System.nanoTime();
+            repo.buscarTodos();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        return melhor / 1_000_000.0;
+    }
+
+    /**
+     * Mede o menor tempo de leitura de todas as partições (sem cache).
+     */
+    private static double medirLeitura(RepositorioParticionado<?> repo) {
+        repo.setCacheAtivo(false);
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < RODADAS; i++) {
+            long inicio = System.nanoTime();
+            repo.buscarTodos();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        return melhor / 1_000_000.0;
+    }
+
+    /**
+     * Grava o preço dos serviços nos agendamentos de todas as partições que
+     * ainda não o têm. O preço vem dos serviços embutidos no formato antigo
+     * (cópia {@code .legado} ou arquivo {@code .sem-particoes}); sem eles,
+     * usa o preço atual do serviço, ou 0 se ele não existir mais.
+     *
+     * @return Agendamentos completados e, entre eles, os que usaram o preço atual.
+     */
+    private static int[] completarPrecos(RepositorioParticionado<Agendamento> particoes, GerenciarAgendamento ga) {
+        Map<Integer, List<Long>> precosAntigos = new HashMap<>();
+        for (String nome : new String[] {ARQUIVOS[0] + RepositorioParticionado.EXTENSAO_SEM_PARTICOES, ARQUIVOS[0] + ".legado"}) {
+            RepositorioJson<Agendamento> antigo = new RepositorioJson<>(Agendamento.class, nome);
+            if (!new File(antigo.getCaminhoArquivo()).exists()) {
+                continue;
+            }
+            for (Agendamento ag : antigo.buscarTodos()) {
+                if (!ag.getPrecosCentavos().isEmpty()) {
+                    precosAntigos.put(ag.getId(), ag.getPrecosCentavos());
+                }
+            }
+        }
+
+        int[] completados = new int[2];
+        for (Agendamento ag : particoes.buscarTodos()) {
+            int quantidade = ag.getServicoIds().size();
+            if (quantidade == 0 || ag.getPrecosCentavos().size() == quantidade) {
+                continue;
+            }
+            List<Long> precos = precosAntigos.get(ag.getId());
+            if (precos == null || precos.size() != quantidade) {
+                precos = new ArrayList<>(quantidade);
+                for (int id : ag.getServicoIds()) {
+                    List<Servico> servico = ga.resolverServicos(List.of(id));
+                    precos.add(servico.isEmpty() ? 0L : servico.get(0).getPrecoCentavos());
+                }
+                completados[1]++;
+            }
+            ag.setPrecosCentavos(precos);
+            particoes.registrarAtualizacao(ag);
+            completados[0]++;
+        }
+        return completados;
+    }
+
+    private static void guardarCopia(File arquivo) throws IOException {
+        File copia = new File(arquivo.getParentFile(), arquivo.getName() + ".legado");
+        if (arquivo.exists() && !copia.exists()) {
+            Files.copy(arquivo.toPath(), copia.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package xela.chris.barbearia.Gerenciadores;
+
+/**
+ * Entrada do manifesto de um {@link RepositorioParticionado}: um mês, o
+ * arquivo que guarda os registros desse mês e a faixa de IDs que já
+ * passou por ele.
+ *
+ * <p>
+ * A faixa só cresce (remoções não a diminuem), então serve para localizar
+ * um registro pelo ID sem abrir as outras partições e para saber o maior ID
+ * já usado sem carregar os meses antigos.
+ * </p>
+ */
+public class Particao {
+
+    /** Chave do mês; {@link RepositorioParticionado#SEM_MES} para os registros sem data. */
+    private int mes;
+
+    /** Nome do arquivo da partição, na pasta de dados. */
+    private String arquivo;
+
+    /** Menor e maior ID que já passaram pela partição. */
+    private int menorId;
+    private int maiorId;
+
+    /**
+     * Construtor padrão.
+     *
+     * <p>Utilizado principalmente por frameworks de serialização.</p>
+     */
+    public Particao() {}
+
+    /**
+     * Cria a entrada de uma partição.
+     *
+     * @param mes     Chave do mês (ver {@link RepositorioParticionado#mesDoDia(int)}).
+     * @param arquivo Nome do arquivo da partição.
+     * @param menorId Menor ID gravado na partição.
+     * @param maiorId Maior ID gravado na partição.
+     */
+    public Particao(int mes, String arquivo, int menorId, int maiorId) {
+        this.mes = mes;
+        this.arquivo = arquivo;
+        this.menorId = menorId;
+        this.maiorId = maiorId;
+    }
+
+    /**
+     * Retorna a chave do mês da partição.
+     *
+     * @return Chave do mês
+     */
+    public int getMes() {
+        return mes;
+    }
+
+    /**
+     * Define a chave do mês da partição.
+     *
+     * @param mes Chave do mês
+     */
+    public void setMes(int mes) {
+        this.mes = mes;
+    }
+
+    /**
+     * Retorna o nome do arquivo da partição.
+     *
+     * @return Nome do arquivo
+     */
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Define o nome do arquivo da partição.
+     *
+     * @param arquivo Nome do arquivo
+     */
+    public void setArquivo(String arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    /**
+     * Retorna o menor ID que já passou pela partição.
+     *
+     * @return Menor ID
+     */
+    public int getMenorId() {
+        return menorId;
+    }
+
+    /**
+     * Define o menor ID da partição.
+     *
+     * @param menorId Menor ID
+     */
+    public void setMenorId(int menorId) {
+        this.menorId = menorId;
+    }
+
+    /**
+     * Retorna o maior ID que já passou pela partição.
+     *
+     * @return Maior ID
+     */
+    public int getMaiorId() {
+        return maiorId;
+    }
+
+    /**
+     * Define o maior ID da partição.
+     *
+     * @param maiorId Maior ID
+     */
+    public void setMaiorId(int maiorId) {
+        this.maiorId = maiorId;
+    }
+
+    /**
+     * Indica se o ID está dentro da faixa da partição.
+     *
+     * @param id ID procurado.
+     * @return {@code true} se {@code menorId <= id <= maiorId}.
+     */
+    public boolean contemId(int id) {
+        return id >= menorId && id <= maiorId;
+    }
+}
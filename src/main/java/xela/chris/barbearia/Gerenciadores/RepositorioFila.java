@@ -0,0 +1,318 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.log.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Variante do {@link RepositorioJson} para filas (FIFO), persistidas como um
+ * log de entradas com um deslocamento de cabeça.
+ *
+ * <p>
+ * O arquivo {@code <nomeArquivo>.log} começa com um cabeçalho de tamanho
+ * fixo ({@code CABECA <deslocamento>}) seguido de uma linha JSON compacta
+ * por registro. Entrar na fila acrescenta uma linha no final do arquivo;
+ * sair da fila apenas reescreve o cabeçalho, avançando o deslocamento até
+ * a próxima linha. As duas operações custam O(1) em disco, independente do
+ * tamanho da fila.
+ * </p>
+ *
+ * <p>
+ * As linhas já consumidas continuam no arquivo até a compactação, que
+ * acontece automaticamente depois de um número configurável de saídas
+ * ou ao chamar {@link #salvarTodos(List)}. A compactação grava um novo log
+ * em arquivo temporário e o troca pelo atual, de modo que uma queda deixa
+ * sempre o log antigo ou o novo, nunca uma mistura. O arquivo JSON original
+ * também é atualizado na compactação, como cópia legível da fila; ele só é
+ * lido quando o log ainda não existe (primeira execução após a mudança de
+ * formato). Uma última linha incompleta (queda no meio de uma entrada) é
+ * descartada na leitura.
+ * </p>
+ *
+ * <p>
+ * Entradas, saídas e compactações usam a trava exclusiva do arquivo e
+ * avançam a sua versão. Se outro terminal mexeu na fila, o log é relido
+ * antes da operação, mantendo os deslocamentos corretos; quem guarda a
+ * fila em memória deve conferir {@link #desatualizado()} dentro de
+ * {@link #executarComTrava(java.util.function.Supplier)} e recarregá-la.
+ * </p>
+ *
+ * @param <T> Tipo de objeto que será persistido.
+ */
+public class RepositorioFila<T> extends RepositorioJson<T> {
+
+    private static final Log LOG = Log.de(RepositorioFila.class);
+
+    /** Quantidade padrão de saídas antes de uma compactação automática. */
+    public static final int LIMITE_COMPACTACAO_PADRAO = 500;
+
+    private static final String PREFIXO_CABECALHO = "CABECA ";
+    private static final int DIGITOS_CABECALHO = 19;
+    private static final int TAMANHO_CABECALHO = PREFIXO_CABECALHO.length() + DIGITOS_CABECALHO + 1;
+
+    private final File arquivoLog;
+    private final int limiteCompactacao;
+
+    /** Tamanho em bytes (com a quebra de linha) de cada entrada pendente, na ordem da fila. */
+    private final ArrayDeque<Integer> tamanhosPendentes = new ArrayDeque<>();
+
+    /** Deslocamento da primeira entrada pendente no log. */
+    private long cabeca = TAMANHO_CABECALHO;
+
+    /** Saídas registradas desde a última compactação. */
+    private int consumidas;
+
+    /** Indica se {@code tamanhosPendentes} e {@code cabeca} refletem o log. */
+    private boolean carregado;
+
+    /**
+     * Cria um repositório de fila usando o limite de compactação padrão.
+     *
+     * @param tipo        Classe do tipo de objeto que será persistido.
+     * @param nomeArquivo Nome do arquivo JSON da fila.
+     */
+    public RepositorioFila(Class<T> tipo, String nomeArquivo) {
+        this(tipo, nomeArquivo, LIMITE_COMPACTACAO_PADRAO);
+    }
+
+    /**
+     * Cria um repositório de fila.
+     *
+     * @param tipo              Classe do tipo de objeto que será persistido.
+     * @param nomeArquivo       Nome do arquivo JSON da fila.
+     * @param limiteCompactacao Número de saídas que dispara a compactação.
+     */
+    public RepositorioFila(Class<T> tipo, String nomeArquivo, int limiteCompactacao) {
+        super(tipo, nomeArquivo);
+        this.limiteCompactacao = Math.max(1, limiteCompactacao);
+        this.arquivoLog = new File(arquivo.getParentFile(), arquivo.getName() + ".log");
+    }
+
+    /**
+     * Lê as entradas pendentes do log, da cabeça até o final.
+     * Na primeira execução, importa a fila do arquivo JSON e cria o log.
+     *
+     * @return Fila com as entradas pendentes, na ordem de chegada.
+     */
+    public ArrayDeque<T> carregarFila() {
+        return executarComTrava(this::lerFila);
+    }
+
+    private ArrayDeque<T> lerFila() {
+        ArrayDeque<T> fila = new ArrayDeque<>();
+        tamanhosPendentes.clear();
+        consumidas = 0;
+
+        if (!arquivoLog.exists()) {
+            List<T> registros = super.buscarTodos();
+            reescrever(registros);
+            fila.addAll(registros);
+            return fila;
+        }
+
+        long versao = getVersao();
+        try {
+            byte[] conteudo = Files.readAllBytes(arquivoLog.toPath());
+            cabeca = lerCabecalho(conteudo);
+            int inicio = (int) cabeca;
+            for (int i = inicio; i < conteudo.length; i++) {
+                if (conteudo[i] != '\n') {
+                    continue;
+                }
+                if (i > inicio) {
+                    fila.add(mapper.readValue(conteudo, inicio, i - inicio, tipo));
+                }
+                tamanhosPendentes.add(i + 1 - inicio);
+                inicio = i + 1;
+            }
+            if (inicio < conteudo.length) {
+                LOG.aviso("Entrada incompleta descartada na fila " + arquivoLog.getName());
+                try (RandomAccessFile raf = new RandomAccessFile(arquivoLog, "rw")) {
+                    raf.setLength(inicio);
+                }
+            }
+        } catch (IOException e) {
+            LOG.erro("Falha ao ler a fila " + arquivoLog.getName() + ": " + e);
+        }
+        synchronized (this) {
+            registrarLeitura(versao);
+        }
+        carregado = true;
+        return fila;
+    }
+
+    /**
+     * Retorna as entradas pendentes como lista, na ordem da fila.
+     *
+     * @return Lista com as entradas pendentes.
+     */
+    @Override
+    public List<T> buscarTodos() {
+        return new ArrayList<>(carregarFila());
+    }
+
+    /**
+     * Substitui a fila inteira pelos registros informados, gravando um novo
+     * log sem as entradas já consumidas.
+     *
+     * @param dados Entradas pendentes, na ordem da fila.
+     */
+    @Override
+    public void salvarTodos(List<T> dados) {
+        executarComTrava(() -> {
+            reescrever(dados);
+            return null;
+        });
+    }
+
+    /**
+     * Acrescenta uma entrada no final da fila.
+     *
+     * @param registro Registro que entrou na fila.
+     */
+    public void registrarEntrada(T registro) {
+        executarComTrava(() -> {
+            garantirCarregado();
+            try {
+                ByteArrayOutputStream linha = new ByteArrayOutputStream(256);
+                mapper.writeValue(linha, registro);
+                linha.write('\n');
+                try (OutputStream out = new FileOutputStream(arquivoLog, true)) {
+                    linha.writeTo(out);
+                }
+                tamanhosPendentes.add(linha.size());
+                avancarVersao();
+            } catch (IOException e) {
+                LOG.erro("Falha ao acrescentar entrada na fila " + arquivoLog.getName() + ": " + e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Marca a primeira entrada da fila como consumida, avançando o
+     * deslocamento da cabeça. Não faz nada se a fila estiver vazia.
+     */
+    public void registrarSaida() {
+        boolean compactar = executarComTrava(() -> {
+            garantirCarregado();
+            Integer tamanho = tamanhosPendentes.poll();
+            if (tamanho == null) {
+                return false;
+            }
+            cabeca += tamanho;
+            try (RandomAccessFile raf = new RandomAccessFile(arquivoLog, "rw")) {
+                raf.write(cabecalho(cabeca));
+            } catch (IOException e) {
+                LOG.erro("Falha ao avançar a cabeça da fila " + arquivoLog.getName() + ": " + e);
+                return false;
+            }
+            avancarVersao();
+            consumidas++;
+            return consumidas >= limiteCompactacao;
+        });
+        if (compactar) {
+            compactar();
+        }
+    }
+
+    /**
+     * Regrava o log apenas com as entradas pendentes.
+     */
+    public void compactar() {
+        executarComTrava(() -> {
+            reescrever(lerFila());
+            return null;
+        });
+    }
+
+    /**
+     * Retorna quantas saídas foram registradas desde a última compactação.
+     *
+     * @return Número de entradas consumidas que ainda ocupam o log.
+     */
+    public int getConsumidas() {
+        return executarComTrava(() -> consumidas);
+    }
+
+    /**
+     * Retorna o caminho absoluto do arquivo de log da fila.
+     *
+     * @return Caminho absoluto do log.
+     */
+    public String getCaminhoLog() {
+        return arquivoLog.getAbsolutePath();
+    }
+
+    /** Relê o log se ainda não foi lido ou se outro terminal o alterou. */
+    private void garantirCarregado() {
+        if (!carregado || desatualizado()) {
+            lerFila();
+        }
+    }
+
+    /**
+     * Grava um log novo (cabeçalho + entradas) em arquivo temporário e o
+     * troca pelo atual; depois atualiza a cópia legível em JSON.
+     */
+    private void reescrever(Collection<T> registros) {
+        File temporario = new File(arquivoLog.getParentFile(), arquivoLog.getName() + ".tmp");
+        List<Integer> tamanhos = new ArrayList<>(registros.size());
+        try (OutputStream out = new FileOutputStream(temporario)) {
+            out.write(cabecalho(TAMANHO_CABECALHO));
+            ByteArrayOutputStream linha = new ByteArrayOutputStream(256);
+            for (T registro : registros) {
+                linha.reset();
+                mapper.writeValue(linha, registro);
+                linha.write('\n');
+                linha.writeTo(out);
+                tamanhos.add(linha.size());
+            }
+        } catch (IOException e) {
+            LOG.erro("Falha ao reescrever a fila " + arquivoLog.getName() + ": " + e);
+            temporario.delete();
+            return;
+        }
+
+        try {
+            Files.move(temporario.toPath(), arquivoLog.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.erro("Falha ao trocar o log da fila " + arquivoLog.getName() + ": " + e);
+            return;
+        }
+
+        cabeca = TAMANHO_CABECALHO;
+        tamanhosPendentes.clear();
+        tamanhosPendentes.addAll(tamanhos);
+        consumidas = 0;
+        carregado = true;
+        gravarArquivo(new ArrayList<>(registros));
+    }
+
+    private static byte[] cabecalho(long deslocamento) {
+        String numero = String.format("%0" + DIGITOS_CABECALHO + "d", deslocamento);
+        return (PREFIXO_CABECALHO + numero + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private long lerCabecalho(byte[] conteudo) throws IOException {
+        String texto = new String(conteudo, 0, Math.min(conteudo.length, TAMANHO_CABECALHO), StandardCharsets.US_ASCII);
+        if (texto.length() < TAMANHO_CABECALHO || !texto.startsWith(PREFIXO_CABECALHO)) {
+            throw new IOException("Cabeçalho inválido no log da fila " + arquivoLog.getName());
+        }
+        long deslocamento = Long.parseLong(texto.substring(PREFIXO_CABECALHO.length(), TAMANHO_CABECALHO - 1));
+        return Math.max(TAMANHO_CABECALHO, Math.min(deslocamento, conteudo.length));
+    }
+}
@@ -1,11 +1,36 @@
 package xela.chris.barbearia.Gerenciadores;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import xela.chris.barbearia.metricas.EventoGravacaoArquivo;
+import xela.chris.barbearia.metricas.EventoLeituraArquivo;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.log.Log;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * Repositório genérico para persistência de objetos em arquivos JSON.
@@ -13,16 +38,144 @@ import java.util.List;
  * <p>
  * Permite salvar e recuperar listas de objetos de qualquer tipo usando
  * a biblioteca Jackson. Os dados são armazenados em uma pasta específica
- * dentro do projeto. Agora com JSON formatado (pretty-print) para melhor leitura.
+ * dentro do projeto. Por padrão o JSON é formatado (pretty-print) para melhor leitura.
+ * </p>
+ *
+ * <p>
+ * O formato do arquivo pode ser trocado por repositório com
+ * {@link #setFormato(FormatoArquivo)} (ex: JSON compacto ou binário para os
+ * arquivos grandes). A leitura reconhece o formato pelo começo do arquivo,
+ * então trocar o formato não exige converter os dados antes: o arquivo
+ * muda de formato na próxima gravação completa ou com {@link #regravar()}.
+ * </p>
+ *
+ * <p>
+ * As leituras passam por um cache de detecção de mudanças: a lista já
+ * convertida é reaproveitada enquanto o arquivo mantiver o mesmo tamanho,
+ * data de modificação e conteúdo (CRC32). Assim, os vários
+ * {@code carregar()} feitos pelos menus não repetem a conversão do JSON
+ * quando nada mudou. Cada chamada recebe uma lista nova, mas os objetos
+ * contidos são os do cache, compartilhados entre as leituras: um objeto
+ * lido não deve ser alterado sem ser salvo em seguida, senão a alteração
+ * aparece nas próximas leituras até o arquivo mudar. Regravações
+ * ({@link #regravar()}, compactação do journal) e
+ * {@link #alterar(int, UnaryOperator)} não dependem disso: releem o
+ * arquivo e entregam ao operador uma cópia do registro, respectivamente.
+ * </p>
+ *
+ * <p>
+ * Várias instâncias da Barbearia podem usar a mesma pasta de dados ao mesmo
+ * tempo. Cada arquivo tem uma trava e um número de versão
+ * ({@link TravaArquivo}, arquivo {@code <nomeArquivo>.versao}): leituras
+ * usam a trava compartilhada, gravações a exclusiva, e toda gravação avança
+ * a versão. O repositório lembra a versão e o conteúdo da última leitura
+ * completa ({@link #buscarTodos()}); se, ao salvar, a versão do arquivo for
+ * outra, algum outro terminal gravou no meio do caminho. Nesse caso
+ * {@link #salvarTodos(List)} não sobrescreve o arquivo: compara a lista
+ * salva com a leitura anterior e aplica apenas os registros inseridos,
+ * alterados ou removidos por este terminal sobre o conteúdo atual do
+ * arquivo. A comparação é feita por ID, então só é possível quando o
+ * repositório recebe um extrator de ID; sem ele, a gravação avisa o
+ * conflito e sobrescreve, como antes. Quem preferir recarregar e tentar de
+ * novo usa {@link #salvarSeVersao(List, long)}, e alterações pontuais que
+ * precisam partir do valor mais recente (ex: estoque) usam
+ * {@link #alterar(int, UnaryOperator)}.
+ * </p>
+ *
+ * <p>
+ * As gravações completas passam pela {@link GravacaoSegura}: o arquivo novo
+ * é escrito à parte e trocado atomicamente pelo atual, que fica guardado
+ * como geração anterior, e termina com um rodapé com soma de verificação.
+ * Na leitura, um arquivo cuja soma não confere (ou que não pode ser
+ * convertido) é substituído pela geração anterior, com aviso, em vez de ser
+ * lido como uma lista vazia que a próxima gravação tornaria definitiva. O
+ * custo de esperar o disco é escolhido por repositório com
+ * {@link #setDurabilidade(Durabilidade)}.
+ * </p>
+ *
+ * <p>
+ * Com uma {@link GravacaoAdiada} ({@link #setGravacaoAdiada(GravacaoAdiada)}),
+ * {@link #salvarTodos(List)} apenas guarda uma cópia da lista e volta; a
+ * gravação é feita depois, em segundo plano, e vários {@code salvarTodos}
+ * seguidos viram uma só gravação. Qualquer leitura ou outra gravação do
+ * mesmo arquivo nesta JVM grava a lista pendente antes, então o próprio
+ * programa nunca lê dados mais antigos do que os que salvou; outros
+ * terminais os veem com até o atraso máximo configurado. Como a lista é
+ * copiada mas os objetos não, um objeto alterado antes da gravação sai
+ * com a alteração (que, nos gerenciadores, vem sempre seguida de um novo
+ * {@code salvarTodos}).
  * </p>
  *
  * @param <T> Tipo de objeto que será persistido no arquivo JSON.
  */
 public class RepositorioJson<T> {
 
-    private final Class<T> tipo;
-    private final File arquivo;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final Log LOG = Log.de(RepositorioJson.class);
+
+    protected final Class<T> tipo;
+    protected final File arquivo;
+    protected final ObjectMapper mapper = new ObjectMapper();
+
+    /** Obtém o ID de um registro; {@code null} se o tipo não tiver ID. */
+    protected final ToIntFunction<T> extratorId;
+
+    /** Trava e versão do arquivo, compartilhadas com outros repositórios e processos. */
+    private final TravaArquivo trava;
+
+    /**
+     * Intervalo (ms) em que a data de modificação não é considerada confiável,
+     * pois gravações muito próximas podem manter a mesma data em sistemas de
+     * arquivos com resolução baixa. Nesse intervalo o conteúdo é conferido.
+     */
+    private static final long JANELA_MODIFICACAO_MS = 2000;
+
+    private boolean cacheAtivo = true;
+    private Durabilidade durabilidade = Durabilidade.ARQUIVO;
+    private FormatoArquivo formato = FormatoArquivo.JSON_FORMATADO;
+
+    /** Executor das gravações adiadas; {@code null} grava no próprio {@code salvarTodos}. */
+    private GravacaoAdiada gravacaoAdiada;
+
+    /** Lista salva que ainda não foi gravada, ou {@code null}. */
+    private List<T> pendente;
+
+    /** Tamanho e data do arquivo da última conferência do rodapé, e o resultado dela. */
+    private long conferidoTamanho = -1;
+    private long conferidoModificadoEm;
+    private boolean conferidoIntegro;
+    private List<T> cache;
+    private long cacheTamanho;
+    private long cacheModificadoEm;
+    private long cacheHash;
+    private long cacheConferidoEm;
+    private byte[] cacheConteudo;
+
+    /** Incrementado sempre que o conteúdo em cache é trocado ou descartado. */
+    private long versaoCache;
+
+    /** Conteúdo do arquivo correspondente à última lista devolvida por {@link #lerEstadoAtual()}. */
+    private byte[] ultimoConteudo;
+
+    /**
+     * Versão do arquivo na última leitura completa, ou {@code -1} se ainda
+     * não houve leitura. Gravações deste repositório a mantêm atualizada.
+     */
+    private long versaoLida = -1;
+
+    /** Conteúdo que serviu de base para a lista em uso; referência das mesclagens. */
+    private byte[] baseConteudo;
+
+    /** Arquivos completos gravados e {@code salvarTodos} ignorados por não mudar o conteúdo. */
+    private long gravacoes;
+    private long gravacoesEvitadas;
+
+    /**
+     * Prefixo das métricas do repositório ({@code repositorio.<arquivo sem extensão>}):
+     * {@code .leitura} e {@code .gravacao} (tempos das leituras e gravações
+     * completas do arquivo), {@code .cacheAcertos}, {@code .gravacoesEvitadas}
+     * e o medidor {@code .bytes} (tamanho no disco).
+     */
+    private volatile String nomeMetricas;
 
     /**
      * Construtor do repositório JSON.
@@ -36,6 +189,24 @@ public class RepositorioJson<T> {
      * @param nomeArquivo Nome do arquivo JSON onde os dados serão armazenados.
      */
     public RepositorioJson(Class<T> tipo, String nomeArquivo) {
+        this(tipo, nomeArquivo, null);
+    }
+
+    /**
+     * Construtor do repositório JSON com extrator de ID.
+     *
+     * <p>
+     * Com o extrator, gravações concorrentes de outros terminais são
+     * mescladas registro a registro em vez de sobrescritas, e ficam
+     * disponíveis {@link #buscarPorId(int)} e {@link #alterar(int, UnaryOperator)}.
+     * </p>
+     *
+     * @param tipo        Classe do tipo de objeto que será persistido.
+     * @param nomeArquivo Nome do arquivo JSON onde os dados serão armazenados.
+     * @param extratorId  Função que obtém o ID de um registro (ex: {@code Cliente::getId}),
+     *                    ou {@code null} se o tipo não tiver ID.
+     */
+    public RepositorioJson(Class<T> tipo, String nomeArquivo, ToIntFunction<T> extratorId) {
         String caminhoPasta = "src" + File.separator + "main" + File.separator + "java" + File.separator +
                 "xela" + File.separator + "chris" + File.separator + "barbearia" + File.separator + "jsons";
 
@@ -46,6 +217,42 @@ public class RepositorioJson<T> {
 
         this.tipo = tipo;
         this.arquivo = new File(pasta, nomeArquivo);
+        this.extratorId = extratorId;
+        this.trava = TravaArquivo.para(arquivo);
+        String nome = nomeArquivo.endsWith(".json") ? nomeArquivo.substring(0, nomeArquivo.length() - 5) : nomeArquivo;
+        this.nomeMetricas = "repositorio." + nome;
+        Metricas.padrao().medidor(nomeMetricas + ".bytes", this, RepositorioJson::getTamanhoEmDisco);
+    }
+
+    /**
+     * Passa a registrar as métricas deste repositório sob outro nome (ex: as
+     * partições de um {@link RepositorioParticionado} somam nas métricas do
+     * nome base). O medidor de tamanho do arquivo é removido: quem agrupa
+     * mede o tamanho total.
+     *
+     * @param nome Prefixo das métricas (ex: {@code repositorio.agendamentos}).
+     */
+    void setNomeMetricas(String nome) {
+        Metricas.padrao().removerMedidor(nomeMetricas + ".bytes", this);
+        nomeMetricas = nome;
+    }
+
+    /**
+     * Retorna o prefixo das métricas deste repositório.
+     *
+     * @return Prefixo (ex: {@code repositorio.clientes}).
+     */
+    public String getNomeMetricas() {
+        return nomeMetricas;
+    }
+
+    /**
+     * Retorna quanto o repositório ocupa no disco (medidor {@code .bytes}).
+     *
+     * @return Tamanho do arquivo em bytes.
+     */
+    protected long getTamanhoEmDisco() {
+        return arquivo.length();
     }
 
     /**
@@ -53,27 +260,393 @@ public class RepositorioJson<T> {
      *
      * <p>
      * Se o arquivo não existir ou estiver vazio, retorna uma lista vazia.
+     * A versão lida passa a ser a referência das próximas gravações.
+     * A lista é nova, mas os objetos são os do cache: alterá-los sem salvar
+     * afeta as próximas leituras.
      * </p>
      *
      * @return Lista de objetos do tipo {@code T} encontrados no arquivo JSON.
      */
-    public synchronized List<T> buscarTodos() {
+    public List<T> buscarTodos() {
+        trava.gravarAdiado();
+        trava.travarLeitura();
+        try {
+            long versao = trava.lerVersao();
+            synchronized (this) {
+                List<T> registros = lerEstadoAtual();
+                registrarLeitura(versao);
+                return registros;
+            }
+        } finally {
+            trava.liberarLeitura();
+        }
+    }
+
+    /**
+     * Lê o estado atual do arquivo, passando pelo cache, sem alterar a
+     * versão de referência. Deve ser chamado com a trava do arquivo e com
+     * o monitor do repositório. A lista é nova, mas os objetos podem ser os
+     * do cache: não devem ser alterados nem entregues a quem chamou.
+     *
+     * @return Lista de objetos do arquivo.
+     */
+    protected List<T> lerEstadoAtual() {
         try {
             if (!this.arquivo.exists() || arquivo.length() == 0) {
+                invalidarCache();
+                ultimoConteudo = null;
                 return new ArrayList<>();
             }
 
-            CollectionType listType = mapper.getTypeFactory()
-                    .constructCollectionType(List.class, tipo);
+            long tamanho = arquivo.length();
+            long modificadoEm = arquivo.lastModified();
+            if (cache != null && tamanho == cacheTamanho && modificadoEm == cacheModificadoEm
+                    && modificadoEm < cacheConferidoEm - JANELA_MODIFICACAO_MS) {
+                ultimoConteudo = cacheConteudo;
+                Metricas.padrao().contador(nomeMetricas + ".cacheAcertos").incrementar();
+                return new ArrayList<>(cache);
+            }
+
+            long inicio = System.nanoTime();
+            EventoLeituraArquivo evento = new EventoLeituraArquivo();
+            evento.begin();
+            byte[] conteudo = Files.readAllBytes(arquivo.toPath());
+            long hash = calcularHash(conteudo);
+            long agora = System.currentTimeMillis();
+            if (cache != null && conteudo.length == cacheTamanho && hash == cacheHash) {
+                cacheModificadoEm = modificadoEm;
+                cacheConferidoEm = agora;
+                ultimoConteudo = cacheConteudo;
+                Metricas.padrao().contador(nomeMetricas + ".cacheAcertos").incrementar();
+                registrarLeitura(evento, conteudo.length, cache.size(), false);
+                return new ArrayList<>(cache);
+            }
 
-            return mapper.readValue(arquivo, listType);
+            List<T> lidos = converterComRecuperacao(conteudo, modificadoEm);
+            Metricas.padrao().temporizador(nomeMetricas + ".leitura").registrarDesde(inicio);
+            registrarLeitura(evento, conteudo.length, lidos.size(), true);
+            if (!cacheAtivo) {
+                return lidos;
+            }
+            cache = lidos;
+            cacheConteudo = ultimoConteudo;
+            cacheTamanho = conteudo.length;
+            cacheModificadoEm = modificadoEm;
+            cacheHash = hash;
+            cacheConferidoEm = agora;
+            versaoCache++;
+            return new ArrayList<>(cache);
 
         } catch (Exception e) {
             e.printStackTrace();
+            ultimoConteudo = null;
             return new ArrayList<>();
         }
     }
 
+    /** Encerra e grava o evento do JFR de uma leitura completa, se estiver habilitado. */
+    private void registrarLeitura(EventoLeituraArquivo evento, long bytes, int registros, boolean conversao) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.arquivo = arquivo.getName();
+            evento.bytes = bytes;
+            evento.registros = registros;
+            evento.conversao = conversao;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Converte o conteúdo lido, conferindo o rodapé. Se a soma não conferir
+     * ou o JSON não puder ser convertido, usa a geração anterior do arquivo.
+     * Define {@code ultimoConteudo} com o conteúdo efetivamente usado.
+     */
+    private List<T> converterComRecuperacao(byte[] conteudo, long modificadoEm) {
+        if (GravacaoSegura.confere(conteudo)) {
+            try {
+                List<T> lidos = converter(conteudo);
+                marcarConferido(conteudo.length, modificadoEm, true);
+                ultimoConteudo = conteudo;
+                return lidos;
+            } catch (IOException e) {
+                LOG.aviso("Erro ao converter " + arquivo.getName() + ": " + e.getMessage().lines().findFirst().orElse(""));
+            }
+        }
+        marcarConferido(conteudo.length, modificadoEm, false);
+
+        File anterior = GravacaoSegura.anterior(arquivo);
+        if (anterior.exists()) {
+            try {
+                byte[] daAnterior = Files.readAllBytes(anterior.toPath());
+                if (GravacaoSegura.confere(daAnterior)) {
+                    List<T> lidos = converter(daAnterior);
+                    LOG.aviso("Arquivo " + arquivo.getName() + " corrompido; usando a geração anterior ("
+                            + anterior.getName() + ").");
+                    ultimoConteudo = daAnterior;
+                    return lidos;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        LOG.aviso("Arquivo " + arquivo.getName() + " corrompido e sem geração anterior válida; "
+                + "nenhum registro carregado. Ele será guardado como .corrompido na próxima gravação.");
+        ultimoConteudo = null;
+        return new ArrayList<>();
+    }
+
+    private void marcarConferido(long tamanho, long modificadoEm, boolean integro) {
+        conferidoTamanho = tamanho;
+        conferidoModificadoEm = modificadoEm;
+        conferidoIntegro = integro;
+    }
+
+    /**
+     * Indica se o arquivo atual está íntegro, conferindo o rodapé em fluxo
+     * apenas quando o arquivo mudou desde a última conferência.
+     */
+    private boolean atualIntegro() {
+        if (!arquivo.exists()) {
+            return true;
+        }
+        long tamanho = arquivo.length();
+        long modificadoEm = arquivo.lastModified();
+        if (tamanho != conferidoTamanho || modificadoEm != conferidoModificadoEm) {
+            marcarConferido(tamanho, modificadoEm, GravacaoSegura.confere(arquivo));
+        }
+        return conferidoIntegro;
+    }
+
+    /**
+     * Guarda a versão e o conteúdo da leitura que acabou de ser devolvida
+     * como referência das próximas gravações. Subclasses que leem outras
+     * fontes (ex: journal) guardam também o conteúdo delas.
+     *
+     * @param versao Versão do arquivo no momento da leitura.
+     */
+    protected void registrarLeitura(long versao) {
+        versaoLida = versao;
+        baseConteudo = ultimoConteudo;
+    }
+
+    /**
+     * Busca um objeto pelo ID diretamente no arquivo (passando pelo cache),
+     * sem alterar a versão de referência das gravações.
+     *
+     * @param id ID do objeto.
+     * @return O objeto encontrado, ou {@code null} se não existir.
+     * @throws IllegalStateException se o repositório não tiver extrator de ID.
+     */
+    public T buscarPorId(int id) {
+        exigirExtrator();
+        trava.gravarAdiado();
+        trava.travarLeitura();
+        try {
+            synchronized (this) {
+                for (T registro : lerEstadoAtual()) {
+                    if (extratorId.applyAsInt(registro) == id) {
+                        return registro;
+                    }
+                }
+                return null;
+            }
+        } finally {
+            trava.liberarLeitura();
+        }
+    }
+
+    /**
+     * Copia um registro que será alterado por quem chamou: os objetos de
+     * {@link #lerEstadoAtual()} podem ser os do cache.
+     */
+    private T copiar(T registro) {
+        return mapper.convertValue(registro, tipo);
+    }
+
+    /**
+     * Descarta a lista em cache, forçando a próxima leitura a converter o
+     * arquivo novamente. Chamado automaticamente após cada gravação.
+     */
+    public synchronized void invalidarCache() {
+        if (cache != null) {
+            cache = null;
+            cacheConteudo = null;
+            versaoCache++;
+        }
+    }
+
+    /**
+     * Liga ou desliga o cache de leitura. Desligado, toda chamada a
+     * {@link #buscarTodos()} converte o arquivo e devolve objetos novos.
+     *
+     * @param ativo {@code true} para reaproveitar a lista quando o arquivo não mudou.
+     */
+    public synchronized void setCacheAtivo(boolean ativo) {
+        this.cacheAtivo = ativo;
+        if (!ativo) {
+            invalidarCache();
+        }
+    }
+
+    /**
+     * Define quanto as gravações completas esperam os dados chegarem ao disco.
+     *
+     * @param durabilidade Nível de durabilidade; o padrão é {@link Durabilidade#ARQUIVO}.
+     */
+    public synchronized void setDurabilidade(Durabilidade durabilidade) {
+        this.durabilidade = durabilidade;
+    }
+
+    /**
+     * Retorna o nível de durabilidade das gravações.
+     *
+     * @return Nível de durabilidade atual.
+     */
+    public synchronized Durabilidade getDurabilidade() {
+        return durabilidade;
+    }
+
+    /**
+     * Define o formato das próximas gravações completas. Arquivos já gravados
+     * em outro formato continuam sendo lidos normalmente.
+     *
+     * @param formato Formato do arquivo; o padrão é {@link FormatoArquivo#JSON_FORMATADO}.
+     */
+    public synchronized void setFormato(FormatoArquivo formato) {
+        this.formato = formato;
+    }
+
+    /**
+     * Retorna o formato usado nas gravações completas.
+     *
+     * @return Formato atual.
+     */
+    public synchronized FormatoArquivo getFormato() {
+        return formato;
+    }
+
+    /**
+     * Passa a adiar as gravações de {@link #salvarTodos(List)} para o
+     * executor informado, ou volta a gravar na hora com {@code null} (a
+     * gravação pendente, se houver, é feita antes).
+     *
+     * @param gravacaoAdiada Executor das gravações (ex: {@link GravacaoAdiada#padrao()}), ou {@code null}.
+     */
+    public void setGravacaoAdiada(GravacaoAdiada gravacaoAdiada) {
+        synchronized (this) {
+            this.gravacaoAdiada = gravacaoAdiada;
+        }
+        if (gravacaoAdiada == null) {
+            gravarPendente();
+        }
+    }
+
+    /**
+     * Retorna o executor das gravações adiadas.
+     *
+     * @return O executor, ou {@code null} se as gravações forem feitas na hora.
+     */
+    public synchronized GravacaoAdiada getGravacaoAdiada() {
+        return gravacaoAdiada;
+    }
+
+    /**
+     * Retorna quantas vezes este repositório gravou o arquivo completo.
+     *
+     * @return Total de gravações completas.
+     */
+    public synchronized long getGravacoes() {
+        return gravacoes;
+    }
+
+    /**
+     * Retorna quantos {@code salvarTodos} não gravaram nada porque a lista
+     * era igual ao conteúdo já gravado.
+     *
+     * @return Total de gravações evitadas.
+     */
+    public synchronized long getGravacoesEvitadas() {
+        return gravacoesEvitadas;
+    }
+
+    /**
+     * Indica se o cache de leitura está ligado.
+     *
+     * @return {@code true} se o cache está ativo.
+     */
+    public synchronized boolean isCacheAtivo() {
+        return cacheAtivo;
+    }
+
+    /**
+     * Retorna a versão atual do cache, que muda sempre que a lista em cache
+     * é recarregada ou descartada. Permite que subclasses saibam se o
+     * snapshot mudou desde a última leitura.
+     *
+     * @return Versão do cache.
+     */
+    protected synchronized long getVersaoCache() {
+        return versaoCache;
+    }
+
+    /**
+     * Retorna a versão atual do arquivo (quantas gravações ele já recebeu).
+     *
+     * @return Versão do arquivo.
+     */
+    public long getVersao() {
+        trava.gravarAdiado();
+        trava.travarLeitura();
+        try {
+            return trava.lerVersao();
+        } finally {
+            trava.liberarLeitura();
+        }
+    }
+
+    /**
+     * Indica se o arquivo foi gravado por outro repositório ou terminal
+     * depois da última leitura completa feita por este repositório.
+     *
+     * @return {@code true} se a lista lida por último está desatualizada.
+     */
+    public boolean desatualizado() {
+        trava.gravarAdiado();
+        trava.travarLeitura();
+        try {
+            synchronized (this) {
+                return trava.lerVersao() != versaoLida;
+            }
+        } finally {
+            trava.liberarLeitura();
+        }
+    }
+
+    /**
+     * Executa a ação com a trava exclusiva do arquivo, de modo que nenhum
+     * outro terminal leia ou grave o arquivo até ela terminar. Útil para
+     * conferir {@link #desatualizado()}, recarregar e gravar como um passo só.
+     *
+     * @param acao Ação a ser executada.
+     * @param <R>  Tipo do resultado da ação.
+     * @return O resultado da ação.
+     */
+    public <R> R executarComTrava(Supplier<R> acao) {
+        trava.travarEscrita();
+        try {
+            trava.gravarAdiado();
+            return acao.get();
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    private static long calcularHash(byte[] conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        return crc.getValue();
+    }
+
     /**
      * Retorna uma lista de todos os objetos armazenados.
      *
@@ -84,25 +657,612 @@ public class RepositorioJson<T> {
      *
      * @return Lista de objetos do tipo {@code T} atualmente salvos no repositório.
      */
-    public synchronized List<T> listar() {
+    public List<T> listar() {
         return buscarTodos();
     }
 
+    /**
+     * Percorre os objetos do arquivo JSON um a um, sem montar a lista completa.
+     *
+     * <p>
+     * Indicado para relatórios que só precisam somar ou imprimir registros:
+     * cada objeto é lido do arquivo, entregue ao consumidor e pode ser
+     * descartado em seguida.
+     * </p>
+     *
+     * @param consumidor Ação executada para cada objeto lido.
+     */
+    public void percorrer(Consumer<? super T> consumidor) {
+        percorrerComTrava(null, null, consumidor);
+    }
+
+    /**
+     * Percorre os objetos do arquivo JSON, entregando ao consumidor apenas
+     * os que atendem ao filtro.
+     *
+     * @param filtro     Condição que o objeto deve atender.
+     * @param consumidor Ação executada para cada objeto aceito.
+     */
+    public void percorrer(Predicate<? super T> filtro, Consumer<? super T> consumidor) {
+        percorrerComTrava(null, null, registro -> {
+            if (filtro.test(registro)) {
+                consumidor.accept(registro);
+            }
+        });
+    }
+
+    /**
+     * Percorre os objetos do arquivo JSON filtrando pelo valor de um campo
+     * antes de convertê-los.
+     *
+     * <p>
+     * O valor do campo (de primeiro nível, ex: {@code "dataVenda"}) é lido
+     * direto do fluxo JSON. Quando a condição não é atendida, o restante do
+     * objeto é pulado sem ser convertido para {@code T}, o que evita a
+     * criação de objetos que seriam descartados pelo relatório.
+     * </p>
+     *
+     * @param campo      Nome do campo de primeiro nível a ser testado.
+     * @param condicao   Condição sobre o texto do campo ({@code null} se o
+     *                   campo estiver ausente, for nulo ou não for um valor simples).
+     * @param consumidor Ação executada para cada objeto aceito.
+     */
+    public void percorrer(String campo, Predicate<String> condicao, Consumer<? super T> consumidor) {
+        percorrerComTrava(campo, condicao, consumidor);
+    }
+
+    private void percorrerComTrava(String campo, Predicate<String> condicao, Consumer<? super T> consumidor) {
+        trava.gravarAdiado();
+        trava.travarLeitura();
+        try {
+            synchronized (this) {
+                percorrerRegistros(campo, condicao, consumidor);
+            }
+        } finally {
+            trava.liberarLeitura();
+        }
+    }
+
+    /**
+     * Ponto único de leitura em fluxo, que subclasses podem sobrescrever
+     * para combinar o arquivo com outras fontes (ex: journal). O formato do
+     * arquivo é reconhecido pelos primeiros bytes.
+     *
+     * @param campo      Campo filtrado antes da conversão, ou {@code null} para não filtrar.
+     * @param condicao   Condição sobre o texto do campo.
+     * @param consumidor Ação executada para cada objeto aceito.
+     */
+    protected void percorrerRegistros(String campo, Predicate<String> condicao, Consumer<? super T> consumidor) {
+        if (!arquivo.exists() || arquivo.length() == 0) {
+            return;
+        }
+        File fonte = arquivo;
+        if (!atualIntegro()) {
+            fonte = GravacaoSegura.anterior(arquivo);
+            if (!GravacaoSegura.confere(fonte)) {
+                LOG.aviso("Arquivo " + arquivo.getName() + " corrompido e sem geração anterior válida.");
+                return;
+            }
+            LOG.aviso("Arquivo " + arquivo.getName() + " corrompido; usando a geração anterior ("
+                    + fonte.getName() + ").");
+        }
+
+        ObjectReader leitor = mapper.readerFor(tipo);
+        try (InputStream entrada = new BufferedInputStream(new FileInputStream(fonte), 64 * 1024)) {
+            entrada.mark(FormatoBinario.TAMANHO_ASSINATURA);
+            byte[] inicio = entrada.readNBytes(FormatoBinario.TAMANHO_ASSINATURA);
+            entrada.reset();
+            FormatoArquivo.detectar(inicio, inicio.length).percorrer(mapper, entrada, parser -> {
+                if (campo == null) {
+                    consumidor.accept(leitor.readValue(parser));
+                    return;
+                }
+                T registro = lerSeAtender(parser, leitor, campo, condicao);
+                if (registro != null) {
+                    consumidor.accept(registro);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Verifica se um objeto já convertido atende à condição de campo usada em
+     * {@link #percorrer(String, Predicate, Consumer)}. Usado para registros
+     * que não vêm do arquivo (ex: entradas de journal).
+     *
+     * @param registro Objeto a ser testado.
+     * @param campo    Nome do campo, ou {@code null} para aceitar qualquer objeto.
+     * @param condicao Condição sobre o texto do campo.
+     * @return {@code true} se o objeto atende à condição.
+     */
+    protected boolean atendeCampo(T registro, String campo, Predicate<String> condicao) {
+        if (campo == null) {
+            return true;
+        }
+        JsonNode valor = mapper.valueToTree(registro).get(campo);
+        String texto = (valor == null || !valor.isValueNode() || valor.isNull()) ? null : valor.asText();
+        return condicao.test(texto);
+    }
+
+    /**
+     * Lê o objeto atual do parser copiando os tokens para um buffer. Ao
+     * encontrar o campo filtrado, testa a condição: se falhar, pula o resto
+     * do objeto e retorna {@code null}; se passar, converte o buffer.
+     */
+    private T lerSeAtender(JsonParser parser, ObjectReader leitor, String campo,
+                           Predicate<String> condicao) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentEvent(parser);
+        boolean avaliado = false;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            buffer.copyCurrentEvent(parser); // nome do campo
+            String nome = parser.currentName();
+            token = parser.nextToken();
+
+            if (!avaliado && campo.equals(nome)) {
+                avaliado = true;
+                String texto = (token.isScalarValue() && token != JsonToken.VALUE_NULL) ? parser.getText() : null;
+                if (!condicao.test(texto)) {
+                    pularRestante(parser);
+                    return null;
+                }
+            }
+            buffer.copyCurrentStructure(parser);
+        }
+        buffer.copyCurrentEvent(parser);
+
+        if (!avaliado && !condicao.test(null)) {
+            return null;
+        }
+        try (JsonParser copia = buffer.asParser()) {
+            return leitor.readValue(copia);
+        }
+    }
+
+    /** Avança o parser até o fim do objeto atual sem converter nada. */
+    private void pularRestante(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            if (token.isStructStart()) {
+                parser.skipChildren();
+            }
+        }
+    }
+
     /**
      * Salva todos os objetos fornecidos no arquivo JSON, sobrescrevendo os dados existentes.
      *
      * <p>
-     * Agora o JSON é salvo com formatação legível (pretty-print).
+     * Agora o JSON é salvo com formatação legível (pretty-print), a não ser
+     * que outro formato tenha sido escolhido com {@link #setFormato(FormatoArquivo)}.
+     * </p>
+     *
+     * <p>
+     * Se outro terminal gravou o arquivo depois da última leitura, as
+     * alterações desta lista (em relação àquela leitura) são mescladas
+     * com o conteúdo atual do arquivo, registro a registro. Em um mesmo
+     * registro alterado pelos dois lados, vale a versão desta lista.
+     * </p>
+     *
+     * <p>
+     * Com uma {@link GravacaoAdiada}, a lista é copiada e gravada depois
+     * (ver a descrição da classe).
      * </p>
      *
      * @param dados Lista de objetos do tipo {@code T} a ser salva no arquivo JSON.
      */
-    public synchronized void salvarTodos(List<T> dados) {
+    public void salvarTodos(List<T> dados) {
+        GravacaoAdiada adiada;
+        synchronized (this) {
+            adiada = gravacaoAdiada;
+        }
+        if (adiada != null) {
+            adiar(dados, adiada);
+            return;
+        }
+        trava.travarEscrita();
+        try {
+            trava.gravarAdiado();
+            gravarMesclando(dados);
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    /**
+     * Guarda uma cópia da lista como gravação pendente e a entrega ao
+     * executor. Uma gravação adiada de outro repositório do mesmo arquivo é
+     * feita antes, para manter a ordem das gravações.
+     */
+    private void adiar(List<T> dados, GravacaoAdiada adiada) {
+        List<T> copia = new ArrayList<>(dados);
+        synchronized (this) {
+            pendente = copia;
+        }
+        RepositorioJson<?> anterior = trava.marcarAdiado(this);
+        if (anterior != null && anterior != this) {
+            anterior.gravarPendente();
+        }
+        adiada.agendar(this);
+    }
+
+    /**
+     * Grava a lista pendente, se houver, com a trava exclusiva do arquivo.
+     * Chamado pelo {@link GravacaoAdiada} e antes de qualquer leitura ou
+     * gravação do arquivo.
+     *
+     * @return {@code true} se havia uma lista pendente.
+     */
+    boolean gravarPendente() {
+        trava.travarEscrita();
+        try {
+            List<T> dados;
+            synchronized (this) {
+                dados = pendente;
+                pendente = null;
+                trava.desmarcarAdiado(this);
+            }
+            if (dados == null) {
+                return false;
+            }
+            gravarMesclando(dados);
+            return true;
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    /**
+     * Grava de novo o conteúdo atual do arquivo, no formato configurado
+     * (ex: depois de {@link #setFormato(FormatoArquivo)}), com a trava
+     * exclusiva. O conteúdo é relido do arquivo, não do cache.
+     */
+    public void regravar() {
+        executarComTrava(() -> {
+            List<T> atuais;
+            synchronized (this) {
+                // relê o arquivo: objetos do cache podem ter alterações não salvas
+                invalidarCache();
+                atuais = lerEstadoAtual();
+            }
+            return gravarCompleto(atuais);
+        });
+    }
+
+    /**
+     * Indica se há uma lista salva esperando para ser gravada.
+     *
+     * @return {@code true} se houver gravação pendente.
+     */
+    synchronized boolean temPendente() {
+        return pendente != null;
+    }
+
+    /**
+     * Corpo de {@link #salvarTodos(List)}: grava direto ou mescla com as
+     * gravações de outros terminais. Chamado com a trava exclusiva.
+     */
+    private void gravarMesclando(List<T> dados) {
+        try {
+            long versaoAtual = trava.lerVersao();
+            long referencia;
+            synchronized (this) {
+                referencia = versaoLida;
+            }
+            if (referencia < 0 || referencia == versaoAtual) {
+                if (referencia == versaoAtual && semAlteracoes(dados)) {
+                    synchronized (this) {
+                        gravacoesEvitadas++;
+                    }
+                    Metricas.padrao().contador(nomeMetricas + ".gravacoesEvitadas").incrementar();
+                    return;
+                }
+                gravarCompleto(dados);
+                return;
+            }
+            if (extratorId == null) {
+                LOG.aviso("Aviso: " + arquivo.getName() + " foi alterado por outro terminal; "
+                        + "as alterações dele serão sobrescritas.");
+                gravarCompleto(dados);
+                return;
+            }
+
+            List<T> mesclados;
+            byte[] nossos;
+            synchronized (this) {
+                mesclados = mesclar(lerBase(), dados, lerEstadoAtual());
+            }
+            nossos = serializar(dados);
+            if (gravarCompleto(mesclados)) {
+                LOG.aviso(arquivo.getName() + " foi alterado por outro terminal; "
+                        + "as alterações foram mescladas.");
+                // A lista em uso ainda não tem as alterações do outro terminal:
+                // ela passa a ser a base, e a próxima gravação mescla de novo.
+                synchronized (this) {
+                    definirBase(referencia, nossos);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Indica se a lista, serializada, é igual ao conteúdo da última leitura
+     * ou gravação deste repositório. Chamado com a trava exclusiva e apenas
+     * quando o arquivo ainda está nessa versão; um arquivo corrompido é
+     * sempre regravado.
+     */
+    private boolean semAlteracoes(List<T> dados) throws IOException {
+        synchronized (this) {
+            if (!temBase()) {
+                return false;
+            }
+        }
+        byte[] conteudo = GravacaoSegura.comSoma(serializar(dados));
+        synchronized (this) {
+            return Arrays.equals(conteudo, baseConteudo) && temBase() && atualIntegro();
+        }
+    }
+
+    /**
+     * Indica se a base guardada representa sozinha o conteúdo do arquivo
+     * na versão lida. Subclasses com outras fontes (ex: journal) exigem
+     * também que elas estivessem vazias.
+     *
+     * @return {@code true} se há um conteúdo completo de base.
+     */
+    protected boolean temBase() {
+        return baseConteudo != null;
+    }
+
+    /**
+     * Grava a lista somente se o arquivo ainda estiver na versão esperada
+     * (compare-and-swap). Quando falha, nada é gravado: o chamador deve
+     * recarregar os dados, refazer a alteração e tentar de novo.
+     *
+     * @param dados          Lista completa a ser gravada.
+     * @param versaoEsperada Versão obtida com {@link #getVersao()} antes da leitura.
+     * @return {@code true} se a lista foi gravada.
+     */
+    public boolean salvarSeVersao(List<T> dados, long versaoEsperada) {
+        trava.travarEscrita();
+        try {
+            trava.gravarAdiado();
+            if (trava.lerVersao() != versaoEsperada) {
+                return false;
+            }
+            return gravarCompleto(dados);
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    /**
+     * Altera um único registro partindo da versão mais recente do arquivo,
+     * com a trava exclusiva: nenhum outro terminal grava o arquivo entre a
+     * leitura do registro e a gravação da alteração.
+     *
+     * @param id        ID do registro.
+     * @param alteracao Recebe uma cópia do registro atual e devolve o registro
+     *                  alterado, ou {@code null} para desistir da alteração.
+     * @return O registro gravado, ou {@code null} se o registro não existir
+     * ou a alteração desistir.
+     * @throws IllegalStateException se o repositório não tiver extrator de ID.
+     */
+    public T alterar(int id, UnaryOperator<T> alteracao) {
+        exigirExtrator();
+        trava.travarEscrita();
+        try {
+            trava.gravarAdiado();
+            List<T> registros;
+            synchronized (this) {
+                registros = lerEstadoAtual();
+            }
+            for (int i = 0; i < registros.size(); i++) {
+                if (extratorId.applyAsInt(registros.get(i)) != id) {
+                    continue;
+                }
+                T alterado = alteracao.apply(copiar(registros.get(i)));
+                if (alterado == null) {
+                    return null;
+                }
+                registros.set(i, alterado);
+                gravarAlteracao(registros, alterado);
+                return alterado;
+            }
+            return null;
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    /**
+     * Grava a lista completa como novo conteúdo do repositório. Chamado com
+     * a trava exclusiva; subclasses com outras fontes (ex: journal) também
+     * as esvaziam aqui.
+     *
+     * @param dados Lista completa de registros.
+     * @return {@code true} se a gravação foi concluída.
+     */
+    protected boolean gravarCompleto(List<T> dados) {
+        return gravarArquivo(dados);
+    }
+
+    /**
+     * Persiste a alteração feita por {@link #alterar(int, UnaryOperator)}.
+     * Por padrão regrava o arquivo inteiro.
+     *
+     * @param registros Lista completa, já com o registro alterado.
+     * @param alterado  Registro alterado.
+     */
+    protected void gravarAlteracao(List<T> registros, T alterado) {
+        gravarCompleto(registros);
+    }
+
+    /**
+     * Grava a lista no arquivo, no formato do repositório
+     * (ver {@link #setFormato(FormatoArquivo)}).
+     *
+     * <p>
+     * Diferente de {@link #salvarTodos(List)}, informa se a gravação
+     * foi concluída, permitindo que subclasses só executem etapas
+     * posteriores (ex: esvaziar um journal) quando o arquivo foi escrito.
+     * A gravação usa a trava exclusiva, é atômica (ver {@link GravacaoSegura})
+     * e avança a versão do arquivo.
+     * </p>
+     *
+     * @param dados Lista de objetos a ser gravada.
+     * @return {@code true} se o arquivo foi gravado com sucesso.
+     */
+    protected boolean gravarArquivo(List<T> dados) {
+        trava.travarEscrita();
+        long inicio = System.nanoTime();
+        EventoGravacaoArquivo evento = new EventoGravacaoArquivo();
+        evento.begin();
         try {
-            // Escreve JSON formatado para melhor leitura
-            mapper.writerWithDefaultPrettyPrinter().writeValue(arquivo, dados);
+            invalidarCache();
+            // Os bytes vêm do formato configurado; a soma de verificação vai no fim
+            byte[] conteudo = GravacaoSegura.comSoma(serializar(dados));
+            boolean integro;
+            Durabilidade nivel;
+            synchronized (this) {
+                integro = atualIntegro();
+                nivel = durabilidade;
+            }
+            GravacaoSegura.gravar(arquivo, conteudo, nivel, integro);
+            long anterior = trava.lerVersao();
+            long nova = trava.avancarVersao();
+            synchronized (this) {
+                gravacoes++;
+                marcarConferido(arquivo.length(), arquivo.lastModified(), true);
+                if (versaoLida < 0 || versaoLida == anterior) {
+                    definirBase(nova, conteudo);
+                }
+            }
+            Metricas.padrao().temporizador(nomeMetricas + ".gravacao").registrarDesde(inicio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.arquivo = arquivo.getName();
+                evento.bytes = conteudo.length;
+                evento.registros = dados.size();
+                evento.durabilidade = nivel.name();
+                evento.commit();
+            }
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
+        } finally {
+            trava.liberarEscrita();
+        }
+    }
+
+    /**
+     * Avança a versão do arquivo após uma gravação que não passa por
+     * {@link #gravarArquivo(List)} (ex: uma linha de journal). Deve ser
+     * chamado com a trava exclusiva.
+     *
+     * @return {@code true} se este repositório estava com a versão anterior
+     * e continua atualizado; {@code false} se outro terminal havia gravado antes.
+     */
+    protected boolean avancarVersao() {
+        long anterior = trava.lerVersao();
+        long nova = trava.avancarVersao();
+        synchronized (this) {
+            if (versaoLida == anterior) {
+                versaoLida = nova;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Define a versão e o conteúdo de referência das próximas gravações.
+     *
+     * @param versao   Versão de referência.
+     * @param conteudo Conteúdo completo (JSON) que corresponde à lista em uso.
+     */
+    protected void definirBase(long versao, byte[] conteudo) {
+        versaoLida = versao;
+        baseConteudo = conteudo;
+    }
+
+    /**
+     * Reconstrói a lista da última leitura (ou gravação) deste repositório,
+     * usada como referência na mesclagem.
+     *
+     * @return Registros da base; lista vazia se não houver base.
+     * @throws IOException se o conteúdo guardado não puder ser convertido.
+     */
+    protected List<T> lerBase() throws IOException {
+        return baseConteudo == null || baseConteudo.length == 0 ? new ArrayList<>() : converter(baseConteudo);
+    }
+
+    /**
+     * Mescla três versões da lista por ID: aplica sobre {@code atuais} (o
+     * arquivo agora) os registros que {@code nossos} inseriu, alterou ou
+     * removeu em relação a {@code base}. Registros alterados mantêm a posição
+     * do arquivo; os inseridos vão para o final. Um ID novo dos dois lados
+     * (contadores de ID não são coordenados entre processos) fica com o
+     * registro deste terminal, com aviso.
+     */
+    private List<T> mesclar(List<T> base, List<T> nossos, List<T> atuais) {
+        Map<Integer, JsonNode> antes = new HashMap<>();
+        for (T registro : base) {
+            antes.put(extratorId.applyAsInt(registro), mapper.valueToTree(registro));
+        }
+
+        Map<Integer, T> alterados = new LinkedHashMap<>();
+        Set<Integer> mantidos = new HashSet<>();
+        for (T registro : nossos) {
+            int id = extratorId.applyAsInt(registro);
+            mantidos.add(id);
+            JsonNode anterior = antes.get(id);
+            if (anterior == null || !anterior.equals(mapper.valueToTree(registro))) {
+                alterados.put(id, registro);
+            }
+        }
+
+        List<T> resultado = new ArrayList<>(atuais.size() + alterados.size());
+        for (T registro : atuais) {
+            int id = extratorId.applyAsInt(registro);
+            if (antes.containsKey(id) && !mantidos.contains(id)) {
+                continue; // removido por este terminal
+            }
+            T nosso = alterados.remove(id);
+            if (nosso != null && !antes.containsKey(id)) {
+                LOG.aviso("Aviso: o ID " + id + " de " + arquivo.getName()
+                        + " foi criado pelos dois terminais; mantido o registro deste terminal.");
+            }
+            resultado.add(nosso != null ? nosso : registro);
+        }
+        resultado.addAll(alterados.values());
+        return resultado;
+    }
+
+    /**
+     * Converte o conteúdo no formato em que ele foi gravado, ignorando o
+     * rodapé com a soma de verificação.
+     */
+    private List<T> converter(byte[] conteudo) throws IOException {
+        int fim = GravacaoSegura.fimDoConteudo(conteudo);
+        return FormatoArquivo.detectar(conteudo, fim).lerLista(mapper, conteudo, fim, tipo);
+    }
+
+    private byte[] serializar(List<T> dados) throws IOException {
+        return getFormato().codificar(mapper, dados);
+    }
+
+    private void exigirExtrator() {
+        if (extratorId == null) {
+            throw new IllegalStateException("Repositório de " + arquivo.getName() + " não tem extrator de ID.");
         }
     }
 
@@ -0,0 +1,563 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import xela.chris.barbearia.metricas.EventoGravacaoArquivo;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.log.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Variante do {@link RepositorioJson} que registra cada alteração em um
+ * arquivo de journal (append-only) em vez de reescrever o arquivo inteiro.
+ *
+ * <p>
+ * Cada inserção, atualização ou remoção gera uma única linha JSON compacta
+ * no arquivo {@code <nomeArquivo>.journal}, por exemplo:
+ * {@code {"op":"INSERIR","id":12,"registro":{...}}}. Assim, registrar um
+ * agendamento custa O(registro) de I/O, e não O(arquivo).
+ * </p>
+ *
+ * <p>
+ * O arquivo JSON original continua sendo o <i>snapshot</i>. Na leitura
+ * ({@link #buscarTodos()}), o snapshot é carregado e as entradas do journal
+ * são reaplicadas por ID. Quando o journal atinge o limite de entradas
+ * configurado, ele é compactado: o estado atual é gravado no snapshot e o
+ * journal é esvaziado. Chamar {@link #salvarTodos(List)} também produz um
+ * novo snapshot e esvazia o journal.
+ * </p>
+ *
+ * <p>
+ * A reaplicação é idempotente (inserção e atualização funcionam como
+ * "upsert" e a remoção ignora IDs inexistentes), portanto uma queda entre a
+ * gravação do snapshot e o esvaziamento do journal não corrompe os dados.
+ * Uma linha incompleta (queda no meio de um append) é ignorada na leitura,
+ * sem perder as seguintes, e cortada do arquivo antes do próximo append.
+ * </p>
+ *
+ * <p>
+ * O estado reconstruído também fica em cache, válido enquanto o snapshot
+ * não mudar e o journal mantiver o mesmo tamanho e data de modificação.
+ * </p>
+ *
+ * <p>
+ * Cada linha anexada avança a versão do arquivo ({@link TravaArquivo}),
+ * sob a trava exclusiva, assim como a compactação. Linhas de outros
+ * terminais nunca conflitam com as deste (a reaplicação é por ID); a
+ * mesclagem de {@link #salvarTodos(List)} considera o snapshot e o journal
+ * da última leitura como base.
+ * </p>
+ *
+ * <p>
+ * O snapshot é gravado de forma atômica como no {@link RepositorioJson}.
+ * As linhas do journal são apenas anexadas; com {@link Durabilidade#COMPLETA}
+ * cada linha também é forçada para o disco.
+ * </p>
+ *
+ * @param <T> Tipo de objeto que será persistido.
+ */
+public class RepositorioJsonJournal<T> extends RepositorioJson<T> {
+
+    private static final Log LOG = Log.de(RepositorioJsonJournal.class);
+
+    /** Tipos de operação registrados no journal. */
+    public enum Operacao {
+        INSERIR,
+        ATUALIZAR,
+        REMOVER
+    }
+
+    /** Quantidade padrão de entradas no journal antes de uma compactação automática. */
+    public static final int LIMITE_COMPACTACAO_PADRAO = 500;
+
+    private static final byte[] JOURNAL_VAZIO = new byte[0];
+
+    private final File arquivoJournal;
+    private final int limiteCompactacao;
+
+    /** Número de entradas no journal; {@code -1} enquanto ainda não foi contado. */
+    private int entradasNoJournal = -1;
+
+    /** Versão do arquivo em que {@code entradasNoJournal} foi contado. */
+    private long versaoDaContagem = -1;
+
+    /** Estado já reconstruído (snapshot + journal) e a chave que o valida. */
+    private List<T> cacheMesclado;
+    private byte[] cacheJournalConteudo;
+    private long cacheVersaoSnapshot;
+    private long cacheJournalTamanho;
+    private long cacheJournalModificadoEm;
+
+    /** Conteúdo do journal correspondente à última lista devolvida por {@link #lerEstadoAtual()}. */
+    private byte[] ultimoJournal = JOURNAL_VAZIO;
+
+    /** Trechos do journal que, junto com o snapshot de base, formam a base das mesclagens. */
+    private List<byte[]> baseJournal = new ArrayList<>();
+
+    /**
+     * Cria um repositório com journal usando o limite de compactação padrão.
+     *
+     * @param tipo        Classe do tipo de objeto que será persistido.
+     * @param nomeArquivo Nome do arquivo JSON de snapshot.
+     * @param extratorId  Função que obtém o ID de um registro (ex: {@code Agendamento::getId}).
+     */
+    public RepositorioJsonJournal(Class<T> tipo, String nomeArquivo, ToIntFunction<T> extratorId) {
+        this(tipo, nomeArquivo, extratorId, LIMITE_COMPACTACAO_PADRAO);
+    }
+
+    /**
+     * Cria um repositório com journal.
+     *
+     * @param tipo              Classe do tipo de objeto que será persistido.
+     * @param nomeArquivo       Nome do arquivo JSON de snapshot.
+     * @param extratorId        Função que obtém o ID de um registro.
+     * @param limiteCompactacao Número de entradas no journal que dispara a compactação.
+     */
+    public RepositorioJsonJournal(Class<T> tipo, String nomeArquivo, ToIntFunction<T> extratorId, int limiteCompactacao) {
+        super(tipo, nomeArquivo, Objects.requireNonNull(extratorId));
+        this.limiteCompactacao = Math.max(1, limiteCompactacao);
+        this.arquivoJournal = new File(arquivo.getParentFile(), arquivo.getName() + ".journal");
+    }
+
+    /**
+     * Carrega o snapshot e reaplica, em ordem, todas as entradas do journal.
+     *
+     * @return Lista com o estado atual dos registros.
+     */
+    @Override
+    protected synchronized List<T> lerEstadoAtual() {
+        List<T> registros = super.lerEstadoAtual();
+        if (!arquivoJournal.exists() || arquivoJournal.length() == 0) {
+            entradasNoJournal = 0;
+            cacheMesclado = null;
+            ultimoJournal = JOURNAL_VAZIO;
+            return registros;
+        }
+
+        long tamanhoJournal = arquivoJournal.length();
+        long modificadoEm = arquivoJournal.lastModified();
+        if (cacheMesclado != null && cacheVersaoSnapshot == getVersaoCache()
+                && cacheJournalTamanho == tamanhoJournal && cacheJournalModificadoEm == modificadoEm) {
+            ultimoJournal = cacheJournalConteudo;
+            return new ArrayList<>(cacheMesclado);
+        }
+
+        byte[] journal = lerJournal();
+        Map<Integer, T> alteracoes = new LinkedHashMap<>();
+        entradasNoJournal = lerAlteracoes(journal, alteracoes);
+        List<T> resultado = reaplicarJournal(registros, alteracoes);
+        ultimoJournal = journal;
+        if (isCacheAtivo()) {
+            cacheMesclado = resultado;
+            cacheJournalConteudo = journal;
+            cacheVersaoSnapshot = getVersaoCache();
+            cacheJournalTamanho = tamanhoJournal;
+            cacheJournalModificadoEm = modificadoEm;
+            return new ArrayList<>(resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda também o journal lido como parte da base das mesclagens.
+     */
+    @Override
+    protected void registrarLeitura(long versao) {
+        super.registrarLeitura(versao);
+        baseJournal = new ArrayList<>();
+        baseJournal.add(ultimoJournal);
+    }
+
+    /**
+     * Um snapshot completo passa a ser a base, sem journal.
+     */
+    @Override
+    protected void definirBase(long versao, byte[] conteudo) {
+        super.definirBase(versao, conteudo);
+        baseJournal = new ArrayList<>();
+    }
+
+    /**
+     * A base só representa o arquivo sozinha se o journal estava vazio.
+     */
+    @Override
+    protected boolean temBase() {
+        for (byte[] trecho : baseJournal) {
+            if (trecho.length > 0) {
+                return false;
+            }
+        }
+        return super.temBase();
+    }
+
+    /**
+     * Reconstrói a base reaplicando o journal da base sobre o snapshot da base.
+     */
+    @Override
+    protected List<T> lerBase() throws IOException {
+        Map<Integer, T> alteracoes = new LinkedHashMap<>();
+        for (byte[] trecho : baseJournal) {
+            lerAlteracoes(trecho, alteracoes);
+        }
+        return reaplicarJournal(super.lerBase(), alteracoes);
+    }
+
+    /**
+     * Descarta também o estado reconstruído a partir do journal.
+     */
+    @Override
+    public synchronized void invalidarCache() {
+        super.invalidarCache();
+        cacheMesclado = null;
+        cacheJournalConteudo = null;
+    }
+
+    /**
+     * Percorre o snapshot em fluxo, pulando os IDs alterados no journal, e
+     * depois entrega as versões atuais vindas do journal.
+     *
+     * <p>
+     * O journal costuma ser pequeno, então só ele é carregado em memória.
+     * Por isso, registros alterados desde a última compactação aparecem
+     * no final do percurso, e não na posição original do snapshot.
+     * </p>
+     */
+    @Override
+    protected void percorrerRegistros(String campo, Predicate<String> condicao, Consumer<? super T> consumidor) {
+        Map<Integer, T> alteracoes = new LinkedHashMap<>();
+        entradasNoJournal = lerAlteracoes(lerJournal(), alteracoes);
+        if (alteracoes.isEmpty()) {
+            super.percorrerRegistros(campo, condicao, consumidor);
+            return;
+        }
+
+        super.percorrerRegistros(campo, condicao, registro -> {
+            if (!alteracoes.containsKey(extratorId.applyAsInt(registro))) {
+                consumidor.accept(registro);
+            }
+        });
+        for (T registro : alteracoes.values()) {
+            if (registro != null && atendeCampo(registro, campo, condicao)) {
+                consumidor.accept(registro);
+            }
+        }
+    }
+
+    /**
+     * Grava um novo snapshot completo e esvazia o journal.
+     *
+     * @param dados Lista completa de registros.
+     * @return {@code true} se o snapshot foi gravado.
+     */
+    @Override
+    protected boolean gravarCompleto(List<T> dados) {
+        if (!gravarArquivo(dados)) {
+            return false;
+        }
+        esvaziarJournal();
+        return true;
+    }
+
+    /**
+     * Registra o registro alterado por {@link #alterar(int, java.util.function.UnaryOperator)}
+     * como uma linha de journal, sem reescrever o snapshot.
+     */
+    @Override
+    protected void gravarAlteracao(List<T> registros, T alterado) {
+        anexar(Operacao.ATUALIZAR, extratorId.applyAsInt(alterado), alterado);
+    }
+
+    /**
+     * Registra a inserção de um novo registro no journal.
+     *
+     * @param registro Registro inserido.
+     */
+    public void registrarInsercao(T registro) {
+        anexar(Operacao.INSERIR, extratorId.applyAsInt(registro), registro);
+    }
+
+    /**
+     * Registra a nova versão de um registro já existente no journal.
+     *
+     * @param registro Registro alterado.
+     */
+    public void registrarAtualizacao(T registro) {
+        anexar(Operacao.ATUALIZAR, extratorId.applyAsInt(registro), registro);
+    }
+
+    /**
+     * Registra a remoção de um registro no journal.
+     *
+     * @param id ID do registro removido.
+     */
+    public void registrarRemocao(int id) {
+        anexar(Operacao.REMOVER, id, null);
+    }
+
+    /**
+     * Compacta o journal: grava o estado atual como novo snapshot e
+     * esvazia o arquivo de journal.
+     */
+    public void compactar() {
+        regravar();
+    }
+
+    /**
+     * Retorna quantas entradas existem atualmente no journal.
+     *
+     * @return Número de entradas pendentes de compactação.
+     */
+    public synchronized int getEntradasNoJournal() {
+        if (entradasNoJournal < 0) {
+            entradasNoJournal = contarLinhas();
+        }
+        return entradasNoJournal;
+    }
+
+    /**
+     * Retorna o caminho absoluto do arquivo de journal.
+     *
+     * @return Caminho absoluto do journal.
+     */
+    public String getCaminhoJournal() {
+        return arquivoJournal.getAbsolutePath();
+    }
+
+    /**
+     * Escreve uma linha compacta no final do journal, com a trava exclusiva,
+     * e, se o limite for atingido, dispara a compactação.
+     */
+    private void anexar(Operacao operacao, int id, T registro) {
+        byte[] linha;
+        try {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(256);
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(saida)) {
+                gen.writeStartObject();
+                gen.writeStringField("op", operacao.name());
+                gen.writeNumberField("id", id);
+                if (registro != null) {
+                    gen.writeFieldName("registro");
+                    mapper.writeValue(gen, registro);
+                }
+                gen.writeEndObject();
+            }
+            saida.write('\n');
+            linha = saida.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        boolean compactar = executarComTrava(() -> {
+            long versao = getVersao();
+            int entradasAtuais;
+            synchronized (this) {
+                if (versao != versaoDaContagem) {
+                    entradasNoJournal = -1; // outro terminal pode ter anexado ou compactado
+                }
+                entradasAtuais = getEntradasNoJournal();
+                cacheMesclado = null;
+            }
+            long inicio = System.nanoTime();
+            EventoGravacaoArquivo evento = new EventoGravacaoArquivo();
+            evento.begin();
+            Durabilidade nivel = getDurabilidade();
+            try (RandomAccessFile out = new RandomAccessFile(arquivoJournal, "rw")) {
+                out.seek(cortarLinhaIncompleta(out));
+                out.write(linha);
+                if (nivel == Durabilidade.COMPLETA) {
+                    out.getFD().sync();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            Metricas.padrao().temporizador(getNomeMetricas() + ".journal").registrarDesde(inicio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.arquivo = arquivoJournal.getName();
+                evento.bytes = linha.length;
+                evento.registros = 1;
+                evento.journal = true;
+                evento.durabilidade = nivel.name();
+                evento.commit();
+            }
+            synchronized (this) {
+                if (avancarVersao()) {
+                    baseJournal.add(linha);
+                }
+                versaoDaContagem = versao + 1;
+                entradasNoJournal = entradasAtuais + 1;
+                return entradasNoJournal >= limiteCompactacao;
+            }
+        });
+        if (compactar) {
+            compactar();
+        }
+    }
+
+    /**
+     * Corta do journal uma última linha sem {@code '\n'}, deixada por uma
+     * queda no meio de um append; sem isso a próxima linha seria escrita
+     * colada nela e também ficaria ilegível.
+     *
+     * @return Tamanho do journal depois do corte (posição do próximo append).
+     */
+    private long cortarLinhaIncompleta(RandomAccessFile journal) throws IOException {
+        long tamanho = journal.length();
+        if (tamanho == 0) {
+            return 0;
+        }
+        journal.seek(tamanho - 1);
+        if (journal.read() == '\n') {
+            return tamanho;
+        }
+        byte[] bloco = new byte[4096];
+        long fim = tamanho;
+        while (fim > 0) {
+            int lidos = (int) Math.min(bloco.length, fim);
+            journal.seek(fim - lidos);
+            journal.readFully(bloco, 0, lidos);
+            for (int i = lidos - 1; i >= 0; i--) {
+                if (bloco[i] == '\n') {
+                    fim = fim - lidos + i + 1;
+                    LOG.aviso("Entrada incompleta cortada do journal " + arquivoJournal.getName());
+                    journal.setLength(fim);
+                    return fim;
+                }
+            }
+            fim -= lidos;
+        }
+        LOG.aviso("Entrada incompleta cortada do journal " + arquivoJournal.getName());
+        journal.setLength(0);
+        return 0;
+    }
+
+    /**
+     * Soma o journal ao tamanho do snapshot.
+     */
+    @Override
+    protected long getTamanhoEmDisco() {
+        return super.getTamanhoEmDisco() + (arquivoJournal == null ? 0 : arquivoJournal.length());
+    }
+
+    /**
+     * Aplica as entradas do journal sobre a lista do snapshot.
+     */
+    private List<T> reaplicarJournal(List<T> registros, Map<Integer, T> alteracoes) {
+        if (alteracoes.isEmpty()) {
+            return registros;
+        }
+        List<T> resultado = new ArrayList<>(registros.size() + alteracoes.size());
+        Set<Integer> aplicados = new HashSet<>();
+
+        for (T registro : registros) {
+            int id = extratorId.applyAsInt(registro);
+            if (!alteracoes.containsKey(id)) {
+                resultado.add(registro);
+                continue;
+            }
+            T atual = alteracoes.get(id);
+            if (atual != null && aplicados.add(id)) {
+                resultado.add(atual);
+            }
+        }
+        for (Map.Entry<Integer, T> entrada : alteracoes.entrySet()) {
+            if (entrada.getValue() != null && !aplicados.contains(entrada.getKey())) {
+                resultado.add(entrada.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Lê as linhas de um conteúdo de journal e resume as entradas por ID
+     * em {@code alteracoes}: o valor é a última versão registrada ou
+     * {@code null} se a última operação foi uma remoção. A ordem das chaves
+     * segue a primeira aparição de cada ID. Uma linha ilegível (ex: cortada
+     * por uma queda) é ignorada, mas as seguintes continuam valendo.
+     *
+     * @return Número de entradas lidas.
+     */
+    private int lerAlteracoes(byte[] conteudo, Map<Integer, T> alteracoes) {
+        int entradas = 0;
+        int inicio = 0;
+        while (inicio < conteudo.length) {
+            int fim = inicio;
+            while (fim < conteudo.length && conteudo[fim] != '\n') {
+                fim++;
+            }
+            int tamanho = fim - inicio;
+            int linha = inicio;
+            inicio = fim + 1;
+            if (emBranco(conteudo, linha, fim)) {
+                continue;
+            }
+            try {
+                JsonNode no = mapper.readTree(conteudo, linha, tamanho);
+                Operacao operacao = Operacao.valueOf(no.get("op").asText());
+                int id = no.get("id").asInt();
+                T registro = operacao == Operacao.REMOVER ? null : mapper.treeToValue(no.get("registro"), tipo);
+                alteracoes.put(id, registro);
+                entradas++;
+            } catch (IOException | RuntimeException e) {
+                LOG.aviso("Entrada ilegível ignorada no journal " + arquivoJournal.getName());
+            }
+        }
+        return entradas;
+    }
+
+    private static boolean emBranco(byte[] conteudo, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            if (!Character.isWhitespace(conteudo[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] lerJournal() {
+        if (!arquivoJournal.exists() || arquivoJournal.length() == 0) {
+            return JOURNAL_VAZIO;
+        }
+        try {
+            return Files.readAllBytes(arquivoJournal.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return JOURNAL_VAZIO;
+        }
+    }
+
+    private int contarLinhas() {
+        int linhas = 0;
+        for (byte b : lerJournal()) {
+            if (b == '\n') {
+                linhas++;
+            }
+        }
+        return linhas;
+    }
+
+    private void esvaziarJournal() {
+        if (arquivoJournal.exists() && !arquivoJournal.delete()) {
+            LOG.aviso("Não foi possível esvaziar o journal " + arquivoJournal.getName());
+            return;
+        }
+        entradasNoJournal = 0;
+    }
+}
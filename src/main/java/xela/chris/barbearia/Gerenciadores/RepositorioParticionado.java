@@ -0,0 +1,851 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.log.Log;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositório dividido em um arquivo por mês, para registros que acumulam
+ * histórico (agendamentos e vendas).
+ *
+ * <p>
+ * Cada mês fica em uma partição própria ({@code <nomeBase>-2026-10.json}),
+ * um {@link RepositorioJsonJournal} com a sua trava, versão, cache e journal.
+ * Registros sem data válida ficam em {@code <nomeBase>-sem-data.json}. O
+ * manifesto ({@code <nomeBase>.particoes.json}) lista as partições
+ * existentes e a faixa de IDs de cada uma ({@link Particao}).
+ * </p>
+ *
+ * <p>
+ * Os gerenciadores carregam apenas os meses <i>abertos</i>: o mês em que o
+ * repositório foi criado, os meses seguintes e a partição sem data
+ * ({@link #buscarAbertos()}). Um mês anterior é aberto quando recebe um
+ * registro ou quando um registro dele é procurado pelo ID
+ * ({@link #abrirMes(int)}); a partir daí faz parte das gravações completas.
+ * Consultas de período leem apenas as partições dos meses envolvidos
+ * ({@link #buscarMes(int)}, {@link #percorrer(DataHora.Periodo, String, Predicate, Consumer)}),
+ * então o balanço de um mês antigo abre um único arquivo.
+ * </p>
+ *
+ * <p>
+ * {@link #salvarTodos(List)} recebe a lista dos meses abertos e grava cada
+ * mês na sua partição; os meses fechados não são tocados. Inserções,
+ * alterações e remoções pontuais vão para o journal da partição do
+ * registro, e um registro cuja data mudou de mês é movido de partição.
+ * </p>
+ *
+ * <p>
+ * Resumos calculados a partir de um mês fechado (ex: o balanço) podem ser
+ * guardados com {@link #resumirMes(int, Function)}, que só relê a partição
+ * quando a versão dela muda.
+ * </p>
+ *
+ * <p>
+ * As métricas das partições são somadas em {@code repositorio.<nomeBase>.*},
+ * e o medidor {@code .bytes} é o tamanho de todas elas
+ * ({@link #getTamanhoArquivos()}).
+ * </p>
+ *
+ * <p>
+ * A faixa de IDs do manifesto só cresce e é gravada antes do registro,
+ * então o maior ID já usado ({@link #getMaiorId()}) é conhecido sem abrir
+ * os meses antigos, mesmo após uma queda. Uma inserção pontual fora da
+ * faixa do mês reserva de uma vez {@link #BLOCO_IDS} IDs a partir do seu,
+ * então só uma inserção a cada bloco regrava o manifesto; o preço é que o
+ * maior ID pode ser o fim de um bloco ainda não usado, e os IDs pulam o
+ * resto dele depois que o sistema é reiniciado.
+ * </p>
+ *
+ * <p>
+ * Na primeira abertura, se ainda não houver manifesto e existir o arquivo
+ * único do formato anterior ({@code <nomeBase>.json}, com o seu journal),
+ * os registros são divididos por mês e o arquivo antigo é renomeado com a
+ * extensão {@code .sem-particoes}.
+ * </p>
+ *
+ * @param <T> Tipo de objeto que será persistido.
+ */
+public class RepositorioParticionado<T> {
+
+    private static final Log LOG = Log.de(RepositorioParticionado.class);
+
+    /** Chave de mês da partição dos registros sem data válida. */
+    public static final int SEM_MES = DataHora.SEM_DATA;
+
+    /** Quantos IDs uma inserção fora da faixa do mês reserva no manifesto. */
+    public static final int BLOCO_IDS = 64;
+
+    /** Extensão dada ao arquivo único do formato anterior depois de dividido. */
+    public static final String EXTENSAO_SEM_PARTICOES = ".sem-particoes";
+
+    private final Class<T> tipo;
+    private final String nomeBase;
+    private final ToIntFunction<T> extratorId;
+    private final ToIntFunction<T> extratorDia;
+
+    /** Lista das partições, com a faixa de IDs de cada uma. */
+    private final RepositorioJson<Particao> manifesto;
+
+    /** Partições já usadas por este repositório, por mês. */
+    private final Map<Integer, RepositorioJsonJournal<T>> particoes = new HashMap<>();
+
+    /** Primeiro mês aberto desde a criação: o mês corrente naquele momento. */
+    private final int primeiroMes;
+
+    /** Meses anteriores a {@code primeiroMes} abertos depois. */
+    private final Set<Integer> abertosAntes = new HashSet<>();
+
+    /** Mês da partição de cada registro dos meses abertos (ID → mês). */
+    private MapaInt<Integer> mesPorId = new MapaInt<>();
+
+    /** Resumo de um mês e a versão da partição em que foi calculado. */
+    private record ResumoDoMes(long versao, Object valor) {
+    }
+
+    /** Resumos guardados por {@link #resumirMes(int, Function)}, por mês. */
+    private final Map<Integer, ResumoDoMes> resumos = new HashMap<>();
+
+    /**
+     * Maior ID do manifesto já conhecido por este repositório: lido por
+     * {@link #getMaiorId()} ou reservado por ele mesmo quando conhecia todos.
+     */
+    private int maiorIdConhecido;
+
+    /** Configuração aplicada a todas as partições. */
+    private FormatoArquivo formato = FormatoArquivo.JSON_FORMATADO;
+    private Durabilidade durabilidade = Durabilidade.ARQUIVO;
+    private GravacaoAdiada gravacaoAdiada;
+    private boolean cacheAtivo = true;
+
+    /** Indica se a divisão do arquivo único já foi conferida. */
+    private boolean migracaoConferida;
+
+    /**
+     * Cria o repositório particionado.
+     *
+     * @param tipo        Classe do tipo de objeto que será persistido.
+     * @param nomeBase    Nome base dos arquivos (ex: "agendamentos").
+     * @param extratorId  Função que obtém o ID de um registro.
+     * @param extratorDia Função que obtém o dia do registro (desde 01/01/1970),
+     *                    ou {@link DataHora#SEM_DATA}.
+     */
+    public RepositorioParticionado(Class<T> tipo, String nomeBase, ToIntFunction<T> extratorId,
+                                   ToIntFunction<T> extratorDia) {
+        this.tipo = tipo;
+        this.nomeBase = nomeBase;
+        this.extratorId = extratorId;
+        this.extratorDia = extratorDia;
+        this.manifesto = new RepositorioJson<>(Particao.class, nomeBase + ".particoes.json", Particao::getMes);
+        this.primeiroMes = mesAtual();
+        Metricas.padrao().medidor("repositorio." + nomeBase + ".bytes", this,
+                RepositorioParticionado::getTamanhoArquivos);
+    }
+
+    /**
+     * Converte um dia em chave de mês ({@code ano * 12 + mês - 1}), que
+     * ordena os meses cronologicamente.
+     *
+     * @param dia Dias desde 01/01/1970, ou {@link DataHora#SEM_DATA}.
+     * @return Chave do mês, ou {@link #SEM_MES}.
+     */
+    public static int mesDoDia(int dia) {
+        if (dia == DataHora.SEM_DATA) {
+            return SEM_MES;
+        }
+        LocalDate data = LocalDate.ofEpochDay(dia);
+        return data.getYear() * 12 + data.getMonthValue() - 1;
+    }
+
+    /**
+     * Retorna a chave do mês corrente.
+     *
+     * @return Chave do mês de hoje.
+     */
+    public static int mesAtual() {
+        return mesDoDia((int) LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Retorna o mês no formato usado nos nomes de arquivo ("2026-10" ou "sem-data").
+     *
+     * @param mes Chave do mês.
+     * @return Nome do mês.
+     */
+    public static String nomeDoMes(int mes) {
+        if (mes == SEM_MES) {
+            return "sem-data";
+        }
+        return String.format("%04d-%02d", Math.floorDiv(mes, 12), Math.floorMod(mes, 12) + 1);
+    }
+
+    /**
+     * Retorna a chave de mês da partição de um registro.
+     *
+     * @param registro Registro.
+     * @return Chave do mês, ou {@link #SEM_MES} se o registro não tiver data válida.
+     */
+    public int mesDe(T registro) {
+        return mesDoDia(extratorDia.applyAsInt(registro));
+    }
+
+    /**
+     * Indica se o mês está aberto, isto é, se os seus registros fazem parte
+     * de {@link #buscarAbertos()} e das gravações completas.
+     *
+     * @param mes Chave do mês.
+     * @return {@code true} se o mês estiver aberto.
+     */
+    public synchronized boolean estaAberto(int mes) {
+        return mes == SEM_MES || mes >= primeiroMes || abertosAntes.contains(mes);
+    }
+
+    /**
+     * Lê os registros de todos os meses abertos, em ordem de mês.
+     *
+     * @return Nova lista com os registros dos meses abertos.
+     */
+    public List<T> buscarAbertos() {
+        List<T> registros = new ArrayList<>();
+        MapaInt<Integer> meses = new MapaInt<>();
+        for (Particao particao : lerManifesto()) {
+            int mes = particao.getMes();
+            if (!estaAberto(mes)) {
+                continue;
+            }
+            for (T registro : particao(mes).buscarTodos()) {
+                registros.add(registro);
+                meses.put(extratorId.applyAsInt(registro), mes);
+            }
+        }
+        synchronized (this) {
+            mesPorId = meses;
+        }
+        return registros;
+    }
+
+    /**
+     * Abre um mês anterior à janela carregada, que passa a fazer parte das
+     * gravações completas.
+     *
+     * @param mes Chave do mês.
+     * @return Os registros do mês, a serem acrescentados à lista em memória;
+     * vazia se o mês já estava aberto.
+     */
+    public List<T> abrirMes(int mes) {
+        synchronized (this) {
+            if (estaAberto(mes)) {
+                return new ArrayList<>();
+            }
+            abertosAntes.add(mes);
+        }
+        List<T> registros = buscarMes(mes);
+        synchronized (this) {
+            for (T registro : registros) {
+                mesPorId.put(extratorId.applyAsInt(registro), mes);
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Executa a ação com a trava exclusiva da partição do mês, válida entre
+     * terminais (ver {@link RepositorioJson#executarComTrava(Supplier)}).
+     * Nenhum outro terminal grava registros do mês até a ação terminar, então
+     * ela pode conferir os registros do mês e registrar um novo como um passo só.
+     *
+     * @param mes  Chave do mês.
+     * @param acao Ação a ser executada.
+     * @param <R>  Tipo do resultado da ação.
+     * @return O resultado da ação.
+     */
+    public <R> R executarComTravaDoMes(int mes, Supplier<R> acao) {
+        return particao(mes).executarComTrava(acao);
+    }
+
+    /**
+     * Escolhe o ID de um registro novo do mês com a trava exclusiva do
+     * manifesto, válida entre terminais. Se outro terminal reservou IDs
+     * depois que este leu o maior ID ({@link #getMaiorId()}) ou reservou os
+     * seus, o ID proposto pode ser um dos dele: é trocado pelo que
+     * {@code novoId} devolver, recebendo o maior ID reservado. A faixa do ID
+     * escolhido é reservada antes de liberar a trava, então dois terminais
+     * nunca escolhem o mesmo ID.
+     *
+     * @param mes    Chave do mês do registro.
+     * @param id     ID proposto (ex: o do contador do tipo).
+     * @param novoId Gera um ID maior que o recebido.
+     * @return O ID escolhido.
+     */
+    public int reservarId(int mes, int id, IntUnaryOperator novoId) {
+        return manifesto.executarComTrava(() -> {
+            int maior = maiorId(manifesto.buscarTodos());
+            int escolhido = id;
+            synchronized (this) {
+                if (maior > maiorIdConhecido && id <= maior) {
+                    escolhido = novoId.applyAsInt(maior);
+                }
+                maiorIdConhecido = Math.max(maiorIdConhecido, maior);
+            }
+            registrarFaixa(mes, escolhido);
+            return escolhido;
+        });
+    }
+
+    /**
+     * Indica se a partição do mês foi gravada por outro terminal depois da
+     * última leitura ou gravação feita por este repositório.
+     *
+     * @param mes Chave do mês.
+     * @return {@code true} se os registros do mês em memória podem estar desatualizados.
+     */
+    public boolean mesDesatualizado(int mes) {
+        return particao(mes).desatualizado();
+    }
+
+    /**
+     * Relê a partição de um mês aberto, que passa a ser a referência das
+     * próximas gravações dela.
+     *
+     * @param mes Chave do mês.
+     * @return Nova lista com os registros do mês.
+     */
+    public List<T> recarregarMes(int mes) {
+        List<T> registros = particao(mes).buscarTodos();
+        synchronized (this) {
+            for (T registro : registros) {
+                mesPorId.put(extratorId.applyAsInt(registro), mes);
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Lê os registros de um único mês, aberto ou não, sem abri-lo.
+     *
+     * @param mes Chave do mês.
+     * @return Nova lista com os registros do mês; vazia se não houver partição.
+     */
+    public List<T> buscarMes(int mes) {
+        for (Particao particao : lerManifesto()) {
+            if (particao.getMes() == mes) {
+                return particao(mes).buscarTodos();
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Calcula um resumo a partir dos registros de um mês e o guarda até a
+     * partição ser gravada de novo (por este ou por outro terminal), para
+     * que consultas repetidas a um mês antigo não releiam a partição. Cada
+     * repositório guarda um único tipo de resumo por mês: o {@code resumir}
+     * deve ser sempre o mesmo.
+     *
+     * @param mes     Chave do mês.
+     * @param resumir Cálculo do resumo a partir dos registros do mês.
+     * @param <R>     Tipo do resumo.
+     * @return O resumo do mês.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R resumirMes(int mes, Function<List<T>, R> resumir) {
+        long versao = particao(mes).getVersao();
+        synchronized (this) {
+            ResumoDoMes guardado = resumos.get(mes);
+            if (guardado != null && guardado.versao() == versao) {
+                return (R) guardado.valor();
+            }
+        }
+        R valor = resumir.apply(buscarMes(mes));
+        synchronized (this) {
+            resumos.put(mes, new ResumoDoMes(versao, valor));
+        }
+        return valor;
+    }
+
+    /**
+     * Lê os registros de todas as partições, em ordem de mês. Usado por
+     * ferramentas e testes; os gerenciadores leem só os meses abertos.
+     *
+     * @return Nova lista com todos os registros.
+     */
+    public List<T> buscarTodos() {
+        List<T> registros = new ArrayList<>();
+        for (Particao particao : lerManifesto()) {
+            registros.addAll(particao(particao.getMes()).buscarTodos());
+        }
+        return registros;
+    }
+
+    /**
+     * Procura um registro pelo ID nas partições cuja faixa de IDs o contém.
+     *
+     * @param id ID do registro.
+     * @return O registro, ou {@code null} se não existir.
+     */
+    public T buscarPorId(int id) {
+        for (Particao particao : lerManifesto()) {
+            if (particao.contemId(id)) {
+                T registro = particao(particao.getMes()).buscarPorId(id);
+                if (registro != null) {
+                    return registro;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna os meses com partição que não estão abertos e têm algum dia
+     * dentro do período.
+     *
+     * @param periodo Período desejado; {@code null} considera todos os meses.
+     * @return Chaves dos meses, em ordem.
+     */
+    public List<Integer> mesesFechados(DataHora.Periodo periodo) {
+        List<Integer> meses = new ArrayList<>();
+        for (Particao particao : lerManifesto()) {
+            int mes = particao.getMes();
+            if (!estaAberto(mes) && sobrepoe(mes, periodo)) {
+                meses.add(mes);
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Percorre, direto dos arquivos, os registros das partições que têm
+     * algum dia dentro do período, aplicando o filtro de campo de
+     * {@link RepositorioJson#percorrer(String, Predicate, Consumer)}. A
+     * partição sem data é sempre percorrida.
+     *
+     * @param periodo    Período do filtro; {@code null} percorre todas as partições.
+     * @param campo      Nome do campo conferido antes da conversão.
+     * @param condicao   Condição sobre o texto do campo.
+     * @param consumidor Ação executada para cada registro aceito.
+     */
+    public void percorrer(DataHora.Periodo periodo, String campo, Predicate<String> condicao,
+                          Consumer<? super T> consumidor) {
+        for (Particao particao : lerManifesto()) {
+            int mes = particao.getMes();
+            if (mes == SEM_MES || sobrepoe(mes, periodo)) {
+                particao(mes).percorrer(campo, condicao, consumidor);
+            }
+        }
+    }
+
+    /**
+     * Retorna o maior ID já gravado ou reservado em qualquer partição.
+     *
+     * @return Maior ID, ou 0 se não houver partições.
+     */
+    public int getMaiorId() {
+        int maior = maiorId(lerManifesto());
+        synchronized (this) {
+            maiorIdConhecido = Math.max(maiorIdConhecido, maior);
+        }
+        return maior;
+    }
+
+    private static int maiorId(List<Particao> particoes) {
+        int maior = 0;
+        for (Particao particao : particoes) {
+            maior = Math.max(maior, particao.getMaiorId());
+        }
+        return maior;
+    }
+
+    /**
+     * Retorna as partições existentes, em ordem de mês.
+     *
+     * @return Nova lista com as entradas do manifesto.
+     */
+    public List<Particao> listarParticoes() {
+        return lerManifesto();
+    }
+
+    /**
+     * Grava os registros dos meses abertos, cada mês na sua partição. Meses
+     * abertos sem nenhum registro na lista ficam vazios; meses fechados não
+     * são tocados. Um registro de mês fechado (que o gerenciador não abriu)
+     * é acrescentado à partição sem apagar os demais registros dela.
+     *
+     * @param dados Registros de todos os meses abertos.
+     */
+    public void salvarTodos(List<T> dados) {
+        Map<Integer, List<T>> porMes = agrupar(dados);
+        for (Particao particao : lerManifesto()) {
+            if (estaAberto(particao.getMes())) {
+                porMes.putIfAbsent(particao.getMes(), new ArrayList<>());
+            }
+        }
+        registrarFaixas(porMes);
+        MapaInt<Integer> meses = new MapaInt<>();
+        for (Map.Entry<Integer, List<T>> entrada : porMes.entrySet()) {
+            int mes = entrada.getKey();
+            RepositorioJsonJournal<T> particao = particao(mes);
+            List<T> registros = entrada.getValue();
+            if (!estaAberto(mes)) {
+                registros = mesclar(particao.buscarTodos(), registros);
+            }
+            particao.salvarTodos(registros);
+            for (T registro : entrada.getValue()) {
+                meses.put(extratorId.applyAsInt(registro), mes);
+            }
+        }
+        synchronized (this) {
+            mesPorId = meses;
+        }
+    }
+
+    /**
+     * Registra a inserção de um registro no journal da partição do seu mês.
+     *
+     * @param registro Registro inserido.
+     */
+    public void registrarInsercao(T registro) {
+        int id = extratorId.applyAsInt(registro);
+        int mes = mesDe(registro);
+        registrarFaixa(mes, id);
+        particao(mes).registrarInsercao(registro);
+        synchronized (this) {
+            mesPorId.put(id, mes);
+        }
+    }
+
+    /**
+     * Registra a nova versão de um registro no journal da sua partição. Se
+     * a data do registro mudou de mês, ele é inserido na partição nova e
+     * depois removido da antiga (uma queda no meio deixa o registro
+     * duplicado, nunca perdido).
+     *
+     * @param registro Registro alterado.
+     */
+    public void registrarAtualizacao(T registro) {
+        int id = extratorId.applyAsInt(registro);
+        int mes = mesDe(registro);
+        Integer anterior;
+        synchronized (this) {
+            anterior = mesPorId.get(id);
+        }
+        if (anterior == null || anterior == mes) {
+            particao(mes).registrarAtualizacao(registro);
+        } else {
+            registrarFaixa(mes, id);
+            particao(mes).registrarInsercao(registro);
+            particao(anterior).registrarRemocao(id);
+        }
+        synchronized (this) {
+            mesPorId.put(id, mes);
+        }
+    }
+
+    /**
+     * Registra a remoção de um registro no journal da sua partição.
+     *
+     * @param id ID do registro removido.
+     */
+    public void registrarRemocao(int id) {
+        Integer mes;
+        synchronized (this) {
+            mes = mesPorId.remove(id);
+        }
+        if (mes == null) {
+            T registro = buscarPorId(id);
+            if (registro == null) {
+                return;
+            }
+            mes = mesDe(registro);
+        }
+        particao(mes).registrarRemocao(id);
+    }
+
+    /**
+     * Esvazia todas as partições. O manifesto continua com as faixas de
+     * IDs, para que IDs antigos não sejam reaproveitados.
+     */
+    public void limpar() {
+        for (Particao particao : lerManifesto()) {
+            particao(particao.getMes()).salvarTodos(new ArrayList<>());
+        }
+        synchronized (this) {
+            mesPorId = new MapaInt<>();
+        }
+    }
+
+    /**
+     * Regrava todas as partições no formato configurado, compactando os
+     * journals (ver {@link RepositorioJson#regravar()}).
+     */
+    public void regravar() {
+        for (Particao particao : lerManifesto()) {
+            particao(particao.getMes()).regravar();
+        }
+    }
+
+    /**
+     * Retorna a soma dos tamanhos dos arquivos das partições e dos seus journals.
+     *
+     * @return Tamanho em bytes.
+     */
+    public long getTamanhoArquivos() {
+        long total = 0;
+        for (Particao particao : lerManifesto()) {
+            RepositorioJsonJournal<T> repo = particao(particao.getMes());
+            total += new File(repo.getCaminhoArquivo()).length() + new File(repo.getCaminhoJournal()).length();
+        }
+        return total;
+    }
+
+    /**
+     * Define o formato de todas as partições (ver {@link RepositorioJson#setFormato(FormatoArquivo)}).
+     *
+     * @param formato Formato das próximas gravações completas.
+     */
+    public synchronized void setFormato(FormatoArquivo formato) {
+        this.formato = formato;
+        particoes.values().forEach(particao -> particao.setFormato(formato));
+    }
+
+    /**
+     * Define a durabilidade das partições e do manifesto
+     * (ver {@link RepositorioJson#setDurabilidade(Durabilidade)}).
+     *
+     * @param durabilidade Nível de durabilidade das gravações.
+     */
+    public synchronized void setDurabilidade(Durabilidade durabilidade) {
+        this.durabilidade = durabilidade;
+        manifesto.setDurabilidade(durabilidade);
+        particoes.values().forEach(particao -> particao.setDurabilidade(durabilidade));
+    }
+
+    /**
+     * Define a gravação adiada das partições
+     * (ver {@link RepositorioJson#setGravacaoAdiada(GravacaoAdiada)}). O
+     * manifesto é sempre gravado na hora, antes dos registros.
+     *
+     * @param gravacaoAdiada Executor das gravações, ou {@code null}.
+     */
+    public synchronized void setGravacaoAdiada(GravacaoAdiada gravacaoAdiada) {
+        this.gravacaoAdiada = gravacaoAdiada;
+        particoes.values().forEach(particao -> particao.setGravacaoAdiada(gravacaoAdiada));
+    }
+
+    /**
+     * Ativa ou desativa o cache de leitura de todas as partições.
+     *
+     * @param ativo {@code true} para reaproveitar as leituras.
+     */
+    public synchronized void setCacheAtivo(boolean ativo) {
+        this.cacheAtivo = ativo;
+        particoes.values().forEach(particao -> particao.setCacheAtivo(ativo));
+    }
+
+    /**
+     * Retorna o caminho absoluto do manifesto.
+     *
+     * @return Caminho do arquivo {@code <nomeBase>.particoes.json}.
+     */
+    public String getCaminhoManifesto() {
+        return manifesto.getCaminhoArquivo();
+    }
+
+    /**
+     * Retorna a partição do mês, criando o repositório na primeira vez.
+     */
+    private synchronized RepositorioJsonJournal<T> particao(int mes) {
+        RepositorioJsonJournal<T> particao = particoes.get(mes);
+        if (particao == null) {
+            particao = new RepositorioJsonJournal<>(tipo, nomeBase + "-" + nomeDoMes(mes) + ".json", extratorId);
+            particao.setFormato(formato);
+            particao.setDurabilidade(durabilidade);
+            particao.setGravacaoAdiada(gravacaoAdiada);
+            particao.setCacheAtivo(cacheAtivo);
+            particao.setNomeMetricas("repositorio." + nomeBase);
+            particoes.put(mes, particao);
+        }
+        return particao;
+    }
+
+    private List<Particao> lerManifesto() {
+        migrarSeNecessario();
+        List<Particao> lidas = manifesto.buscarTodos();
+        lidas.sort(Comparator.comparingInt(Particao::getMes));
+        return lidas;
+    }
+
+    private void registrarFaixa(int mes, int id) {
+        Map<Integer, int[]> faixa = new HashMap<>();
+        faixa.put(mes, new int[]{id, id});
+        gravarFaixas(faixa, BLOCO_IDS - 1);
+    }
+
+    private void registrarFaixas(Map<Integer, List<T>> porMes) {
+        Map<Integer, int[]> faixas = new HashMap<>();
+        porMes.forEach((mes, registros) -> {
+            for (T registro : registros) {
+                int id = extratorId.applyAsInt(registro);
+                int[] faixa = faixas.computeIfAbsent(mes, m -> new int[]{id, id});
+                faixa[0] = Math.min(faixa[0], id);
+                faixa[1] = Math.max(faixa[1], id);
+            }
+        });
+        gravarFaixas(faixas, 0);
+    }
+
+    /**
+     * Alarga as faixas do manifesto (criando as partições que faltam) com a
+     * trava exclusiva do manifesto. Não grava nada se o manifesto já cobre
+     * todas as faixas, o caso comum dentro de um bloco reservado.
+     *
+     * @param faixas  Menor e maior ID a cobrir, por mês.
+     * @param reserva IDs reservados além do maior de cada faixa ao alargá-la.
+     */
+    private void gravarFaixas(Map<Integer, int[]> faixas, int reserva) {
+        if (faixas.isEmpty() || cobre(manifesto.buscarTodos(), faixas)) {
+            return;
+        }
+        manifesto.executarComTrava(() -> {
+            List<Particao> atuais = manifesto.buscarTodos();
+            if (cobre(atuais, faixas)) {
+                return null;
+            }
+            Map<Integer, Particao> porMes = new TreeMap<>();
+            for (Particao particao : atuais) {
+                porMes.put(particao.getMes(), particao);
+            }
+            faixas.forEach((mes, faixa) -> {
+                Particao atual = porMes.get(mes);
+                int maior = faixa[1] + reserva;
+                porMes.put(mes, atual == null
+                        ? new Particao(mes, nomeBase + "-" + nomeDoMes(mes) + ".json", faixa[0], maior)
+                        : new Particao(mes, atual.getArquivo(), Math.min(atual.getMenorId(), faixa[0]),
+                        Math.max(atual.getMaiorId(), maior)));
+            });
+            List<Particao> novas = new ArrayList<>(porMes.values());
+            manifesto.salvarTodos(novas);
+            synchronized (this) {
+                // só passa a conhecer a nova faixa quem já conhecia todas as anteriores
+                if (maiorIdConhecido >= maiorId(atuais)) {
+                    maiorIdConhecido = maiorId(novas);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static boolean cobre(List<Particao> particoes, Map<Integer, int[]> faixas) {
+        for (Map.Entry<Integer, int[]> entrada : faixas.entrySet()) {
+            boolean coberta = false;
+            for (Particao particao : particoes) {
+                if (particao.getMes() == entrada.getKey()) {
+                    coberta = particao.contemId(entrada.getValue()[0]) && particao.contemId(entrada.getValue()[1]);
+                    break;
+                }
+            }
+            if (!coberta) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<Integer, List<T>> agrupar(List<T> registros) {
+        Map<Integer, List<T>> porMes = new TreeMap<>();
+        for (T registro : registros) {
+            porMes.computeIfAbsent(mesDe(registro), mes -> new ArrayList<>()).add(registro);
+        }
+        return porMes;
+    }
+
+    private List<T> mesclar(List<T> base, List<T> novos) {
+        Map<Integer, T> porId = new LinkedHashMap<>();
+        for (T registro : base) {
+            porId.put(extratorId.applyAsInt(registro), registro);
+        }
+        for (T registro : novos) {
+            porId.put(extratorId.applyAsInt(registro), registro);
+        }
+        return new ArrayList<>(porId.values());
+    }
+
+    /**
+     * Indica se o mês tem algum dia dentro do período. A partição sem data
+     * só entra em períodos sem limites.
+     */
+    private static boolean sobrepoe(int mes, DataHora.Periodo periodo) {
+        if (periodo == null || (periodo.inicio() == Integer.MIN_VALUE && periodo.fim() == Integer.MAX_VALUE)) {
+            return true;
+        }
+        if (mes == SEM_MES) {
+            return false;
+        }
+        LocalDate inicio = LocalDate.of(Math.floorDiv(mes, 12), Math.floorMod(mes, 12) + 1, 1);
+        long primeiroMinuto = inicio.toEpochDay() * DataHora.MINUTOS_POR_DIA;
+        long fimMinuto = inicio.plusMonths(1).toEpochDay() * DataHora.MINUTOS_POR_DIA;
+        return primeiroMinuto < periodo.fim() && fimMinuto > periodo.inicio();
+    }
+
+    /**
+     * Divide o arquivo único do formato anterior em partições mensais, uma
+     * única vez e com a trava exclusiva dele, para que dois terminais
+     * abertos ao mesmo tempo não dividam o arquivo duas vezes.
+     */
+    private synchronized void migrarSeNecessario() {
+        if (migracaoConferida) {
+            return;
+        }
+        migracaoConferida = true;
+        RepositorioJsonJournal<T> legado = new RepositorioJsonJournal<>(tipo, nomeBase + ".json", extratorId);
+        File arquivoLegado = new File(legado.getCaminhoArquivo());
+        File journalLegado = new File(legado.getCaminhoJournal());
+        if (!arquivoLegado.exists() && !journalLegado.exists()) {
+            return;
+        }
+        legado.executarComTrava(() -> {
+            if (new File(manifesto.getCaminhoArquivo()).exists()) {
+                return null; // outro terminal já dividiu o arquivo
+            }
+            Map<Integer, List<T>> porMes = agrupar(legado.buscarTodos());
+            // o manifesto só é gravado depois das partições: sem ele, uma
+            // queda no meio repete a divisão na próxima abertura
+            for (Map.Entry<Integer, List<T>> entrada : porMes.entrySet()) {
+                RepositorioJsonJournal<T> particao = particao(entrada.getKey());
+                particao.salvarSeVersao(entrada.getValue(), particao.getVersao());
+            }
+            registrarFaixas(porMes);
+            renomearLegado(arquivoLegado);
+            renomearLegado(journalLegado);
+            LOG.info("Arquivo " + arquivoLegado.getName() + " dividido em " + porMes.size()
+                    + " partições mensais.");
+            return null;
+        });
+    }
+
+    private static void renomearLegado(File arquivo) {
+        if (!arquivo.exists()) {
+            return;
+        }
+        File destino = new File(arquivo.getParentFile(), arquivo.getName() + EXTENSAO_SEM_PARTICOES);
+        if (destino.exists() || !arquivo.renameTo(destino)) {
+            LOG.aviso("Não foi possível renomear " + arquivo.getName() + " para " + destino.getName());
+        }
+    }
+}
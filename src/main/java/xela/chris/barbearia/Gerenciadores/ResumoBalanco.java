@@ -0,0 +1,256 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.negocio.Dinheiro;
+
+/**
+ * Totais consolidados do balanço: faturamento de serviços e de produtos,
+ * quantidades de agendamentos e de vendas, e o faturamento de serviços
+ * separado por funcionário e por serviço.
+ *
+ * <p>
+ * Os valores são acumulados em centavos ({@link Dinheiro}), de modo que a
+ * soma de muitos dias não acumula erro de arredondamento.
+ * </p>
+ *
+ * <p>
+ * O {@link IndiceBalanco} mantém um resumo por dia e responde consultas de
+ * período somando os resumos dos dias envolvidos em um resumo novo.
+ * </p>
+ */
+public class ResumoBalanco {
+
+    /** Valor e quantidade acumulados para um funcionário ou serviço. */
+    private static final class Parcial {
+        long valor;
+        int quantidade;
+    }
+
+    private long totalServicos;
+    private long totalProdutos;
+    private int quantidadeAgendamentos;
+    private int quantidadeVendas;
+    private final MapaInt<Parcial> porFuncionario = new MapaInt<>();
+    private final MapaInt<Parcial> porServico = new MapaInt<>();
+
+    /**
+     * Acumula a contribuição de um agendamento. Com {@code sinal} negativo,
+     * desfaz uma contribuição acumulada antes.
+     */
+    void somarAgendamento(int idFuncionario, int[] idsServicos, long[] precos, int sinal) {
+        quantidadeAgendamentos += sinal;
+        long total = 0;
+        for (int i = 0; i < idsServicos.length; i++) {
+            total += precos[i];
+            somarParcial(porServico, idsServicos[i], precos[i], sinal);
+        }
+        totalServicos += sinal * total;
+        somarParcial(porFuncionario, idFuncionario, total, sinal);
+    }
+
+    /**
+     * Acumula o valor de uma venda. Com {@code sinal} negativo, desfaz uma
+     * venda acumulada antes.
+     */
+    void somarVenda(long valor, int sinal) {
+        quantidadeVendas += sinal;
+        totalProdutos += sinal * valor;
+    }
+
+    /**
+     * Acumula neste resumo todos os totais de outro resumo.
+     */
+    void somar(ResumoBalanco outro) {
+        totalServicos += outro.totalServicos;
+        totalProdutos += outro.totalProdutos;
+        quantidadeAgendamentos += outro.quantidadeAgendamentos;
+        quantidadeVendas += outro.quantidadeVendas;
+        somarParciais(porFuncionario, outro.porFuncionario);
+        somarParciais(porServico, outro.porServico);
+    }
+
+    boolean vazio() {
+        return quantidadeAgendamentos == 0 && quantidadeVendas == 0;
+    }
+
+    /**
+     * Retorna o faturamento com serviços.
+     *
+     * @return Soma dos preços dos serviços dos agendamentos.
+     */
+    public double getTotalServicos() {
+        return Dinheiro.paraReais(totalServicos);
+    }
+
+    /**
+     * Retorna o faturamento com serviços em centavos.
+     *
+     * @return Soma dos preços dos serviços, em centavos.
+     */
+    public long getTotalServicosCentavos() {
+        return totalServicos;
+    }
+
+    /**
+     * Retorna o faturamento com produtos.
+     *
+     * @return Soma do valor total das vendas.
+     */
+    public double getTotalProdutos() {
+        return Dinheiro.paraReais(totalProdutos);
+    }
+
+    /**
+     * Retorna o faturamento com produtos em centavos.
+     *
+     * @return Soma do valor total das vendas, em centavos.
+     */
+    public long getTotalProdutosCentavos() {
+        return totalProdutos;
+    }
+
+    /**
+     * Retorna o faturamento total (serviços + produtos).
+     *
+     * @return Total geral.
+     */
+    public double getTotalGeral() {
+        return Dinheiro.paraReais(getTotalGeralCentavos());
+    }
+
+    /**
+     * Retorna o faturamento total em centavos.
+     *
+     * @return Total geral em centavos.
+     */
+    public long getTotalGeralCentavos() {
+        return totalServicos + totalProdutos;
+    }
+
+    /**
+     * Retorna a quantidade de agendamentos considerados.
+     *
+     * @return Número de agendamentos.
+     */
+    public int getQuantidadeAgendamentos() {
+        return quantidadeAgendamentos;
+    }
+
+    /**
+     * Retorna a quantidade de vendas consideradas.
+     *
+     * @return Número de vendas.
+     */
+    public int getQuantidadeVendas() {
+        return quantidadeVendas;
+    }
+
+    /**
+     * Retorna os IDs dos funcionários com agendamentos no resumo,
+     * na ordem em que apareceram.
+     *
+     * @return IDs dos funcionários.
+     */
+    public int[] getIdsFuncionarios() {
+        return porFuncionario.chaves();
+    }
+
+    /**
+     * Retorna o faturamento com serviços de um funcionário.
+     *
+     * @param idFuncionario ID do funcionário.
+     * @return Total dos serviços prestados pelo funcionário.
+     */
+    public double getTotalPorFuncionario(int idFuncionario) {
+        return Dinheiro.paraReais(getTotalPorFuncionarioCentavos(idFuncionario));
+    }
+
+    /**
+     * Retorna o faturamento com serviços de um funcionário em centavos.
+     *
+     * @param idFuncionario ID do funcionário.
+     * @return Total dos serviços prestados pelo funcionário, em centavos.
+     */
+    public long getTotalPorFuncionarioCentavos(int idFuncionario) {
+        Parcial parcial = porFuncionario.get(idFuncionario);
+        return parcial != null ? parcial.valor : 0;
+    }
+
+    /**
+     * Retorna quantos agendamentos um funcionário atendeu.
+     *
+     * @param idFuncionario ID do funcionário.
+     * @return Número de agendamentos do funcionário.
+     */
+    public int getAgendamentosPorFuncionario(int idFuncionario) {
+        Parcial parcial = porFuncionario.get(idFuncionario);
+        return parcial != null ? parcial.quantidade : 0;
+    }
+
+    /**
+     * Retorna os IDs dos serviços prestados no resumo, na ordem em que
+     * apareceram.
+     *
+     * @return IDs dos serviços.
+     */
+    public int[] getIdsServicos() {
+        return porServico.chaves();
+    }
+
+    /**
+     * Retorna o faturamento de um serviço.
+     *
+     * @param idServico ID do serviço.
+     * @return Total faturado com o serviço.
+     */
+    public double getTotalPorServico(int idServico) {
+        return Dinheiro.paraReais(getTotalPorServicoCentavos(idServico));
+    }
+
+    /**
+     * Retorna o faturamento de um serviço em centavos.
+     *
+     * @param idServico ID do serviço.
+     * @return Total faturado com o serviço, em centavos.
+     */
+    public long getTotalPorServicoCentavos(int idServico) {
+        Parcial parcial = porServico.get(idServico);
+        return parcial != null ? parcial.valor : 0;
+    }
+
+    /**
+     * Retorna quantas vezes um serviço foi prestado.
+     *
+     * @param idServico ID do serviço.
+     * @return Quantidade de vezes que o serviço aparece nos agendamentos.
+     */
+    public int getQuantidadePorServico(int idServico) {
+        Parcial parcial = porServico.get(idServico);
+        return parcial != null ? parcial.quantidade : 0;
+    }
+
+    private static void somarParcial(MapaInt<Parcial> mapa, int id, long valor, int sinal) {
+        Parcial parcial = mapa.get(id);
+        if (parcial == null) {
+            parcial = new Parcial();
+            mapa.put(id, parcial);
+        }
+        parcial.valor += sinal * valor;
+        parcial.quantidade += sinal;
+        if (parcial.quantidade == 0) {
+            mapa.remove(id);
+        }
+    }
+
+    private static void somarParciais(MapaInt<Parcial> destino, MapaInt<Parcial> origem) {
+        for (int id : origem.chaves()) {
+            Parcial deOrigem = origem.get(id);
+            Parcial parcial = destino.get(id);
+            if (parcial == null) {
+                parcial = new Parcial();
+                destino.put(id, parcial);
+            }
+            parcial.valor += deOrigem.valor;
+            parcial.quantidade += deOrigem.quantidade;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package xela.chris.barbearia.Gerenciadores;
+
+import xela.chris.barbearia.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trava entre processos e número de versão de um arquivo de dados.
+ *
+ * <p>
+ * Cada arquivo JSON ganha um arquivo auxiliar {@code <nomeArquivo>.versao},
+ * que guarda, em texto, quantas gravações o arquivo já recebeu. O mesmo
+ * arquivo auxiliar é travado com {@link FileChannel#lock(long, long, boolean)}:
+ * leituras usam a trava compartilhada e gravações a exclusiva, então duas
+ * instâncias da Barbearia apontando para a mesma pasta não leem um arquivo
+ * pela metade nem gravam ao mesmo tempo.
+ * </p>
+ *
+ * <p>
+ * Travas de arquivo valem para o processo inteiro, e a JVM não permite que
+ * duas travas do mesmo processo se sobreponham. Por isso existe uma única
+ * instância por arquivo (ver {@link #para(File)}), compartilhada por todos os
+ * repositórios que usam o arquivo, com uma {@link ReentrantReadWriteLock}
+ * que ordena as threads antes de a trava do arquivo ser pedida. As duas
+ * travas são reentrantes; uma thread com a trava de escrita pode ler, mas
+ * uma thread com a trava de leitura não pode pedir a de escrita.
+ * </p>
+ *
+ * <p>
+ * A instância também guarda qual repositório tem uma gravação completa
+ * adiada para o arquivo ({@link GravacaoAdiada}). Há no máximo uma por
+ * arquivo: quem lê ou grava o arquivo grava a pendente antes, então nenhum
+ * repositório desta JVM lê um conteúdo mais antigo do que o já salvo.
+ * </p>
+ *
+ * <p>
+ * Se o arquivo auxiliar não puder ser aberto, o erro é exibido e apenas a
+ * trava entre threads continua valendo.
+ * </p>
+ */
+final class TravaArquivo {
+
+    private static final Log LOG = Log.de(TravaArquivo.class);
+
+    private static final Map<String, TravaArquivo> TRAVAS = new ConcurrentHashMap<>();
+
+    private final File arquivoVersao;
+    private final ReentrantReadWriteLock travaLocal = new ReentrantReadWriteLock();
+
+    private FileChannel canal;
+    private FileLock travaDoArquivo;
+
+    /** Threads desta JVM que estão usando a trava compartilhada do arquivo. */
+    private int leitores;
+
+    /** Repositório com uma gravação completa adiada para este arquivo, ou {@code null}. */
+    private final AtomicReference<RepositorioJson<?>> adiado = new AtomicReference<>();
+
+    private TravaArquivo(File arquivoVersao) {
+        this.arquivoVersao = arquivoVersao;
+    }
+
+    /**
+     * Retorna a trava do arquivo de dados, criando-a no primeiro uso.
+     *
+     * @param arquivoDados Arquivo JSON protegido.
+     * @return A instância compartilhada para esse arquivo.
+     */
+    static TravaArquivo para(File arquivoDados) {
+        File versao = new File(arquivoDados.getParentFile(), arquivoDados.getName() + ".versao");
+        String chave = versao.toPath().toAbsolutePath().normalize().toString();
+        return TRAVAS.computeIfAbsent(chave, c -> new TravaArquivo(versao));
+    }
+
+    /**
+     * Obtém a trava de leitura, esperando gravações de outras threads ou processos.
+     */
+    void travarLeitura() {
+        travaLocal.readLock().lock();
+        if (travaLocal.isWriteLockedByCurrentThread()) {
+            return;
+        }
+        synchronized (this) {
+            if (leitores++ == 0) {
+                travaDoArquivo = travarArquivo(true);
+            }
+        }
+    }
+
+    /**
+     * Libera a trava obtida com {@link #travarLeitura()}.
+     */
+    void liberarLeitura() {
+        if (!travaLocal.isWriteLockedByCurrentThread()) {
+            synchronized (this) {
+                if (--leitores == 0) {
+                    liberarArquivo();
+                }
+            }
+        }
+        travaLocal.readLock().unlock();
+    }
+
+    /**
+     * Obtém a trava de escrita, exclusiva entre threads e entre processos.
+     */
+    void travarEscrita() {
+        travaLocal.writeLock().lock();
+        if (travaLocal.getWriteHoldCount() == 1) {
+            travaDoArquivo = travarArquivo(false);
+        }
+    }
+
+    /**
+     * Libera a trava obtida com {@link #travarEscrita()}.
+     */
+    void liberarEscrita() {
+        if (travaLocal.getWriteHoldCount() == 1) {
+            liberarArquivo();
+        }
+        travaLocal.writeLock().unlock();
+    }
+
+    /**
+     * Lê a versão atual do arquivo. Deve ser chamado com uma das travas.
+     *
+     * @return Número de gravações registradas; {@code 0} se ainda não houver nenhuma.
+     */
+    long lerVersao() {
+        FileChannel aberto = canal();
+        if (aberto == null) {
+            return 0;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            int lidos = aberto.read(buffer, 0);
+            if (lidos <= 0) {
+                return 0;
+            }
+            String texto = new String(buffer.array(), 0, lidos, StandardCharsets.US_ASCII).trim();
+            return texto.isEmpty() ? 0 : Long.parseLong(texto);
+        } catch (IOException | NumberFormatException e) {
+            LOG.erro("Falha ao ler a versão de " + arquivoVersao.getName() + ": " + e);
+            return 0;
+        }
+    }
+
+    /**
+     * Registra mais uma gravação do arquivo. Deve ser chamado com a trava de escrita.
+     *
+     * @return A nova versão.
+     */
+    long avancarVersao() {
+        long versao = lerVersao() + 1;
+        FileChannel aberto = canal();
+        if (aberto == null) {
+            return versao;
+        }
+        try {
+            aberto.truncate(0);
+            aberto.write(ByteBuffer.wrap((versao + "\n").getBytes(StandardCharsets.US_ASCII)), 0);
+        } catch (IOException e) {
+            LOG.erro("Falha ao gravar a versão de " + arquivoVersao.getName() + ": " + e);
+        }
+        return versao;
+    }
+
+    /**
+     * Registra o repositório como dono da gravação adiada do arquivo.
+     *
+     * @param repositorio Repositório com a lista pendente.
+     * @return O repositório que tinha a gravação adiada antes, ou {@code null}.
+     */
+    RepositorioJson<?> marcarAdiado(RepositorioJson<?> repositorio) {
+        return adiado.getAndSet(repositorio);
+    }
+
+    /**
+     * Retira o registro de gravação adiada, se ainda for do repositório.
+     *
+     * @param repositorio Repositório que acabou de pegar a lista pendente.
+     */
+    void desmarcarAdiado(RepositorioJson<?> repositorio) {
+        adiado.compareAndSet(repositorio, null);
+    }
+
+    /**
+     * Grava a gravação adiada do arquivo, se houver. Não faz nada se a
+     * thread estiver só com a trava de leitura, que não pode virar de
+     * escrita; nesse caso a leitura vê o arquivo como está.
+     */
+    void gravarAdiado() {
+        RepositorioJson<?> repositorio = adiado.get();
+        if (repositorio == null
+                || (travaLocal.getReadHoldCount() > 0 && !travaLocal.isWriteLockedByCurrentThread())) {
+            return;
+        }
+        repositorio.gravarPendente();
+    }
+
+    private FileLock travarArquivo(boolean compartilhada) {
+        FileChannel aberto = canal();
+        if (aberto == null) {
+            return null;
+        }
+        try {
+            return aberto.lock(0, Long.MAX_VALUE, compartilhada);
+        } catch (IOException e) {
+            LOG.erro("Falha ao travar " + arquivoVersao.getName() + ": " + e);
+            return null;
+        }
+    }
+
+    private void liberarArquivo() {
+        if (travaDoArquivo == null) {
+            return;
+        }
+        try {
+            travaDoArquivo.release();
+        } catch (IOException e) {
+            LOG.erro("Falha ao liberar a trava de " + arquivoVersao.getName() + ": " + e);
+        }
+        travaDoArquivo = null;
+    }
+
+    private synchronized FileChannel canal() {
+        if (canal == null || !canal.isOpen()) {
+            try {
+                canal = FileChannel.open(arquivoVersao.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                LOG.erro("Falha ao abrir " + arquivoVersao.getName() + ": " + e);
+                canal = null;
+            }
+        }
+        return canal;
+    }
+}
@@ -0,0 +1,405 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.models.Cliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.NotaFiscal;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.models.VinculoVendaNota;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Gera uma base de dados sintética, com o tamanho pedido, para medições de
+ * desempenho (benchmarks em {@code src/jmh/java}) e testes de carga
+ * ({@link SimuladorCarga}).
+ *
+ * <p>
+ * A mesma semente e o mesmo dia final geram sempre os mesmos registros,
+ * então duas medições com os mesmos parâmetros usam dados idênticos.
+ * Os registros já saem no formato atual (referências por ID) e com IDs
+ * sequenciais a partir de 1.
+ * </p>
+ *
+ * <p>
+ * {@link #gravarBase(int, int, int)} grava os arquivos usados pelos
+ * gerenciadores na pasta de dados relativa à pasta de trabalho
+ * ({@code src/main/java/xela/chris/barbearia/jsons}), apagando o que houver
+ * nela. Para não destruir dados reais, a pasta só é apagada se estiver vazia
+ * ou se tiver sido criada por este gerador (arquivo {@value #MARCADOR});
+ * rode-o em uma pasta de trabalho separada.
+ * </p>
+ *
+ * Uso: {@code GeradorDadosSinteticos [clientes] [agendamentos] [vendas] [semente] [dia final dd/MM/yyyy]}.
+ */
+public class GeradorDadosSinteticos {
+
+    /** Arquivo que identifica uma pasta de dados criada pelo gerador. */
+    public static final String MARCADOR = ".dados-sinteticos";
+
+    /** Horários de atendimento: das 08:00 às 20:00, de meia em meia hora. */
+    public static final int ABERTURA = 8 * 60;
+    public static final int FECHAMENTO = 20 * 60;
+    public static final int INTERVALO = 30;
+
+    /** Funcionários gerados por {@link #gravarBase(int, int, int)}. */
+    public static final int FUNCIONARIOS = 4;
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Diego", "Elisa", "Felipe", "Gabriela",
+            "Heitor", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael"};
+    private static final String[] SOBRENOMES = {"Almeida", "Barbosa", "Costa", "Dias", "Ferreira", "Gomes",
+            "Lima", "Martins", "Oliveira", "Pereira", "Rocha", "Santos", "Souza", "Teixeira"};
+
+    private final Random aleatorio;
+
+    /**
+     * Cria o gerador.
+     *
+     * @param semente Semente dos números aleatórios.
+     */
+    public GeradorDadosSinteticos(long semente) {
+        this.aleatorio = new Random(semente);
+    }
+
+    /**
+     * Gera clientes com IDs de 1 a {@code quantidade}, nomes aleatórios e
+     * CPFs distintos.
+     *
+     * @param quantidade Número de clientes.
+     * @return Lista de clientes.
+     */
+    public List<Cliente> gerarClientes(int quantidade) {
+        List<Cliente> clientes = new ArrayList<>(quantidade);
+        for (int id = 1; id <= quantidade; id++) {
+            Cliente cliente = new Cliente(nome(), cpf(id), telefone(), StatusAtendimentoCliente.AGENDADO);
+            cliente.setId(id);
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+
+    /**
+     * Gera funcionários com IDs de 1 a {@code quantidade}. O primeiro é
+     * administrador ("admin"/"admin"); os demais são barbeiros.
+     *
+     * @param quantidade Número de funcionários.
+     * @return Lista de funcionários.
+     */
+    public List<Funcionario> gerarFuncionarios(int quantidade) {
+        List<Funcionario> funcionarios = new ArrayList<>(quantidade);
+        for (int id = 1; id <= quantidade; id++) {
+            String cargo = id == 1 ? "administrador" : "barbeiro";
+            String usuario = id == 1 ? "admin" : "barbeiro" + id;
+            Funcionario funcionario = new Funcionario(nome(), cpf(1_000_000 + id), telefone(), cargo, usuario, usuario);
+            funcionario.setId(id);
+            funcionarios.add(funcionario);
+        }
+        return funcionarios;
+    }
+
+    /**
+     * Gera o catálogo fixo de serviços (o último usa a cadeira de lavagem).
+     *
+     * @return Lista de serviços, com IDs a partir de 1.
+     */
+    public List<Servico> gerarServicos() {
+        List<Servico> servicos = new ArrayList<>();
+        servicos.add(new Servico("Corte", 35.0, false, "Corte simples"));
+        servicos.add(new Servico("Barba", 25.0, false, "Barba com toalha quente"));
+        servicos.add(new Servico("Corte e barba", 55.0, false, "Corte e barba"));
+        servicos.add(new Servico("Pigmentação", 40.0, false, "Pigmentação da barba"));
+        servicos.add(new Servico("Lavagem e hidratação", 45.0, true, "Lavagem com hidratação"));
+        for (int i = 0; i < servicos.size(); i++) {
+            servicos.get(i).setId(i + 1);
+        }
+        return servicos;
+    }
+
+    /**
+     * Gera produtos com estoque alto o bastante para as vendas geradas.
+     *
+     * @param quantidade Número de produtos.
+     * @return Lista de produtos, com IDs a partir de 1.
+     */
+    public List<Produto> gerarProdutos(int quantidade) {
+        List<Produto> produtos = new ArrayList<>(quantidade);
+        for (int id = 1; id <= quantidade; id++) {
+            Produto produto = new Produto("Produto " + id, 10 + aleatorio.nextInt(90), 1_000_000);
+            produto.setId(id);
+            produtos.add(produto);
+        }
+        return produtos;
+    }
+
+    /**
+     * Gera agendamentos em horários consecutivos a partir de {@code inicio}:
+     * em cada horário de atendimento, um agendamento por funcionário, sem
+     * sobreposição de funcionário. Cliente e serviço são sorteados.
+     *
+     * @param quantidade   Número de agendamentos.
+     * @param inicio       Primeiro dia.
+     * @param clientes     Número de clientes (IDs de 1 a {@code clientes}).
+     * @param funcionarios Número de funcionários (IDs de 1 a {@code funcionarios}).
+     * @param servicos     Serviços a sortear.
+     * @return Lista de agendamentos, com IDs a partir de 1, em ordem de data.
+     */
+    public List<Agendamento> gerarAgendamentos(int quantidade, LocalDate inicio, int clientes, int funcionarios,
+                                              List<Servico> servicos) {
+        List<Agendamento> agendamentos = new ArrayList<>(quantidade);
+        int primeiroMinuto = DataHora.paraMinutos(inicio.format(FORMATO_DATA) + " 00:00");
+        for (int id = 1; id <= quantidade; id++) {
+            int horario = (id - 1) / funcionarios;
+            int funcionario = (id - 1) % funcionarios + 1;
+            Servico servico = servicos.get(aleatorio.nextInt(servicos.size()));
+
+            Agendamento agendamento = new Agendamento();
+            agendamento.setId(id);
+            agendamento.setDataHora(DataHora.formatar(primeiroMinuto + minutoDoHorario(horario)));
+            agendamento.setClienteId(1 + aleatorio.nextInt(clientes));
+            agendamento.setFuncionarioId(funcionario);
+            agendamento.setServicos(List.of(servico));
+            agendamento.setIdCadeira(servico.isUtilizaLavagemSecagem() ? 1 : 2 + funcionario % 2);
+            agendamento.setStatusCliente(StatusAtendimentoCliente.AGENDADO);
+            agendamentos.add(agendamento);
+        }
+        return agendamentos;
+    }
+
+    /**
+     * Gera vendas distribuídas ao acaso entre {@code inicio} e
+     * {@code inicio + dias - 1}.
+     *
+     * @param quantidade Número de vendas.
+     * @param inicio     Primeiro dia.
+     * @param dias       Número de dias cobertos.
+     * @param clientes   Clientes a sortear.
+     * @param produtos   Produtos a sortear.
+     * @return Lista de vendas, com IDs a partir de 1.
+     */
+    public List<Venda> gerarVendas(int quantidade, LocalDate inicio, int dias, List<Cliente> clientes,
+                                   List<Produto> produtos) {
+        List<Venda> vendas = new ArrayList<>(quantidade);
+        for (int id = 1; id <= quantidade; id++) {
+            Produto produto = produtos.get(aleatorio.nextInt(produtos.size()));
+            Cliente cliente = clientes.get(aleatorio.nextInt(clientes.size()));
+            String data = inicio.plusDays(aleatorio.nextInt(Math.max(1, dias))).format(FORMATO_DATA);
+            Venda venda = new Venda(produto, cliente, 1 + aleatorio.nextInt(3), data);
+            venda.setId(id);
+            vendas.add(venda);
+        }
+        return vendas;
+    }
+
+    /**
+     * Gera uma nota fiscal para cada agendamento atendido, emitida no
+     * horário do agendamento, com as vendas do mesmo cliente no mesmo dia
+     * (cada venda entra em uma única nota).
+     *
+     * @param atendidos Agendamentos atendidos, com os serviços preenchidos.
+     * @param vendas    Vendas que podem entrar nas notas.
+     * @return Lista de notas, com IDs a partir de 1.
+     */
+    public List<NotaFiscal> gerarNotas(List<Agendamento> atendidos, List<Venda> vendas) {
+        Map<Long, List<Venda>> vendasPorClienteEDia = new HashMap<>();
+        for (Venda venda : vendas) {
+            vendasPorClienteEDia.computeIfAbsent(chave(venda.getClienteId(), venda.getDiaVenda()),
+                    k -> new ArrayList<>()).add(venda);
+        }
+        List<NotaFiscal> notas = new ArrayList<>(atendidos.size());
+        for (Agendamento agendamento : atendidos) {
+            List<Venda> doDia = vendasPorClienteEDia.remove(
+                    chave(agendamento.getClienteId(), DataHora.diaDoMinuto(agendamento.getMinutoDataHora())));
+            NotaFiscal nota = new NotaFiscal(agendamento, doDia != null ? doDia : new ArrayList<>());
+            nota.setId(notas.size() + 1);
+            LocalDateTime emissao = LocalDateTime.parse(agendamento.getDataHora(), FORMATO_DATA_HORA);
+            nota.setDataEmissao(Date.from(emissao.atZone(ZoneId.systemDefault()).toInstant()));
+            notas.add(nota);
+        }
+        return notas;
+    }
+
+    /**
+     * Gera e grava uma base completa terminando hoje. Ver
+     * {@link #gravarBase(int, int, int, LocalDate)}.
+     *
+     * @param clientes     Número de clientes.
+     * @param agendamentos Número de agendamentos.
+     * @param vendas       Número de vendas.
+     */
+    public void gravarBase(int clientes, int agendamentos, int vendas) {
+        gravarBase(clientes, agendamentos, vendas, LocalDate.now());
+    }
+
+    /**
+     * Gera e grava uma base completa nos arquivos dos gerenciadores:
+     * clientes, {@value #FUNCIONARIOS} funcionários, serviços, produtos,
+     * agendamentos terminando em {@code fim} (com histórico longo, a maior
+     * parte fica em meses já fechados), vendas no mesmo intervalo e uma
+     * nota fiscal para cada agendamento anterior a {@code fim}, que fica
+     * como atendido. Os agendamentos do próprio dia {@code fim} continuam
+     * agendados. As cadeiras padrão são criadas pelo {@code GerenciarCadeira}.
+     *
+     * @param clientes     Número de clientes.
+     * @param agendamentos Número de agendamentos.
+     * @param vendas       Número de vendas.
+     * @param fim          Último dia dos agendamentos.
+     */
+    public void gravarBase(int clientes, int agendamentos, int vendas, LocalDate fim) {
+        prepararPasta();
+        int dias = diasDaBase(agendamentos);
+        LocalDate inicio = fim.minusDays(dias - 1);
+
+        List<Cliente> listaClientes = gerarClientes(Math.max(1, clientes));
+        List<Servico> servicos = gerarServicos();
+        List<Produto> produtos = gerarProdutos(20);
+
+        new RepositorioJson<>(Cliente.class, "clientes.json", Cliente::getId).salvarTodos(listaClientes);
+        new RepositorioJson<>(Funcionario.class, "funcionarios.json", Funcionario::getId)
+                .salvarTodos(gerarFuncionarios(FUNCIONARIOS));
+        new RepositorioJson<>(Servico.class, "servicos.json", Servico::getId).salvarTodos(servicos);
+        new RepositorioJson<>(Produto.class, "produtos.json", Produto::getId).salvarTodos(produtos);
+
+        List<Agendamento> listaAgendamentos =
+                gerarAgendamentos(agendamentos, inicio, listaClientes.size(), FUNCIONARIOS, servicos);
+        List<Venda> listaVendas = gerarVendas(vendas, inicio, dias, listaClientes, produtos);
+        int primeiroMinutoDoFim = DataHora.paraMinutos(fim.format(FORMATO_DATA) + " 00:00");
+        List<Agendamento> atendidos = new ArrayList<>();
+        for (Agendamento agendamento : listaAgendamentos) {
+            if (agendamento.getMinutoDataHora() < primeiroMinutoDoFim) {
+                agendamento.setStatusCliente(StatusAtendimentoCliente.ATENDIDO);
+                atendidos.add(agendamento);
+            }
+        }
+        List<NotaFiscal> notas = gerarNotas(atendidos, listaVendas);
+        List<VinculoVendaNota> vinculos = new ArrayList<>();
+        for (NotaFiscal nota : notas) {
+            for (int vendaId : nota.getVendaIds()) {
+                vinculos.add(new VinculoVendaNota(vendaId, nota.getId()));
+            }
+        }
+
+        GerenciarAgendamento.criarRepositorio().salvarTodos(listaAgendamentos);
+        GerenciarVenda.criarRepositorio().salvarTodos(listaVendas);
+        new RepositorioJson<>(NotaFiscal.class, "notasFiscais.json", NotaFiscal::getId).salvarTodos(notas);
+        new RepositorioJson<>(VinculoVendaNota.class, "indiceVendasNotas.json", VinculoVendaNota::getVendaId)
+                .salvarTodos(vinculos);
+    }
+
+    /**
+     * Esvazia a pasta de dados e a marca como sintética. Recusa-se a apagar
+     * uma pasta com arquivos que não tenha sido criada pelo gerador.
+     *
+     * @return A pasta de dados.
+     * @throws IllegalStateException se a pasta tiver dados que não são sintéticos.
+     */
+    public static File prepararPasta() {
+        File pasta = new File(new RepositorioJson<>(Cliente.class, MARCADOR).getCaminhoArquivo()).getParentFile();
+        File marcador = new File(pasta, MARCADOR);
+        File[] arquivos = pasta.listFiles();
+        if (arquivos != null && arquivos.length > 0 && !marcador.exists()) {
+            throw new IllegalStateException("A pasta " + pasta.getAbsolutePath() + " contém dados que não foram "
+                    + "gerados por " + GeradorDadosSinteticos.class.getSimpleName()
+                    + "; rode o gerador em outra pasta de trabalho.");
+        }
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                arquivo.delete();
+            }
+        }
+        try {
+            marcador.createNewFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return pasta;
+    }
+
+    /**
+     * Número de dias cobertos pelos agendamentos de {@link #gravarBase(int, int, int)}
+     * (o último é o dia de hoje).
+     *
+     * @param agendamentos Número de agendamentos.
+     * @return Número de dias, no mínimo 1.
+     */
+    public static int diasDaBase(int agendamentos) {
+        int porDia = horariosPorDia() * FUNCIONARIOS;
+        return Math.max(1, (agendamentos + porDia - 1) / porDia);
+    }
+
+    /**
+     * Número de horários de atendimento em um dia.
+     *
+     * @return Horários por dia.
+     */
+    public static int horariosPorDia() {
+        return (FECHAMENTO - ABERTURA) / INTERVALO;
+    }
+
+    /**
+     * Converte o número de um horário (0, 1, 2... a partir do primeiro dia)
+     * em minutos desde a meia-noite do primeiro dia.
+     *
+     * @param horario Número do horário.
+     * @return Minutos desde a meia-noite do primeiro dia.
+     */
+    public static int minutoDoHorario(int horario) {
+        int dia = horario / horariosPorDia();
+        return dia * 24 * 60 + ABERTURA + (horario % horariosPorDia()) * INTERVALO;
+    }
+
+    private String nome() {
+        return NOMES[aleatorio.nextInt(NOMES.length)] + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+    }
+
+    private String telefone() {
+        return String.format("319%08d", aleatorio.nextInt(100_000_000));
+    }
+
+    private static long chave(int clienteId, int dia) {
+        return ((long) clienteId << 32) | (dia & 0xFFFFFFFFL);
+    }
+
+    private static String cpf(int numero) {
+        return String.format("%011d", numero);
+    }
+
+    public static void main(String[] args) {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int agendamentos = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int vendas = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        long semente = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        LocalDate fim = args.length > 4 ? LocalDate.parse(args[4], FORMATO_DATA) : LocalDate.now();
+
+        long inicio = System.nanoTime();
+        try {
+            new GeradorDadosSinteticos(semente).gravarBase(clientes, agendamentos, vendas, fim);
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        System.out.printf("Base gerada (semente %d, até %s): %d clientes, %d agendamentos, %d vendas em %.0f ms%n",
+                semente, fim.format(FORMATO_DATA), clientes, agendamentos, vendas,
+                (System.nanoTime() - inicio) / 1_000_000.0);
+    }
+}
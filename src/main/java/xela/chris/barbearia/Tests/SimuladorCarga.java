@@ -0,0 +1,248 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.FacadeMediator.AgendamentoFacade;
+import xela.chris.barbearia.Gerenciadores.GerenciadorFuncionario;
+import xela.chris.barbearia.Gerenciadores.GerenciadorProduto;
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.GerenciarCadeira;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.GerenciarNotaFiscal;
+import xela.chris.barbearia.Gerenciadores.GerenciarServico;
+import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.log.DestinoArquivo;
+import xela.chris.barbearia.log.DestinoAssincrono;
+import xela.chris.barbearia.log.DestinoConsole;
+import xela.chris.barbearia.log.Log;
+import xela.chris.barbearia.log.NivelLog;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.HorarioDisponivel;
+import xela.chris.barbearia.servicos.ServicoOrdemServico;
+import xela.chris.barbearia.servicos.ServicoVenda;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulador de carga: grava uma base sintética ({@link GeradorDadosSinteticos})
+ * e repete o movimento de um dia com vários balcões de atendimento ao mesmo
+ * tempo, medindo vazão e latência.
+ *
+ * <p>
+ * Os balcões são threads que compartilham os mesmos gerenciadores, como em
+ * um único sistema com vários atendentes. Cada balcão sorteia (com semente
+ * própria) uma operação por vez:
+ * </p>
+ * <ul>
+ *     <li>agendar (50%): busca o próximo horário livre de um serviço a partir
+ *     de amanhã e agenda nele, pelo {@link AgendamentoFacade};</li>
+ *     <li>vender (30%): vende um produto pelo {@link ServicoVenda};</li>
+ *     <li>finalizar (20%): finaliza um agendamento pendente, com nota fiscal
+ *     e ordem de serviço ({@link GerenciarAgendamento#finalizarAgendamento}).
+ *     Os pendentes são os agendamentos de hoje da base e os criados durante
+ *     a simulação; sem pendentes, o balcão vende.</li>
+ * </ul>
+ *
+ * <p>
+ * Ao final, mostra por operação a quantidade, os sucessos, a vazão e os
+ * percentis 50, 90 e 99 da latência. Durante a simulação o log só registra
+ * avisos, gravados em {@code barbearia.log} por um {@link DestinoAssincrono}.
+ * </p>
+ *
+ * Uso: {@code SimuladorCarga [balcões] [operações por balcão] [clientes] [agendamentos] [vendas] [semente]}.
+ * Como o gerador, apaga a pasta de dados da pasta de trabalho; rode-o em
+ * uma pasta separada.
+ */
+public class SimuladorCarga {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String[] OPERACOES = {"Agendar", "Vender", "Finalizar"};
+    private static final int AGENDAR = 0;
+    private static final int VENDER = 1;
+    private static final int FINALIZAR = 2;
+
+    /** Latências (ns) e sucessos das operações de um balcão. */
+    private static class Medicoes {
+        final List<List<Long>> latencias = new ArrayList<>();
+        final int[] sucessos = new int[OPERACOES.length];
+
+        Medicoes() {
+            for (int i = 0; i < OPERACOES.length; i++) {
+                latencias.add(new ArrayList<>());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int balcoes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+        int clientes = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int agendamentos = args.length > 3 ? Integer.parseInt(args[3]) : 50_000;
+        int vendas = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+        long semente = args.length > 5 ? Long.parseLong(args[5]) : 42;
+
+        LocalDate hoje = LocalDate.now();
+        long inicioGeracao = System.nanoTime();
+        try {
+            new GeradorDadosSinteticos(semente).gravarBase(clientes, agendamentos, vendas, hoje);
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        System.out.println("=== SIMULAÇÃO DE CARGA ===");
+        System.out.printf("Base: %d clientes, %d agendamentos, %d vendas (semente %d), gerada em %.1f s%n",
+                clientes, agendamentos, vendas, semente, (System.nanoTime() - inicioGeracao) / 1e9);
+
+        long inicioCarga = System.nanoTime();
+        GerenciarCliente gc = new GerenciarCliente();
+        GerenciadorFuncionario gf = new GerenciadorFuncionario();
+        GerenciarServico gs = new GerenciarServico();
+        GerenciarCadeira gca = new GerenciarCadeira();
+        GerenciadorProduto gp = new GerenciadorProduto();
+        GerenciarAgendamento ga = new GerenciarAgendamento(gc, gf, gs);
+        GerenciarVenda gv = new GerenciarVenda(gp, gc);
+        GerenciarNotaFiscal gnf = new GerenciarNotaFiscal(ga, gv);
+        ServicoOrdemServico sos = new ServicoOrdemServico(ga, gv);
+        AgendamentoFacade facade = new AgendamentoFacade(gc, gf, gs, ga, gca);
+        ServicoVenda servicoVenda = new ServicoVenda(gp, gv, gc);
+        System.out.printf("Gerenciadores carregados em %.1f s%n", (System.nanoTime() - inicioCarga) / 1e9);
+
+        String diaHoje = hoje.format(FORMATO_DATA);
+        ConcurrentLinkedQueue<Integer> pendentes = new ConcurrentLinkedQueue<>();
+        for (Agendamento agendamento : ga.buscarPorPeriodo(DataHora.periodo(diaHoje))) {
+            if (agendamento.getStatusCliente() == StatusAtendimentoCliente.AGENDADO) {
+                pendentes.add(agendamento.getId());
+            }
+        }
+        String janelaInicio = hoje.plusDays(1).format(FORMATO_DATA) + " 08:00";
+        String janelaFim = hoje.plusDays(60).format(FORMATO_DATA) + " 20:00";
+
+        List<Medicoes> porBalcao = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(balcoes);
+        CountDownLatch largada = new CountDownLatch(1);
+        // Como em um servidor: só avisos, gravados em arquivo fora das threads dos balcões.
+        DestinoAssincrono destinoLog = new DestinoAssincrono(new DestinoArquivo(new File(DestinoArquivo.ARQUIVO_PADRAO)));
+        Log.configurar(NivelLog.AVISO, destinoLog);
+        for (int b = 0; b < balcoes; b++) {
+            Medicoes medicoes = new Medicoes();
+            porBalcao.add(medicoes);
+            Random aleatorio = new Random(semente * 31 + b);
+            executor.execute(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operacoes; i++) {
+                    int cliente = 1 + aleatorio.nextInt(clientes);
+                    double sorteio = aleatorio.nextDouble();
+                    Integer pendente = sorteio >= 0.8 ? pendentes.poll() : null;
+                    int operacao = pendente != null ? FINALIZAR : sorteio < 0.5 ? AGENDAR : VENDER;
+
+                    long inicio = System.nanoTime();
+                    boolean sucesso;
+                    HorarioDisponivel horario = null;
+                    if (operacao == AGENDAR) {
+                        int servico = 1 + aleatorio.nextInt(5);
+                        List<HorarioDisponivel> livres =
+                                facade.buscarProximosHorarios(servico, 0, janelaInicio, janelaFim, 1);
+                        horario = livres.isEmpty() ? null : livres.get(0);
+                        sucesso = horario != null && facade.criarAgendamento(cliente,
+                                horario.getFuncionario().getId(), servico, horario.getHorario());
+                    } else if (operacao == VENDER) {
+                        sucesso = servicoVenda.efetuarVenda(cliente, 1 + aleatorio.nextInt(20),
+                                1 + aleatorio.nextInt(3), diaHoje);
+                    } else {
+                        sucesso = ga.finalizarAgendamento(pendente, gnf, gv, sos);
+                    }
+                    medicoes.latencias.get(operacao).add(System.nanoTime() - inicio);
+                    if (sucesso) {
+                        medicoes.sucessos[operacao]++;
+                        if (operacao == AGENDAR) {
+                            Integer id = buscarCriado(ga, horario, cliente);
+                            if (id != null) {
+                                pendentes.add(id);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        long inicioSimulacao = System.nanoTime();
+        largada.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        double segundos = (System.nanoTime() - inicioSimulacao) / 1e9;
+        long avisosDescartados = destinoLog.getDescartadas();
+        Log.configurar(NivelLog.INFO, new DestinoConsole());
+        if (avisosDescartados > 0) {
+            System.out.println("Avisos descartados com o buffer do log cheio: " + avisosDescartados);
+        }
+
+        System.out.printf("Balcões: %d | Operações: %d em %.2f s | Vazão: %.1f op/s%n%n",
+                balcoes, balcoes * operacoes, segundos, balcoes * operacoes / segundos);
+        System.out.printf("%-10s %7s %8s %9s %9s %9s %9s %9s%n",
+                "Operação", "Qtde", "Sucesso", "op/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "máx (ms)");
+        List<Long> todas = new ArrayList<>();
+        int sucessosTotais = 0;
+        for (int operacao = 0; operacao < OPERACOES.length; operacao++) {
+            List<Long> latencias = new ArrayList<>();
+            int sucessos = 0;
+            for (Medicoes medicoes : porBalcao) {
+                latencias.addAll(medicoes.latencias.get(operacao));
+                sucessos += medicoes.sucessos[operacao];
+            }
+            todas.addAll(latencias);
+            sucessosTotais += sucessos;
+            imprimirLinha(OPERACOES[operacao], latencias, sucessos, segundos);
+        }
+        imprimirLinha("Total", todas, sucessosTotais, segundos);
+    }
+
+    /**
+     * Encontra o ID do agendamento recém-criado no horário, para que possa
+     * ser finalizado depois.
+     */
+    private static Integer buscarCriado(GerenciarAgendamento ga, HorarioDisponivel horario, int cliente) {
+        String dia = DataHora.formatar(horario.getMinutoInicio()).substring(0, 10);
+        for (Agendamento agendamento : ga.buscarPorPeriodo(DataHora.periodo(dia))) {
+            if (agendamento.getMinutoDataHora() == horario.getMinutoInicio()
+                    && agendamento.getFuncionarioId() == horario.getFuncionario().getId()
+                    && agendamento.getClienteId() == cliente) {
+                return agendamento.getId();
+            }
+        }
+        return null;
+    }
+
+    private static void imprimirLinha(String nome, List<Long> latencias, int sucessos, double segundos) {
+        long[] ordenadas = latencias.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(ordenadas);
+        System.out.printf("%-10s %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", nome, ordenadas.length, sucessos,
+                ordenadas.length / segundos, percentil(ordenadas, 50), percentil(ordenadas, 90),
+                percentil(ordenadas, 99), percentil(ordenadas, 100));
+    }
+
+    /** Percentil (método do posto mais próximo) em milissegundos. */
+    private static double percentil(long[] ordenadas, int p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicao = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, posicao)] / 1_000_000.0;
+    }
+}
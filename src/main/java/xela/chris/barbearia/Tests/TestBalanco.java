@@ -1,15 +1,27 @@
 package xela.chris.barbearia.Tests;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import xela.chris.barbearia.Gerenciadores.GerenciadorBalanco;
+import xela.chris.barbearia.Gerenciadores.IndiceBalanco;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Classe de teste para o GerenciadorBalanco.
  * Carrega os dados de agendamentos e vendas e calcula os totais
- * com base em filtros de dia e mês.
+ * com base em filtros de dia e mês. Confere também, em memória, que o
+ * faturamento de um agendamento gravado usa o preço da época, mesmo depois
+ * de o preço do serviço mudar ou de o serviço ser excluído.
  */
 public class TestBalanco {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         GerenciadorBalanco gb = new GerenciadorBalanco();
 
         // 1. Teste de Balanço por Dia (Ex: "05/11/2025")
@@ -35,6 +47,29 @@ public class TestBalanco {
         System.out.println("\n=== TESTE BALANÇO POR MÊS (Serviços) (" + filtroMesServico + ") ===");
         gb.gerarBalanco(filtroMesServico);
 
+        // 5. Preço gravado no agendamento
+        Servico corte = new Servico("Corte", 40.0, false, "Teste de preço gravado");
+        Funcionario barbeiro = new Funcionario();
+        barbeiro.setId(1);
+        Agendamento original = new Agendamento("03/02/2031 10:00", null, barbeiro, List.of(corte),
+                StatusAtendimentoCliente.ATENDIDO, 1);
+        ObjectMapper mapper = new ObjectMapper();
+        Agendamento lido = mapper.readValue(mapper.writeValueAsBytes(original), Agendamento.class);
+        corte.setPreco(60.0);
+        lido.resolverReferencias(null, null, List.of(corte));
+        System.out.println("\n=== PREÇO GRAVADO NO AGENDAMENTO ===");
+        System.out.println("Serviços após o serviço subir para 60,00 (esperado 4000): " + servicosNoIndice(lido));
+        Agendamento semServico = mapper.readValue(mapper.writeValueAsBytes(original), Agendamento.class);
+        semServico.resolverReferencias(null, null, List.of());
+        System.out.println("Serviços após o serviço ser excluído (esperado 4000): " + servicosNoIndice(semServico));
+        System.out.println("Total pelo percurso em fluxo (esperado 4000): " + semServico.getTotalServicosCentavos());
+
         System.out.println("\n=== FIM DO TESTE DE BALANÇO ===");
     }
+
+    private static long servicosNoIndice(Agendamento agendamento) {
+        IndiceBalanco indice = new IndiceBalanco();
+        indice.adicionar(agendamento);
+        return indice.resumir(DataHora.periodo("02/2031")).getTotalServicosCentavos();
+    }
 }
\ No newline at end of file
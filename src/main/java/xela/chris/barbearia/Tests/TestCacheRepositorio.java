@@ -0,0 +1,99 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.Gerenciadores.RepositorioJsonJournal;
+import xela.chris.barbearia.Gerenciadores.RepositorioParticionado;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.negocio.Agendamento;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de teste para o cache de leitura do {@link RepositorioJson}.
+ * Mede leituras repetidas das partições de agendamentos (somente leitura) e
+ * confere, em um arquivo próprio ("testeCache.json"), que gravações e
+ * alterações externas do arquivo invalidam o cache e que objetos alterados
+ * sem salvar não chegam ao arquivo em regravações e compactações.
+ */
+public class TestCacheRepositorio {
+
+    public static void main(String[] args) throws IOException {
+        // 1. Leituras repetidas de um arquivo que não muda
+        RepositorioParticionado<Agendamento> repoAgendamentos = GerenciarAgendamento.criarRepositorio();
+
+        long inicio = System.nanoTime();
+        int registros = repoAgendamentos.buscarTodos().size();
+        long primeira = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            repoAgendamentos.buscarTodos();
+        }
+        long repetidas = (System.nanoTime() - inicio) / 100;
+
+        System.out.println("=== LEITURAS DAS PARTIÇÕES DE AGENDAMENTOS (" + registros + " registros) ===");
+        System.out.printf("Primeira leitura: %.3f ms%n", primeira / 1_000_000.0);
+        System.out.printf("Leitura repetida (média): %.3f ms%n", repetidas / 1_000_000.0);
+
+        // 2. Gravação pelo próprio repositório invalida o cache
+        RepositorioJson<Produto> repo = new RepositorioJson<>(Produto.class, "testeCache.json", Produto::getId);
+        List<Produto> produtos = new ArrayList<>();
+        produtos.add(new Produto("Shampoo", 14.5, 10));
+        repo.salvarTodos(produtos);
+        System.out.println("\nRegistros lidos (esperado 1): " + repo.buscarTodos().size());
+
+        produtos.add(new Produto("Pomada", 22.0, 5));
+        repo.salvarTodos(produtos);
+        System.out.println("Após salvarTodos (esperado 2): " + repo.buscarTodos().size());
+
+        // 3. Alteração externa do arquivo é detectada pelo conteúdo
+        File arquivo = new File(repo.getCaminhoArquivo());
+        try (FileWriter escritor = new FileWriter(arquivo)) {
+            escritor.write("[]");
+        }
+        System.out.println("Após alteração externa (esperado 0): " + repo.buscarTodos().size());
+
+        // 4. A lista devolvida é uma cópia: alterá-la não afeta o cache
+        repo.salvarTodos(produtos);
+        repo.buscarTodos().clear();
+        System.out.println("Após limpar a lista devolvida (esperado 2): " + repo.buscarTodos().size());
+
+        // 5. Alterações não salvas não chegam ao arquivo: regravar e compactar releem o
+        //    arquivo, e alterar() entrega uma cópia ao operador
+        List<Produto> lidos = repo.buscarTodos();
+        repo.alterar(lidos.get(0).getId(), produto -> {
+            produto.setNome("Desistiu");
+            return null;
+        });
+        System.out.println("Nome após alterar() desistir (esperado Shampoo): " + repo.buscarTodos().get(0).getNome());
+        repo.buscarTodos().get(0).setNome("Alterado sem salvar");
+        repo.buscarPorId(produtos.get(1).getId()).setNome("Alterado sem salvar");
+        repo.regravar();
+        List<Produto> relidos = repo.buscarTodos();
+        System.out.println("Nomes após alterar sem salvar e regravar (esperado Shampoo, Pomada): "
+                + relidos.get(0).getNome() + ", " + relidos.get(1).getNome());
+
+        RepositorioJsonJournal<Produto> repoJournal =
+                new RepositorioJsonJournal<>(Produto.class, "testeCacheJournal.json", Produto::getId);
+        repoJournal.salvarTodos(produtos);
+        repoJournal.registrarInsercao(new Produto("Cera", 18.0, 3));
+        repoJournal.buscarTodos().get(2).setNome("Alterado sem salvar");
+        repoJournal.compactar();
+        System.out.println("Journal após alterar sem salvar e compactar (esperado Cera): "
+                + repoJournal.buscarTodos().get(2).getNome());
+
+        arquivo.delete();
+        new File(arquivo.getPath() + ".anterior").delete();
+        new File(arquivo.getPath() + ".versao").delete();
+        File arquivoJournal = new File(repoJournal.getCaminhoArquivo());
+        for (String sufixo : new String[] {"", ".anterior", ".versao", ".journal"}) {
+            new File(arquivoJournal.getPath() + sufixo).delete();
+        }
+        System.out.println("\n=== FIM DO TESTE DO CACHE ===");
+    }
+}
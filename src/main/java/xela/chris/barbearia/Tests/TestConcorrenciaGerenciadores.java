@@ -0,0 +1,170 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GerenciadorProduto;
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
+import xela.chris.barbearia.Gerenciadores.GerenciadorFuncionario;
+import xela.chris.barbearia.Gerenciadores.GerenciarServico;
+import xela.chris.barbearia.Gerenciadores.ResumoBalanco;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.models.Cliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe de teste para o uso dos gerenciadores por vários terminais ao mesmo
+ * tempo (várias threads compartilhando as mesmas instâncias).
+ *
+ * Confere que:
+ * - de vários terminais reservando o mesmo horário, só um consegue;
+ * - vendas adicionadas em paralelo com relatórios não se perdem e os
+ *   resumos continuam batendo com a lista;
+ * - baixas de estoque simultâneas nunca vendem mais do que o estoque.
+ *
+ * O agendamento criado é removido e o estoque do produto 1 é devolvido ao
+ * final; as vendas ficam apenas em memória.
+ */
+public class TestConcorrenciaGerenciadores {
+
+    private static final int TERMINAIS = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        GerenciarCliente gc = new GerenciarCliente();
+        GerenciadorFuncionario gf = new GerenciadorFuncionario();
+        GerenciarServico gs = new GerenciarServico();
+        GerenciadorProduto gp = new GerenciadorProduto();
+        GerenciarAgendamento ga = new GerenciarAgendamento(gc, gf, gs);
+        GerenciarVenda gv = new GerenciarVenda(gp, gc);
+
+        // 1. Mesmo horário reservado por todos os terminais
+        Servico corte = new Servico("Corte", 40.0, false, "Teste de concorrência");
+        Funcionario barbeiro = new Funcionario();
+        barbeiro.setId(1);
+        AtomicInteger reservados = new AtomicInteger();
+        List<Agendamento> criados = new ArrayList<>();
+        for (int i = 0; i < TERMINAIS; i++) {
+            criados.add(new Agendamento("15/03/2040 10:00", null, barbeiro, List.of(corte),
+                    StatusAtendimentoCliente.AGENDADO, 2));
+        }
+        executar(TERMINAIS, terminal -> {
+            if (ga.reservar(criados.get(terminal), corte.getDuracaoMinutos())) {
+                reservados.incrementAndGet();
+            }
+        });
+        System.out.println("=== RESERVA DO MESMO HORÁRIO POR " + TERMINAIS + " TERMINAIS ===");
+        System.out.println("Reservas aceitas (esperado 1): " + reservados.get());
+        for (Agendamento ag : criados) {
+            if (ga.buscarReferencia(ag.getId()) == ag) {
+                ga.removerPorId(ag.getId());
+            }
+        }
+
+        // 2. Vendas em paralelo com relatórios
+        int vendasIniciais = gv.listar().size();
+        Produto produto = new Produto("Pomada teste", 12.5, 0);
+        Cliente cliente = new Cliente("Cliente teste", "000", "0", StatusAtendimentoCliente.AGENDADO);
+        int vendasPorTerminal = 2500;
+        AtomicInteger falhasLeitura = new AtomicInteger();
+        DataHora.Periodo tudo = DataHora.periodo("");
+        executar(TERMINAIS, terminal -> {
+            for (int i = 0; i < vendasPorTerminal; i++) {
+                if (terminal % 2 == 0) {
+                    gv.adicionar(new Venda(produto, cliente, 1, "15/03/2040"));
+                } else {
+                    try {
+                        ResumoBalanco resumo = gv.resumirBalanco(tudo);
+                        gv.listar().size();
+                        gv.buscarPorCliente(cliente.getId());
+                        if (resumo == null) {
+                            falhasLeitura.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        falhasLeitura.incrementAndGet();
+                    }
+                }
+            }
+        });
+        int esperadas = vendasIniciais + (TERMINAIS / 2) * vendasPorTerminal;
+        // o balanço completo também soma os meses antigos, que não ficam na lista;
+        // a comparação usa só o ano das vendas do teste
+        DataHora.Periodo ano = DataHora.periodo("2040");
+        ResumoBalanco resumo = gv.resumirBalanco(ano);
+        int doAno = 0;
+        long totalDoAno = 0;
+        for (Venda venda : gv.listar()) {
+            if (ano.contem(venda.getDiaVenda() * DataHora.MINUTOS_POR_DIA)) {
+                doAno++;
+                totalDoAno += venda.getValorTotalCentavos();
+            }
+        }
+        System.out.println("\n=== VENDAS EM PARALELO COM RELATÓRIOS ===");
+        System.out.println("Vendas na lista (esperado " + esperadas + "): " + gv.listar().size());
+        System.out.println("Vendas de 2040 no resumo (esperado " + doAno + "): " + resumo.getQuantidadeVendas());
+        System.out.println("Total do resumo igual ao da lista (esperado true): "
+                + (resumo.getTotalProdutosCentavos() == totalDoAno));
+        System.out.println("Falhas de leitura (esperado 0): " + falhasLeitura.get());
+        gv.carregar();
+
+        // 3. Baixas de estoque simultâneas
+        Produto estoque = gp.buscarPorId(1);
+        if (estoque == null) {
+            System.out.println("\nProduto 1 não encontrado; teste de estoque ignorado.");
+            return;
+        }
+        int quantidadeInicial = estoque.getQuantidade();
+        AtomicInteger vendidas = new AtomicInteger();
+        executar(TERMINAIS, terminal -> {
+            while (gp.atualizarEstoque(1, 1)) {
+                vendidas.incrementAndGet();
+            }
+        });
+        System.out.println("\n=== BAIXA DE ESTOQUE POR " + TERMINAIS + " TERMINAIS ===");
+        System.out.println("Unidades vendidas (esperado " + quantidadeInicial + "): " + vendidas.get());
+        System.out.println("Estoque final (esperado 0): " + gp.buscarPorId(1).getQuantidade());
+        gp.atualizarEstoque(1, -vendidas.get());
+        System.out.println("Estoque devolvido: " + gp.buscarPorId(1).getQuantidade());
+
+        System.out.println("\n=== FIM DO TESTE DE CONCORRÊNCIA ===");
+    }
+
+    /** Ação executada por um terminal (thread) do teste. */
+    private interface Terminal {
+        void executar(int numero);
+    }
+
+    /**
+     * Dispara a ação em {@code quantidade} threads ao mesmo tempo e espera
+     * todas terminarem.
+     */
+    private static void executar(int quantidade, Terminal acao) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            int numero = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    acao.executar(numero);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
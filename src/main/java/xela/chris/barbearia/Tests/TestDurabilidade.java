@@ -0,0 +1,113 @@
+package xela.chris.barbearia.Tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import xela.chris.barbearia.Gerenciadores.Durabilidade;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.models.Produto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de teste para as gravações à prova de quedas do {@link RepositorioJson}.
+ *
+ * Mede o tempo médio de um {@code salvarTodos} em cada {@link Durabilidade},
+ * comparado a escrever o arquivo direto no lugar (o comportamento antigo), e
+ * simula arquivos danificados:
+ * - arquivo cortado no meio da gravação: a leitura usa a geração anterior;
+ * - um byte trocado (mesmo tamanho): a soma do rodapé não confere e a
+ *   leitura também usa a geração anterior;
+ * - a gravação seguinte guarda o arquivo danificado como .corrompido.
+ *
+ * Usa apenas o arquivo "testeDurabilidade.json", apagado ao final.
+ */
+public class TestDurabilidade {
+
+    private static final int GRAVACOES = 30;
+
+    public static void main(String[] args) throws IOException {
+        RepositorioJson<Produto> repo = new RepositorioJson<>(Produto.class, "testeDurabilidade.json", Produto::getId);
+        File arquivo = new File(repo.getCaminhoArquivo());
+
+        // 1. Custo de cada nível de durabilidade
+        for (int registros : new int[]{100, 5000}) {
+            List<Produto> produtos = new ArrayList<>();
+            for (int i = 0; i < registros; i++) {
+                produtos.add(new Produto("Produto " + i, 10 + i % 50, i % 20));
+            }
+            System.out.println("=== GRAVAÇÃO DE " + registros + " PRODUTOS (média de " + GRAVACOES + ") ===");
+            ObjectMapper mapper = new ObjectMapper();
+            File direto = new File(arquivo.getParentFile(), "testeDurabilidadeDireto.json");
+            for (int rodada = 0; rodada < 2; rodada++) { // a primeira rodada só aquece a JVM
+                long inicio = System.nanoTime();
+                for (int i = 0; i < GRAVACOES; i++) {
+                    mapper.writerWithDefaultPrettyPrinter().writeValue(direto, produtos);
+                }
+                double direta = (System.nanoTime() - inicio) / 1_000_000.0 / GRAVACOES;
+
+                StringBuilder linhas = new StringBuilder();
+                for (Durabilidade nivel : Durabilidade.values()) {
+                    repo.setDurabilidade(nivel);
+                    inicio = System.nanoTime();
+                    for (int i = 0; i < GRAVACOES; i++) {
+                        repo.salvarTodos(produtos);
+                    }
+                    linhas.append(String.format("%-15s: %.3f ms%n", nivel,
+                            (System.nanoTime() - inicio) / 1_000_000.0 / GRAVACOES));
+                }
+                if (rodada == 1) {
+                    System.out.printf("Escrita direta no arquivo (antiga): %.3f ms%n", direta);
+                    System.out.print(linhas);
+                }
+            }
+            direto.delete();
+            System.out.println();
+        }
+        repo.setDurabilidade(Durabilidade.ARQUIVO);
+
+        // 2. Arquivo cortado no meio de uma gravação
+        List<Produto> geracao = new ArrayList<>();
+        geracao.add(new Produto("Shampoo", 14.5, 10));
+        geracao.add(new Produto("Pomada", 22.0, 5));
+        geracao.add(new Produto("Gel", 18.0, 7));
+        repo.salvarTodos(geracao);
+        geracao.add(new Produto("Cera", 25.0, 3));
+        repo.salvarTodos(geracao);
+
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+        System.out.println("=== ARQUIVO CORTADO ===");
+        RepositorioJson<Produto> outro = new RepositorioJson<>(Produto.class, "testeDurabilidade.json", Produto::getId);
+        System.out.println("Registros lidos (esperado 3, da geração anterior): " + outro.buscarTodos().size());
+
+        geracao.add(new Produto("Óleo", 30.0, 2));
+        outro.salvarTodos(geracao);
+        File corrompido = new File(arquivo.getPath() + ".corrompido");
+        System.out.println("Arquivo danificado guardado (esperado true): " + corrompido.exists());
+        System.out.println("Registros após nova gravação (esperado 5): " + outro.buscarTodos().size());
+
+        // 3. Um byte trocado, mesmo tamanho
+        byte[] conteudo = Files.readAllBytes(arquivo.toPath());
+        int posicao = new String(conteudo).indexOf("Shampoo");
+        conteudo[posicao] = 'X';
+        Files.write(arquivo.toPath(), conteudo);
+        System.out.println("\n=== BYTE TROCADO ===");
+        RepositorioJson<Produto> terceiro = new RepositorioJson<>(Produto.class, "testeDurabilidade.json", Produto::getId);
+        List<Produto> lidos = terceiro.buscarTodos();
+        System.out.println("Registros lidos (esperado 3, da geração anterior): " + lidos.size());
+        System.out.println("Primeiro produto (esperado Shampoo): " + lidos.get(0).getNome());
+        int[] percorridos = new int[1];
+        terceiro.percorrer(p -> percorridos[0]++);
+        System.out.println("Registros percorridos em fluxo (esperado 3): " + percorridos[0]);
+
+        for (String sufixo : new String[]{"", ".anterior", ".corrompido", ".versao", ".tmp"}) {
+            new File(arquivo.getPath() + sufixo).delete();
+        }
+        System.out.println("\n=== FIM DO TESTE DE DURABILIDADE ===");
+    }
+}
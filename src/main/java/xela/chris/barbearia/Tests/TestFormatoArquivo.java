@@ -0,0 +1,102 @@
+package xela.chris.barbearia.Tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import xela.chris.barbearia.Gerenciadores.FormatoArquivo;
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.negocio.Agendamento;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe de teste para os formatos de arquivo ({@link FormatoArquivo}).
+ *
+ * Grava os agendamentos de todas as partições mensais (somente leitura), repetidos
+ * até formar um arquivo grande, em cada formato e compara tamanho, tempo de
+ * gravação e de leitura. Confere também que:
+ * - o conteúdo lido é o mesmo nos três formatos;
+ * - um arquivo JSON continua legível depois de trocar o formato, e
+ *   regravar() o converte;
+ * - o percurso com filtro de campo encontra os mesmos registros no binário.
+ *
+ * Usa apenas o arquivo "testeFormato.json", apagado ao final.
+ */
+public class TestFormatoArquivo {
+
+    private static final int COPIAS = 20;
+    private static final int RODADAS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<Agendamento> originais = GerenciarAgendamento.criarRepositorio().buscarTodos();
+        List<Agendamento> agendamentos = new ArrayList<>();
+        for (int i = 0; i < COPIAS; i++) {
+            agendamentos.addAll(originais);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        String esperado = mapper.writeValueAsString(agendamentos);
+
+        RepositorioJson<Agendamento> repo = new RepositorioJson<>(Agendamento.class, "testeFormato.json");
+        repo.setCacheAtivo(false);
+        File arquivo = new File(repo.getCaminhoArquivo());
+
+        // 1. Tamanho e tempos de cada formato
+        System.out.println("=== " + agendamentos.size() + " AGENDAMENTOS POR FORMATO ===");
+        System.out.printf("%-14s %12s %12s %12s %10s%n", "Formato", "Tamanho (B)", "Gravação", "Leitura", "Igual");
+        FormatoArquivo[] formatos = {FormatoArquivo.JSON_FORMATADO, FormatoArquivo.JSON_COMPACTO, FormatoArquivo.BINARIO};
+        for (int rodada = 0; rodada < 2; rodada++) { // a primeira rodada só aquece a JVM
+            for (FormatoArquivo formato : formatos) {
+                repo.setFormato(formato);
+                long melhorGravacao = Long.MAX_VALUE;
+                long melhorLeitura = Long.MAX_VALUE;
+                List<Agendamento> lidos = null;
+                for (int i = 0; i < RODADAS; i++) {
+                    long inicio = System.nanoTime();
+                    repo.salvarSeVersao(agendamentos, repo.getVersao()); // grava mesmo sem mudanças
+                    melhorGravacao = Math.min(melhorGravacao, System.nanoTime() - inicio);
+                    inicio = System.nanoTime();
+                    lidos = repo.buscarTodos();
+                    melhorLeitura = Math.min(melhorLeitura, System.nanoTime() - inicio);
+                }
+                if (rodada == 1) {
+                    System.out.printf("%-14s %12d %9.2f ms %9.2f ms %10s%n", formato.getNome(), arquivo.length(),
+                            melhorGravacao / 1_000_000.0, melhorLeitura / 1_000_000.0,
+                            esperado.equals(mapper.writeValueAsString(lidos)));
+                }
+            }
+        }
+
+        // 2. Troca de formato com um arquivo já gravado
+        System.out.println("\n=== TROCA DE FORMATO ===");
+        repo.setFormato(FormatoArquivo.JSON_FORMATADO);
+        repo.salvarSeVersao(originais, repo.getVersao());
+        repo.setFormato(FormatoArquivo.BINARIO);
+        System.out.println("JSON lido com o formato binário configurado (esperado " + originais.size() + "): "
+                + repo.buscarTodos().size());
+        long tamanhoJson = arquivo.length();
+        repo.regravar();
+        byte[] inicio = Files.readAllBytes(arquivo.toPath());
+        System.out.println("Arquivo convertido por regravar() (esperado BRB1): " + new String(inicio, 0, 4)
+                + ", " + tamanhoJson + " B -> " + arquivo.length() + " B");
+        System.out.println("Conteúdo igual após converter (esperado true): "
+                + mapper.writeValueAsString(originais).equals(mapper.writeValueAsString(repo.buscarTodos())));
+
+        // 3. Percurso com filtro de campo
+        System.out.println("\n=== PERCURSO COM FILTRO ===");
+        long emAtendimento = originais.stream()
+                .filter(a -> a.getStatusCliente() != null && "EM_ATENDIMENTO".equals(a.getStatusCliente().name()))
+                .count();
+        AtomicInteger encontrados = new AtomicInteger();
+        repo.percorrer("statusCliente", "EM_ATENDIMENTO"::equals, a -> encontrados.incrementAndGet());
+        System.out.println("Agendamentos EM_ATENDIMENTO no binário (esperado " + emAtendimento + "): " + encontrados.get());
+
+        for (String sufixo : new String[]{"", ".anterior", ".versao"}) {
+            new File(arquivo.getPath() + sufixo).delete();
+        }
+        System.out.println("\n=== FIM DO TESTE DE FORMATOS ===");
+    }
+}
@@ -0,0 +1,132 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GravacaoAdiada;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.models.Produto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de teste para as gravações adiadas ({@link GravacaoAdiada}).
+ *
+ * Confere que:
+ * - vários salvarTodos seguidos viram uma só gravação;
+ * - outro repositório do mesmo arquivo lê a lista salva antes de ela ser gravada;
+ * - flush() deixa o arquivo gravado ao voltar;
+ * - um arquivo salvo sem parar é gravado dentro do atraso máximo;
+ * - salvar de novo a mesma lista não grava o arquivo.
+ *
+ * Também compara o tempo de uma sequência de salvarTodos com e sem adiamento.
+ * Usa apenas o arquivo "testeGravacaoAdiada.json", apagado ao final.
+ */
+public class TestGravacaoAdiada {
+
+    private static final int REGISTROS = 2000;
+    private static final int SALVAMENTOS = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < REGISTROS; i++) {
+            produtos.add(new Produto("Produto " + i, 10 + i % 50, i % 20));
+        }
+
+        // 1. Custo de uma sequência de salvarTodos
+        RepositorioJson<Produto> repo = new RepositorioJson<>(Produto.class, "testeGravacaoAdiada.json", Produto::getId);
+        File arquivo = new File(repo.getCaminhoArquivo());
+        GravacaoAdiada adiada = new GravacaoAdiada(200, 1000);
+        System.out.println("=== " + SALVAMENTOS + " SALVAMENTOS DE " + REGISTROS + " PRODUTOS ===");
+        for (int rodada = 0; rodada < 2; rodada++) { // a primeira rodada só aquece a JVM
+            repo.setGravacaoAdiada(null);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < SALVAMENTOS; i++) {
+                alterarUm(produtos); // uma lista igual nem seria gravada
+                repo.salvarTodos(produtos);
+            }
+            double direto = (System.nanoTime() - inicio) / 1_000_000.0;
+
+            repo.setGravacaoAdiada(adiada);
+            long gravacoesAntes = adiada.getGravacoes();
+            inicio = System.nanoTime();
+            for (int i = 0; i < SALVAMENTOS; i++) {
+                alterarUm(produtos);
+                repo.salvarTodos(produtos);
+            }
+            double chamadas = (System.nanoTime() - inicio) / 1_000_000.0;
+            adiada.flush();
+            double comFlush = (System.nanoTime() - inicio) / 1_000_000.0;
+            if (rodada == 1) {
+                System.out.printf("Gravando na hora:        %.2f ms%n", direto);
+                System.out.printf("Adiado (só as chamadas): %.2f ms%n", chamadas);
+                System.out.printf("Adiado (com o flush):    %.2f ms%n", comFlush);
+                System.out.println("Gravações feitas (esperado 1): " + (adiada.getGravacoes() - gravacoesAntes));
+            }
+        }
+
+        // 2. Leitura por outro repositório antes da gravação
+        System.out.println("\n=== LEITURA ANTES DA GRAVAÇÃO ===");
+        List<Produto> poucos = new ArrayList<>(produtos.subList(0, 3));
+        repo.salvarTodos(poucos);
+        RepositorioJson<Produto> outro = new RepositorioJson<>(Produto.class, "testeGravacaoAdiada.json", Produto::getId);
+        System.out.println("Registros lidos por outro repositório (esperado 3): " + outro.buscarTodos().size());
+
+        // 3. flush() como barreira
+        System.out.println("\n=== FLUSH ===");
+        long tamanhoAntes = arquivo.length();
+        repo.salvarTodos(produtos);
+        System.out.println("Arquivo igual antes do flush (esperado true): " + (arquivo.length() == tamanhoAntes));
+        adiada.flush();
+        System.out.println("Arquivo gravado após o flush (esperado true): " + (arquivo.length() > tamanhoAntes));
+
+        // 4. Atraso máximo com salvamentos contínuos
+        System.out.println("\n=== ATRASO MÁXIMO ===");
+        adiada.setAtrasoMaximo(300);
+        long versaoAntes = arquivoVersao(arquivo);
+        long inicio = System.currentTimeMillis();
+        while (System.currentTimeMillis() - inicio < 700) {
+            alterarUm(poucos);
+            repo.salvarTodos(poucos); // nunca fica 200 ms parado
+            Thread.sleep(50);
+        }
+        long gravadas = arquivoVersao(arquivo) - versaoAntes;
+        System.out.println("Gravações em 700 ms salvando a cada 50 ms (esperado 2): " + gravadas);
+        adiada.flush();
+
+        // 5. Lista sem alterações
+        System.out.println("\n=== SALVAMENTO SEM ALTERAÇÕES ===");
+        repo.setGravacaoAdiada(null);
+        long gravacoesAntes = repo.getGravacoes();
+        long versaoSemAlteracao = arquivoVersao(arquivo);
+        repo.salvarTodos(new ArrayList<>(poucos));
+        System.out.println("Gravações feitas (esperado 0): " + (repo.getGravacoes() - gravacoesAntes)
+                + ", versão igual (esperado true): " + (arquivoVersao(arquivo) == versaoSemAlteracao)
+                + ", evitadas: " + repo.getGravacoesEvitadas());
+        alterarUm(poucos);
+        repo.salvarTodos(poucos);
+        System.out.println("Gravações após alterar um produto (esperado 1): " + (repo.getGravacoes() - gravacoesAntes));
+
+        for (String sufixo : new String[]{"", ".anterior", ".versao"}) {
+            new File(arquivo.getPath() + sufixo).delete();
+        }
+        System.out.println("\n=== FIM DO TESTE DE GRAVAÇÃO ADIADA ===");
+    }
+
+    /** Muda a quantidade do primeiro produto, para a lista nunca ser salva igual. */
+    private static void alterarUm(List<Produto> produtos) {
+        produtos.get(0).setQuantidade(produtos.get(0).getQuantidade() + 1);
+    }
+
+    /** Lê a versão do arquivo sem passar pelo repositório (que gravaria a pendente). */
+    private static long arquivoVersao(File arquivo) {
+        try {
+            String texto = new String(Files.readAllBytes(new File(arquivo.getPath() + ".versao").toPath())).trim();
+            return texto.isEmpty() ? 0 : Long.parseLong(texto);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
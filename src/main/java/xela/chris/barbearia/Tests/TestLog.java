@@ -0,0 +1,168 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.log.DestinoAssincrono;
+import xela.chris.barbearia.log.DestinoConsole;
+import xela.chris.barbearia.log.DestinoLog;
+import xela.chris.barbearia.log.EntradaLog;
+import xela.chris.barbearia.log.Log;
+import xela.chris.barbearia.log.NivelLog;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe de teste do {@link Log}.
+ *
+ * Confere que:
+ * - mensagens abaixo do nível não chegam ao destino nem montam o texto;
+ * - o {@link DestinoAssincrono} entrega tudo, na ordem de cada thread, até o {@code flush};
+ * - com o buffer cheio as mensagens são descartadas e contadas, sem travar quem registra;
+ * - uma busca sem resultado fica em silêncio com o nível AVISO.
+ *
+ * Também compara o custo de uma mensagem com o {@code System.out}.
+ */
+public class TestLog {
+
+    /** Destino que guarda as mensagens em memória. */
+    private static class DestinoMemoria implements DestinoLog {
+        final List<EntradaLog> entradas = new ArrayList<>();
+        final CountDownLatch liberar;
+
+        DestinoMemoria(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void escrever(EntradaLog entrada) {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (entradas) {
+                entradas.add(entrada);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Log log = Log.de(TestLog.class);
+
+        // 1. Níveis
+        System.out.println("=== NÍVEIS ===");
+        DestinoMemoria memoria = new DestinoMemoria(new CountDownLatch(0));
+        Log.configurar(NivelLog.INFO, memoria);
+        AtomicInteger montagens = new AtomicInteger();
+        log.debug(() -> "detalhe " + montagens.incrementAndGet());
+        log.info("resultado");
+        log.aviso(() -> "aviso " + montagens.incrementAndGet());
+        System.out.println("Mensagens registradas (esperado 2): " + memoria.entradas.size());
+        System.out.println("Textos montados (esperado 1): " + montagens.get());
+        System.out.println("Origem (esperado TestLog): " + memoria.entradas.get(0).origem());
+
+        // 2. Destino assíncrono com várias threads
+        System.out.println("\n=== DESTINO ASSÍNCRONO ===");
+        memoria = new DestinoMemoria(new CountDownLatch(0));
+        DestinoAssincrono assincrono = new DestinoAssincrono(memoria, 1024);
+        Log.configurar(NivelLog.INFO, assincrono);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    log.info(String.valueOf(i));
+                    if (i % 100 == 0) {
+                        Thread.yield();
+                    }
+                }
+            }, "balcao-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Log.flush();
+        boolean emOrdem = true;
+        int[] ultima = new int[4];
+        Arrays.fill(ultima, -1);
+        for (EntradaLog entrada : memoria.entradas) {
+            int balcao = entrada.thread().charAt(entrada.thread().length() - 1) - '0';
+            int numero = Integer.parseInt(entrada.mensagem());
+            emOrdem &= numero == ultima[balcao] + 1;
+            ultima[balcao] = numero;
+        }
+        System.out.println("Entregues após o flush (esperado " + (2000 - assincrono.getDescartadas()) + "): "
+                + memoria.entradas.size());
+        System.out.println("Em ordem por thread (esperado true): " + (emOrdem || assincrono.getDescartadas() > 0));
+
+        // 3. Buffer cheio com um destino travado
+        System.out.println("\n=== BUFFER CHEIO ===");
+        CountDownLatch liberar = new CountDownLatch(1);
+        memoria = new DestinoMemoria(liberar);
+        assincrono = new DestinoAssincrono(memoria, 64);
+        Log.configurar(NivelLog.INFO, assincrono);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            log.info("mensagem " + i);
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        System.out.println("Registro não esperou o destino (esperado true): " + (ms < 1000));
+        System.out.println("Descartadas (esperado 936): " + assincrono.getDescartadas());
+        liberar.countDown();
+        Log.flush();
+        System.out.println("Entregues (esperado 1000 - descartadas): " + memoria.entradas.size());
+
+        // 4. Busca sem resultado em silêncio
+        System.out.println("\n=== BUSCA EM SILÊNCIO ===");
+        memoria = new DestinoMemoria(new CountDownLatch(0));
+        Log.configurar(NivelLog.AVISO, memoria);
+        GerenciarCliente gerenciarCliente = new GerenciarCliente();
+        gerenciarCliente.buscarCliente(-1);
+        System.out.println("Mensagens com AVISO (esperado 0): " + memoria.entradas.size());
+        Log.setNivel(NivelLog.INFO);
+        gerenciarCliente.buscarCliente(-1);
+        System.out.println("Mensagens com INFO (esperado 1): " + memoria.entradas.size());
+
+        // 5. Custo por mensagem
+        System.out.println("\n=== CUSTO POR MENSAGEM ===");
+        int repeticoes = 200_000;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), true));
+        inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            System.out.println("Cliente não encontrado!");
+        }
+        double nsSystemOut = (System.nanoTime() - inicio) / (double) repeticoes;
+        System.setOut(saida);
+
+        Log.configurar(NivelLog.AVISO, new DestinoConsole());
+        inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            log.info("Cliente não encontrado!");
+        }
+        double nsDesligado = (System.nanoTime() - inicio) / (double) repeticoes;
+
+        assincrono = new DestinoAssincrono(new DestinoMemoria(new CountDownLatch(0)) {
+            @Override
+            public void escrever(EntradaLog entrada) {
+            }
+        });
+        Log.configurar(NivelLog.INFO, assincrono);
+        inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            log.info("Cliente não encontrado!");
+        }
+        double nsAssincrono = (System.nanoTime() - inicio) / (double) repeticoes;
+        Log.configurar(NivelLog.INFO, new DestinoConsole());
+
+        System.out.printf("System.out (descartando a saída): %.1f ns%n", nsSystemOut);
+        System.out.printf("Log abaixo do nível: %.1f ns%n", nsDesligado);
+        System.out.printf("Log assíncrono: %.1f ns%n", nsAssincrono);
+    }
+}
@@ -0,0 +1,149 @@
+package xela.chris.barbearia.Tests;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.metricas.Contador;
+import xela.chris.barbearia.metricas.Histograma;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Classe de teste das métricas ({@link Metricas}).
+ *
+ * Confere que:
+ * - os percentis do {@link Histograma} ficam a menos de 2% dos exatos;
+ * - contadores e temporizadores não perdem registros com várias threads;
+ * - um medidor some do relatório quando o objeto medido deixa de existir;
+ * - o carregamento de um gerenciador aparece no relatório;
+ * - uma gravação e uma leitura de repositório geram eventos do JFR.
+ *
+ * Também mede o custo de um registro no temporizador.
+ */
+public class TestMetricas {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        // 1. Precisão dos percentis
+        System.out.println("=== PERCENTIS DO HISTOGRAMA ===");
+        Random aleatorio = new Random(42);
+        Histograma histograma = new Histograma();
+        long[] valores = new long[200_000];
+        for (int i = 0; i < valores.length; i++) {
+            // log-normal: muitas operações rápidas e uma cauda longa, como latências
+            valores[i] = (long) Math.exp(12 + 1.5 * aleatorio.nextGaussian());
+            histograma.registrar(valores[i]);
+        }
+        Arrays.sort(valores);
+        double maiorErro = 0;
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exato = valores[(int) Math.ceil(p / 100 * valores.length) - 1];
+            long aproximado = histograma.percentil(p);
+            double erro = Math.abs(aproximado - exato) / (double) exato;
+            maiorErro = Math.max(maiorErro, erro);
+            System.out.printf("p%-5s exato %12d | histograma %12d | erro %.2f%%%n", p, exato, aproximado, erro * 100);
+        }
+        System.out.println("Erro abaixo de 2% (esperado true): " + (maiorErro < 0.02));
+        System.out.println("Máximo exato (esperado true): " + (histograma.getMaximo() == valores[valores.length - 1]));
+
+        // 2. Registros concorrentes
+        System.out.println("\n=== REGISTROS CONCORRENTES ===");
+        Metricas metricas = new Metricas();
+        Contador contador = metricas.contador("teste.contador");
+        Temporizador temporizador = metricas.temporizador("teste.tempo");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    contador.incrementar();
+                    temporizador.registrar(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("Contador (esperado 400000): " + contador.getValor());
+        System.out.println("Medições (esperado 400000): " + temporizador.getQuantidade());
+        System.out.println("Mesma instância pelo nome (esperado true): " + (metricas.contador("teste.contador") == contador));
+
+        // 3. Medidores
+        System.out.println("\n=== MEDIDORES ===");
+        List<Integer> lista = new ArrayList<>(List.of(1, 2, 3));
+        metricas.medidor("teste.lista", lista, List::size);
+        metricas.medidor("teste.temporaria", new ArrayList<>(List.of(1)), List::size);
+        System.gc();
+        Thread.sleep(100);
+        String relatorio = metricas.relatorio();
+        System.out.println("Medidor da lista presente (esperado true): " + relatorio.contains("teste.lista"));
+        System.out.println("Medidor descartado sumiu (esperado true): " + !relatorio.contains("teste.temporaria"));
+
+        // 4. Gerenciador instrumentado
+        System.out.println("\n=== GERENCIADOR ===");
+        long antes = Metricas.padrao().temporizador("clientes.carregar").getQuantidade();
+        GerenciarCliente gerenciarCliente = new GerenciarCliente();
+        gerenciarCliente.carregar();
+        long depois = Metricas.padrao().temporizador("clientes.carregar").getQuantidade();
+        System.out.println("Carregamentos medidos (esperado 2): " + (depois - antes));
+        System.out.println(Metricas.padrao().relatorio());
+
+        // 5. Custo de um registro
+        Temporizador custo = metricas.temporizador("teste.custo");
+        int repeticoes = 5_000_000;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticoes; i++) {
+            custo.registrarDesde(custo.iniciar());
+        }
+        System.out.printf("Custo por medição: %.1f ns%n", (System.nanoTime() - inicio) / (double) repeticoes);
+
+        // 6. Eventos do JFR
+        System.out.println("\n=== EVENTOS DO JFR ===");
+        Path gravacaoJfr = Files.createTempFile("testeMetricas", ".jfr");
+        RepositorioJson<Produto> repo = new RepositorioJson<>(Produto.class, "testeMetricas.json", Produto::getId);
+        try (Recording recording = new Recording()) {
+            recording.enable("xela.chris.barbearia.GravacaoArquivo");
+            recording.enable("xela.chris.barbearia.LeituraArquivo");
+            recording.start();
+            repo.salvarTodos(List.of(new Produto("Pomada", 30, 5), new Produto("Shampoo", 25, 8)));
+            repo.invalidarCache();
+            repo.buscarTodos();
+            recording.stop();
+            recording.dump(gravacaoJfr);
+        }
+        int gravacoes = 0;
+        int leituras = 0;
+        for (RecordedEvent evento : RecordingFile.readAllEvents(gravacaoJfr)) {
+            if (!"testeMetricas.json".equals(evento.getString("arquivo"))) {
+                continue;
+            }
+            if (evento.getEventType().getName().endsWith("GravacaoArquivo")) {
+                gravacoes++;
+                System.out.println("Gravação: " + evento.getLong("bytes") + " bytes, "
+                        + evento.getInt("registros") + " registros, " + evento.getDuration().toNanos() / 1000 + " µs");
+            } else {
+                leituras++;
+                System.out.println("Leitura: " + evento.getLong("bytes") + " bytes, "
+                        + evento.getInt("registros") + " registros, " + evento.getDuration().toNanos() / 1000 + " µs");
+            }
+        }
+        System.out.println("Gravações registradas (esperado 1): " + gravacoes);
+        System.out.println("Leituras registradas (esperado 1): " + leituras);
+        Files.deleteIfExists(gravacaoJfr);
+        for (String sufixo : new String[]{"", ".anterior", ".versao"}) {
+            new File(repo.getCaminhoArquivo() + sufixo).delete();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.GerenciadorProduto;
+import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
+import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.Gerenciadores.GerenciarNotaFiscal;
+import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.models.Cliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.NotaFiscal;
+import xela.chris.barbearia.models.Produto;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.servicos.ServicoVenda;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de teste para duas instâncias da Barbearia (dois processos Java)
+ * usando a mesma pasta de dados.
+ *
+ * Confere que:
+ * - dois processos dando baixa no mesmo produto nunca vendem mais do que o
+ *   estoque gravado;
+ * - dois processos que leram os clientes ao mesmo tempo e alteraram clientes
+ *   diferentes não apagam a alteração um do outro ao salvar a lista inteira;
+ * - dois processos reservando o mesmo barbeiro e horário ao mesmo tempo não
+ *   conseguem ambos o agendamento;
+ * - dois processos gerando notas ao mesmo tempo usam IDs diferentes e
+ *   nenhuma das notas se perde;
+ * - dois processos finalizando o mesmo agendamento ao mesmo tempo não
+ *   conseguem ambos finalizá-lo;
+ * - dois processos vendendo ao mesmo tempo gravam as duas vendas, com IDs
+ *   diferentes.
+ *
+ * Os processos filhos são esta mesma classe, chamada com o nome da tarefa.
+ * O estoque do produto 1 e os telefones alterados são devolvidos ao final,
+ * e o agendamento e as vendas de teste são removidos (as notas geradas
+ * ficam no arquivo).
+ */
+public class TestMultiProcesso {
+
+    /** Horário disputado pelos filhos da tarefa {@code reserva}. */
+    private static final String HORARIO_RESERVA = "15/03/2041 10:00";
+
+    /** Data das vendas feitas pelos filhos da tarefa {@code venda}. */
+    private static final String DATA_VENDA = "16/03/2041";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            executarFilho(args);
+            return;
+        }
+
+        // 1. Baixa de estoque em dois processos
+        GerenciadorProduto gp = new GerenciadorProduto();
+        Produto produto = gp.buscarPorId(1);
+        if (produto == null) {
+            System.out.println("Produto 1 não encontrado; teste ignorado.");
+            return;
+        }
+        int estoqueInicial = produto.getQuantidade();
+        List<String> saidas = executarFilhos("estoque", "estoque");
+        int vendidas = 0;
+        for (String saida : saidas) {
+            vendidas += Integer.parseInt(saida.trim());
+        }
+        gp.carregar();
+        System.out.println("=== BAIXA DE ESTOQUE EM 2 PROCESSOS ===");
+        System.out.println("Unidades vendidas (esperado " + estoqueInicial + "): " + vendidas);
+        System.out.println("Estoque final (esperado 0): " + gp.buscarPorId(1).getQuantidade());
+        gp.atualizarEstoque(1, -vendidas);
+        System.out.println("Estoque devolvido: " + gp.buscarPorId(1).getQuantidade());
+
+        // 2. Alterações em clientes diferentes, salvas pelos dois processos
+        GerenciarCliente gc = new GerenciarCliente();
+        List<Cliente> clientes = gc.getClientes();
+        if (clientes.size() < 2) {
+            System.out.println("\nMenos de dois clientes; teste de mesclagem ignorado.");
+            return;
+        }
+        Cliente primeiro = clientes.get(0);
+        Cliente segundo = clientes.get(1);
+        String telefonePrimeiro = primeiro.getTelefone();
+        String telefoneSegundo = segundo.getTelefone();
+        new File(arquivoSinal("pronto-1")).delete();
+        new File(arquivoSinal("pronto-2")).delete();
+        executarFilhos("cliente 1 " + primeiro.getId(), "cliente 2 " + segundo.getId());
+
+        gc.carregar();
+        System.out.println("\n=== CLIENTES ALTERADOS EM 2 PROCESSOS ===");
+        System.out.println("Telefone do cliente " + primeiro.getId() + " (esperado 31999990001): "
+                + gc.buscarCliente(primeiro.getId()).getTelefone());
+        System.out.println("Telefone do cliente " + segundo.getId() + " (esperado 31999990002): "
+                + gc.buscarCliente(segundo.getId()).getTelefone());
+        gc.atualizarCliente(primeiro.getId(), null, null, telefonePrimeiro, null);
+        gc.atualizarCliente(segundo.getId(), null, null, telefoneSegundo, null);
+        gc.salvarTodosClientes();
+        new File(arquivoSinal("pronto-1")).delete();
+        new File(arquivoSinal("pronto-2")).delete();
+
+        // 3. O mesmo horário reservado por dois processos
+        saidas = executarFilhos("reserva 1", "reserva 2");
+        new File(arquivoSinal("pronto-1")).delete();
+        new File(arquivoSinal("pronto-2")).delete();
+        int reservas = 0;
+        for (String saida : saidas) {
+            if (saida.trim().equals("true")) {
+                reservas++;
+            }
+        }
+        GerenciarAgendamento ga = new GerenciarAgendamento();
+        List<Agendamento> gravados = new ArrayList<>();
+        for (Agendamento agendamento : ga.buscarPorPeriodo(DataHora.periodo(HORARIO_RESERVA.substring(0, 10)))) {
+            if (agendamento.getDataHora().equals(HORARIO_RESERVA) && agendamento.getFuncionarioId() == 1) {
+                gravados.add(agendamento);
+            }
+        }
+        System.out.println("\n=== MESMO HORÁRIO RESERVADO EM 2 PROCESSOS ===");
+        System.out.println("Reservas aceitas (esperado 1): " + reservas);
+        System.out.println("Agendamentos gravados no horário (esperado 1): " + gravados.size());
+
+        // 4. Notas geradas por dois processos
+        if (!gravados.isEmpty()) {
+            int idAgendamento = gravados.get(0).getId();
+            saidas = executarFilhos("nota 1 " + idAgendamento, "nota 2 " + idAgendamento);
+            new File(arquivoSinal("pronto-1")).delete();
+            new File(arquivoSinal("pronto-2")).delete();
+            int idPrimeira = Integer.parseInt(saidas.get(0).trim());
+            int idSegunda = Integer.parseInt(saidas.get(1).trim());
+            int encontradas = 0;
+            for (NotaFiscal nota : new GerenciarNotaFiscal().listar()) {
+                if (nota.getId() == idPrimeira || nota.getId() == idSegunda) {
+                    encontradas++;
+                }
+            }
+            System.out.println("\n=== NOTAS GERADAS EM 2 PROCESSOS ===");
+            System.out.println("IDs diferentes (esperado true): " + (idPrimeira != idSegunda));
+            System.out.println("Notas gravadas (esperado 2): " + encontradas);
+
+            saidas = executarFilhos("finalizar 1 " + idAgendamento, "finalizar 2 " + idAgendamento);
+            new File(arquivoSinal("pronto-1")).delete();
+            new File(arquivoSinal("pronto-2")).delete();
+            int finalizacoes = 0;
+            for (String saida : saidas) {
+                if (saida.trim().equals("true")) {
+                    finalizacoes++;
+                }
+            }
+            ga.carregar();
+            System.out.println("\n=== MESMO AGENDAMENTO FINALIZADO EM 2 PROCESSOS ===");
+            System.out.println("Finalizações aceitas (esperado 1): " + finalizacoes);
+            System.out.println("Status gravado (esperado ATENDIDO): "
+                    + ga.buscarPorId(idAgendamento).getStatusCliente());
+        }
+        for (Agendamento agendamento : gravados) {
+            ga.removerPorId(agendamento.getId());
+        }
+
+        // 5. Vendas feitas por dois processos
+        executarFilhos("venda 1 " + primeiro.getId(), "venda 2 " + primeiro.getId());
+        new File(arquivoSinal("pronto-1")).delete();
+        new File(arquivoSinal("pronto-2")).delete();
+        GerenciarVenda gv = new GerenciarVenda();
+        List<Integer> idsVendas = new ArrayList<>();
+        for (Venda venda : gv.listar()) {
+            if (DATA_VENDA.equals(venda.getDataVenda())) {
+                idsVendas.add(venda.getId());
+            }
+        }
+        System.out.println("\n=== VENDAS EM 2 PROCESSOS ===");
+        System.out.println("Vendas gravadas (esperado 2): " + idsVendas.size() + " " + idsVendas);
+        for (int idVenda : idsVendas) {
+            gv.removerPorId(idVenda);
+        }
+        gv.salvarTodasVendas();
+        gp.carregar();
+        gp.atualizarEstoque(1, -2);
+
+        System.out.println("\n=== FIM DO TESTE COM VÁRIOS PROCESSOS ===");
+    }
+
+    /**
+     * Tarefas dos processos filhos:
+     * - {@code estoque}: dá baixa de uma unidade do produto 1 até acabar e
+     *   imprime quantas conseguiu;
+     * - {@code cliente <n> <id>}: carrega os clientes, espera o outro filho
+     *   carregar também, troca o telefone do cliente e salva a lista inteira;
+     * - {@code reserva <n>}: carrega os agendamentos, espera o outro filho e
+     *   tenta reservar o barbeiro 1 às {@link #HORARIO_RESERVA}, imprimindo
+     *   se conseguiu;
+     * - {@code nota <n> <idAgendamento>}: carrega as notas, espera o outro
+     *   filho, gera uma nota para o agendamento e imprime o ID dela;
+     * - {@code finalizar <n> <idAgendamento>}: carrega os agendamentos, espera
+     *   o outro filho e tenta finalizar o agendamento, imprimindo se conseguiu;
+     * - {@code venda <n> <idCliente>}: carrega as vendas, espera o outro
+     *   filho e vende uma unidade do produto 1 ao cliente em {@link #DATA_VENDA}.
+     */
+    private static void executarFilho(String[] args) throws InterruptedException {
+        if (args[0].equals("estoque")) {
+            GerenciadorProduto gp = new GerenciadorProduto();
+            int vendidas = 0;
+            while (gp.atualizarEstoque(1, 1)) {
+                vendidas++;
+            }
+            System.out.println(vendidas);
+            return;
+        }
+
+        String numero = args[1];
+        if (args[0].equals("reserva")) {
+            GerenciarAgendamento ga = new GerenciarAgendamento();
+            Funcionario barbeiro = new Funcionario();
+            barbeiro.setId(1);
+            Servico corte = new Servico("Corte", 30.0, false, "Teste com vários processos");
+            corte.setDuracaoMinutos(30);
+            Agendamento agendamento = new Agendamento(HORARIO_RESERVA, null, barbeiro, List.of(corte),
+                    StatusAtendimentoCliente.AGENDADO, Integer.parseInt(numero));
+            esperarOutroFilho(numero);
+            System.out.println(ga.reservar(agendamento, 30));
+            return;
+        }
+        if (args[0].equals("nota")) {
+            GerenciarNotaFiscal gnf = new GerenciarNotaFiscal();
+            Agendamento agendamento = new GerenciarAgendamento().buscarPorId(Integer.parseInt(args[2]));
+            esperarOutroFilho(numero);
+            System.out.println(gnf.gerarNotaFiscal(agendamento).getId());
+            return;
+        }
+
+        if (args[0].equals("finalizar")) {
+            GerenciarAgendamento ga = new GerenciarAgendamento();
+            ga.buscarPorId(Integer.parseInt(args[2]));
+            esperarOutroFilho(numero);
+            System.out.println(ga.finalizarAgendamento(Integer.parseInt(args[2]), null, null, null));
+            return;
+        }
+
+        if (args[0].equals("venda")) {
+            ServicoVenda sv = new ServicoVenda();
+            esperarOutroFilho(numero);
+            System.out.println(sv.efetuarVenda(Integer.parseInt(args[2]), 1, 1, DATA_VENDA));
+            return;
+        }
+
+        int id = Integer.parseInt(args[2]);
+        GerenciarCliente gc = new GerenciarCliente();
+        esperarOutroFilho(numero);
+        gc.atualizarCliente(id, null, null, "3199999000" + numero, null);
+        gc.salvarTodosClientes();
+    }
+
+    /**
+     * Marca este filho como pronto e espera o outro filho ficar pronto, para
+     * que os dois comecem a tarefa com o que leram antes da alteração do outro.
+     */
+    private static void esperarOutroFilho(String numero) throws InterruptedException {
+        try {
+            new File(arquivoSinal("pronto-" + numero)).createNewFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        String outro = numero.equals("1") ? "pronto-2" : "pronto-1";
+        while (!new File(arquivoSinal(outro)).exists()) {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Inicia um processo filho para cada tarefa, na mesma pasta de trabalho,
+     * e devolve a última linha impressa por cada um.
+     */
+    private static List<String> executarFilhos(String... tarefas) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processos = new ArrayList<>();
+        for (String tarefa : tarefas) {
+            List<String> comando = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    TestMultiProcesso.class.getName()));
+            comando.addAll(List.of(tarefa.split(" ")));
+            processos.add(new ProcessBuilder(comando).redirectErrorStream(true).start());
+        }
+
+        List<String> ultimasLinhas = new ArrayList<>();
+        for (Process processo : processos) {
+            String ultima = "";
+            try (BufferedReader leitor = new BufferedReader(new InputStreamReader(processo.getInputStream()))) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    if (!linha.isBlank()) {
+                        ultima = linha;
+                    }
+                }
+            }
+            processo.waitFor();
+            ultimasLinhas.add(ultima);
+        }
+        return ultimasLinhas;
+    }
+
+    private static String arquivoSinal(String nome) {
+        return System.getProperty("java.io.tmpdir") + File.separator + "barbearia-teste-" + nome;
+    }
+}
@@ -0,0 +1,52 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.RepositorioFila;
+import xela.chris.barbearia.models.Produto;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Classe de teste para o {@link RepositorioFila}.
+ * Registra entradas e saídas, confere que a fila é reconstruída a partir
+ * do log por uma nova instância e força a compactação usando um limite
+ * pequeno. Usa um arquivo próprio ("testeFila.json"), removido ao final.
+ */
+public class TestRepositorioFila {
+
+    public static void main(String[] args) {
+        RepositorioFila<Produto> repo = new RepositorioFila<>(Produto.class, "testeFila.json", 3);
+        repo.salvarTodos(new ArrayList<>());
+
+        // 1. Entradas vão para o final do log; saídas só avançam a cabeça
+        repo.registrarEntrada(new Produto("Shampoo", 14.5, 10));
+        repo.registrarEntrada(new Produto("Pomada", 22.0, 5));
+        repo.registrarEntrada(new Produto("Gel", 12.5, 8));
+        long tamanhoAntes = new File(repo.getCaminhoLog()).length();
+        repo.registrarSaida();
+        long tamanhoDepois = new File(repo.getCaminhoLog()).length();
+        System.out.println("=== APÓS 3 ENTRADAS E 1 SAÍDA ===");
+        System.out.println("Log manteve o tamanho na saída (esperado true): " + (tamanhoAntes == tamanhoDepois));
+
+        // 2. Outra instância lê a partir da cabeça
+        RepositorioFila<Produto> outro = new RepositorioFila<>(Produto.class, "testeFila.json", 3);
+        System.out.println("Fila relida (esperado: Pomada, Gel):");
+        outro.carregarFila().forEach(p -> System.out.println(" - " + p.getNome()));
+
+        // 3. Atingir o limite de saídas dispara a compactação
+        repo.registrarEntrada(new Produto("Cera", 18.0, 3));
+        repo.registrarSaida();
+        repo.registrarSaida();
+        System.out.println("\nSaídas após compactação (esperado 0): " + repo.getConsumidas());
+        System.out.println("Fila após compactação (esperado: Cera):");
+        repo.carregarFila().forEach(p -> System.out.println(" - " + p.getNome()));
+        System.out.println("Log compactado menor que antes (esperado true): "
+                + (new File(repo.getCaminhoLog()).length() < tamanhoDepois));
+
+        new File(repo.getCaminhoArquivo()).delete();
+        new File(repo.getCaminhoLog()).delete();
+        new File(repo.getCaminhoArquivo() + ".anterior").delete();
+        new File(repo.getCaminhoArquivo() + ".versao").delete();
+        System.out.println("\n=== FIM DO TESTE DA FILA ===");
+    }
+}
@@ -0,0 +1,84 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.RepositorioJsonJournal;
+import xela.chris.barbearia.models.Produto;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de teste para o {@link RepositorioJsonJournal}.
+ * Registra inserções, atualizações e remoções no journal, confere o estado
+ * reconstruído (também pela leitura em fluxo) e força a compactação usando
+ * um limite pequeno. Também simula uma queda no meio de um append (última
+ * linha cortada) seguida de novos appends por outra instância.
+ * Usa um arquivo próprio ("testeJournal.json"), removido ao final.
+ */
+public class TestRepositorioJournal {
+
+    public static void main(String[] args) throws IOException {
+        RepositorioJsonJournal<Produto> repo =
+                new RepositorioJsonJournal<>(Produto.class, "testeJournal.json", Produto::getId, 5);
+
+        List<Produto> iniciais = new ArrayList<>();
+        iniciais.add(new Produto("Shampoo", 14.5, 10));
+        iniciais.add(new Produto("Pomada", 22.0, 5));
+        repo.salvarTodos(iniciais);
+
+        // 1. Inserção e atualização viram linhas no journal
+        Produto gel = new Produto("Gel", 12.5, 8);
+        repo.registrarInsercao(gel);
+        gel.setQuantidade(7);
+        repo.registrarAtualizacao(gel);
+        repo.registrarRemocao(iniciais.get(1).getId());
+
+        List<Produto> estado = repo.buscarTodos();
+        System.out.println("=== ESTADO APÓS JOURNAL (esperado: Shampoo, Gel x7) ===");
+        estado.forEach(System.out::println);
+        System.out.println("Entradas no journal (esperado 3): " + repo.getEntradasNoJournal());
+
+        // 2. Leitura em fluxo combina snapshot e journal, filtrando pelo campo
+        System.out.println("\n=== LEITURA EM FLUXO (esperado: Shampoo, Gel x7) ===");
+        repo.percorrer(System.out::println);
+        System.out.println("=== FILTRO POR CAMPO nome = Gel (esperado: Gel x7) ===");
+        repo.percorrer("nome", "Gel"::equals, System.out::println);
+
+        // 3. Atingir o limite dispara a compactação
+        repo.registrarAtualizacao(gel);
+        repo.registrarAtualizacao(gel);
+        System.out.println("Entradas após compactação (esperado 0): " + repo.getEntradasNoJournal());
+        System.out.println("Registros após compactação (esperado 2): " + repo.buscarTodos().size());
+
+        // 4. Queda no meio de um append: a linha cortada não pode levar as seguintes junto
+        System.out.println("\n=== LINHA CORTADA NO JOURNAL ===");
+        repo.registrarInsercao(new Produto("Cera", 18.0, 4));
+        try (FileOutputStream out = new FileOutputStream(repo.getCaminhoJournal(), true)) {
+            out.write("{\"op\":\"INSERIR\",\"id\":999,\"registro\":{\"nom".getBytes(StandardCharsets.UTF_8));
+        }
+        RepositorioJsonJournal<Produto> outraInstancia =
+                new RepositorioJsonJournal<>(Produto.class, "testeJournal.json", Produto::getId, 50);
+        outraInstancia.registrarInsercao(new Produto("Tonico", 30.0, 2));
+        outraInstancia.registrarInsercao(new Produto("Balm", 27.0, 3));
+        System.out.println("Registros após os appends (esperado 5): " + outraInstancia.buscarTodos().size());
+        System.out.println("Entradas no journal (esperado 3): " + outraInstancia.getEntradasNoJournal());
+        outraInstancia.compactar();
+        System.out.println("Registros após compactar (esperado 5): " + outraInstancia.buscarTodos().size());
+
+        // Journal gravado antes do corte: a linha ruim no meio é pulada e as seguintes valem
+        try (FileOutputStream out = new FileOutputStream(repo.getCaminhoJournal(), true)) {
+            out.write("{\"op\":\"INSER{\"op\":\"REMOVER\",\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        outraInstancia.registrarInsercao(new Produto("Talco", 9.0, 6));
+        System.out.println("Registros com linha ruim no meio (esperado 6): " + outraInstancia.buscarTodos().size());
+
+        new File(repo.getCaminhoArquivo()).delete();
+        new File(repo.getCaminhoJournal()).delete();
+        new File(repo.getCaminhoArquivo() + ".anterior").delete();
+        new File(repo.getCaminhoArquivo() + ".versao").delete();
+        System.out.println("\n=== FIM DO TESTE DO JOURNAL ===");
+    }
+}
@@ -0,0 +1,163 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.Particao;
+import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.Gerenciadores.RepositorioParticionado;
+import xela.chris.barbearia.models.Venda;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe de teste para o {@link RepositorioParticionado}, com vendas
+ * datadas em relação ao mês corrente. Confere que:
+ * - o arquivo único do formato anterior é dividido por mês na primeira abertura;
+ * - só o mês corrente, os seguintes e a partição sem data são carregados;
+ * - busca por ID, leitura de um mês e percurso por período usam só as
+ *   partições envolvidas, e o maior ID vem do manifesto;
+ * - salvarTodos grava apenas os meses abertos e move registros de mês;
+ * - o journal de cada partição recebe inserções e mudanças de mês;
+ * - inserções dentro do bloco de IDs reservado não regravam o manifesto.
+ * Ao final, compara a carga inicial com a leitura de todo o histórico.
+ *
+ * Usa apenas os arquivos "testeParticoes*", apagados ao final.
+ */
+public class TestRepositorioParticionado {
+
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public static void main(String[] args) {
+        LocalDate hoje = LocalDate.now();
+        String doisMesesAtras = hoje.minusMonths(2).withDayOfMonth(10).format(FORMATO);
+        String mesPassado = hoje.minusMonths(1).withDayOfMonth(10).format(FORMATO);
+        String mesQueVem = hoje.plusMonths(1).withDayOfMonth(10).format(FORMATO);
+        int mesAtual = RepositorioParticionado.mesAtual();
+
+        // 1. Arquivo único no formato anterior
+        List<Venda> vendas = new ArrayList<>();
+        String[] datas = {doisMesesAtras, doisMesesAtras, doisMesesAtras, mesPassado, mesPassado,
+                hoje.format(FORMATO), hoje.format(FORMATO), mesQueVem, "sem data"};
+        for (int i = 0; i < datas.length; i++) {
+            vendas.add(venda(i + 1, datas[i]));
+        }
+        RepositorioJson<Venda> legado = new RepositorioJson<>(Venda.class, "testeParticoes.json", Venda::getId);
+        legado.salvarTodos(vendas);
+
+        RepositorioParticionado<Venda> repo = criar();
+        System.out.println("=== DIVISÃO DO ARQUIVO ÚNICO ===");
+        System.out.println("Partições (esperado 5): " + repo.listarParticoes().size());
+        System.out.println("Arquivo antigo renomeado (esperado true): "
+                + new File(legado.getCaminhoArquivo() + RepositorioParticionado.EXTENSAO_SEM_PARTICOES).exists());
+
+        // 2. Carga inicial e consultas
+        List<Venda> abertas = repo.buscarAbertos();
+        System.out.println("\n=== CARGA INICIAL E CONSULTAS ===");
+        System.out.println("Vendas carregadas (esperado 4): " + abertas.size());
+        System.out.println("Maior ID pelo manifesto (esperado 9): " + repo.getMaiorId());
+        System.out.println("Venda 2 por ID (esperado " + doisMesesAtras + "): " + repo.buscarPorId(2).getDataVenda());
+        String filtro = mesPassado.substring(3);
+        DataHora.Periodo periodo = DataHora.periodo(filtro);
+        System.out.println("Meses fechados em " + filtro + " (esperado 1): " + repo.mesesFechados(periodo).size());
+        System.out.println("Vendas do mês " + filtro + " (esperado 2): " + repo.buscarMes(mesAtual - 1).size());
+        AtomicInteger percorridas = new AtomicInteger();
+        repo.percorrer(periodo, "dataVenda", DataHora.filtroDeTexto(filtro), v -> percorridas.incrementAndGet());
+        System.out.println("Vendas percorridas em " + filtro + " (esperado 2): " + percorridas.get());
+
+        // 3. Gravação completa move a venda de mês e não toca os meses fechados
+        for (Venda venda : abertas) {
+            if (venda.getId() == 6) {
+                venda.setDataVenda(mesQueVem);
+            }
+        }
+        repo.salvarTodos(abertas);
+        System.out.println("\n=== GRAVAÇÃO COMPLETA ===");
+        System.out.println("Vendas do mês corrente (esperado 1): " + repo.buscarMes(mesAtual).size());
+        System.out.println("Vendas do mês que vem (esperado 2): " + repo.buscarMes(mesAtual + 1).size());
+        System.out.println("Vendas de dois meses atrás (esperado 3): " + repo.buscarMes(mesAtual - 2).size());
+
+        // 4. Journal por partição
+        Venda nova = venda(10, hoje.format(FORMATO));
+        repo.registrarInsercao(nova);
+        System.out.println("\n=== JOURNAL POR PARTIÇÃO ===");
+        System.out.println("Vendas carregadas por outro repositório (esperado 5): " + criar().buscarAbertos().size());
+        nova.setDataVenda(mesPassado);
+        repo.registrarAtualizacao(nova);
+        System.out.println("Vendas do mês corrente após mudar de mês (esperado 1): " + repo.buscarMes(mesAtual).size());
+        System.out.println("Vendas do mês passado (esperado 3): " + repo.buscarMes(mesAtual - 1).size());
+        System.out.println("Abrir o mês passado (esperado 3): " + repo.abrirMes(mesAtual - 1).size());
+        System.out.println("Abrir de novo (esperado 0): " + repo.abrirMes(mesAtual - 1).size());
+        System.out.println("Maior ID reservado pelo manifesto (esperado " + (10 + RepositorioParticionado.BLOCO_IDS - 1)
+                + "): " + criar().getMaiorId());
+        RepositorioJson<Particao> manifesto = new RepositorioJson<>(Particao.class, "testeParticoes.particoes.json");
+        long versaoManifesto = manifesto.getVersao();
+        for (int i = 11; i <= 20; i++) {
+            repo.registrarInsercao(venda(i, mesPassado));
+        }
+        System.out.println("Manifesto regravado por 10 inserções no bloco (esperado false): "
+                + (manifesto.getVersao() != versaoManifesto));
+        System.out.println("Vendas do mês passado (esperado 13): " + repo.buscarMes(mesAtual - 1).size());
+        apagar("testeParticoes");
+
+        // 5. Carga inicial com anos de histórico
+        List<Venda> historico = new ArrayList<>();
+        int id = 0;
+        for (int meses = 36; meses >= 0; meses--) {
+            String data = hoje.minusMonths(meses).withDayOfMonth(1).format(FORMATO);
+            for (int i = 0; i < 300; i++) {
+                historico.add(venda(++id, data));
+            }
+        }
+        new RepositorioJson<>(Venda.class, "testeParticoesCarga.json", Venda::getId).salvarTodos(historico);
+        RepositorioParticionado<Venda> carga = new RepositorioParticionado<>(Venda.class, "testeParticoesCarga",
+                Venda::getId, Venda::getDiaVenda);
+        carga.listarParticoes(); // divide o arquivo antes das medições
+        carga.setCacheAtivo(false);
+        long melhorAbertos = Long.MAX_VALUE;
+        long melhorTodos = Long.MAX_VALUE;
+        int abertos = 0;
+        int todos = 0;
+        for (int i = 0; i < 5; i++) {
+            long inicio = System.nanoTime();
+            abertos = carga.buscarAbertos().size();
+            melhorAbertos = Math.min(melhorAbertos, System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+            todos = carga.buscarTodos().size();
+            melhorTodos = Math.min(melhorTodos, System.nanoTime() - inicio);
+        }
+        System.out.println("\n=== CARGA INICIAL COM 37 MESES DE HISTÓRICO ===");
+        System.out.printf("Meses abertos: %d vendas em %.2f ms%n", abertos, melhorAbertos / 1_000_000.0);
+        System.out.printf("Histórico inteiro: %d vendas em %.2f ms%n", todos, melhorTodos / 1_000_000.0);
+        apagar("testeParticoesCarga");
+
+        System.out.println("\n=== FIM DO TESTE DE PARTIÇÕES ===");
+    }
+
+    private static RepositorioParticionado<Venda> criar() {
+        return new RepositorioParticionado<>(Venda.class, "testeParticoes", Venda::getId, Venda::getDiaVenda);
+    }
+
+    private static Venda venda(int id, String data) {
+        Venda venda = new Venda();
+        venda.setId(id);
+        venda.setProdutoId(1);
+        venda.setQuantidade(1);
+        venda.setDataVenda(data);
+        return venda;
+    }
+
+    /** Apaga os arquivos do teste (partições, manifesto, journals e versões). */
+    private static void apagar(String nomeBase) {
+        File pasta = new File(new RepositorioJson<>(Venda.class, nomeBase + ".json").getCaminhoArquivo()).getParentFile();
+        File[] arquivos = pasta.listFiles((dir, nome) -> nome.startsWith(nomeBase + "-") || nome.startsWith(nomeBase + "."));
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                arquivo.delete();
+            }
+        }
+    }
+}
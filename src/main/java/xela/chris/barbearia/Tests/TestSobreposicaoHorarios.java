@@ -0,0 +1,66 @@
+package xela.chris.barbearia.Tests;
+
+import xela.chris.barbearia.Gerenciadores.IndiceHorarios;
+import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.models.Funcionario;
+import xela.chris.barbearia.models.Servico;
+import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+
+import java.util.List;
+
+/**
+ * Classe de teste para o {@link IndiceHorarios}.
+ * Confere que um serviço de 60 minutos às 10:00 bloqueia 10:30 mas não
+ * 11:00, que agendamentos sobrepostos (dados antigos) só liberam o horário
+ * quando todos são removidos, e que a alteração do horário é refletida.
+ * Trabalha apenas em memória, sem gravar arquivos.
+ */
+public class TestSobreposicaoHorarios {
+
+    public static void main(String[] args) {
+        Servico corteLongo = new Servico("Corte e barba", 60.0, false, "Teste de duração");
+        corteLongo.setDuracaoMinutos(60);
+        Funcionario barbeiro = new Funcionario();
+        barbeiro.setId(1);
+
+        IndiceHorarios indice = new IndiceHorarios();
+        Agendamento ag = new Agendamento("20/11/2025 10:00", null, barbeiro, List.of(corteLongo),
+                StatusAtendimentoCliente.AGENDADO, 2);
+        indice.adicionar(ag);
+
+        // 1. Sobreposição pela duração
+        System.out.println("=== CADEIRA 2 COM CORTE DE 60 MIN ÀS 10:00 ===");
+        System.out.println("09:45 (30 min) ocupada? (esperado true): " + cadeiraOcupada(indice, 2, "20/11/2025 09:45", 30));
+        System.out.println("09:00 (60 min) ocupada? (esperado false): " + cadeiraOcupada(indice, 2, "20/11/2025 09:00", 60));
+        System.out.println("10:30 (30 min) ocupada? (esperado true): " + cadeiraOcupada(indice, 2, "20/11/2025 10:30", 30));
+        System.out.println("11:00 (30 min) ocupada? (esperado false): " + cadeiraOcupada(indice, 2, "20/11/2025 11:00", 30));
+        System.out.println("Cadeira 3 às 10:30 ocupada? (esperado false): " + cadeiraOcupada(indice, 3, "20/11/2025 10:30", 30));
+        int inicio = DataHora.paraMinutos("20/11/2025 10:15");
+        System.out.println("Funcionário 1 às 10:15 ocupado? (esperado true): "
+                + indice.funcionarioOcupado(1, inicio, inicio + 30));
+
+        // 2. Agendamentos sobrepostos: remover um não libera o horário
+        Agendamento repetido = new Agendamento("20/11/2025 10:00", null, barbeiro, List.of(corteLongo),
+                StatusAtendimentoCliente.AGENDADO, 2);
+        indice.adicionar(repetido);
+        indice.remover(ag);
+        System.out.println("\nApós remover um de dois (esperado true): " + cadeiraOcupada(indice, 2, "20/11/2025 10:30", 30));
+        indice.remover(repetido);
+        System.out.println("Após remover ambos (esperado false): " + cadeiraOcupada(indice, 2, "20/11/2025 10:30", 30));
+
+        // 3. Alteração de horário
+        indice.adicionar(ag);
+        ag.setDataHora("20/11/2025 14:00");
+        indice.atualizar(ag);
+        System.out.println("\n10:30 após remarcar para 14:00 (esperado false): " + cadeiraOcupada(indice, 2, "20/11/2025 10:30", 30));
+        System.out.println("14:45 após remarcar (esperado true): " + cadeiraOcupada(indice, 2, "20/11/2025 14:45", 30));
+
+        System.out.println("\n=== FIM DO TESTE DE SOBREPOSIÇÃO ===");
+    }
+
+    private static boolean cadeiraOcupada(IndiceHorarios indice, int idCadeira, String horario, int duracao) {
+        int inicio = DataHora.paraMinutos(horario);
+        return indice.cadeiraOcupada(idCadeira, inicio, inicio + duracao);
+    }
+}
@@ -0,0 +1,96 @@
+package xela.chris.barbearia.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Acrescenta as mensagens a um arquivo de texto, uma por linha, com data,
+ * nível, origem e thread:
+ *
+ * <pre>
+ * 2025-11-03 14:02:11.385 INFO  [GerenciarCliente] [main] Cliente removido com sucesso!
+ * </pre>
+ *
+ * <p>As linhas ficam em um buffer até {@link #flush()}. Sozinho, este
+ * destino trava a thread que registra durante a escrita; para não pesar
+ * no caminho das operações, use-o dentro de um {@link DestinoAssincrono}.</p>
+ */
+public class DestinoArquivo implements DestinoLog {
+
+    /** Arquivo padrão do log, relativo à pasta de trabalho. */
+    public static final String ARQUIVO_PADRAO = "barbearia.log";
+
+    private static final DateTimeFormatter FORMATO_HORA =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final File arquivo;
+    private final Writer escritor;
+
+    /**
+     * Abre o arquivo para acrescentar mensagens, criando-o se necessário.
+     *
+     * @param arquivo Arquivo de log.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public DestinoArquivo(File arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.escritor = Files.newBufferedWriter(arquivo.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void escrever(EntradaLog entrada) {
+        try {
+            escritor.write(formatar(entrada));
+            escritor.write(System.lineSeparator());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            escritor.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void fechar() {
+        try {
+            escritor.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Retorna o arquivo em que as mensagens são gravadas.
+     *
+     * @return O arquivo de log.
+     */
+    public File getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Monta a linha de uma mensagem.
+     *
+     * @param entrada Mensagem.
+     * @return Linha sem a quebra no fim.
+     */
+    static String formatar(EntradaLog entrada) {
+        return FORMATO_HORA.format(Instant.ofEpochMilli(entrada.instante()))
+                + " " + String.format("%-5s", entrada.nivel())
+                + " [" + entrada.origem() + "] [" + entrada.thread() + "] " + entrada.mensagem();
+    }
+}
@@ -0,0 +1,205 @@
+package xela.chris.barbearia.log;
+
+import xela.chris.barbearia.metricas.Metricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Destino que apenas coloca as mensagens em um buffer circular de tamanho
+ * fixo e as repassa a outro destino (ex: {@link DestinoArquivo}) em uma
+ * thread de segundo plano.
+ *
+ * <p>
+ * A thread que registra não espera pela escrita nem disputa trava: reserva
+ * uma posição do buffer com uma operação atômica e segue. Com o buffer
+ * cheio a mensagem é descartada e contada em {@link #getDescartadas()}
+ * (métrica {@code log.descartadas}), para que um destino lento nunca
+ * segure as operações. A thread de escrita esvazia o buffer em sequência e
+ * chama {@code flush} do destino quando não há mais nada a escrever, então
+ * uma rajada de mensagens vira poucas escritas em disco.
+ * </p>
+ *
+ * <p>
+ * {@link #flush()} espera até que tudo o que já foi registrado esteja
+ * escrito; {@link #fechar()} também encerra a thread. Não serve para o
+ * menu interativo: a mensagem pode aparecer depois do próximo prompt.
+ * </p>
+ */
+public class DestinoAssincrono implements DestinoLog {
+
+    /** Capacidade padrão do buffer, em mensagens. */
+    public static final int CAPACIDADE_PADRAO = 8192;
+
+    /** Tempo máximo (ns) que a thread de escrita dorme sem ser acordada. */
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final DestinoLog destino;
+    private final EntradaLog[] entradas;
+    private final int mascara;
+
+    /** Sequência publicada em cada posição do buffer (-1 = nenhuma ainda). */
+    private final AtomicLongArray publicadas;
+
+    /** Próxima sequência a reservar e quantas já foram escritas no destino. */
+    private final AtomicLong reservadas = new AtomicLong();
+    private final AtomicLong escritas = new AtomicLong();
+
+    private final LongAdder descartadas = new LongAdder();
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+    private volatile boolean dormindo;
+
+    /**
+     * Cria um destino assíncrono com a capacidade padrão.
+     *
+     * @param destino Destino que recebe as mensagens na thread de escrita.
+     */
+    public DestinoAssincrono(DestinoLog destino) {
+        this(destino, CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um destino assíncrono e inicia a thread de escrita.
+     *
+     * @param destino    Destino que recebe as mensagens na thread de escrita.
+     * @param capacidade Mensagens que cabem no buffer; arredondada para a
+     *                   próxima potência de 2.
+     */
+    public DestinoAssincrono(DestinoLog destino, int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade deve ser maior que zero.");
+        }
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+        this.destino = destino;
+        this.entradas = new EntradaLog[tamanho];
+        this.mascara = tamanho - 1;
+        this.publicadas = new AtomicLongArray(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            publicadas.set(i, -1);
+        }
+        this.escritor = new Thread(this::esvaziar, "log-assincrono");
+        escritor.setDaemon(true);
+        escritor.start();
+        Metricas.padrao().medidor("log.descartadas", this, DestinoAssincrono::getDescartadas);
+        Metricas.padrao().medidor("log.pendentes", this, DestinoAssincrono::getPendentes);
+    }
+
+    @Override
+    public void escrever(EntradaLog entrada) {
+        if (!ativo) {
+            destino.escrever(entrada);
+            return;
+        }
+        long sequencia;
+        do {
+            sequencia = reservadas.get();
+            if (sequencia - escritas.get() >= entradas.length) {
+                descartadas.increment();
+                return;
+            }
+        } while (!reservadas.compareAndSet(sequencia, sequencia + 1));
+
+        int posicao = (int) sequencia & mascara;
+        entradas[posicao] = entrada;
+        publicadas.set(posicao, sequencia);
+        // Acordar a thread custa uma chamada ao sistema; ela já acorda sozinha
+        // a cada ESPERA_NANOS, então só é acordada antes se o buffer encher.
+        if (dormindo && sequencia - escritas.get() >= entradas.length / 2) {
+            dormindo = false;
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    /**
+     * Espera até que as mensagens registradas antes da chamada estejam
+     * escritas no destino e chama {@code flush} dele.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() != escritor) {
+            long alvo = reservadas.get();
+            while (escritas.get() < alvo && escritor.isAlive()) {
+                LockSupport.unpark(escritor);
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        destino.flush();
+    }
+
+    /**
+     * Escreve o que estiver no buffer, encerra a thread de escrita e fecha o
+     * destino. Mensagens registradas depois disso são escritas direto no
+     * destino.
+     */
+    @Override
+    public void fechar() {
+        ativo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Metricas.padrao().removerMedidor("log.descartadas", this);
+        Metricas.padrao().removerMedidor("log.pendentes", this);
+        destino.fechar();
+    }
+
+    /**
+     * Retorna quantas mensagens foram descartadas por falta de espaço.
+     *
+     * @return Total de descartes.
+     */
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    /**
+     * Retorna quantas mensagens aguardam a thread de escrita.
+     *
+     * @return Mensagens no buffer.
+     */
+    public long getPendentes() {
+        return reservadas.get() - escritas.get();
+    }
+
+    /** Laço da thread de escrita. */
+    private void esvaziar() {
+        long sequencia = escritas.get();
+        boolean escreveuDesdeFlush = false;
+        while (ativo || sequencia < reservadas.get()) {
+            int posicao = (int) sequencia & mascara;
+            if (publicadas.get(posicao) != sequencia) {
+                if (escreveuDesdeFlush) {
+                    destino.flush();
+                    escreveuDesdeFlush = false;
+                    continue;
+                }
+                dormindo = true;
+                if (publicadas.get(posicao) != sequencia && ativo) {
+                    LockSupport.parkNanos(this, ESPERA_NANOS);
+                }
+                dormindo = false;
+                continue;
+            }
+            EntradaLog entrada = entradas[posicao];
+            entradas[posicao] = null;
+            try {
+                destino.escrever(entrada);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            escreveuDesdeFlush = true;
+            sequencia++;
+            escritas.set(sequencia);
+        }
+        destino.flush();
+    }
+}
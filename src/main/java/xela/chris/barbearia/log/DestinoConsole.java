@@ -0,0 +1,19 @@
+package xela.chris.barbearia.log;
+
+/**
+ * Escreve as mensagens no {@code System.out}, na hora e só com o texto,
+ * como o menu sempre mostrou. É o destino padrão do {@link Log}, usado no
+ * modo interativo: a mensagem aparece antes do próximo prompt.
+ */
+public class DestinoConsole implements DestinoLog {
+
+    @Override
+    public void escrever(EntradaLog entrada) {
+        System.out.println(entrada.mensagem());
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,31 @@
+package xela.chris.barbearia.log;
+
+/**
+ * Destino das mensagens do {@link Log} (console, arquivo, fila assíncrona...).
+ *
+ * <p>Implementações devem aceitar chamadas de várias threads.</p>
+ */
+public interface DestinoLog {
+
+    /**
+     * Escreve uma mensagem.
+     *
+     * @param entrada Mensagem a escrever.
+     */
+    void escrever(EntradaLog entrada);
+
+    /**
+     * Garante que as mensagens já recebidas foram escritas. Por padrão não
+     * faz nada.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Escreve o que estiver pendente e libera os recursos do destino. Por
+     * padrão apenas chama {@link #flush()}.
+     */
+    default void fechar() {
+        flush();
+    }
+}
@@ -0,0 +1,13 @@
+package xela.chris.barbearia.log;
+
+/**
+ * Uma mensagem registrada pelo {@link Log}.
+ *
+ * @param instante Momento do registro, em milissegundos desde a época.
+ * @param nivel    Nível da mensagem.
+ * @param origem   Nome de quem registrou (ex: {@code GerenciarCliente}).
+ * @param thread   Nome da thread que registrou.
+ * @param mensagem Texto da mensagem.
+ */
+public record EntradaLog(long instante, NivelLog nivel, String origem, String thread, String mensagem) {
+}
@@ -0,0 +1,222 @@
+package xela.chris.barbearia.log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registro de mensagens do sistema, com níveis ({@link NivelLog}) e um
+ * destino configurável ({@link DestinoLog}).
+ *
+ * <p>
+ * Cada classe obtém o seu com {@link #de(Class)} e registra com
+ * {@link #debug(String)}, {@link #info(String)}, {@link #aviso(String)} ou
+ * {@link #erro(String)}. O nível e o destino são únicos para o sistema:
+ * </p>
+ * <ul>
+ *     <li>padrão ({@link NivelLog#INFO} no {@link DestinoConsole}): o menu
+ *     mostra os resultados das operações como sempre mostrou, sem os
+ *     detalhes de {@code DEBUG} (ex: cada horário verificado);</li>
+ *     <li>em lote ou servidor (simulador de carga, benchmarks), chame
+ *     {@link #configurar(NivelLog, DestinoLog)} com um nível mais alto e/ou
+ *     um {@link DestinoAssincrono}, para que as buscas e verificações
+ *     repetidas em laço não escrevam nem esperem pelo console.</li>
+ * </ul>
+ *
+ * <p>
+ * Uma mensagem abaixo do nível custa só a comparação do nível. Se o texto
+ * for montado com concatenação em um caminho muito usado, prefira as
+ * versões com {@link Supplier}, que só montam o texto se ele for registrado.
+ * O nível inicial pode ser trocado na linha de comando, ex:
+ * {@code java -Dbarbearia.log.nivel=DEBUG ...}.
+ * Resultados que o usuário pediu para ver (listagens, relatórios) continuam
+ * indo direto para o {@code System.out}.
+ * </p>
+ */
+public final class Log {
+
+    private static final Map<String, Log> LOGS = new ConcurrentHashMap<>();
+
+    private static volatile NivelLog nivel = nivelInicial();
+    private static volatile DestinoLog destino = new DestinoConsole();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-final"));
+    }
+
+    private final String origem;
+
+    private Log(String origem) {
+        this.origem = origem;
+    }
+
+    /** Nível de {@code -Dbarbearia.log.nivel}, ou {@link NivelLog#INFO}. */
+    private static NivelLog nivelInicial() {
+        String valor = System.getProperty("barbearia.log.nivel");
+        if (valor == null) {
+            return NivelLog.INFO;
+        }
+        try {
+            return NivelLog.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Nível de log desconhecido: " + valor + "; usando INFO.");
+            return NivelLog.INFO;
+        }
+    }
+
+    /**
+     * Retorna o log de uma classe (identificada pelo nome simples).
+     *
+     * @param classe Classe que registra as mensagens.
+     * @return O log da classe.
+     */
+    public static Log de(Class<?> classe) {
+        return LOGS.computeIfAbsent(classe.getSimpleName(), Log::new);
+    }
+
+    /**
+     * Troca o nível mínimo e o destino das mensagens. O destino anterior,
+     * se for outro, é fechado depois de escrever o que tinha pendente.
+     *
+     * @param nivel   Nível mínimo das mensagens registradas.
+     * @param destino Novo destino.
+     */
+    public static synchronized void configurar(NivelLog nivel, DestinoLog destino) {
+        DestinoLog anterior = Log.destino;
+        Log.nivel = nivel;
+        Log.destino = destino;
+        if (anterior != destino) {
+            anterior.fechar();
+        }
+    }
+
+    /**
+     * Troca apenas o nível mínimo das mensagens.
+     *
+     * @param nivel Nível mínimo das mensagens registradas.
+     */
+    public static void setNivel(NivelLog nivel) {
+        Log.nivel = nivel;
+    }
+
+    /**
+     * Retorna o nível mínimo atual.
+     *
+     * @return O nível configurado.
+     */
+    public static NivelLog getNivel() {
+        return nivel;
+    }
+
+    /**
+     * Retorna o destino atual das mensagens.
+     *
+     * @return O destino configurado.
+     */
+    public static DestinoLog getDestino() {
+        return destino;
+    }
+
+    /**
+     * Espera o destino atual escrever as mensagens já registradas. Também é
+     * chamado ao encerrar a JVM.
+     */
+    public static void flush() {
+        destino.flush();
+    }
+
+    /**
+     * Indica se mensagens do nível informado estão sendo registradas.
+     *
+     * @param nivelMensagem Nível da mensagem.
+     * @return {@code true} se o nível passa pelo mínimo configurado.
+     */
+    public static boolean estaAtivo(NivelLog nivelMensagem) {
+        return nivelMensagem.atinge(nivel);
+    }
+
+    /**
+     * Registra uma mensagem de detalhe.
+     *
+     * @param mensagem Texto da mensagem.
+     */
+    public void debug(String mensagem) {
+        registrar(NivelLog.DEBUG, mensagem);
+    }
+
+    /**
+     * Registra uma mensagem de detalhe, montando o texto só se ela for registrada.
+     *
+     * @param mensagem Função que monta o texto.
+     */
+    public void debug(Supplier<String> mensagem) {
+        registrar(NivelLog.DEBUG, mensagem);
+    }
+
+    /**
+     * Registra o resultado de uma operação.
+     *
+     * @param mensagem Texto da mensagem.
+     */
+    public void info(String mensagem) {
+        registrar(NivelLog.INFO, mensagem);
+    }
+
+    /**
+     * Registra o resultado de uma operação, montando o texto só se ele for registrado.
+     *
+     * @param mensagem Função que monta o texto.
+     */
+    public void info(Supplier<String> mensagem) {
+        registrar(NivelLog.INFO, mensagem);
+    }
+
+    /**
+     * Registra uma situação inesperada da qual o sistema se recupera.
+     *
+     * @param mensagem Texto da mensagem.
+     */
+    public void aviso(String mensagem) {
+        registrar(NivelLog.AVISO, mensagem);
+    }
+
+    /**
+     * Registra uma situação inesperada, montando o texto só se ele for registrado.
+     *
+     * @param mensagem Função que monta o texto.
+     */
+    public void aviso(Supplier<String> mensagem) {
+        registrar(NivelLog.AVISO, mensagem);
+    }
+
+    /**
+     * Registra a falha de uma operação.
+     *
+     * @param mensagem Texto da mensagem.
+     */
+    public void erro(String mensagem) {
+        registrar(NivelLog.ERRO, mensagem);
+    }
+
+    /**
+     * Registra a falha de uma operação, montando o texto só se ela for registrada.
+     *
+     * @param mensagem Função que monta o texto.
+     */
+    public void erro(Supplier<String> mensagem) {
+        registrar(NivelLog.ERRO, mensagem);
+    }
+
+    private void registrar(NivelLog nivelMensagem, String mensagem) {
+        if (nivelMensagem.atinge(nivel)) {
+            destino.escrever(new EntradaLog(System.currentTimeMillis(), nivelMensagem, origem,
+                    Thread.currentThread().getName(), mensagem));
+        }
+    }
+
+    private void registrar(NivelLog nivelMensagem, Supplier<String> mensagem) {
+        if (nivelMensagem.atinge(nivel)) {
+            registrar(nivelMensagem, mensagem.get());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package xela.chris.barbearia.log;
+
+/**
+ * Níveis das mensagens do {@link Log}, do mais detalhado ao mais grave.
+ *
+ * <p>Uma mensagem só é registrada se o seu nível for igual ou maior que o
+ * nível configurado em {@link Log#configurar(NivelLog, DestinoLog)}.</p>
+ */
+public enum NivelLog {
+    /** Detalhes internos (ex: cada horário verificado em um agendamento). */
+    DEBUG,
+
+    /** Resultados das operações, mostrados ao usuário no menu. */
+    INFO,
+
+    /** Situações inesperadas das quais o sistema se recupera. */
+    AVISO,
+
+    /** Falhas de uma operação. */
+    ERRO;
+
+    /**
+     * Indica se uma mensagem deste nível passa pelo nível mínimo informado.
+     *
+     * @param minimo Nível mínimo configurado.
+     * @return {@code true} se a mensagem deve ser registrada.
+     */
+    public boolean atinge(NivelLog minimo) {
+        return ordinal() >= minimo.ordinal();
+    }
+}
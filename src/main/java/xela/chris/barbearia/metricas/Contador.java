@@ -0,0 +1,44 @@
+package xela.chris.barbearia.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de eventos (ex: acertos do cache de um repositório).
+ * Pode ser incrementado de várias threads sem trava.
+ */
+public class Contador {
+
+    private final LongAdder valor = new LongAdder();
+
+    /**
+     * Soma 1 ao contador.
+     */
+    public void incrementar() {
+        valor.increment();
+    }
+
+    /**
+     * Soma uma quantidade ao contador.
+     *
+     * @param quantidade Quantidade a somar.
+     */
+    public void somar(long quantidade) {
+        valor.add(quantidade);
+    }
+
+    /**
+     * Retorna o valor atual.
+     *
+     * @return Total contado.
+     */
+    public long getValor() {
+        return valor.sum();
+    }
+
+    /**
+     * Zera o contador.
+     */
+    public void zerar() {
+        valor.reset();
+    }
+}
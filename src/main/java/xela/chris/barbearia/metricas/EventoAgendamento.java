@@ -0,0 +1,37 @@
+package xela.chris.barbearia.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do Java Flight Recorder para uma tentativa de agendamento pelo
+ * mediador, com o resultado e quantas cadeiras foram verificadas.
+ */
+@Name("xela.chris.barbearia.Agendamento")
+@Label("Agendamento")
+@Category({"Barbearia", "Agendamentos"})
+@Description("Tentativa de agendamento pelo mediador e o seu resultado")
+public class EventoAgendamento extends Event {
+
+    @Label("Cliente")
+    public int clienteId;
+
+    @Label("Funcionário")
+    public int funcionarioId;
+
+    @Label("Serviço")
+    public int servicoId;
+
+    @Label("Data e Hora")
+    public String dataHora;
+
+    @Label("Cadeiras Verificadas")
+    public int cadeirasVerificadas;
+
+    @Label("Resultado")
+    @Description("AGENDADO ou o motivo da recusa")
+    public String resultado;
+}
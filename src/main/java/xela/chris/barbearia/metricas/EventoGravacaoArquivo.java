@@ -0,0 +1,44 @@
+package xela.chris.barbearia.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do Java Flight Recorder para a gravação de um arquivo de
+ * repositório: o arquivo completo ou uma linha de journal.
+ *
+ * <p>
+ * A duração de uma gravação completa inclui a conversão dos registros e a
+ * espera pelo disco da {@code durabilidade} configurada; a de uma linha de
+ * journal, só a escrita da linha.
+ * </p>
+ */
+@Name("xela.chris.barbearia.GravacaoArquivo")
+@Label("Gravação de Arquivo")
+@Category({"Barbearia", "Persistência"})
+@Description("Gravação completa de um arquivo de repositório ou de uma linha de journal")
+@StackTrace(false)
+public class EventoGravacaoArquivo extends Event {
+
+    @Label("Arquivo")
+    public String arquivo;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Registros")
+    @Description("Registros gravados (1 em uma linha de journal)")
+    public int registros;
+
+    @Label("Journal")
+    public boolean journal;
+
+    @Label("Durabilidade")
+    public String durabilidade;
+}
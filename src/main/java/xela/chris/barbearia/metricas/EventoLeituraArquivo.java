@@ -0,0 +1,43 @@
+package xela.chris.barbearia.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do Java Flight Recorder para a leitura completa de um arquivo de
+ * repositório (as leituras respondidas só pela data e tamanho do arquivo
+ * não geram evento).
+ *
+ * <p>
+ * A duração cobre a leitura do disco e, se o conteúdo mudou, a conversão
+ * dos registros; {@code conversao} indica se houve conversão. Assim, em
+ * uma gravação do JFR, leituras sem conversão mostram o tempo de disco e
+ * as demais somam disco e CPU.
+ * </p>
+ */
+@Name("xela.chris.barbearia.LeituraArquivo")
+@Label("Leitura de Arquivo")
+@Category({"Barbearia", "Persistência"})
+@Description("Leitura completa de um arquivo de repositório")
+@StackTrace(false)
+public class EventoLeituraArquivo extends Event {
+
+    @Label("Arquivo")
+    public String arquivo;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Registros")
+    public int registros;
+
+    @Label("Conversão")
+    @Description("Se o conteúdo foi convertido (falso quando era igual ao do cache)")
+    public boolean conversao;
+}
@@ -0,0 +1,35 @@
+package xela.chris.barbearia.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do Java Flight Recorder para a geração de uma nota fiscal,
+ * incluindo a gravação no journal de notas e no índice de vendas.
+ */
+@Name("xela.chris.barbearia.NotaFiscal")
+@Label("Nota Fiscal")
+@Category({"Barbearia", "Vendas"})
+@Description("Geração de uma nota fiscal")
+public class EventoNotaFiscal extends Event {
+
+    @Label("Nota")
+    @Description("ID da nota gerada, ou 0 se não foi gerada")
+    public int notaId;
+
+    @Label("Agendamento")
+    public int agendamentoId;
+
+    @Label("Vendas Recebidas")
+    public int vendasRecebidas;
+
+    @Label("Vendas Faturadas")
+    @Description("Vendas incluídas na nota (as já faturadas em outra nota ficam de fora)")
+    public int vendasFaturadas;
+
+    @Label("Valor Total (centavos)")
+    public long valorTotalCentavos;
+}
@@ -0,0 +1,106 @@
+package xela.chris.barbearia.metricas;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava periodicamente o {@link Metricas#relatorio()} no fim de um arquivo
+ * de log, em uma thread de segundo plano.
+ *
+ * <p>
+ * Cada exportação acrescenta um retrato completo ao arquivo; comparando
+ * dois retratos seguidos dá para ver quais operações foram executadas no
+ * intervalo e quanto tempo levaram. Ao parar, um último retrato é gravado.
+ * </p>
+ */
+public class ExportadorMetricas {
+
+    /** Arquivo padrão do log, relativo à pasta de trabalho. */
+    public static final String ARQUIVO_PADRAO = "metricas.log";
+
+    private final Metricas metricas;
+    private ScheduledExecutorService executor;
+    private File arquivo;
+
+    /**
+     * Cria um exportador das métricas informadas.
+     *
+     * @param metricas Registro a exportar.
+     */
+    public ExportadorMetricas(Metricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Começa a exportar a cada {@code intervaloSegundos}. Se já estiver
+     * exportando, para a exportação anterior antes.
+     *
+     * @param arquivo           Arquivo de log (o conteúdo é acrescentado).
+     * @param intervaloSegundos Intervalo entre exportações, em segundos.
+     */
+    public synchronized void iniciar(File arquivo, long intervaloSegundos) {
+        if (intervaloSegundos <= 0) {
+            throw new IllegalArgumentException("O intervalo deve ser maior que zero.");
+        }
+        parar();
+        this.arquivo = arquivo;
+        this.executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "exportador-metricas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::exportar, intervaloSegundos, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Para a exportação periódica, gravando um último retrato. Não faz nada
+     * se o exportador não estiver ativo.
+     */
+    public synchronized void parar() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        exportar();
+    }
+
+    /**
+     * Indica se a exportação periódica está ativa.
+     *
+     * @return {@code true} se estiver exportando.
+     */
+    public synchronized boolean estaAtivo() {
+        return executor != null;
+    }
+
+    /**
+     * Retorna o arquivo da exportação atual ou da última.
+     *
+     * @return O arquivo de log, ou {@code null} se nunca foi iniciado.
+     */
+    public synchronized File getArquivo() {
+        return arquivo;
+    }
+
+    /** Acrescenta um retrato ao arquivo. */
+    private void exportar() {
+        try {
+            Files.write(arquivo.toPath(), (metricas.relatorio() + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
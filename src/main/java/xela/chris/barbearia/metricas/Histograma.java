@@ -0,0 +1,153 @@
+package xela.chris.barbearia.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores não negativos com memória fixa, no estilo do
+ * HdrHistogram.
+ *
+ * <p>
+ * Os valores menores que 64 têm uma faixa cada. A partir daí, cada
+ * potência de 2 é dividida em 32 faixas iguais, então um percentil
+ * calculado pelo histograma erra no máximo ~1,6% (metade de uma faixa).
+ * São 1.888 faixas para toda a faixa de {@code long}, ou seja, cerca de
+ * 15 KB por histograma, independentemente da quantidade de valores.
+ * </p>
+ *
+ * <p>
+ * {@link #registrar(long)} não usa trava e pode ser chamado de várias
+ * threads. As consultas feitas durante registros concorrentes podem não
+ * incluir os últimos valores.
+ * </p>
+ */
+public class Histograma {
+
+    /** Bits de precisão de cada potência de 2: 2^5 = 32 faixas. */
+    private static final int BITS_SUB = 5;
+    private static final int SUB_FAIXAS = 1 << BITS_SUB;
+
+    /** Valores abaixo deste limite têm uma faixa exata cada. */
+    private static final int LIMITE_EXATO = SUB_FAIXAS * 2;
+
+    private static final int FAIXAS = LIMITE_EXATO + (63 - BITS_SUB - 1) * SUB_FAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra um valor. Valores negativos contam como zero.
+     *
+     * @param valor Valor a registrar.
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        contagens.incrementAndGet(indice(v));
+        quantidade.increment();
+        soma.add(v);
+        maximo.accumulate(v);
+    }
+
+    /**
+     * Retorna a quantidade de valores registrados.
+     *
+     * @return Quantidade de valores.
+     */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    /**
+     * Retorna a soma dos valores registrados.
+     *
+     * @return Soma dos valores.
+     */
+    public long getSoma() {
+        return soma.sum();
+    }
+
+    /**
+     * Retorna o maior valor registrado (exato).
+     *
+     * @return Maior valor, ou 0 se não houver registros.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Retorna a média dos valores registrados.
+     *
+     * @return Média, ou 0 se não houver registros.
+     */
+    public double getMedia() {
+        long n = getQuantidade();
+        return n == 0 ? 0 : (double) getSoma() / n;
+    }
+
+    /**
+     * Calcula um percentil pelas faixas: o ponto médio da faixa onde cai o
+     * valor de posição {@code p}% (método do posto mais próximo), limitado
+     * ao máximo registrado.
+     *
+     * @param p Percentil, de 0 a 100.
+     * @return Valor aproximado do percentil, ou 0 se não houver registros.
+     */
+    public long percentil(double p) {
+        long total = 0;
+        long[] copia = new long[FAIXAS];
+        for (int i = 0; i < FAIXAS; i++) {
+            copia[i] = contagens.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, p)) / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= posicao) {
+                long inicio = limiteInferior(i);
+                long fim = i + 1 < FAIXAS ? limiteInferior(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(inicio + (fim - inicio) / 2, getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Zera o histograma.
+     */
+    public void zerar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        quantidade.reset();
+        soma.reset();
+        maximo.reset();
+    }
+
+    /** Faixa de um valor não negativo. */
+    static int indice(long valor) {
+        if (valor < LIMITE_EXATO) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (expoente - BITS_SUB)) & (SUB_FAIXAS - 1);
+        return LIMITE_EXATO + (expoente - BITS_SUB - 1) * SUB_FAIXAS + sub;
+    }
+
+    /** Menor valor que cai na faixa. */
+    static long limiteInferior(int indice) {
+        if (indice < LIMITE_EXATO) {
+            return indice;
+        }
+        int expoente = (indice - LIMITE_EXATO) / SUB_FAIXAS + BITS_SUB + 1;
+        int sub = (indice - LIMITE_EXATO) % SUB_FAIXAS;
+        return (long) (SUB_FAIXAS + sub) << (expoente - BITS_SUB);
+    }
+}
@@ -0,0 +1,177 @@
+package xela.chris.barbearia.metricas;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registro das métricas do sistema: contadores, temporizadores e medidores,
+ * identificados por nome (ex: {@code clientes.carregar},
+ * {@code repositorio.clientes.bytes}).
+ *
+ * <p>
+ * Os gerenciadores e repositórios usam o registro compartilhado
+ * ({@link #padrao()}). {@link #contador(String)} e
+ * {@link #temporizador(String)} criam a métrica no primeiro uso e devolvem
+ * a mesma instância depois, então podem ser guardados em campos estáticos.
+ * Os medidores leem um valor na hora do relatório (ex: o tamanho de uma
+ * lista) e guardam apenas uma referência fraca do objeto medido: quando ele
+ * deixa de ser usado, o medidor some do relatório. Se vários objetos
+ * registram o mesmo medidor (ex: gerenciadores criados por uma fachada
+ * além dos do menu), vale o primeiro que ainda estiver em uso.
+ * </p>
+ *
+ * <p>
+ * {@link #relatorio()} monta um retrato de todas as métricas, mostrado no
+ * menu de métricas e gravado periodicamente pelo {@link ExportadorMetricas}.
+ * </p>
+ *
+ * <p>
+ * Para ver operações individuais, os repositórios, o mediador de
+ * agendamentos e as notas fiscais também emitem eventos do Java Flight
+ * Recorder ({@link EventoLeituraArquivo}, {@link EventoGravacaoArquivo},
+ * {@link EventoAgendamento}, {@link EventoNotaFiscal}), que só custam algo
+ * com uma gravação ativa. Ex:
+ * {@code java -XX:StartFlightRecording=filename=barbearia.jfr ...} e depois
+ * {@code jfr print --events xela.chris.barbearia.GravacaoArquivo barbearia.jfr}.
+ * </p>
+ */
+public class Metricas {
+
+    private static final Metricas PADRAO = new Metricas();
+
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final Map<String, Contador> contadores = new ConcurrentHashMap<>();
+    private final Map<String, Temporizador> temporizadores = new ConcurrentHashMap<>();
+    private final Map<String, Medidor<?>> medidores = new ConcurrentHashMap<>();
+
+    /** Objeto medido (referência fraca) e a leitura do valor. */
+    private static class Medidor<T> {
+        private final WeakReference<T> alvo;
+        private final ToLongFunction<T> leitura;
+
+        Medidor(T alvo, ToLongFunction<T> leitura) {
+            this.alvo = new WeakReference<>(alvo);
+            this.leitura = leitura;
+        }
+
+        /** Valor atual, ou {@code null} se o objeto medido não existir mais. */
+        Long ler() {
+            T objeto = alvo.get();
+            return objeto == null ? null : leitura.applyAsLong(objeto);
+        }
+
+        boolean emUso() {
+            return alvo.get() != null;
+        }
+
+        boolean mede(Object objeto) {
+            return alvo.get() == objeto;
+        }
+    }
+
+    /**
+     * Retorna o registro compartilhado pelo sistema.
+     *
+     * @return O registro padrão.
+     */
+    public static Metricas padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * Retorna o contador com o nome informado, criando-o se necessário.
+     *
+     * @param nome Nome da métrica.
+     * @return O contador.
+     */
+    public Contador contador(String nome) {
+        return contadores.computeIfAbsent(nome, n -> new Contador());
+    }
+
+    /**
+     * Retorna o temporizador com o nome informado, criando-o se necessário.
+     *
+     * @param nome Nome da métrica.
+     * @return O temporizador.
+     */
+    public Temporizador temporizador(String nome) {
+        return temporizadores.computeIfAbsent(nome, n -> new Temporizador());
+    }
+
+    /**
+     * Registra um medidor, se ainda não houver um com o mesmo nome medindo
+     * um objeto em uso.
+     *
+     * @param nome    Nome da métrica.
+     * @param alvo    Objeto medido; guardado por referência fraca.
+     * @param leitura Função que lê o valor do objeto (ex: {@code g -> g.getTamanho()}).
+     * @param <T>     Tipo do objeto medido.
+     */
+    public <T> void medidor(String nome, T alvo, ToLongFunction<T> leitura) {
+        medidores.compute(nome, (n, atual) -> atual != null && atual.emUso() ? atual : new Medidor<>(alvo, leitura));
+    }
+
+    /**
+     * Remove um medidor, se ele ainda medir o objeto informado.
+     *
+     * @param nome Nome da métrica.
+     * @param alvo Objeto que o medidor deveria medir.
+     */
+    public void removerMedidor(String nome, Object alvo) {
+        medidores.computeIfPresent(nome, (n, medidor) -> medidor.mede(alvo) ? null : medidor);
+    }
+
+    /**
+     * Zera os contadores e temporizadores (os medidores são leituras na hora).
+     */
+    public void zerar() {
+        contadores.values().forEach(Contador::zerar);
+        temporizadores.values().forEach(Temporizador::zerar);
+    }
+
+    /**
+     * Monta um retrato de todas as métricas, em ordem de nome. Os tempos são
+     * mostrados em milissegundos; os percentis são aproximados (ver
+     * {@link Histograma}).
+     *
+     * @return Texto do relatório.
+     */
+    public String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== MÉTRICAS (").append(LocalDateTime.now().format(FORMATO_HORA)).append(") ===\n");
+
+        sb.append(String.format("%-48s %8s %10s %10s %10s %10s %10s%n",
+                "Temporizador", "Qtde", "Média(ms)", "p50(ms)", "p90(ms)", "p99(ms)", "Máx(ms)"));
+        for (Map.Entry<String, Temporizador> e : new TreeMap<>(temporizadores).entrySet()) {
+            Temporizador t = e.getValue();
+            if (t.getQuantidade() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-48s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n", e.getKey(),
+                    t.getQuantidade(), t.getMediaNanos() / 1e6, t.percentilNanos(50) / 1e6,
+                    t.percentilNanos(90) / 1e6, t.percentilNanos(99) / 1e6, t.getMaximoNanos() / 1e6));
+        }
+
+        sb.append(String.format("%n%-48s %12s%n", "Contador", "Valor"));
+        for (Map.Entry<String, Contador> e : new TreeMap<>(contadores).entrySet()) {
+            sb.append(String.format("%-48s %12d%n", e.getKey(), e.getValue().getValor()));
+        }
+
+        sb.append(String.format("%n%-48s %12s%n", "Medidor", "Valor"));
+        for (Map.Entry<String, Medidor<?>> e : new TreeMap<>(medidores).entrySet()) {
+            Long valor = e.getValue().ler();
+            if (valor == null) {
+                medidores.remove(e.getKey(), e.getValue());
+                continue;
+            }
+            sb.append(String.format("%-48s %12d%n", e.getKey(), valor));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package xela.chris.barbearia.metricas;
+
+/**
+ * Mede a duração de uma operação (ex: {@code clientes.carregar}) em um
+ * {@link Histograma} de nanossegundos.
+ *
+ * <p>
+ * Uso típico:
+ * </p>
+ * <pre>
+ * long inicio = TEMPO_CARREGAR.iniciar();
+ * try {
+ *     ...
+ * } finally {
+ *     TEMPO_CARREGAR.registrarDesde(inicio);
+ * }
+ * </pre>
+ */
+public class Temporizador {
+
+    private final Histograma histograma = new Histograma();
+
+    /**
+     * Marca o início de uma medição.
+     *
+     * @return Instante atual em nanossegundos, para {@link #registrarDesde(long)}.
+     */
+    public long iniciar() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra o tempo decorrido desde {@code inicio}.
+     *
+     * @param inicio Valor devolvido por {@link #iniciar()}.
+     */
+    public void registrarDesde(long inicio) {
+        histograma.registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Registra uma duração já medida.
+     *
+     * @param nanos Duração em nanossegundos.
+     */
+    public void registrar(long nanos) {
+        histograma.registrar(nanos);
+    }
+
+    /**
+     * Retorna quantas vezes a operação foi medida.
+     *
+     * @return Quantidade de medições.
+     */
+    public long getQuantidade() {
+        return histograma.getQuantidade();
+    }
+
+    /**
+     * Retorna o tempo total das medições.
+     *
+     * @return Soma das durações em nanossegundos.
+     */
+    public long getTotalNanos() {
+        return histograma.getSoma();
+    }
+
+    /**
+     * Retorna a duração média.
+     *
+     * @return Média em nanossegundos.
+     */
+    public double getMediaNanos() {
+        return histograma.getMedia();
+    }
+
+    /**
+     * Retorna a maior duração medida.
+     *
+     * @return Máximo em nanossegundos.
+     */
+    public long getMaximoNanos() {
+        return histograma.getMaximo();
+    }
+
+    /**
+     * Retorna um percentil aproximado das durações (ver {@link Histograma#percentil(double)}).
+     *
+     * @param p Percentil, de 0 a 100.
+     * @return Percentil em nanossegundos.
+     */
+    public long percentilNanos(double p) {
+        return histograma.percentil(p);
+    }
+
+    /**
+     * Descarta as medições.
+     */
+    public void zerar() {
+        histograma.zerar();
+    }
+}
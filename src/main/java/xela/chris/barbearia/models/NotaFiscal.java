@@ -1,6 +1,10 @@
 package xela.chris.barbearia.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.Dinheiro;
 
 
 import java.util.ArrayList;
@@ -21,7 +25,14 @@ import java.util.concurrent.atomic.AtomicInteger;
  * - Armazenar as vendas de produtos associadas.
  * - Calcular e atualizar automaticamente o {@code valorTotal}
  * com base nos serviços e produtos.
+ *
+ * No JSON, agendamento, serviços e vendas são gravados apenas pelos IDs
+ * ({@code agendamentoId}, {@code servicoIds}, {@code vendaIds}) e ligados
+ * novamente na carga pelo {@code GerenciarNotaFiscal}. O {@code valorTotal}
+ * gravado é mantido como valor emitido, mesmo que alguma referência não seja
+ * mais encontrada.
  */
+@JsonPropertyOrder({"id", "dataEmissao", "valorTotal"})
 public class NotaFiscal {
 
     /** Contador estático para gerar IDs únicos para novas notas fiscais. */
@@ -35,8 +46,14 @@ public class NotaFiscal {
     private List<Venda> vendasProdutos = new ArrayList<>();
     /** Lista de Produtos (itens) extraída das vendasProdutos. */
     private List<Produto> itens = new ArrayList<>();
-    /** Valor total (Serviços + Produtos). */
-    private double valorTotal;
+    /** Valor total (Serviços + Produtos), em centavos. */
+    private long valorTotalCentavos;
+    /** ID do agendamento ({@code 0} para notas apenas de produtos). */
+    private int agendamentoId;
+    /** IDs dos serviços, gravados no JSON no lugar dos objetos completos. */
+    private List<Integer> servicoIds = new ArrayList<>();
+    /** IDs das vendas, gravados no JSON no lugar dos objetos completos. */
+    private List<Integer> vendaIds = new ArrayList<>();
 
     /**
      * Construtor padrão (sem argumentos).
@@ -80,13 +97,7 @@ public class NotaFiscal {
     public NotaFiscal(Agendamento agendamento, List<Venda> vendasProdutos) {
         this.id = contador.incrementAndGet();
         this.dataEmissao = new Date();
-        this.agendamento = agendamento;
-        if (agendamento != null) {
-            List<Servico> servicosAgendamento = agendamento.getServicos();
-            this.servicos = servicosAgendamento != null ? new ArrayList<>(servicosAgendamento) : new ArrayList<>();
-        } else {
-            this.servicos = new ArrayList<>();
-        }
+        setAgendamento(agendamento);
         setVendasProdutos(vendasProdutos);
         atualizarValorTotal();
     }
@@ -131,8 +142,11 @@ public class NotaFiscal {
     /**
      * Obtém o agendamento que originou esta nota fiscal (fonte dos serviços).
      *
+     * Não é gravado no JSON (apenas lido de arquivos no formato antigo).
+     *
      * @return O objeto {@link Agendamento} associado.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public Agendamento getAgendamento() {
         return agendamento;
     }
@@ -146,12 +160,14 @@ public class NotaFiscal {
      */
     public void setAgendamento(Agendamento agendamento) {
         this.agendamento = agendamento;
+        this.agendamentoId = agendamento != null ? agendamento.getId() : 0;
         if (agendamento != null) {
             List<Servico> servicosAgendamento = agendamento.getServicos();
             this.servicos = servicosAgendamento != null ? new ArrayList<>(servicosAgendamento) : new ArrayList<>();
         } else {
             this.servicos = new ArrayList<>();
         }
+        atualizarIdsServicos();
         atualizarValorTotal();
     }
 
@@ -159,8 +175,11 @@ public class NotaFiscal {
     /**
      * Obtém a lista de serviços incluídos nesta nota (geralmente vinda do agendamento).
      *
+     * Não é gravada no JSON (apenas lida de arquivos no formato antigo).
+     *
      * @return Uma {@link List} de {@link Servico}.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public List<Servico> getServicos() {
         return servicos;
     }
@@ -173,6 +192,7 @@ public class NotaFiscal {
      */
     public void setServicos(List<Servico> servicos) {
         this.servicos = servicos != null ? servicos : new ArrayList<>();
+        atualizarIdsServicos();
         atualizarValorTotal();
     }
 
@@ -182,6 +202,7 @@ public class NotaFiscal {
      *
      * @return Uma {@link List} de {@link Produto}.
      */
+    @JsonIgnore
     public List<Produto> getItens() {
         return itens;
     }
@@ -192,14 +213,38 @@ public class NotaFiscal {
      * @return O valor total (double).
      */
     public double getValorTotal() {
-        return valorTotal;
+        return Dinheiro.paraReais(valorTotalCentavos);
+    }
+
+    /**
+     * Obtém o valor total da nota em centavos. Não é gravado no JSON.
+     *
+     * @return O valor total em centavos.
+     */
+    @JsonIgnore
+    public long getValorTotalCentavos() {
+        return valorTotalCentavos;
+    }
+
+    /**
+     * Define o valor total gravado no JSON (em reais), mantido como valor
+     * emitido sem recalcular.
+     *
+     * @param valorTotal O valor total em reais.
+     */
+    @JsonProperty("valorTotal")
+    private void setValorTotal(double valorTotal) {
+        this.valorTotalCentavos = Dinheiro.deReais(valorTotal);
     }
 
     /**
      * Retorna a lista de vendas de produtos associadas a esta nota.
      *
+     * Não é gravada no JSON (apenas lida de arquivos no formato antigo).
+     *
      * @return Uma {@link List} de {@link Venda}.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public List<Venda> getVendasProdutos() {
         return vendasProdutos;
     }
@@ -217,6 +262,7 @@ public class NotaFiscal {
         } else {
             this.vendasProdutos = new ArrayList<>(vendasProdutos);
         }
+        atualizarIdsVendas();
         atualizarItensProdutos();
         atualizarValorTotal();
     }
@@ -234,27 +280,130 @@ public class NotaFiscal {
                 this.vendasProdutos = new ArrayList<>();
             }
             this.vendasProdutos.add(venda);
+            this.vendaIds.add(venda.getId());
             atualizarItensProdutos();
             atualizarValorTotal();
         }
     }
 
+    /**
+     * Obtém o ID do agendamento da nota ({@code 0} se for apenas de produtos).
+     *
+     * @return O ID do agendamento.
+     */
+    public int getAgendamentoId() {
+        return agendamentoId;
+    }
+
+    /**
+     * Define o ID do agendamento (usado na leitura do JSON).
+     *
+     * @param agendamentoId ID do agendamento.
+     */
+    public void setAgendamentoId(int agendamentoId) {
+        this.agendamentoId = agendamentoId;
+    }
+
+    /**
+     * Obtém os IDs dos serviços incluídos na nota.
+     *
+     * @return Lista de IDs de serviços.
+     */
+    public List<Integer> getServicoIds() {
+        return servicoIds;
+    }
+
+    /**
+     * Define os IDs dos serviços (usado na leitura do JSON).
+     *
+     * @param servicoIds Lista de IDs de serviços.
+     */
+    public void setServicoIds(List<Integer> servicoIds) {
+        this.servicoIds = servicoIds != null ? servicoIds : new ArrayList<>();
+    }
+
+    /**
+     * Obtém os IDs das vendas de produtos incluídas na nota.
+     *
+     * @return Lista de IDs de vendas.
+     */
+    public List<Integer> getVendaIds() {
+        return vendaIds;
+    }
+
+    /**
+     * Define os IDs das vendas (usado na leitura do JSON).
+     *
+     * @param vendaIds Lista de IDs de vendas.
+     */
+    public void setVendaIds(List<Integer> vendaIds) {
+        this.vendaIds = vendaIds != null ? vendaIds : new ArrayList<>();
+    }
+
+    /**
+     * Liga os objetos carregados pelos gerenciadores aos IDs lidos do JSON.
+     * O {@code valorTotal} gravado não é recalculado. Referências não
+     * encontradas ({@code null}) mantêm o objeto atual.
+     *
+     * @param agendamento    Agendamento correspondente a {@link #getAgendamentoId()}.
+     * @param servicos       Serviços encontrados para {@link #getServicoIds()}.
+     * @param vendasProdutos Vendas encontradas para {@link #getVendaIds()}.
+     */
+    public void resolverReferencias(Agendamento agendamento, List<Servico> servicos, List<Venda> vendasProdutos) {
+        if (agendamento != null) {
+            this.agendamento = agendamento;
+        }
+        if (servicos != null) {
+            this.servicos = servicos;
+        }
+        if (vendasProdutos != null) {
+            this.vendasProdutos = vendasProdutos;
+            atualizarItensProdutos();
+        }
+    }
+
+    private void atualizarIdsServicos() {
+        this.servicoIds = new ArrayList<>(servicos.size());
+        for (Servico s : servicos) {
+            this.servicoIds.add(s.getId());
+        }
+    }
+
+    private void atualizarIdsVendas() {
+        this.vendaIds = new ArrayList<>(vendasProdutos.size());
+        for (Venda v : vendasProdutos) {
+            this.vendaIds.add(v.getId());
+        }
+    }
+
     /**
      * Calcula a soma dos preços de todos os serviços na lista {@code servicos}.
      *
-     * @return O total (double) dos serviços.
+     * @return O total dos serviços, em centavos.
      */
-    private double calcularTotalServicos() {
-        return servicos == null ? 0.0 : servicos.stream().mapToDouble(Servico::getPreco).sum();
+    private long calcularTotalServicos() {
+        long total = 0;
+        if (servicos != null) {
+            for (Servico servico : servicos) {
+                total += servico.getPrecoCentavos();
+            }
+        }
+        return total;
     }
 
     /**
      * Calcula a soma dos valores de todas as vendas na lista {@code vendasProdutos}.
      *
-     * @return O total (double) dos produtos.
+     * @return O total dos produtos, em centavos.
      */
-    private double calcularTotalProdutos() {
-        return vendasProdutos == null ? 0.0 : vendasProdutos.stream().mapToDouble(Venda::getValorTotal).sum();
+    private long calcularTotalProdutos() {
+        long total = 0;
+        if (vendasProdutos != null) {
+            for (Venda venda : vendasProdutos) {
+                total += venda.getValorTotalCentavos();
+            }
+        }
+        return total;
     }
 
     /**
@@ -278,7 +427,7 @@ public class NotaFiscal {
      * e o total de produtos.
      */
     private void atualizarValorTotal() {
-        this.valorTotal = calcularTotalServicos() + calcularTotalProdutos();
+        this.valorTotalCentavos = calcularTotalServicos() + calcularTotalProdutos();
     }
 
 
@@ -294,6 +443,16 @@ public class NotaFiscal {
         contador.set(ultimoId);
     }
 
+    /**
+     * Avança o contador até {@code ultimoId}, sem voltá-lo se já estiver
+     * adiante (ex: notas geradas por outro terminal).
+     *
+     * @param ultimoId O maior ID conhecido.
+     */
+    public static void avancarContador(int ultimoId) {
+        contador.accumulateAndGet(ultimoId, Math::max);
+    }
+
 
     /**
      * Retorna uma representação em String formatada da nota fiscal.
@@ -317,7 +476,7 @@ public class NotaFiscal {
         List<Servico> servicosExibicao = servicos != null ? servicos : new ArrayList<>();
         String listaServicos = "";
         for (Servico s : servicosExibicao) {
-            listaServicos += "  • " + s.getNome() + " - R$ " + String.format("%.2f", s.getPreco()) + "\n";
+            listaServicos += "  • " + s.getNome() + " - R$ " + Dinheiro.formatar(s.getPrecoCentavos()) + "\n";
         }
 
         if (listaServicos.isEmpty()) {
@@ -330,7 +489,7 @@ public class NotaFiscal {
             String produtoNome = venda.getProduto() != null ? venda.getProduto().getNome() : "Produto N/A";
             listaProdutos += "  • " + produtoNome +
                     " x" + venda.getQuantidade() +
-                    " - R$ " + String.format("%.2f", venda.getValorTotal()) +
+                    " - R$ " + Dinheiro.formatar(venda.getValorTotalCentavos()) +
                     "\n";
         }
 
@@ -355,7 +514,7 @@ public class NotaFiscal {
                 "\n Funcionário: " + funcionarioNome +
                 "\n Serviços:\n" + listaServicos +
                 " Produtos:\n" + listaProdutos +
-                " Valor Total: R$ " + String.format("%.2f", valorTotal) +
+                " Valor Total: R$ " + Dinheiro.formatar(valorTotalCentavos) +
                 "\n===============";
     }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package xela.chris.barbearia.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.Dinheiro;
 import xela.chris.barbearia.models.Servico;
 import xela.chris.barbearia.models.Venda;
 
@@ -17,6 +21,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * O contador estático {@code contador} armazena o total de instâncias criadas.
  * </p>
  */
+@JsonPropertyOrder({"id", "servicoId", "clienteCpf", "funcionarioCpf", "valorTotal"})
 public class OrdemDeServico {
     /** Contador estático para rastrear o número total de OS criadas. */
     private static final AtomicInteger contador = new AtomicInteger(0);
@@ -33,8 +38,8 @@ public class OrdemDeServico {
     /** O CPF do Funcionario que realizou o serviço. */
     private String funcionarioCpf;
 
-    /** O valor total consolidado dos serviços/produtos. */
-    private double valorTotal;
+    /** O valor total consolidado dos serviços/produtos, em centavos. */
+    private long valorTotalCentavos;
 
     /** Notas ou diagnóstico do profissional sobre o serviço realizado (usado como descrição). */
     private String descricaoServico;
@@ -42,6 +47,9 @@ public class OrdemDeServico {
     /** A data em que o serviço foi realizado (armazenada como String, ex: "dd/MM/yyyy"). */
     private String dataDoServico;
 
+    /** {@code dataDoServico} em dias desde 01/01/1970, calculado ao definir a data. */
+    private int diaDoServico = DataHora.SEM_DATA;
+
 
     /**
      * Construtor padrão (sem argumentos).
@@ -69,9 +77,9 @@ public class OrdemDeServico {
         this.servicoId = servicoId;
         this.clienteCpf = clienteCpf;
         this.funcionarioCpf = funcionarioCpf;
-        this.valorTotal = valorTotal;
+        this.valorTotalCentavos = Dinheiro.deReais(valorTotal);
         this.descricaoServico = descricaoServico;
-        this.dataDoServico = dataDoServico;
+        setDataDoServico(dataDoServico);
     }
 
 
@@ -162,14 +170,22 @@ public class OrdemDeServico {
      *
      * @return O valor total.
      */
-    public double getValorTotal() { return valorTotal; }
+    public double getValorTotal() { return Dinheiro.paraReais(valorTotalCentavos); }
+
+    /**
+     * Retorna o valor total da Ordem de Serviço em centavos. Não é gravado no JSON.
+     *
+     * @return O valor total em centavos.
+     */
+    @JsonIgnore
+    public long getValorTotalCentavos() { return valorTotalCentavos; }
 
     /**
      * Define o valor total consolidado da Ordem de Serviço.
      *
      * @param valorTotal O novo valor total.
      */
-    public void setValorTotal(double valorTotal) { this.valorTotal = valorTotal; }
+    public void setValorTotal(double valorTotal) { this.valorTotalCentavos = Dinheiro.deReais(valorTotal); }
 
     /**
      * Retorna a descrição ou notas do serviço realizado.
@@ -197,7 +213,19 @@ public class OrdemDeServico {
      *
      * @param dataDoServico A nova data do serviço.
      */
-    public void setDataDoServico(String dataDoServico) { this.dataDoServico = dataDoServico; }
+    public void setDataDoServico(String dataDoServico) {
+        this.dataDoServico = dataDoServico;
+        this.diaDoServico = DataHora.paraDia(dataDoServico);
+    }
+
+    /**
+     * Retorna a data do serviço como dias desde 01/01/1970, usada para
+     * comparar datas sem comparar texto. Não é gravada no JSON.
+     *
+     * @return dias desde 01/01/1970, ou {@link DataHora#SEM_DATA} se a data for inválida.
+     */
+    @JsonIgnore
+    public int getDiaDoServico() { return diaDoServico; }
 
     /**
      * Retorna uma representação textual completa da Ordem de Serviço.
@@ -212,7 +240,7 @@ public class OrdemDeServico {
                 "\n Serviço ID: " + servicoId +
                 "\n Cliente CPF: " + clienteCpf +
                 "\n Funcionário CPF: " + funcionarioCpf +
-                "\n Valor Total: R$ " + String.format("%.2f", valorTotal) +
+                "\n Valor Total: R$ " + Dinheiro.formatar(valorTotalCentavos) +
                 "\n Descrição/Diagnóstico: " + (descricaoServico != null ? descricaoServico : "N/A");
     }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package xela.chris.barbearia.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import xela.chris.barbearia.negocio.Dinheiro;
+
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -15,12 +19,14 @@ import java.util.concurrent.atomic.AtomicInteger;
  * ({@link AtomicInteger}), garantindo unicidade entre os objetos criados.
  * </p>
  */
+@JsonPropertyOrder({"id", "nome", "valor"})
 public class Produto {
 
     private static final AtomicInteger contador = new AtomicInteger(0);
     private int id;
     private String nome;
-    private double valor;
+    /** Valor unitário em centavos (gravado no JSON em reais, como {@code valor}). */
+    private long valorCentavos;
     private int quantidade;
 
     /**
@@ -46,7 +52,7 @@ public class Produto {
     public Produto(String nome, double valor, int quantidade) {
         this.id = contador.incrementAndGet();
         this.nome = nome;
-        this.valor = valor;
+        this.valorCentavos = Dinheiro.deReais(valor);
         this.quantidade = quantidade;
     }
 
@@ -114,7 +120,17 @@ public class Produto {
      * @return o valor do produto
      */
     public double getValor() {
-        return valor;
+        return Dinheiro.paraReais(valorCentavos);
+    }
+
+    /**
+     * Retorna o valor unitário do produto em centavos. Não é gravado no JSON.
+     *
+     * @return o valor do produto em centavos
+     */
+    @JsonIgnore
+    public long getValorCentavos() {
+        return valorCentavos;
     }
 
     /**
@@ -123,7 +139,7 @@ public class Produto {
      * @param valor o novo valor do produto
      */
     public void setValor(double valor) {
-        this.valor = valor;
+        this.valorCentavos = Dinheiro.deReais(valor);
     }
 
     /**
@@ -150,7 +166,7 @@ public class Produto {
         return "\n===============" +
                 "\n ID: " + id +
                 "\n Nome: " + nome +
-                "\n Valor: " + valor +
+                "\n Valor: " + getValor() +
                 "\n Quantidade: " + quantidade +
                 "\n";
     }
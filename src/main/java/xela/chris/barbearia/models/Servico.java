@@ -1,13 +1,18 @@
 package xela.chris.barbearia.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import xela.chris.barbearia.negocio.Dinheiro;
+
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Representa um serviço oferecido pela barbearia, como corte de cabelo,
  * barba, sobrancelha ou outros atendimentos. Cada serviço possui um ID
- * gerado automaticamente, além de nome, preço, descrição e uma flag indicando
- * se utiliza ou não os recursos de lavagem/secagem.
+ * gerado automaticamente, além de nome, preço, descrição, duração e uma flag
+ * indicando se utiliza ou não os recursos de lavagem/secagem.
  */
+@JsonPropertyOrder({"id", "nome", "preco"})
 public class Servico {
 
     /** Contador usado para geração automática e thread-safe de IDs. */
@@ -33,8 +38,8 @@ public class Servico {
     /** Nome do serviço (ex.: "Corte", "Barba", "Corte + Barba"). */
     private String nome;
 
-    /** Preço do serviço em reais. */
-    private double preco;
+    /** Preço do serviço em centavos (gravado no JSON em reais, como {@code preco}). */
+    private long precoCentavos;
 
     /** Indica se o serviço utiliza o processo de lavagem e secagem. */
     private boolean utilizaLavagemSecagem = false;
@@ -42,6 +47,12 @@ public class Servico {
     /** Descrição detalhada do serviço. */
     private String descricao;
 
+    /** Duração usada para serviços gravados antes da existência do campo. */
+    public static final int DURACAO_PADRAO_MINUTOS = 30;
+
+    /** Tempo, em minutos, que o serviço ocupa o funcionário e a cadeira. */
+    private int duracaoMinutos = DURACAO_PADRAO_MINUTOS;
+
     /**
      * Construtor padrão requerido pelo Jackson para operações de desserialização.
      * Não inicializa ID automaticamente.
@@ -60,7 +71,7 @@ public class Servico {
     public Servico(String nome, double preco, boolean utilizaLavagemSecagem, String descricao) {
         this.id = contador.incrementAndGet();
         this.nome = nome;
-        this.preco = preco;
+        this.precoCentavos = Dinheiro.deReais(preco);
         this.utilizaLavagemSecagem = utilizaLavagemSecagem;
         this.descricao = descricao;
         
@@ -129,7 +140,17 @@ public class Servico {
      * @return valor em reais
      */
     public double getPreco() {
-        return preco;
+        return Dinheiro.paraReais(precoCentavos);
+    }
+
+    /**
+     * Retorna o preço do serviço em centavos. Não é gravado no JSON.
+     *
+     * @return valor em centavos
+     */
+    @JsonIgnore
+    public long getPrecoCentavos() {
+        return precoCentavos;
     }
 
     /**
@@ -138,7 +159,7 @@ public class Servico {
      * @param preco novo valor
      */
     public void setPreco(double preco) {
-        this.preco = preco;
+        this.precoCentavos = Dinheiro.deReais(preco);
     }
 
     /**
@@ -159,6 +180,25 @@ public class Servico {
         this.descricao = descricao;
     }
 
+    /**
+     * Retorna a duração do serviço.
+     *
+     * @return duração em minutos
+     */
+    public int getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Define a duração do serviço. Valores menores ou iguais a zero
+     * retornam à duração padrão.
+     *
+     * @param duracaoMinutos duração em minutos
+     */
+    public void setDuracaoMinutos(int duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos > 0 ? duracaoMinutos : DURACAO_PADRAO_MINUTOS;
+    }
+
     /**
      * Atualiza o contador de IDs para manter consistência ao carregar
      * serviços já existentes do armazenamento.
@@ -211,8 +251,9 @@ public class Servico {
         return "\n===============" +
                 "\n ID: " + id +
                 "\n Nome: " + nome +
-                "\n Preço: R$ " + preco +
+                "\n Preço: R$ " + getPreco() +
                 "\n Descrição: " + descricao +
+                "\n Duração: " + duracaoMinutos + " min" +
                 "\n===============";
     }
 }
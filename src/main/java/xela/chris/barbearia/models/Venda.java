@@ -1,5 +1,11 @@
 package xela.chris.barbearia.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import xela.chris.barbearia.negocio.DataHora;
+import xela.chris.barbearia.negocio.Dinheiro;
+
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -11,7 +17,13 @@ import java.util.concurrent.atomic.AtomicInteger;
  * garantindo unicidade mesmo com múltiplas vendas sendo criadas. Esse contador
  * pode ser sincronizado com o maior ID existente ao carregar dados de arquivos,
  * evitando duplicações quando o sistema é reiniciado.</p>
+ *
+ * <p>No JSON, produto e cliente são gravados apenas pelos IDs
+ * ({@code produtoId}, {@code clienteId}) e ligados novamente na carga pelo
+ * {@code GerenciarVenda}. Os valores financeiros continuam gravados, pois
+ * refletem o preço no momento da venda.</p>
  */
+@JsonPropertyOrder({"id", "produtoId", "clienteId", "quantidade", "valorUnitario", "valorTotal"})
 public class Venda {
 
     /** Contador usado para geração automática e segura de IDs. */
@@ -26,19 +38,28 @@ public class Venda {
     /** Cliente que realizou a compra. */
     private Cliente cliente;
 
+    /** ID do produto, gravado no JSON no lugar do objeto completo. */
+    private int produtoId;
+
+    /** ID do cliente, gravado no JSON no lugar do objeto completo. */
+    private int clienteId;
+
 
     /** Quantidade de unidades vendidas. */
     private int quantidade;
 
-    /** Valor unitário do produto no momento da venda. */
-    private double valorUnitario;
+    /** Valor unitário do produto no momento da venda, em centavos. */
+    private long valorUnitarioCentavos;
 
-    /** Valor total calculado (quantidade × valor unitário). */
-    private double valorTotal;
+    /** Valor total calculado (quantidade × valor unitário), em centavos. */
+    private long valorTotalCentavos;
 
     /** Data da venda no formato dd/MM/yyyy. */
     private String dataVenda;
 
+    /** {@code dataVenda} em dias desde 01/01/1970, calculado ao definir a data. */
+    private int diaVenda = DataHora.SEM_DATA;
+
     /**
      * Construtor padrão utilizado em operações de serialização e desserialização JSON.
      * Não executa cálculos automáticos.
@@ -57,11 +78,12 @@ public class Venda {
     public Venda(Produto produto, Cliente cliente, int quantidade, String dataVenda) {
         this.id = contador.incrementAndGet();
         this.produto = produto;
-        this.cliente = cliente;
+        this.produtoId = produto.getId();
+        setCliente(cliente);
         this.quantidade = quantidade;
-        this.valorUnitario = produto.getValor();
-        this.valorTotal = quantidade * this.valorUnitario;
-        this.dataVenda = dataVenda;
+        this.valorUnitarioCentavos = produto.getValorCentavos();
+        this.valorTotalCentavos = Dinheiro.multiplicar(valorUnitarioCentavos, quantidade);
+        setDataVenda(dataVenda);
     }
 
     /**
@@ -84,9 +106,11 @@ public class Venda {
 
     /**
      * Retorna o produto vendido.
+     * Não é gravado no JSON (apenas lido de arquivos no formato antigo).
      *
      * @return objeto Produto
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public Produto getProduto() {
         return produto;
     }
@@ -98,15 +122,18 @@ public class Venda {
      */
     public void setProduto(Produto produto) {
         this.produto = produto;
-        this.valorUnitario = produto.getValor();
-        this.valorTotal = this.quantidade * this.valorUnitario;
+        this.produtoId = produto.getId();
+        this.valorUnitarioCentavos = produto.getValorCentavos();
+        this.valorTotalCentavos = Dinheiro.multiplicar(valorUnitarioCentavos, quantidade);
     }
 
     /**
      * Retorna o cliente associado à venda.
+     * Não é gravado no JSON (apenas lido de arquivos no formato antigo).
      *
      * @return cliente que realizou a compra
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public Cliente getCliente() {
         return cliente;
     }
@@ -118,6 +145,62 @@ public class Venda {
      */
     public void setCliente(Cliente cliente) {
         this.cliente = cliente;
+        if (cliente != null) {
+            this.clienteId = cliente.getId();
+        }
+    }
+
+    /**
+     * Retorna o ID do produto vendido.
+     *
+     * @return ID do produto
+     */
+    public int getProdutoId() {
+        return produtoId;
+    }
+
+    /**
+     * Define o ID do produto (usado na leitura do JSON).
+     *
+     * @param produtoId ID do produto
+     */
+    public void setProdutoId(int produtoId) {
+        this.produtoId = produtoId;
+    }
+
+    /**
+     * Retorna o ID do cliente da venda ({@code 0} se não houver cliente).
+     *
+     * @return ID do cliente
+     */
+    public int getClienteId() {
+        return clienteId;
+    }
+
+    /**
+     * Define o ID do cliente (usado na leitura do JSON).
+     *
+     * @param clienteId ID do cliente
+     */
+    public void setClienteId(int clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    /**
+     * Liga os objetos carregados pelos gerenciadores aos IDs lidos do JSON,
+     * sem recalcular valores. Referências não encontradas ({@code null})
+     * mantêm o objeto atual.
+     *
+     * @param produto produto correspondente a {@link #getProdutoId()}
+     * @param cliente cliente correspondente a {@link #getClienteId()}
+     */
+    public void resolverReferencias(Produto produto, Cliente cliente) {
+        if (produto != null) {
+            this.produto = produto;
+        }
+        if (cliente != null) {
+            this.cliente = cliente;
+        }
     }
 
 
@@ -137,7 +220,7 @@ public class Venda {
      */
     public void setQuantidade(int quantidade) {
         this.quantidade = quantidade;
-        this.valorTotal = this.quantidade * this.valorUnitario;
+        this.valorTotalCentavos = Dinheiro.multiplicar(valorUnitarioCentavos, quantidade);
     }
 
     /**
@@ -146,7 +229,27 @@ public class Venda {
      * @return valor unitário
      */
     public double getValorUnitario() {
-        return valorUnitario;
+        return Dinheiro.paraReais(valorUnitarioCentavos);
+    }
+
+    /**
+     * Retorna o valor unitário em centavos. Não é gravado no JSON.
+     *
+     * @return valor unitário em centavos
+     */
+    @JsonIgnore
+    public long getValorUnitarioCentavos() {
+        return valorUnitarioCentavos;
+    }
+
+    /**
+     * Define o valor unitário gravado no JSON (em reais).
+     *
+     * @param valorUnitario valor unitário em reais
+     */
+    @JsonProperty("valorUnitario")
+    private void setValorUnitario(double valorUnitario) {
+        this.valorUnitarioCentavos = Dinheiro.deReais(valorUnitario);
     }
 
     /**
@@ -155,7 +258,27 @@ public class Venda {
      * @return quantidade × valor unitário
      */
     public double getValorTotal() {
-        return valorTotal;
+        return Dinheiro.paraReais(valorTotalCentavos);
+    }
+
+    /**
+     * Retorna o valor total da venda em centavos. Não é gravado no JSON.
+     *
+     * @return quantidade × valor unitário, em centavos
+     */
+    @JsonIgnore
+    public long getValorTotalCentavos() {
+        return valorTotalCentavos;
+    }
+
+    /**
+     * Define o valor total gravado no JSON (em reais), sem recalcular.
+     *
+     * @param valorTotal valor total em reais
+     */
+    @JsonProperty("valorTotal")
+    private void setValorTotal(double valorTotal) {
+        this.valorTotalCentavos = Dinheiro.deReais(valorTotal);
     }
 
     /**
@@ -174,6 +297,18 @@ public class Venda {
      */
     public void setDataVenda(String dataVenda) {
         this.dataVenda = dataVenda;
+        this.diaVenda = DataHora.paraDia(dataVenda);
+    }
+
+    /**
+     * Retorna a data da venda como dias desde 01/01/1970, usada para
+     * comparar datas sem comparar texto. Não é gravada no JSON.
+     *
+     * @return dias desde 01/01/1970, ou {@link DataHora#SEM_DATA} se a data for inválida
+     */
+    @JsonIgnore
+    public int getDiaVenda() {
+        return diaVenda;
     }
 
     /**
@@ -186,6 +321,26 @@ public class Venda {
         contador.set(ultimoId);
     }
 
+    /**
+     * Avança o contador de IDs até {@code ultimoId}, sem voltá-lo se já
+     * estiver adiante (ex: IDs reservados por outro terminal).
+     *
+     * @param ultimoId maior ID conhecido
+     */
+    public static void avancarContador(int ultimoId) {
+        contador.accumulateAndGet(ultimoId, Math::max);
+    }
+
+    /**
+     * Reserva o próximo ID do contador, para trocar o ID de uma venda que
+     * poderia colidir com um usado por outro terminal.
+     *
+     * @return novo ID
+     */
+    public static int proximoId() {
+        return contador.incrementAndGet();
+    }
+
     /**
      * Retorna uma representação textual formatada da venda.
      *
@@ -195,11 +350,11 @@ public class Venda {
     public String toString() {
         return "\n===============" +
                 "\n ID: " + id +
-                "\n Produto: " + produto.getNome() +
+                "\n Produto: " + (produto != null ? produto.getNome() : "N/A") +
                 "\n Cliente: " + (cliente != null ? cliente.getNome() : "N/A") +
                 "\n Quantidade: " + quantidade +
-                "\n Valor Unitário: " + valorUnitario +
-                "\n Valor Total: " + valorTotal +
+                "\n Valor Unitário: " + getValorUnitario() +
+                "\n Valor Total: " + getValorTotal() +
                 "\n Data: " + dataVenda +
                 "\n";
     }
@@ -0,0 +1,72 @@
+package xela.chris.barbearia.models;
+
+/**
+ * Entrada do índice reverso que liga uma {@link Venda} à {@link NotaFiscal}
+ * em que ela foi faturada.
+ *
+ * <p>Mantida pelo {@code GerenciarNotaFiscal} no arquivo
+ * "indiceVendasNotas.json", permite saber se uma venda já está em alguma
+ * nota sem percorrer todas as notas e seus itens.</p>
+ */
+public class VinculoVendaNota {
+
+    /** ID da venda faturada. */
+    private int vendaId;
+
+    /** ID da nota fiscal que contém a venda. */
+    private int notaId;
+
+    /**
+     * Construtor padrão.
+     *
+     * <p>Utilizado principalmente por frameworks de serialização.</p>
+     */
+    public VinculoVendaNota() {}
+
+    /**
+     * Cria o vínculo entre uma venda e a nota que a contém.
+     *
+     * @param vendaId ID da venda
+     * @param notaId  ID da nota fiscal
+     */
+    public VinculoVendaNota(int vendaId, int notaId) {
+        this.vendaId = vendaId;
+        this.notaId = notaId;
+    }
+
+    /**
+     * Retorna o ID da venda.
+     *
+     * @return ID da venda
+     */
+    public int getVendaId() {
+        return vendaId;
+    }
+
+    /**
+     * Define o ID da venda.
+     *
+     * @param vendaId ID da venda
+     */
+    public void setVendaId(int vendaId) {
+        this.vendaId = vendaId;
+    }
+
+    /**
+     * Retorna o ID da nota fiscal.
+     *
+     * @return ID da nota fiscal
+     */
+    public int getNotaId() {
+        return notaId;
+    }
+
+    /**
+     * Define o ID da nota fiscal.
+     *
+     * @param notaId ID da nota fiscal
+     */
+    public void setNotaId(int notaId) {
+        this.notaId = notaId;
+    }
+}
@@ -1,10 +1,13 @@
 package xela.chris.barbearia.negocio;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import xela.chris.barbearia.enums.StatusAtendimentoCliente;
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Funcionario;
 import xela.chris.barbearia.models.Servico;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -15,15 +18,32 @@ import java.util.concurrent.atomic.AtomicInteger;
  * status do atendimento e a cadeira onde o cliente será atendido.
  *
  * Cada agendamento recebe um ID único gerado automaticamente.
+ *
+ * No JSON, cliente, funcionário e serviços são gravados apenas pelos seus IDs
+ * ({@code clienteId}, {@code funcionarioId}, {@code servicoIds}); os objetos
+ * completos são ligados novamente na carga pelo {@code GerenciarAgendamento}
+ * (ver {@link #resolverReferencias(Cliente, Funcionario, List)}). Arquivos no
+ * formato antigo, com os objetos embutidos, continuam sendo lidos.
+ *
+ * O preço de cada serviço no momento do agendamento também é gravado
+ * ({@code precosCentavos}, na mesma ordem de {@code servicoIds}), para que
+ * o faturamento passado não mude quando o preço de um serviço é alterado
+ * ou o serviço é excluído.
  */
 public class Agendamento {
 
     private String dataHoraAgendamento;
+    /** {@code dataHoraAgendamento} em minutos desde 01/01/1970, calculado ao definir a data. */
+    private int minutoDataHora = DataHora.SEM_DATA;
     /** Cliente associado ao agendamento. */
     Cliente cliente;
     /** Funcionário responsável pelo atendimento. */
     Funcionario funcionario;
     private List<Servico> servicos;
+    private int clienteId;
+    private int funcionarioId;
+    private List<Integer> servicoIds = new ArrayList<>();
+    private List<Long> precosCentavos = new ArrayList<>();
     private StatusAtendimentoCliente statusCliente;
     private int idCadeira;
 
@@ -53,10 +73,10 @@ public class Agendamento {
                        int idCadeira) {
 
         this.id = contador.incrementAndGet();
-        this.dataHoraAgendamento = dataHoraAgendamento;
-        this.cliente = cliente;
-        this.funcionario = funcionario;
-        this.servicos = servicos;
+        setDataHora(dataHoraAgendamento);
+        setCliente(cliente);
+        setFuncionario(funcionario);
+        setServicos(servicos);
         this.statusCliente = statusCliente;
         this.idCadeira = idCadeira;
     }
@@ -95,35 +115,249 @@ public class Agendamento {
      */
     public void setDataHora(String dataHoraAgendamento) {
         this.dataHoraAgendamento = dataHoraAgendamento;
+        this.minutoDataHora = DataHora.paraMinutos(dataHoraAgendamento);
+    }
+
+    /**
+     * Retorna a data e hora do agendamento como minutos desde 01/01/1970,
+     * usada para ordenar e filtrar por período sem comparar texto.
+     * Não é gravada no JSON.
+     *
+     * @return minutos desde 01/01/1970, ou {@link DataHora#SEM_DATA} se a data for inválida
+     */
+    @JsonIgnore
+    public int getMinutoDataHora() {
+        return minutoDataHora;
     }
 
     /**
      * Retorna o cliente vinculado ao agendamento.
+     * Não é gravado no JSON (apenas lido de arquivos no formato antigo).
      *
      * @return cliente
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public Cliente getCliente() {
         return cliente;
     }
 
+    /**
+     * Define o cliente do agendamento, atualizando também o ID gravado.
+     *
+     * @param cliente cliente do agendamento
+     */
+    public void setCliente(Cliente cliente) {
+        this.cliente = cliente;
+        if (cliente != null) {
+            this.clienteId = cliente.getId();
+        }
+    }
+
     /**
      * Retorna o funcionário responsável pelo atendimento.
+     * Não é gravado no JSON (apenas lido de arquivos no formato antigo).
      *
      * @return funcionário
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public Funcionario getFuncionario() {
         return funcionario;
     }
 
+    /**
+     * Define o funcionário do agendamento, atualizando também o ID gravado.
+     *
+     * @param funcionario funcionário responsável
+     */
+    public void setFuncionario(Funcionario funcionario) {
+        this.funcionario = funcionario;
+        if (funcionario != null) {
+            this.funcionarioId = funcionario.getId();
+        }
+    }
+
     /**
      * Retorna a lista de serviços escolhidos para este agendamento.
+     * Não é gravada no JSON (apenas lida de arquivos no formato antigo).
      *
      * @return lista de serviços
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     public List<Servico> getServicos() {
         return servicos;
     }
 
+    /**
+     * Define os serviços do agendamento, atualizando também os IDs e os
+     * preços gravados (os preços atuais dos serviços informados).
+     *
+     * @param servicos lista de serviços
+     */
+    public void setServicos(List<Servico> servicos) {
+        this.servicos = servicos;
+        if (servicos != null) {
+            this.servicoIds = new ArrayList<>(servicos.size());
+            this.precosCentavos = new ArrayList<>(servicos.size());
+            for (Servico s : servicos) {
+                this.servicoIds.add(s.getId());
+                this.precosCentavos.add(s.getPrecoCentavos());
+            }
+        }
+    }
+
+    /**
+     * Retorna o tempo total do atendimento, somando a duração dos serviços.
+     * Sem serviços, considera a duração padrão de um serviço.
+     * Não é gravado no JSON.
+     *
+     * @return duração em minutos
+     */
+    @JsonIgnore
+    public int getDuracaoMinutos() {
+        if (servicos == null || servicos.isEmpty()) {
+            return Servico.DURACAO_PADRAO_MINUTOS;
+        }
+        int total = 0;
+        for (Servico s : servicos) {
+            total += s.getDuracaoMinutos();
+        }
+        return total;
+    }
+
+    /**
+     * Retorna o ID do cliente, gravado no JSON no lugar do objeto completo.
+     *
+     * @return ID do cliente
+     */
+    public int getClienteId() {
+        return clienteId;
+    }
+
+    /**
+     * Define o ID do cliente (usado na leitura do JSON).
+     *
+     * @param clienteId ID do cliente
+     */
+    public void setClienteId(int clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    /**
+     * Retorna o ID do funcionário, gravado no JSON no lugar do objeto completo.
+     *
+     * @return ID do funcionário
+     */
+    public int getFuncionarioId() {
+        return funcionarioId;
+    }
+
+    /**
+     * Define o ID do funcionário (usado na leitura do JSON).
+     *
+     * @param funcionarioId ID do funcionário
+     */
+    public void setFuncionarioId(int funcionarioId) {
+        this.funcionarioId = funcionarioId;
+    }
+
+    /**
+     * Retorna os IDs dos serviços, gravados no JSON no lugar dos objetos completos.
+     *
+     * @return IDs dos serviços
+     */
+    public List<Integer> getServicoIds() {
+        return servicoIds;
+    }
+
+    /**
+     * Define os IDs dos serviços (usado na leitura do JSON).
+     *
+     * @param servicoIds IDs dos serviços
+     */
+    public void setServicoIds(List<Integer> servicoIds) {
+        this.servicoIds = servicoIds != null ? servicoIds : new ArrayList<>();
+    }
+
+    /**
+     * Retorna o preço de cada serviço, em centavos, no momento em que os
+     * serviços foram definidos, na mesma ordem de {@link #getServicoIds()}.
+     * Vazio em agendamentos gravados antes de o preço ser guardado.
+     *
+     * @return preços dos serviços em centavos
+     */
+    public List<Long> getPrecosCentavos() {
+        return precosCentavos;
+    }
+
+    /**
+     * Define os preços gravados dos serviços (usado na leitura do JSON).
+     *
+     * @param precosCentavos preços dos serviços em centavos
+     */
+    public void setPrecosCentavos(List<Long> precosCentavos) {
+        this.precosCentavos = precosCentavos != null ? precosCentavos : new ArrayList<>();
+    }
+
+    /**
+     * Retorna o preço cobrado pelo serviço na posição {@code indice} de
+     * {@link #getServicoIds()}: o preço gravado no agendamento ou, em
+     * agendamentos gravados sem ele, o preço atual do serviço ligado
+     * (0 se o serviço não existir mais).
+     *
+     * @param indice posição do serviço
+     * @return preço em centavos
+     */
+    public long getPrecoServicoCentavos(int indice) {
+        if (precosCentavos.size() == servicoIds.size()) {
+            return precosCentavos.get(indice);
+        }
+        int idServico = servicoIds.get(indice);
+        if (servicos != null) {
+            for (Servico s : servicos) {
+                if (s.getId() == idServico) {
+                    return s.getPrecoCentavos();
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Retorna a soma dos preços cobrados pelos serviços
+     * (ver {@link #getPrecoServicoCentavos(int)}). Não é gravada no JSON.
+     *
+     * @return total dos serviços em centavos
+     */
+    @JsonIgnore
+    public long getTotalServicosCentavos() {
+        long total = 0;
+        for (int i = 0; i < servicoIds.size(); i++) {
+            total += getPrecoServicoCentavos(i);
+        }
+        return total;
+    }
+
+    /**
+     * Liga os objetos completos carregados pelos gerenciadores aos IDs lidos
+     * do JSON. Referências não encontradas ({@code null}) mantêm o objeto
+     * atual, e o ID gravado é sempre preservado.
+     *
+     * @param cliente     cliente correspondente a {@link #getClienteId()}
+     * @param funcionario funcionário correspondente a {@link #getFuncionarioId()}
+     * @param servicos    serviços encontrados para {@link #getServicoIds()}
+     */
+    public void resolverReferencias(Cliente cliente, Funcionario funcionario, List<Servico> servicos) {
+        if (cliente != null) {
+            this.cliente = cliente;
+        }
+        if (funcionario != null) {
+            this.funcionario = funcionario;
+        }
+        if (servicos != null) {
+            this.servicos = servicos;
+        }
+    }
+
     /**
      * Retorna o número da cadeira onde o cliente será atendido.
      *
@@ -174,6 +408,26 @@ public class Agendamento {
         contador.set(ultimoId);
     }
 
+    /**
+     * Avança o contador de IDs até {@code ultimoId}, sem voltá-lo se já
+     * estiver adiante (ex: IDs usados por outro terminal).
+     *
+     * @param ultimoId maior ID conhecido
+     */
+    public static void avancarContador(int ultimoId) {
+        contador.accumulateAndGet(ultimoId, Math::max);
+    }
+
+    /**
+     * Reserva o próximo ID do contador, para trocar o ID de um agendamento
+     * que colidiu com um já gravado.
+     *
+     * @return novo ID
+     */
+    public static int proximoId() {
+        return contador.incrementAndGet();
+    }
+
     /**
      * Retorna uma representação textual do agendamento,
      * contendo os principais detalhes.
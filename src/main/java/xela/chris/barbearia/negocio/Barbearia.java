@@ -5,6 +5,9 @@ import xela.chris.barbearia.Gerenciadores.*;
 import xela.chris.barbearia.Security.Proxy;
 import xela.chris.barbearia.enums.PermissoesEnum;
 import xela.chris.barbearia.enums.StatusAtendimentoCliente;
+import xela.chris.barbearia.metricas.ExportadorMetricas;
+import xela.chris.barbearia.log.Log;
+import xela.chris.barbearia.metricas.Metricas;
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Funcionario;
 import xela.chris.barbearia.models.NotaFiscal;
@@ -15,6 +18,7 @@ import xela.chris.barbearia.negocio.Agendamento;
 import xela.chris.barbearia.servicos.ServicoOrdemServico;
 import xela.chris.barbearia.servicos.ServicoVenda;
 
+import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -38,14 +42,18 @@ public class Barbearia {
     private static final GerenciarCliente gerenciarCliente = new GerenciarCliente();
     private static final GerenciarServico gerenciarServico = new GerenciarServico();
     private static final GerenciadorProduto gerenciadorProduto = new GerenciadorProduto();
-    private static final GerenciarAgendamento gerenciarAgendamento = new GerenciarAgendamento();
-    private static final GerenciarNotaFiscal gerenciarNotaFiscal = new GerenciarNotaFiscal();
-    private static final GerenciarVenda gerenciarVenda = new GerenciarVenda();
+    private static final GerenciarCadeira gerenciarCadeira = new GerenciarCadeira();
+    private static final GerenciarAgendamento gerenciarAgendamento =
+            new GerenciarAgendamento(gerenciarCliente, gerenciadorFuncionario, gerenciarServico);
+    private static final GerenciarVenda gerenciarVenda = new GerenciarVenda(gerenciadorProduto, gerenciarCliente);
+    private static final GerenciarNotaFiscal gerenciarNotaFiscal = new GerenciarNotaFiscal(gerenciarAgendamento, gerenciarVenda);
     private static final GerenciadorPonto gerenciadorPonto = new GerenciadorPonto();
     private static final GerenciadorBalanco gerenciadorBalanco = new GerenciadorBalanco(gerenciarAgendamento, gerenciarVenda);
-    private static final AgendamentoFacade agendamentoFacade = new AgendamentoFacade();
+    private static final AgendamentoFacade agendamentoFacade = new AgendamentoFacade(gerenciarCliente,
+            gerenciadorFuncionario, gerenciarServico, gerenciarAgendamento, gerenciarCadeira);
     private static final ServicoVenda servicoVenda = new ServicoVenda(gerenciadorProduto, gerenciarVenda, gerenciarCliente);
     private static final ServicoOrdemServico servicoOrdemServico = new ServicoOrdemServico(gerenciarAgendamento, gerenciarVenda);
+    private static final ExportadorMetricas exportadorMetricas = new ExportadorMetricas(Metricas.padrao());
 
     /**
      * Método principal do sistema de barbearia.
@@ -67,6 +75,9 @@ public class Barbearia {
         } else {
             System.out.println("\nO sistema será encerrado.");
         }
+        GravacaoAdiada.padrao().flush(); // grava o que ainda estiver pendente antes de sair
+        exportadorMetricas.parar();
+        Log.flush();
         scanner.close();
     }
 
@@ -96,6 +107,7 @@ public class Barbearia {
             System.out.println("5. Ponto Eletrônico");
             System.out.println("6. Vendas e Nota Fiscal");
             System.out.println("7. Relatórios (Ordem de Serviço/Balanço)");
+            System.out.println("8. Métricas do Sistema (Administrativo)");
             System.out.println("0. Sair");
             System.out.print("Escolha uma opção: ");
 
@@ -123,6 +135,9 @@ public class Barbearia {
                     case 7:
                         menuRelatorios();
                         break;
+                    case 8:
+                        menuMetricas();
+                        break;
                     case 0:
                         System.out.println("Até logo, " + usuarioLogado.getNome() + "!");
                         break;
@@ -225,23 +240,43 @@ public class Barbearia {
                 System.out.println("Serviço com ID " + idServico + " não encontrado.");
                 return;
             }
-            System.out.printf("Servico Selecionado: %s - R$ %.2f\n", servico.getNome(), servico.getPreco());
+            System.out.println("Servico Selecionado: " + servico.getNome() + " - R$ " + Dinheiro.formatar(servico.getPrecoCentavos()));
 
             System.out.print("Data e Hora (Ex: dd/MM/yyyy HH:mm): ");
             String dataHora = scanner.nextLine();
 
             boolean sucesso = agendamentoFacade.criarAgendamento(idCliente, idFuncionario, idServico, dataHora);
             if (sucesso) {
-                agendamentoFacade.salvarAgendamentos(); // Salva o agendamento imediatamente
+                // O agendamento já foi registrado no journal de agendamentos pelo gerenciador
                 System.out.println("Agendamento realizado com sucesso e salvo no JSON!");
             } else {
                 System.out.println("Falha ao criar agendamento. Verifique as IDs, disponibilidade do funcionário ou da cadeira.");
+                sugerirHorarios(idFuncionario, idServico, dataHora);
             }
         } catch (NumberFormatException e) {
             System.out.println("Erro de entrada. Certifique-se de digitar números para os IDs.");
         }
     }
 
+    /**
+     * Após uma falha de agendamento, mostra os próximos horários livres
+     * para o mesmo serviço e funcionário nos 7 dias seguintes ao horário pedido.
+     */
+    private static void sugerirHorarios(int idFuncionario, int idServico, String dataHora) {
+        int inicio = DataHora.paraMinutos(dataHora);
+        if (inicio == DataHora.SEM_DATA) {
+            return;
+        }
+        String fim = DataHora.formatar(inicio + 7 * DataHora.MINUTOS_POR_DIA);
+        List<HorarioDisponivel> sugestoes = agendamentoFacade.buscarProximosHorarios(idServico, idFuncionario, dataHora, fim, 3);
+        if (!sugestoes.isEmpty()) {
+            System.out.println("Próximos horários livres:");
+            for (HorarioDisponivel horario : sugestoes) {
+                System.out.println(" - " + horario);
+            }
+        }
+    }
+
     private static void buscarAgendamento() {
         try {
             // Recarrega dados para garantir que estejam atualizados
@@ -266,8 +301,8 @@ public class Barbearia {
             System.out.print("ID do Agendamento a excluir: ");
             int id = Integer.parseInt(scanner.nextLine());
             if (agendamentoFacade.excluirAgendamento(id)) {
+                // A remoção já foi registrada no journal de agendamentos
                 System.out.println(" Agendamento excluído e lista salva.");
-                agendamentoFacade.salvarAgendamentos();
             } else {
                 System.out.println("Falha ao excluir agendamento.");
             }
@@ -293,9 +328,7 @@ public class Barbearia {
                     servicoOrdemServico // O serviço que agora gerencia e persiste a OS
             );
 
-            if (sucesso) {
-                agendamentoFacade.salvarAgendamentos();
-            } else {
+            if (!sucesso) {
                 System.out.println("Falha ao finalizar agendamento.");
             }
         } catch (NumberFormatException e) {
@@ -534,12 +567,18 @@ public class Barbearia {
             boolean utilizaLavagemSecagem = Boolean.parseBoolean(scanner.nextLine());
             System.out.print("Descrição: ");
             String descricao = scanner.nextLine();
+            System.out.print("Duração em minutos (Enter para " + Servico.DURACAO_PADRAO_MINUTOS + "): ");
+            String duracao = scanner.nextLine().trim();
 
-            gerenciarServico.adicionar(new Servico(nome, preco, utilizaLavagemSecagem, descricao));
+            Servico servico = new Servico(nome, preco, utilizaLavagemSecagem, descricao);
+            if (!duracao.isEmpty()) {
+                servico.setDuracaoMinutos(Integer.parseInt(duracao));
+            }
+            gerenciarServico.adicionar(servico);
             gerenciarServico.salvarTodosServicos();
             System.out.println("Serviço adicionado e salvo.");
         } catch (NumberFormatException e) {
-            System.out.println("Erro de entrada. Certifique-se de digitar um valor numérico para o preço.");
+            System.out.println("Erro de entrada. Certifique-se de digitar um valor numérico para o preço e a duração.");
         }
     }
 
@@ -691,8 +730,7 @@ public class Barbearia {
 
             xela.chris.barbearia.models.Produto p = gerenciadorProduto.buscarPorId(id);
             if (p != null) {
-                p.setQuantidade(novaQuantidade); // Usa o setter para definir a nova quantidade
-                gerenciadorProduto.salvarTodosProdutos();
+                gerenciadorProduto.definirEstoque(id, novaQuantidade); // Grava a nova quantidade no journal
                 System.out.println("Estoque do produto " + p.getNome() + " atualizado para: " + novaQuantidade);
             } else {
                 System.out.println("Produto não encontrado.");
@@ -999,8 +1037,8 @@ public class Barbearia {
                 gerenciarVenda.carregar();
                 List<Venda> todasVendas = gerenciarVenda.listar();
                 Venda vendaRecente = todasVendas.stream()
-                        .filter(v -> v.getCliente() != null && v.getCliente().getId() == idCliente)
-                        .filter(v -> v.getProduto() != null && v.getProduto().getId() == idProduto)
+                        .filter(v -> v.getClienteId() == idCliente)
+                        .filter(v -> v.getProdutoId() == idProduto)
                         .filter(v -> v.getQuantidade() == quantidade)
                         .filter(v -> v.getDataVenda().equals(dataFormatada))
                         .max((v1, v2) -> Integer.compare(v1.getId(), v2.getId())) // Pega a mais recente (maior ID)
@@ -1010,7 +1048,7 @@ public class Barbearia {
                 if (vendaRecente != null) {
                     List<Agendamento> agendamentosCliente = gerenciarAgendamento.listarAgendamentosOrdenadosPorData()
                             .stream()
-                            .filter(ag -> ag.getCliente() != null && ag.getCliente().getId() == idCliente)
+                            .filter(ag -> ag.getClienteId() == idCliente)
                             .filter(ag -> ag.getStatusCliente() != StatusAtendimentoCliente.ATENDIDO)
                             .toList();
 
@@ -1020,27 +1058,18 @@ public class Barbearia {
                         Agendamento agendamentoRecente = agendamentosCliente.get(agendamentosCliente.size() - 1);
 
                         // Busca todas as vendas do cliente que ainda não foram vinculadas a notas fiscais
-                        List<NotaFiscal> todasNotas = gerenciarNotaFiscal.listar();
-                        List<Venda> vendasCliente = gerenciarVenda.listar().stream()
-                                .filter(v -> v.getCliente() != null && v.getCliente().getId() == idCliente)
-                                .filter(v -> {
-                                    // Verifica se a venda já está em alguma nota fiscal (por ID)
-                                    return todasNotas.stream()
-                                            .noneMatch(nota -> nota.getVendasProdutos() != null &&
-                                                    nota.getVendasProdutos().stream().anyMatch(vn -> vn.getId() == v.getId()));
-                                })
-                                .toList();
+                        List<Venda> vendasCliente = gerenciarNotaFiscal.buscarVendasNaoFaturadas(idCliente);
 
                         // Gera nota fiscal automaticamente
                         NotaFiscal nota = gerenciarNotaFiscal.gerarNotaFiscal(agendamentoRecente, vendasCliente);
                         if (nota != null) {
                             System.out.println("Nota Fiscal gerada automaticamente após a venda!");
                             System.out.println("ID da Nota Fiscal: " + nota.getId());
-                            System.out.println("Valor Total: R$ " + String.format("%.2f", nota.getValorTotal()));
+                            System.out.println("Valor Total: R$ " + Dinheiro.formatar(nota.getValorTotalCentavos()));
 
                             // Finaliza o agendamento automaticamente
                             agendamentoRecente.setStatusCliente(StatusAtendimentoCliente.ATENDIDO);
-                            gerenciarAgendamento.salvarTodos();
+                            gerenciarAgendamento.salvarAlteracao(agendamentoRecente);
                         }
                     }
                 }
@@ -1074,32 +1103,8 @@ public class Barbearia {
             }
 
             // Busca vendas do cliente que ainda não foram vinculadas a notas fiscais
-            List<Venda> vendasNaoFaturadas = new ArrayList<>();
-            List<Venda> todasVendas = gerenciarVenda.listar();
-            List<NotaFiscal> todasNotas = gerenciarNotaFiscal.listar();
-            int idCliente = agendamento.getCliente().getId();
-
-            for (Venda venda : todasVendas) {
-                // Verifica se a venda pertence ao cliente
-                if (venda.getCliente() != null && venda.getCliente().getId() == idCliente) {
-
-                    // Verifica se esta venda (pelo ID) já está em alguma nota fiscal existente
-                    boolean jaVinculada = false;
-                    for (NotaFiscal nota : todasNotas) {
-                        if (nota.getVendasProdutos() != null) {
-                            // Compara por ID, pois a instância do objeto pode ser diferente
-                            if (nota.getVendasProdutos().stream().anyMatch(v -> v.getId() == venda.getId())) {
-                                jaVinculada = true;
-                                break;
-                            }
-                        }
-                    }
-
-                    if (!jaVinculada) {
-                        vendasNaoFaturadas.add(venda);
-                    }
-                }
-            }
+            int idCliente = agendamento.getClienteId();
+            List<Venda> vendasNaoFaturadas = gerenciarNotaFiscal.buscarVendasNaoFaturadas(idCliente);
 
             if (!vendasNaoFaturadas.isEmpty()) {
                 System.out.println("Encontradas " + vendasNaoFaturadas.size() + " vendas de produtos não faturadas para este cliente, que serão adicionadas à nota.");
@@ -1115,7 +1120,7 @@ public class Barbearia {
 
                 // Finaliza o agendamento
                 agendamento.setStatusCliente(StatusAtendimentoCliente.ATENDIDO);
-                gerenciarAgendamento.salvarTodos();
+                gerenciarAgendamento.salvarAlteracao(agendamento);
                 System.out.println("Agendamento ID " + agendamento.getId() + " finalizado.");
 
             } else {
@@ -1147,31 +1152,7 @@ public class Barbearia {
             }
 
             // Busca vendas do cliente que ainda não foram vinculadas a notas fiscais
-            List<Venda> vendasNaoFaturadas = new ArrayList<>();
-            List<Venda> todasVendas = gerenciarVenda.listar();
-            List<NotaFiscal> todasNotas = gerenciarNotaFiscal.listar();
-
-            for (Venda venda : todasVendas) {
-                // Verifica se a venda pertence ao cliente
-                if (venda.getCliente() != null && venda.getCliente().getId() == idCliente) {
-
-                    // Verifica se esta venda (pelo ID) já está em alguma nota fiscal existente
-                    boolean jaVinculada = false;
-                    for (NotaFiscal nota : todasNotas) {
-                        if (nota.getVendasProdutos() != null) {
-                            // Compara por ID, pois a instância do objeto pode ser diferente
-                            if (nota.getVendasProdutos().stream().anyMatch(v -> v.getId() == venda.getId())) {
-                                jaVinculada = true;
-                                break;
-                            }
-                        }
-                    }
-
-                    if (!jaVinculada) {
-                        vendasNaoFaturadas.add(venda);
-                    }
-                }
-            }
+            List<Venda> vendasNaoFaturadas = gerenciarNotaFiscal.buscarVendasNaoFaturadas(idCliente);
 
             if (vendasNaoFaturadas.isEmpty()) {
                 System.out.println("Nenhuma venda nova (não faturada) encontrada para o cliente: " + cliente.getNome());
@@ -1263,11 +1244,11 @@ public class Barbearia {
     private static void relatorioTotalVendas() {
         // Garante que os dados estão atualizados
         gerenciarVenda.carregar();
-        double total = servicoVenda.calcularTotalVendas();
+        long total = gerenciarVenda.calcularTotalVendasCentavos();
         System.out.println("\n=========================================");
         System.out.println("      TOTAL DE VENDAS DE PRODUTOS");
         System.out.println("=========================================");
-        System.out.printf("Total arrecadado: R$ %.2f\n", total);
+        System.out.println("Total arrecadado: R$ " + Dinheiro.formatar(total));
         System.out.println("=========================================");
     }
 
@@ -1312,18 +1293,18 @@ public class Barbearia {
             gerenciarVenda.carregar();
 
             // Calcula totais sem filtro (todos os registros)
-            double totalServicos = gerenciadorBalanco.calcularTotalServicos("");
-            double totalProdutos = gerenciadorBalanco.calcularTotalProdutos("");
-            double totalGeral = totalServicos + totalProdutos;
+            long totalServicos = gerenciadorBalanco.calcularTotalServicosCentavos("");
+            long totalProdutos = gerenciadorBalanco.calcularTotalProdutosCentavos("");
+            long totalGeral = totalServicos + totalProdutos;
 
             System.out.println("\n=========================================");
             System.out.println("      BALANÇO FINANCEIRO COMPLETO");
             System.out.println("      (Todas as Vendas e Serviços)");
             System.out.println("=========================================");
-            System.out.printf("Total em Serviços:   R$ %.2f%n", totalServicos);
-            System.out.printf("Total em Produtos:   R$ %.2f%n", totalProdutos);
+            System.out.println("Total em Serviços:   R$ " + Dinheiro.formatar(totalServicos));
+            System.out.println("Total em Produtos:   R$ " + Dinheiro.formatar(totalProdutos));
             System.out.println("-----------------------------------------");
-            System.out.printf("TOTAL GERAL:         R$ %.2f%n", totalGeral);
+            System.out.println("TOTAL GERAL:         R$ " + Dinheiro.formatar(totalGeral));
             System.out.println("=========================================");
 
             System.out.println("\nBalanço completo gerado com sucesso!");
@@ -1332,6 +1313,72 @@ public class Barbearia {
         }
     }
 
+    // ====================================================================
+    // 8. MÉTRICAS
+    // ====================================================================
+
+    private static void menuMetricas() {
+        // Mesma permissão do menu administrativo de funcionários
+        if (!acesso.temPermissao(PermissoesEnum.CAD_FUNC)) {
+            System.out.println("Você não tem permissão para acessar as Métricas do Sistema.");
+            return;
+        }
+
+        int opcao = -1;
+        while (opcao != 0) {
+            System.out.println("\n--- MENU MÉTRICAS (ADMIN) ---");
+            System.out.println("1. Exibir Métricas Atuais");
+            if (exportadorMetricas.estaAtivo()) {
+                System.out.println("2. Parar Exportação Periódica (" + exportadorMetricas.getArquivo().getName() + ")");
+            } else {
+                System.out.println("2. Iniciar Exportação Periódica para " + ExportadorMetricas.ARQUIVO_PADRAO);
+            }
+            System.out.println("3. Zerar Contadores e Tempos");
+            System.out.println("0. Voltar ao Menu Principal");
+            System.out.print("Escolha uma opção: ");
+
+            try {
+                opcao = Integer.parseInt(scanner.nextLine());
+                switch (opcao) {
+                    case 1:
+                        System.out.println();
+                        System.out.print(Metricas.padrao().relatorio());
+                        break;
+                    case 2:
+                        alternarExportacaoMetricas();
+                        break;
+                    case 3:
+                        Metricas.padrao().zerar();
+                        System.out.println("Contadores e tempos zerados.");
+                        break;
+                    case 0:
+                        System.out.println("Retornando ao Menu Principal.");
+                        break;
+                    default:
+                        System.out.println("Opção inválida.");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Entrada inválida. Digite um número.");
+            }
+        }
+    }
+
+    private static void alternarExportacaoMetricas() {
+        if (exportadorMetricas.estaAtivo()) {
+            exportadorMetricas.parar();
+            System.out.println("Exportação parada. Último retrato gravado em " + exportadorMetricas.getArquivo().getPath());
+            return;
+        }
+        System.out.print("Intervalo entre exportações (segundos): ");
+        long intervalo = Long.parseLong(scanner.nextLine());
+        if (intervalo <= 0) {
+            System.out.println("O intervalo deve ser maior que zero.");
+            return;
+        }
+        exportadorMetricas.iniciar(new File(ExportadorMetricas.ARQUIVO_PADRAO), intervalo);
+        System.out.println("Exportando métricas a cada " + intervalo + " s para " + ExportadorMetricas.ARQUIVO_PADRAO);
+    }
+
     /**
      * Questão 12: Método de classe que retorna quantas instâncias foram criadas do tipo OrdemDeServico.
      * @return número total de ordens de serviço criadas
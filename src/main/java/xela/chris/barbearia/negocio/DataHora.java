@@ -0,0 +1,242 @@
+package xela.chris.barbearia.negocio;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * Conversão das datas gravadas como texto ("dd/MM/yyyy" e
+ * "dd/MM/yyyy HH:mm") para chaves numéricas compactas.
+ *
+ * <p>
+ * Agendamentos, vendas e ordens de serviço guardam a data como String no
+ * JSON. Para ordenar e filtrar por período sem comparar texto, cada registro
+ * calcula uma única vez (ao ser lido ou alterado) o número de minutos ou de
+ * dias desde 01/01/1970. A comparação passa a ser entre inteiros e respeita
+ * a ordem cronológica (ano, depois mês, depois dia), o que a comparação de
+ * texto não fazia.
+ * </p>
+ *
+ * <p>
+ * Dia e hora podem ter um ou dois dígitos (ex: "2/10/2032 9:30"). Textos que
+ * não representam uma data válida resultam em {@link #SEM_DATA}.
+ * </p>
+ */
+public final class DataHora {
+
+    /** Valor usado quando o texto não contém uma data válida; fica antes de qualquer data. */
+    public static final int SEM_DATA = Integer.MIN_VALUE;
+
+    /** Minutos em um dia. */
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+
+    /** Maior distância de 01/01/1970, em dias, que ainda cabe em minutos num {@code int} (cerca de 4000 anos). */
+    private static final int LIMITE_DIAS = Integer.MAX_VALUE / MINUTOS_POR_DIA - 1;
+
+    private DataHora() {
+    }
+
+    /**
+     * Intervalo de tempo [inicio, fim) em minutos desde 01/01/1970.
+     *
+     * @param inicio Primeiro minuto incluído.
+     * @param fim    Primeiro minuto após o intervalo.
+     */
+    public record Periodo(int inicio, int fim) {
+
+        /**
+         * Indica se o minuto está dentro do período.
+         *
+         * @param minuto Minuto desde 01/01/1970 (ou {@link #SEM_DATA}).
+         * @return {@code true} se {@code inicio <= minuto < fim}.
+         */
+        public boolean contem(int minuto) {
+            return minuto != SEM_DATA && minuto >= inicio && minuto < fim;
+        }
+    }
+
+    /**
+     * Converte "dd/MM/yyyy HH:mm" em minutos desde 01/01/1970. Uma data sem
+     * horário é considerada à meia-noite.
+     *
+     * @param texto Data e hora em texto.
+     * @return Minutos desde 01/01/1970, ou {@link #SEM_DATA} se o texto for inválido.
+     */
+    public static int paraMinutos(String texto) {
+        int[] campos = lerCampos(texto);
+        if (campos == null) {
+            return SEM_DATA;
+        }
+        int dia = diaDoCalendario(campos[0], campos[1], campos[2]);
+        if (dia == SEM_DATA) {
+            return SEM_DATA;
+        }
+        int hora = campos[3];
+        int minuto = campos[4];
+        if (hora > 23 || minuto > 59) {
+            return SEM_DATA;
+        }
+        return dia * MINUTOS_POR_DIA + hora * 60 + minuto;
+    }
+
+    /**
+     * Converte "dd/MM/yyyy" (com ou sem horário) em dias desde 01/01/1970.
+     *
+     * @param texto Data em texto.
+     * @return Dias desde 01/01/1970, ou {@link #SEM_DATA} se o texto for inválido.
+     */
+    public static int paraDia(String texto) {
+        int[] campos = lerCampos(texto);
+        if (campos == null) {
+            return SEM_DATA;
+        }
+        return diaDoCalendario(campos[0], campos[1], campos[2]);
+    }
+
+    /**
+     * Retorna o dia (desde 01/01/1970) que contém o minuto informado.
+     *
+     * @param minuto Minutos desde 01/01/1970, ou {@link #SEM_DATA}.
+     * @return Dias desde 01/01/1970, ou {@link #SEM_DATA} se o minuto também for.
+     */
+    public static int diaDoMinuto(int minuto) {
+        return minuto == SEM_DATA ? SEM_DATA : Math.floorDiv(minuto, MINUTOS_POR_DIA);
+    }
+
+    /**
+     * Converte minutos desde 01/01/1970 de volta para o texto
+     * "dd/MM/yyyy HH:mm" usado nos agendamentos.
+     *
+     * @param minutos Minutos desde 01/01/1970.
+     * @return Data e hora formatadas.
+     */
+    public static String formatar(int minutos) {
+        LocalDate data = LocalDate.ofEpochDay(Math.floorDiv(minutos, MINUTOS_POR_DIA));
+        int minutoDoDia = Math.floorMod(minutos, MINUTOS_POR_DIA);
+        return String.format("%02d/%02d/%04d %02d:%02d", data.getDayOfMonth(), data.getMonthValue(),
+                data.getYear(), minutoDoDia / 60, minutoDoDia % 60);
+    }
+
+    /**
+     * Interpreta um filtro de data digitado pelo usuário como um período:
+     * "dd/MM/yyyy HH:mm" (um minuto), "dd/MM/yyyy" (um dia), "MM/yyyy"
+     * (um mês) ou "yyyy" (um ano). Um filtro vazio abrange todas as datas.
+     *
+     * @param filtro Texto do filtro.
+     * @return O período correspondente, ou {@code null} se o filtro não tiver
+     * nenhum desses formatos.
+     */
+    public static Periodo periodo(String filtro) {
+        if (filtro == null) {
+            return null;
+        }
+        String texto = filtro.trim();
+        if (texto.isEmpty()) {
+            return new Periodo(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        String[] partes = texto.split("[/ :]");
+        for (String parte : partes) {
+            if (parte.isEmpty() || parte.length() > 4 || !parte.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+        }
+        try {
+            switch (partes.length) {
+                case 1: {
+                    if (partes[0].length() != 4) {
+                        return null;
+                    }
+                    LocalDate inicio = LocalDate.of(Integer.parseInt(partes[0]), 1, 1);
+                    return periodoEntre(inicio, inicio.plusYears(1));
+                }
+                case 2: {
+                    LocalDate inicio = LocalDate.of(Integer.parseInt(partes[1]), Integer.parseInt(partes[0]), 1);
+                    return periodoEntre(inicio, inicio.plusMonths(1));
+                }
+                case 3: {
+                    int dia = paraDia(texto);
+                    return dia == SEM_DATA ? null : new Periodo(dia * MINUTOS_POR_DIA, (dia + 1) * MINUTOS_POR_DIA);
+                }
+                case 5: {
+                    int minuto = paraMinutos(texto);
+                    return minuto == SEM_DATA ? null : new Periodo(minuto, minuto + 1);
+                }
+                default:
+                    return null;
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Monta o teste aplicado ao texto de uma data durante a leitura em fluxo
+     * do JSON. Se o filtro for um período reconhecido por
+     * {@link #periodo(String)}, a data é convertida e comparada como
+     * inteiro; caso contrário, mantém-se a busca por trecho de texto. Um
+     * filtro vazio aceita qualquer data gravada.
+     *
+     * @param filtro Texto do filtro (ex: "15/11/2025" ou "11/2025").
+     * @return Predicado sobre o texto da data gravada.
+     */
+    public static Predicate<String> filtroDeTexto(String filtro) {
+        if (filtro == null || filtro.isBlank()) {
+            return data -> data != null;
+        }
+        Periodo periodo = periodo(filtro);
+        if (periodo == null) {
+            return data -> data != null && data.contains(filtro);
+        }
+        return data -> data != null && periodo.contem(paraMinutos(data));
+    }
+
+    private static Periodo periodoEntre(LocalDate inicio, LocalDate fim) {
+        if (Math.abs(inicio.toEpochDay()) > LIMITE_DIAS || Math.abs(fim.toEpochDay()) > LIMITE_DIAS) {
+            return null;
+        }
+        return new Periodo((int) inicio.toEpochDay() * MINUTOS_POR_DIA, (int) fim.toEpochDay() * MINUTOS_POR_DIA);
+    }
+
+    private static int diaDoCalendario(int dia, int mes, int ano) {
+        try {
+            long epochDay = LocalDate.of(ano, mes, dia).toEpochDay();
+            return Math.abs(epochDay) > LIMITE_DIAS ? SEM_DATA : (int) epochDay;
+        } catch (DateTimeException e) {
+            return SEM_DATA;
+        }
+    }
+
+    /**
+     * Lê dia, mês, ano, hora e minuto (os dois últimos opcionais) sem criar
+     * objetos intermediários.
+     *
+     * @return Os cinco campos, ou {@code null} se o texto não tiver o formato esperado.
+     */
+    private static int[] lerCampos(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        int[] campos = new int[5];
+        char[] separadores = {'/', '/', ' ', ':'};
+        int campo = 0;
+        int digitos = 0;
+        int n = texto.length();
+        for (int i = 0; i < n; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 4) {
+                    return null;
+                }
+                campos[campo] = campos[campo] * 10 + (c - '0');
+            } else if (campo < separadores.length && c == separadores[campo] && digitos > 0) {
+                campo++;
+                digitos = 0;
+            } else {
+                return null;
+            }
+        }
+        boolean soData = campo == 2 && digitos > 0;
+        boolean comHora = campo == 4 && digitos > 0;
+        return soData || comHora ? campos : null;
+    }
+}
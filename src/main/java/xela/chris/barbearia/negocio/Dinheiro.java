@@ -0,0 +1,77 @@
+package xela.chris.barbearia.negocio;
+
+/**
+ * Valores em dinheiro representados como centavos num {@code long}.
+ *
+ * <p>
+ * Preços e totais continuam aparecendo como reais ({@code double}) no JSON
+ * e nos getters dos modelos, mas são guardados e somados em centavos. Somas
+ * longas (ex: o balanço de um ano) ficam exatas, sem o acúmulo de erro do
+ * ponto flutuante e sem alocar objetos como faria um {@code BigDecimal}.
+ * </p>
+ *
+ * <p>
+ * A conversão de reais para centavos arredonda para o centavo mais próximo;
+ * frações de centavo gravadas em arquivos antigos são descartadas.
+ * </p>
+ */
+public final class Dinheiro {
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para o centavo
+     * mais próximo.
+     *
+     * @param reais Valor em reais (ex: 14.5).
+     * @return Valor em centavos (ex: 1450).
+     */
+    public static long deReais(double reais) {
+        return Math.round(reais * 100.0);
+    }
+
+    /**
+     * Converte um valor em centavos para reais.
+     *
+     * @param centavos Valor em centavos.
+     * @return Valor em reais.
+     */
+    public static double paraReais(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Multiplica um valor unitário por uma quantidade, falhando em vez de
+     * estourar silenciosamente.
+     *
+     * @param centavos   Valor unitário em centavos.
+     * @param quantidade Quantidade de unidades.
+     * @return Valor total em centavos.
+     * @throws ArithmeticException se o resultado não couber em um {@code long}.
+     */
+    public static long multiplicar(long centavos, int quantidade) {
+        return Math.multiplyExact(centavos, (long) quantidade);
+    }
+
+    /**
+     * Formata um valor com duas casas decimais (ex: "1234.50"), no mesmo
+     * formato usado pelos relatórios com {@code "%.2f"}.
+     *
+     * @param centavos Valor em centavos.
+     * @return Texto com o valor em reais.
+     */
+    public static String formatar(long centavos) {
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % 100;
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) {
+            texto.append('-');
+        }
+        texto.append(absoluto / 100).append('.');
+        if (resto < 10) {
+            texto.append('0');
+        }
+        return texto.append(resto).toString();
+    }
+}
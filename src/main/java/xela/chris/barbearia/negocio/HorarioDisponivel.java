@@ -0,0 +1,82 @@
+package xela.chris.barbearia.negocio;
+
+import xela.chris.barbearia.models.Cadeira;
+import xela.chris.barbearia.models.Funcionario;
+
+/**
+ * Representa uma combinação livre de cadeira, funcionário e horário,
+ * encontrada pela busca de próximos horários disponíveis
+ * ({@code AgendamentoFacade#buscarProximosHorarios}).
+ *
+ * O horário é informado no mesmo formato usado nos agendamentos
+ * ("dd/MM/yyyy HH:mm"), de modo que pode ser usado diretamente para
+ * criar o agendamento.
+ */
+public class HorarioDisponivel {
+
+    private final Cadeira cadeira;
+    private final Funcionario funcionario;
+    private final String horario;
+    private final int minutoInicio;
+
+    /**
+     * Cria uma combinação disponível.
+     *
+     * @param cadeira      cadeira livre no horário
+     * @param funcionario  funcionário livre no horário
+     * @param minutoInicio início do horário em minutos desde 01/01/1970
+     */
+    public HorarioDisponivel(Cadeira cadeira, Funcionario funcionario, int minutoInicio) {
+        this.cadeira = cadeira;
+        this.funcionario = funcionario;
+        this.minutoInicio = minutoInicio;
+        this.horario = DataHora.formatar(minutoInicio);
+    }
+
+    /**
+     * Retorna a cadeira livre.
+     *
+     * @return cadeira
+     */
+    public Cadeira getCadeira() {
+        return cadeira;
+    }
+
+    /**
+     * Retorna o funcionário livre.
+     *
+     * @return funcionário
+     */
+    public Funcionario getFuncionario() {
+        return funcionario;
+    }
+
+    /**
+     * Retorna o horário no formato "dd/MM/yyyy HH:mm".
+     *
+     * @return data e hora
+     */
+    public String getHorario() {
+        return horario;
+    }
+
+    /**
+     * Retorna o início do horário em minutos desde 01/01/1970.
+     *
+     * @return minuto inicial
+     */
+    public int getMinutoInicio() {
+        return minutoInicio;
+    }
+
+    /**
+     * Retorna uma representação textual resumida da combinação.
+     *
+     * @return horário, funcionário e cadeira
+     */
+    @Override
+    public String toString() {
+        return horario + " - " + funcionario.getNome() + " (ID " + funcionario.getId() + ") - "
+                + cadeira.getNome() + " (ID " + cadeira.getId() + ")";
+    }
+}
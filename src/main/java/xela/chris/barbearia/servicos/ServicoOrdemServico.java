@@ -1,14 +1,20 @@
 package xela.chris.barbearia.servicos;
 
+import xela.chris.barbearia.Gerenciadores.ContadorModificacoes;
 import xela.chris.barbearia.Gerenciadores.GerenciarAgendamento;
 import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
+import xela.chris.barbearia.Gerenciadores.GravacaoAdiada;
 import xela.chris.barbearia.Gerenciadores.RepositorioJson;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
 import xela.chris.barbearia.models.Cliente;
 import xela.chris.barbearia.models.Venda;
 import xela.chris.barbearia.negocio.Agendamento;
+import xela.chris.barbearia.negocio.DataHora;
 import xela.chris.barbearia.models.Servico;
 import xela.chris.barbearia.models.Funcionario;
 import xela.chris.barbearia.models.OrdemDeServico;
+import xela.chris.barbearia.log.Log;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,13 +29,19 @@ import java.util.stream.Collectors;
  */
 public class ServicoOrdemServico {
 
+    private static final Log LOG = Log.de(ServicoOrdemServico.class);
+
+    private static final Temporizador TEMPO_CARREGAR = Metricas.padrao().temporizador("ordensDeServico.carregar");
+    private static final Temporizador TEMPO_SALVAR = Metricas.padrao().temporizador("ordensDeServico.salvar");
+
     private final GerenciarAgendamento gerenciarAgendamento;
     private final GerenciarVenda gerenciarVenda;
 
     // Lista e Repositório para gerenciar a persistência das Ordens de Serviço
     private List<OrdemDeServico> ordensDeServico = new ArrayList<>();
     private final RepositorioJson<OrdemDeServico> repoOS =
-            new RepositorioJson<>(OrdemDeServico.class, "ordensDeServico.json");
+            new RepositorioJson<>(OrdemDeServico.class, "ordensDeServico.json", OrdemDeServico::getId);
+    private final ContadorModificacoes alteracoes = new ContadorModificacoes();
 
     /**
      * Construtor com injeção de dependência.
@@ -37,6 +49,8 @@ public class ServicoOrdemServico {
     public ServicoOrdemServico(GerenciarAgendamento gerenciarAgendamento, GerenciarVenda gerenciarVenda) {
         this.gerenciarAgendamento = gerenciarAgendamento;
         this.gerenciarVenda = gerenciarVenda;
+        repoOS.setGravacaoAdiada(GravacaoAdiada.padrao());
+        Metricas.padrao().medidor("ordensDeServico.registros", this, s -> s.ordensDeServico.size());
         this.carregar(); // Carrega as OS na inicialização
     }
 
@@ -51,37 +65,52 @@ public class ServicoOrdemServico {
      * Carrega (ou recarrega) todas as ordens de serviço do arquivo JSON.
      */
     public void carregar() {
-        ordensDeServico = repoOS.buscarTodos();
-        if (ordensDeServico == null) {
-            ordensDeServico = new ArrayList<>();
-            return;
-        }
-        if (!ordensDeServico.isEmpty()) {
-            int maiorId = ordensDeServico.stream()
-                    .mapToInt(OrdemDeServico::getId)
-                    .max()
-                    .orElse(0);
-            OrdemDeServico.atualizarContador(maiorId);
+        long inicio = TEMPO_CARREGAR.iniciar();
+        try {
+            ordensDeServico = repoOS.buscarTodos();
+            alteracoes.marcarSalvo();
+            if (ordensDeServico == null) {
+                ordensDeServico = new ArrayList<>();
+                return;
+            }
+            if (!ordensDeServico.isEmpty()) {
+                int maiorId = ordensDeServico.stream()
+                        .mapToInt(OrdemDeServico::getId)
+                        .max()
+                        .orElse(0);
+                OrdemDeServico.atualizarContador(maiorId);
+            }
+        } finally {
+            TEMPO_CARREGAR.registrarDesde(inicio);
         }
     }
 
     /**
      * Salva a lista de ordens de serviço atualmente em memória no arquivo JSON.
+     * Não faz nada se a lista não foi alterada desde a última leitura ou
+     * gravação (ver {@link ContadorModificacoes}).
      */
     public void salvarTodos(){
-        repoOS.salvarTodos(ordensDeServico);
+        if (alteracoes.deveSalvar()) {
+            long inicio = TEMPO_SALVAR.iniciar();
+            repoOS.salvarTodos(ordensDeServico);
+            alteracoes.marcarSalvo();
+            TEMPO_SALVAR.registrarDesde(inicio);
+        }
     }
 
     /**
-     * Adiciona uma lista de novas ordens de serviço à lista em memória e persiste
-     * imediatamente a lista atualizada no arquivo JSON.
+     * Adiciona uma lista de novas ordens de serviço à lista em memória e salva
+     * a lista atualizada. A gravação do arquivo é adiada ({@link GravacaoAdiada}),
+     * então vários relatórios seguidos resultam em uma só gravação.
      *
      * @param oss A lista de {@link OrdemDeServico} a ser adicionada e salva.
      */
     public void adicionarTodos(List<OrdemDeServico> oss) {
         if (oss != null && !oss.isEmpty()) {
             ordensDeServico.addAll(oss);
-            salvarTodos(); // Persiste a cada adição
+            alteracoes.registrar();
+            salvarTodos(); // Salva a cada adição; a gravação é agrupada
         }
     }
 
@@ -139,14 +168,18 @@ public class ServicoOrdemServico {
 
         if (!novasOS.isEmpty()) {
             this.adicionarTodos(novasOS);
-            System.out.println(novasOS.size() + " Ordem(s) de Serviço gerada(s) e salva(s) em 'ordensDeServico.json'.");
+            LOG.info(() -> novasOS.size() + " Ordem(s) de Serviço gerada(s) e salva(s) em 'ordensDeServico.json'.");
         } else {
-            System.out.println("Nenhuma Ordem de Serviço gerada a partir do Agendamento.");
+            LOG.info("Nenhuma Ordem de Serviço gerada a partir do Agendamento.");
         }
     }
 
     public List<Agendamento> buscarAgendamentosPorData(String data) {
         gerenciarAgendamento.carregar();
+        DataHora.Periodo periodo = DataHora.periodo(data);
+        if (periodo != null && !data.isBlank()) {
+            return gerenciarAgendamento.buscarPorPeriodo(periodo);
+        }
         return gerenciarAgendamento.listarAgendamentosOrdenadosPorData().stream()
                 .filter(ag -> ag.getDataHora() != null && ag.getDataHora().contains(data))
                 .collect(Collectors.toList());
@@ -155,35 +188,33 @@ public class ServicoOrdemServico {
     public List<Agendamento> buscarAgendamentosPorCliente(int clienteId) {
         gerenciarAgendamento.carregar();
         return gerenciarAgendamento.listarAgendamentosOrdenadosPorData().stream()
-                .filter(ag -> ag.getCliente() != null && ag.getCliente().getId() == clienteId)
+                .filter(ag -> ag.getClienteId() == clienteId)
                 .collect(Collectors.toList());
     }
 
     public List<Venda> buscarVendasPorCliente(int clienteId) {
         gerenciarVenda.carregar();
         return gerenciarVenda.listar().stream()
-                .filter(venda -> venda.getCliente() != null && venda.getCliente().getId() == clienteId)
+                .filter(venda -> venda.getClienteId() == clienteId)
                 .collect(Collectors.toList());
     }
 
     /**
      * Imprime no console as Ordens de Serviço (na nova estrutura)
-     * para uma data específica, carregando do JSON.
+     * para uma data específica, lendo o JSON em fluxo: apenas as OS
+     * cuja {@code dataDoServico} pertence ao período do filtro são convertidas.
      */
     public void imprimirPorData(String data) {
-        carregar();
-        List<OrdemDeServico> todasOS = listar();
-
         System.out.println("=== RELATÓRIO DE ORDENS DE SERVIÇO POR DATA (" + data + ") ===");
 
-        List<OrdemDeServico> ossFiltradas = todasOS.stream()
-                .filter(os -> os.getDataDoServico() != null && os.getDataDoServico().contains(data))
-                .collect(Collectors.toList());
+        int[] encontradas = {0};
+        repoOS.percorrer("dataDoServico", DataHora.filtroDeTexto(data), os -> {
+            System.out.println(os);
+            encontradas[0]++;
+        });
 
-        if (ossFiltradas.isEmpty()) {
+        if (encontradas[0] == 0) {
             System.out.println("Nenhuma Ordem de Serviço encontrada para o filtro: " + data);
-        } else {
-            ossFiltradas.forEach(System.out::println);
         }
     }
 
@@ -209,4 +240,13 @@ public class ServicoOrdemServico {
             novasOS.forEach(System.out::println);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o contador de alterações das ordens de serviço, para monitoramento.
+     *
+     * @return O {@link ContadorModificacoes} deste gerenciador.
+     */
+    public ContadorModificacoes getAlteracoes() {
+        return alteracoes;
+    }
+}
@@ -3,6 +3,8 @@ package xela.chris.barbearia.servicos;
 import xela.chris.barbearia.Gerenciadores.GerenciadorProduto;
 import xela.chris.barbearia.Gerenciadores.GerenciarVenda;
 import xela.chris.barbearia.Gerenciadores.GerenciarCliente;
+import xela.chris.barbearia.metricas.Metricas;
+import xela.chris.barbearia.metricas.Temporizador;
 
 import xela.chris.barbearia.models.Produto;
 import xela.chris.barbearia.models.Cliente;
@@ -32,6 +34,8 @@ import java.time.LocalDate;
  */
 public class ServicoVenda {
 
+    private static final Temporizador TEMPO_VENDA = Metricas.padrao().temporizador("vendas.efetuar");
+
     /** Gerenciador responsável por manipular os produtos. */
     private final GerenciadorProduto gerenciadorProduto;
 
@@ -50,8 +54,8 @@ public class ServicoVenda {
      */
     public ServicoVenda() {
         this.gerenciadorProduto = new GerenciadorProduto();
-        this.gerenciarVenda = new GerenciarVenda();
         this.gerenciarCliente = new GerenciarCliente();
+        this.gerenciarVenda = new GerenciarVenda(gerenciadorProduto, gerenciarCliente);
     }
 
     /**
@@ -103,36 +107,36 @@ public class ServicoVenda {
      *         o produto não existam, ou não haja estoque suficiente
      */
     public boolean efetuarVenda(int clienteId, int produtoId, int quantidade, String dataVenda) {
-        // Carrega e busca o cliente
-        gerenciarCliente.carregar();
-        Cliente cliente = gerenciarCliente.buscarCliente(clienteId);
-        if (cliente == null) {
-            return false;
-        }
-
-        // Carrega e busca o produto
-        gerenciadorProduto.carregar();
-        Produto produto = gerenciadorProduto.buscarPorId(produtoId);
-        if (produto == null) {
-            return false;
-        }
-
-        // Atualiza estoque
-        if (!gerenciadorProduto.atualizarEstoque(produtoId, quantidade)) {
-            return false;
+        long inicio = TEMPO_VENDA.iniciar();
+        try {
+            // Carrega e busca o cliente
+            gerenciarCliente.carregar();
+            Cliente cliente = gerenciarCliente.buscarCliente(clienteId);
+            if (cliente == null) {
+                return false;
+            }
+
+            // Carrega e busca o produto
+            gerenciadorProduto.carregar();
+            Produto produto = gerenciadorProduto.buscarPorId(produtoId);
+            if (produto == null) {
+                return false;
+            }
+
+            // Atualiza estoque
+            if (!gerenciadorProduto.atualizarEstoque(produtoId, quantidade)) {
+                return false;
+            }
+
+            // Cria a venda; registrar() confirma o ID com os outros terminais e
+            // acrescenta a venda ao journal da partição do mês
+            Venda venda = new Venda(produto, cliente, quantidade, dataVenda);
+            gerenciarVenda.registrar(venda);
+
+            return true;
+        } finally {
+            TEMPO_VENDA.registrarDesde(inicio);
         }
-
-        // Carrega vendas atuais
-        gerenciarVenda.carregar();
-
-        // Cria e adiciona a venda
-        Venda venda = new Venda(produto, cliente, quantidade, dataVenda);
-        gerenciarVenda.adicionar(venda);
-
-        // Agora a venda é persistida em vendas.json antes de qualquer novo carregar()
-        gerenciarVenda.salvarTodasVendas();
-
-        return true;
     }
 
     /**